@@ -1,5 +1,6 @@
 package ch.epfl.chacun;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
@@ -22,13 +23,58 @@ public class ActionEncoder {
      * Enregristrement qui représente une paire constituée d'un état de jeu résultant de l'application d'une action
      * à un état de jeu initial, et d'une chaîne de caractère qui est l'encodage, en base32, de cette action
      */
-    public record StateAction (GameState gameState, String actionString) {}
+    public record StateAction (GameState gameState, String actionString) {
+
+        /**
+         * Méthode qui retourne les changements apportés par l'action à l'état de jeu donné, calculés à la demande
+         * @param oldState l'état de jeu auquel l'action a été appliquée
+         * @return les changements entre l'état de jeu donné et l'état de jeu résultant de l'action
+         * @throws IllegalArgumentException si l'état de jeu résultant ne prolonge pas l'état de jeu donné
+         */
+        public GameStateChange changeFrom(GameState oldState) {
+            return GameStateChange.between(oldState, gameState);
+        }
+    }
+
+    /**
+     * Enregistrement qui représente une partie empaquetée décodée : la liste de ses actions, et l'état de jeu obtenu
+     * après la dernière d'entre elles
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @param gameState l'état de jeu obtenu après la dernière action
+     */
+    public record UnpackedActions(List<String> actionStrings, GameState gameState) {
+
+        /**
+         * Constructeur compact qui copie la liste des actions pour garantir l'immuabilité
+         * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+         * @param gameState l'état de jeu obtenu après la dernière action
+         */
+        public UnpackedActions {
+            actionStrings = List.copyOf(actionStrings);
+        }
+    }
 
     /**
      * L'encodage, en base32, correspondant au cas où une action (OCCUPY_TILE ou RETAKE_PAWN) est sautée
      */
     private final static int PASS_ACTION = 0b11111;
 
+    /**
+     * La version de l'encodage de longueur variable des actions, utilisée pour les actions dont la valeur ne tient pas
+     * dans l'encodage historique de 1 ou 2 caractères, ainsi que pour les parties empaquetées
+     */
+    public final static int VARIABLE_LENGTH_VERSION = 1;
+
+    /**
+     * Le caractère d'en-tête des actions encodées avec la version de longueur variable
+     */
+    private final static char VARIABLE_LENGTH_HEADER = Base32.ALPHABET.charAt(VARIABLE_LENGTH_VERSION);
+
+    /**
+     * La plus grande valeur de pose de tuile représentable par l'encodage historique (sur 10 bits)
+     */
+    private final static int MAX_LEGACY_PLACEMENT = (1 << 10) - 1;
+
     /**
      * Méthode qui retourne une paire de type StateAction, constituée d'un état de jeu résultant de l'application
      * de la pose d'une tuile à l'état de jeu donné, et d'une chaîne de caractère qui est l'encodage, en base32,
@@ -43,7 +89,7 @@ public class ActionEncoder {
 
         GameState newGameState = gameState.withPlacedTile(placedTile);
 
-        List <Pos> sortedFringe = sortedFringe(gameState);
+        List <Pos> sortedFringe = sortedFringe(gameState.board().insertionPositions());
         Pos tilePos = placedTile.pos();
 
         int indexInFringe = sortedFringe.indexOf(tilePos);
@@ -51,7 +97,7 @@ public class ActionEncoder {
 
         int value = (indexInFringe << 2) | rotationNumber;
 
-        String actionString = Base32.encodeBits10(value);
+        String actionString = actionString(GameState.Action.PLACE_TILE, value);
 
         return new StateAction (newGameState, actionString);
     }
@@ -70,17 +116,14 @@ public class ActionEncoder {
 
         GameState newGameState = gameState.withNewOccupant(occupant);
 
-        int value;
+        int token = 0;
         if (occupant != null) {
             int occupantKindNumber = occupant.kind().ordinal();
             int occupantZoneNumber = Zone.localId(occupant.zoneId());
-            value = (occupantKindNumber << 4) | occupantZoneNumber;
-
-        } else {
-            value = PASS_ACTION;
+            token = ((occupantKindNumber << 4) | occupantZoneNumber) + 1;
         }
 
-        String actionString = Base32.encodeBits5(value);
+        String actionString = actionString(GameState.Action.OCCUPY_TILE, token);
 
         return new StateAction (newGameState, actionString);
     }
@@ -99,17 +142,14 @@ public class ActionEncoder {
 
         GameState newGameState = gameState.withOccupantRemoved(occupant);
 
-        int value;
+        int token = 0;
 
         if (occupant != null) {
-            List<Occupant> sortedPawns = sortedPawns(gameState);
-            value = sortedPawns.indexOf(occupant);
-        }
-        else {
-            value = PASS_ACTION;
+            List<Occupant> sortedPawns = sortedPawns(gameState.board().occupants());
+            token = sortedPawns.indexOf(occupant) + 1;
         }
 
-        String actionString = Base32.encodeBits5(value);
+        String actionString = actionString(GameState.Action.RETAKE_PAWN, token);
 
         return new StateAction (newGameState, actionString);
     }
@@ -135,6 +175,172 @@ public class ActionEncoder {
 
     }
 
+    /**
+     * Méthode qui retourne l'état de jeu obtenu en appliquant successivement, à partir de l'état de jeu donné, toutes
+     * les actions données, ou null si l'une d'elles n'est pas valide ; aucun état de jeu intermédiaire n'est construit,
+     * ce qui rend cette méthode bien plus rapide que l'application des actions une à une, par exemple pour charger une
+     * partie sauvegardée
+     * @param gameState l'état de jeu donné
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @return l'état de jeu obtenu après la dernière action, ou null si l'une des actions n'est pas valide
+     */
+    public static GameState decodeAndApplyAll(GameState gameState, List<String> actionStrings) {
+
+        if (actionStrings.isEmpty())
+            return gameState;
+
+        List<GameState> checkpoints = decodeAndApplyAll(gameState, actionStrings, actionStrings.size());
+
+        return checkpoints == null ? null : checkpoints.getLast();
+    }
+
+    /**
+     * Méthode qui applique successivement, à partir de l'état de jeu donné, toutes les actions données, et retourne
+     * la liste des états de jeu obtenus toutes les checkpointInterval actions, ainsi qu'après la dernière action,
+     * ou null si l'une des actions n'est pas valide ; seuls ces états de jeu sont construits
+     * @param gameState l'état de jeu donné
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @param checkpointInterval le nombre d'actions séparant deux états de jeu retournés
+     * @return la liste des états de jeu obtenus toutes les checkpointInterval actions et après la dernière action,
+     * ou null si l'une des actions n'est pas valide
+     * @throws IllegalArgumentException si l'intervalle donné n'est pas strictement positif
+     */
+    public static List<GameState> decodeAndApplyAll(GameState gameState, List<String> actionStrings,
+                                                    int checkpointInterval) {
+
+        Preconditions.checkArgument(checkpointInterval > 0);
+
+        try {
+            GameState.Builder builder = new GameState.Builder(gameState);
+            List<GameState> checkpoints = new ArrayList<>(actionStrings.size() / checkpointInterval + 1);
+
+            for (int i = 0; i < actionStrings.size(); i++) {
+                int token = checkedToken(builder.nextAction(), actionStrings.get(i));
+                Preconditions.checkArgument(applyToken(builder, token));
+
+                if ((i + 1) % checkpointInterval == 0 || i == actionStrings.size() - 1)
+                    checkpoints.add(builder.build());
+            }
+
+            return checkpoints;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Méthode qui retourne la chaîne de caractères représentant une partie entière, soit, l'encodage empaqueté de la
+     * liste d'actions donnée : un en-tête de version, le nombre d'actions, puis la valeur de chaque action, tous
+     * encodés en base32 avec une longueur variable
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @return l'encodage empaqueté de la liste d'actions donnée
+     * @throws IllegalArgumentException si l'une des actions données n'est pas un encodage valide
+     */
+    public static String pack(List<String> actionStrings) {
+
+        StringBuilder packed = new StringBuilder()
+                .append(VARIABLE_LENGTH_HEADER)
+                .append(Base32.encodeVarint(actionStrings.size()));
+
+        for (String actionString : actionStrings) {
+            Preconditions.checkArgument(!actionString.isEmpty() && Base32.isValid(actionString));
+            packed.append(Base32.encodeVarint(token(actionString)));
+        }
+
+        return packed.toString();
+    }
+
+    /**
+     * Méthode qui retourne la liste des paires de type StateAction obtenues en appliquant successivement, à partir de
+     * l'état de jeu donné, les actions de la partie empaquetée donnée, ou null si celle-ci n'est pas valide
+     * @param gameState l'état de jeu donné
+     * @param packedActions la chaîne de caractères représentant l'encodage empaqueté d'une liste d'actions
+     * @return la liste des paires de type StateAction, dont les chaînes de caractères sont l'encodage en base32 de
+     * chacune des actions, ou null si la partie empaquetée n'est pas valide
+     */
+    public static List<StateAction> decodeAndApplyPacked(GameState gameState, String packedActions) {
+
+        try {
+            int[] tokens = packedTokens(packedActions);
+            List<StateAction> stateActions = new ArrayList<>(tokens.length);
+            GameState currentState = gameState;
+
+            for (int token : tokens) {
+                String actionString = actionString(currentState.nextAction(), token);
+                GameState newGameState = applyToken(currentState, token);
+                Preconditions.checkArgument(newGameState != null);
+
+                stateActions.add(new StateAction(newGameState, actionString));
+                currentState = newGameState;
+            }
+
+            return stateActions;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Méthode qui applique successivement, à partir de l'état de jeu donné, les actions de la partie empaquetée
+     * donnée, et retourne ces actions ainsi que l'état de jeu obtenu après la dernière, ou null si la partie
+     * empaquetée n'est pas valide ; comme pour decodeAndApplyAll, aucun état de jeu intermédiaire n'est construit
+     * @param gameState l'état de jeu donné
+     * @param packedActions la chaîne de caractères représentant l'encodage empaqueté d'une liste d'actions
+     * @return les actions, encodées en base32, et l'état de jeu obtenu après la dernière, ou null si la partie
+     * empaquetée n'est pas valide
+     */
+    public static UnpackedActions decodeAndApplyPackedAll(GameState gameState, String packedActions) {
+
+        try {
+            int[] tokens = packedTokens(packedActions);
+            if (tokens.length == 0)
+                return new UnpackedActions(List.of(), gameState);
+
+            GameState.Builder builder = new GameState.Builder(gameState);
+            List<String> actionStrings = new ArrayList<>(tokens.length);
+
+            for (int token : tokens) {
+                actionStrings.add(actionString(builder.nextAction(), token));
+                Preconditions.checkArgument(applyToken(builder, token));
+            }
+
+            return new UnpackedActions(actionStrings, builder.build());
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Méthode qui retourne les valeurs des actions de la partie empaquetée donnée, indépendantes de leur encodage
+     * @param packedActions la chaîne de caractères représentant l'encodage empaqueté d'une liste d'actions
+     * @return les valeurs des actions de la partie empaquetée, dans l'ordre
+     * @throws IllegalArgumentException si l'en-tête, le nombre d'actions ou l'une des valeurs n'est pas valide, ou si
+     * la chaîne contient des caractères au-delà de la dernière action
+     */
+    private static int[] packedTokens(String packedActions) {
+
+        Preconditions.checkArgument(!packedActions.isEmpty() && packedActions.charAt(0) == VARIABLE_LENGTH_HEADER);
+
+        int index = 1;
+        int actionCount = Base32.decodeVarint(packedActions, index);
+        index += Base32.varintLength(packedActions, index);
+        //CHAQUE ACTION OCCUPE AU MOINS UN CARACTERE : LE NOMBRE LU NE PEUT DONC PAS DICTER L'ALLOCATION
+        Preconditions.checkArgument(actionCount >= 0 && actionCount <= packedActions.length() - index);
+
+        int[] tokens = new int[actionCount];
+        for (int i = 0; i < actionCount; i++) {
+            tokens[i] = Base32.decodeVarint(packedActions, index);
+            index += Base32.varintLength(packedActions, index);
+        }
+
+        Preconditions.checkArgument(index == packedActions.length());
+
+        return tokens;
+    }
+
     /**
      * Méthode qui retourne une paire de type StateAction, constituée de l'état de jeu résultant de l'application
      * d'une action donnée à l'état de jeu donné, et de la chaîne de caractères représentant l'encodage en base32,
@@ -147,80 +353,132 @@ public class ActionEncoder {
     private static StateAction decodeOrThrow(GameState gameState, String actionString)
             throws IllegalArgumentException {
 
+        int token = checkedToken(gameState.nextAction(), actionString);
+
+        return new StateAction(applyToken(gameState, token), actionString);
+    }
+
+    /**
+     * Méthode qui retourne la valeur de l'action représentée par la chaîne de caractères donnée, après avoir vérifié
+     * que sa longueur correspond à la prochaine action donnée
+     * @param nextAction la prochaine action
+     * @param actionString la chaîne de caractère représentant l'encodage en base32, d'une action donnée
+     * @return la valeur de l'action représentée par la chaîne de caractères donnée
+     * @throws IllegalArgumentException si la chaîne de caractères n'est pas un encodage valide pour la prochaine
+     * action donnée, ou n'est pas l'unique encodage de sa valeur (voir la méthode actionString)
+     */
+    private static int checkedToken(GameState.Action nextAction, String actionString) {
+
         Preconditions.checkArgument(Base32.isValid(actionString));
 
-        int action = Base32.decode(actionString);
         int strLength = actionString.length();
 
-        GameState newGameState = null;
+        switch (nextAction) {
+            case PLACE_TILE -> Preconditions.checkArgument(strLength != 1);
+            case OCCUPY_TILE, RETAKE_PAWN -> Preconditions.checkArgument(strLength != 2);
+            default -> throw new IllegalArgumentException();
+        }
 
-        switch (gameState.nextAction()) {
+        int token = token(actionString);
 
-            case PLACE_TILE -> {
+        //L'ENCODAGE DE LONGUEUR VARIABLE N'EST ADMIS QUE POUR LES VALEURS QUI NE TIENNENT PAS DANS L'ENCODAGE HISTORIQUE
+        if (strLength > 2)
+            Preconditions.checkArgument(token > maxLegacyToken(nextAction));
 
-                Preconditions.checkArgument(strLength == 2);
+        return token;
+    }
+
+    /**
+     * Méthode qui retourne l'état de jeu résultant de l'application de l'action de valeur donnée à l'état de jeu
+     * donné, ou null si l'occupant désigné par cette valeur n'est pas un occupant potentiel de la dernière tuile posée
+     * @param gameState l'état de jeu donné
+     * @param token la valeur de l'action, indépendante de son encodage (voir la méthode token)
+     * @return l'état de jeu résultant de l'application de l'action de valeur donnée à l'état de jeu donné
+     * @throws IllegalArgumentException si la valeur de l'action n'est pas valide pour l'état de jeu donné
+     */
+    static GameState applyToken(GameState gameState, int token) {
+
+        GameState.Builder builder = new GameState.Builder(gameState);
+
+        return applyToken(builder, token) ? builder.build() : null;
+    }
+
+    /**
+     * Méthode qui applique l'action de valeur donnée à l'état de jeu en cours de construction par le bâtisseur donné
+     * @param builder le bâtisseur donné
+     * @param token la valeur de l'action, indépendante de son encodage (voir la méthode token)
+     * @return faux ssi l'occupant désigné par cette valeur n'est pas un occupant potentiel de la dernière tuile posée,
+     * auquel cas le bâtisseur n'est pas modifié
+     * @throws IllegalArgumentException si la valeur de l'action n'est pas valide pour l'état de jeu en cours de
+     * construction
+     */
+    private static boolean applyToken(GameState.Builder builder, int token) {
+
+        switch (builder.nextAction()) {
+
+            case PLACE_TILE -> {
 
-                int posIndex = (action >> 2);
-                List<Pos> sortedFringe = sortedFringe(gameState);
+                int posIndex = (token >> 2);
+                List<Pos> sortedFringe = sortedFringe(builder.board().insertionPositions());
                 Preconditions.checkArgument(posIndex>=0 && posIndex < sortedFringe.size());
 
                 Pos tilePos = sortedFringe.get(posIndex);
 
-                int rotationNumber = nLowestBits(2, action);
+                int rotationNumber = nLowestBits(2, token);
                 Rotation tileRotation = Rotation.ALL.get(rotationNumber);
 
-                PlacedTile placedTile = new PlacedTile(gameState.tileToPlace(), gameState.currentPlayer(),
-                        tileRotation, tilePos, null);
+                builder.placeTile(new PlacedTile(builder.tileToPlace(), builder.currentPlayer(), tileRotation,
+                        tilePos, null));
 
-                newGameState = gameState.withPlacedTile(placedTile);
-
-                return new StateAction(newGameState, actionString);
+                return true;
             }
 
             case OCCUPY_TILE -> {
 
-                Preconditions.checkArgument(strLength == 1);
-
-                if (action == PASS_ACTION)
-                    newGameState = gameState.withNewOccupant(null);
+                if (token == 0) {
+                    builder.addOccupant(null);
+                    return true;
+                }
 
-                else {
-                    int localId = nLowestBits(4, action);
-                    int occupantKindIndex = (action >> 4);
+                int value = token - 1;
+                int localId = nLowestBits(4, value);
+                int occupantKindIndex = (value >> 4);
+                Preconditions.checkArgument(occupantKindIndex < Occupant.Kind.values().length);
 
-                    for (Occupant occupant : gameState.lastTilePotentialOccupants()) {
-                        if ( (Zone.localId(occupant.zoneId()) == localId) &&
-                                (occupant.kind() == Occupant.Kind.values()[occupantKindIndex]) )
-                            newGameState = gameState.withNewOccupant(occupant);
+                for (Occupant occupant : builder.lastTilePotentialOccupants()) {
+                    if ( (Zone.localId(occupant.zoneId()) == localId) &&
+                            (occupant.kind() == Occupant.Kind.values()[occupantKindIndex]) ) {
+                        builder.addOccupant(occupant);
+                        return true;
                     }
                 }
 
-                return new StateAction(newGameState, actionString);
+                return false;
             }
 
             case RETAKE_PAWN -> {
 
-                Preconditions.checkArgument(strLength == 1);
+                if (token == 0) {
+                    builder.removeOccupant(null);
+                    return true;
+                }
 
-                if (action == PASS_ACTION)
-                    newGameState = gameState.withOccupantRemoved(null);
-                else {
-                    List<Occupant> sortedPawns = sortedPawns(gameState);
-                    Preconditions.checkArgument(action>=0 && action < sortedPawns.size());
+                int pawnIndex = token - 1;
+                List<Occupant> sortedPawns = sortedPawns(builder.board().occupants());
+                Preconditions.checkArgument(pawnIndex < sortedPawns.size());
 
-                    Occupant occupant = sortedPawns.get(action);
+                Occupant occupant = sortedPawns.get(pawnIndex);
 
-                    int occupantTileId = Zone.tileId(occupant.zoneId());
-                    PlacedTile occupantTile = gameState.board().tileWithId(occupantTileId);
+                int occupantTileId = Zone.tileId(occupant.zoneId());
+                PlacedTile occupantTile = builder.board().tileWithId(occupantTileId);
 
-                    if (occupant.kind() != Occupant.Kind.PAWN
-                            || occupantTile.placer() != gameState.currentPlayer())
-                        throw new IllegalArgumentException();
+                if (occupant.kind() != Occupant.Kind.PAWN
+                        || occupantTile.placer() != builder.currentPlayer())
+                    throw new IllegalArgumentException();
 
-                    newGameState = gameState.withOccupantRemoved(occupant);
-                }
+                builder.removeOccupant(occupant);
 
-                return new StateAction(newGameState, actionString);
+                return true;
             }
 
             default -> throw new IllegalArgumentException();
@@ -229,13 +487,87 @@ public class ActionEncoder {
     }
 
     /**
-     * Méthode qui retourne une liste contenant les positions d'insertions disponibles (de la frange) de l'état de
-     * jeu donné, triées dans l'ordre croissant, d'abord selon leur coordonnée x, puis selon leur coordonnée y
-     * @param gameState l'état de jeu donné
+     * Méthode qui retourne la valeur, indépendante de son encodage, de l'action représentée par la chaîne de
+     * caractères donnée ; pour une pose de tuile, il s'agit de l'index de la position dans la frange triée, décalé de
+     * 2 bits, combiné au nombre de quarts de tours de la rotation ; pour une occupation ou une reprise de pion, il
+     * s'agit de 0 si l'action est sautée, et sinon de la valeur de l'occupant ou de l'index du pion, plus 1
+     * @param actionString la chaîne de caractères donnée, encodée en base32 (historique ou de longueur variable)
+     * @return la valeur de l'action représentée par la chaîne de caractères donnée
+     * @throws IllegalArgumentException si la chaîne de caractères donnée n'est pas un encodage valide
      */
-    private static List <Pos> sortedFringe (GameState gameState) {
-        Set <Pos> fringe = gameState.board().insertionPositions();
+    static int token(String actionString) {
+
+        switch (actionString.length()) {
+
+            case 1 -> {
+                int value = Base32.decode(actionString);
+                return value == PASS_ACTION ? 0 : value + 1;
+            }
+
+            case 2 -> {
+                return Base32.decode(actionString);
+            }
+
+            default -> {
+                Preconditions.checkArgument(actionString.charAt(0) == VARIABLE_LENGTH_HEADER);
+                Preconditions.checkArgument(Base32.varintLength(actionString, 1) == actionString.length() - 1);
+                return Base32.decodeVarint(actionString, 1);
+            }
+        }
+    }
+
+    /**
+     * Méthode qui retourne la chaîne de caractères représentant l'encodage en base32 de l'action de valeur donnée,
+     * pour la prochaine action donnée ; l'encodage historique de 1 ou 2 caractères est utilisé lorsque la valeur y
+     * tient, et l'encodage de longueur variable, de 3 caractères au moins, sinon
+     * @param nextAction la prochaine action, qui détermine la sorte de l'action
+     * @param token la valeur de l'action, indépendante de son encodage (voir la méthode token)
+     * @return la chaîne de caractères représentant l'encodage en base32 de l'action de valeur donnée
+     * @throws IllegalArgumentException si la prochaine action donnée ne correspond à aucune action encodable
+     */
+    static String actionString(GameState.Action nextAction, int token) {
+
+        return switch (nextAction) {
 
+            case PLACE_TILE -> token <= MAX_LEGACY_PLACEMENT
+                    ? Base32.encodeBits10(token)
+                    : variableLengthActionString(token);
+
+            case OCCUPY_TILE, RETAKE_PAWN -> token <= PASS_ACTION
+                    ? Base32.encodeBits5(token == 0 ? PASS_ACTION : token - 1)
+                    : variableLengthActionString(token);
+
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Méthode qui retourne la plus grande valeur d'action représentable par l'encodage historique de 1 ou 2
+     * caractères, pour la prochaine action donnée ; seules les valeurs plus grandes ont un encodage de longueur
+     * variable
+     * @param nextAction la prochaine action, qui détermine la sorte de l'action
+     * @return la plus grande valeur représentable par l'encodage historique pour la prochaine action donnée
+     */
+    static int maxLegacyToken(GameState.Action nextAction) {
+        return nextAction == GameState.Action.PLACE_TILE ? MAX_LEGACY_PLACEMENT : PASS_ACTION;
+    }
+
+    /**
+     * Méthode qui retourne la chaîne de caractères représentant l'encodage de longueur variable de l'action de valeur
+     * donnée, quelle que soit sa sorte
+     * @param token la valeur de l'action, indépendante de son encodage (voir la méthode token)
+     * @return la chaîne de caractères représentant l'encodage de longueur variable de l'action de valeur donnée
+     */
+    static String variableLengthActionString(int token) {
+        return VARIABLE_LENGTH_HEADER + Base32.encodeVarint(token);
+    }
+
+    /**
+     * Méthode qui retourne une liste contenant les positions d'insertions disponibles (de la frange) données,
+     * triées dans l'ordre croissant, d'abord selon leur coordonnée x, puis selon leur coordonnée y
+     * @param fringe les positions d'insertion données
+     */
+    private static List <Pos> sortedFringe (Set <Pos> fringe) {
         return fringe.stream()
                 .sorted(Comparator.comparingInt(Pos::x)
                         .thenComparingInt(Pos::y))
@@ -243,14 +575,11 @@ public class ActionEncoder {
     }
 
     /**
-     * Méthode qui retourne une liste contenant les pions du plateau de l'état de jeu donné,
+     * Méthode qui retourne une liste contenant les pions parmi les occupants du plateau donnés,
      * triés par ordre croissant selon l'identifiant de la zone qu'ils occupent
-     * @param gameState l'état de jeu donné
+     * @param allOccupants les occupants du plateau donnés
      */
-    private static List <Occupant> sortedPawns(GameState gameState) {
-
-        Set <Occupant> allOccupants = gameState.board().occupants();
-
+    private static List <Occupant> sortedPawns(Set <Occupant> allOccupants) {
         return allOccupants.stream()
                 .filter(o -> o.kind() == Occupant.Kind.PAWN)
                 .sorted(Comparator.comparingInt(Occupant::zoneId))
@@ -0,0 +1,355 @@
+package ch.epfl.chacun;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe qui permet d'encoder et de décoder des journaux binaires d'actions, destinés à l'archivage de parties, et de
+ * les rejouer sans passer par la représentation en base32 des actions.
+ * Un journal est constitué d'un en-tête (la version sur un octet, puis la taille du corps sur 4 octets) suivi d'un
+ * corps contenant le nombre d'actions puis chacune des actions, toutes représentées par un entier de longueur
+ * variable (7 bits par octet, des poids faibles aux poids forts, le bit de poids fort indiquant qu'un autre octet suit)
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class ActionLog {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private ActionLog() {}
+
+    /**
+     * La version du format des journaux binaires
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * La taille, en octets, de l'en-tête d'un journal (version et taille du corps)
+     */
+    private static final int HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+    /**
+     * Les formes que peut avoir la représentation en base32 d'une action, stockées dans les bits de poids faible de
+     * chaque entrée du journal afin que la conversion vers cette représentation soit sans perte : 1 caractère,
+     * 2 caractères ou longueur variable
+     */
+    private static final int SHORT_FORM = 0;
+    private static final int LONG_FORM = 1;
+    private static final int VARIABLE_LENGTH_FORM = 2;
+    private static final int FORM_BITS = 2;
+
+    /**
+     * Méthode qui retourne le journal binaire correspondant à la liste d'actions donnée
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @return le journal binaire correspondant à la liste d'actions donnée, prêt à être lu
+     * @throws IllegalArgumentException si l'une des actions données n'est pas un encodage valide
+     */
+    public static ByteBuffer encode(List<String> actionStrings) {
+
+        int[] entries = new int[actionStrings.size()];
+        int bodySize = varintSize(entries.length);
+
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = entry(actionStrings.get(i));
+            bodySize += varintSize(entries[i]);
+        }
+
+        ByteBuffer log = ByteBuffer.allocate(HEADER_SIZE + bodySize)
+                .put(VERSION)
+                .putInt(bodySize);
+
+        putVarint(log, entries.length);
+        for (int entry : entries)
+            putVarint(log, entry);
+
+        return log.flip();
+    }
+
+    /**
+     * Méthode qui retourne la liste des actions du journal binaire commençant à la position courante du tampon donné,
+     * et avance cette position jusqu'à la fin du journal
+     * @param log le tampon contenant le journal
+     * @return la liste des chaînes de caractères représentant l'encodage en base32 des actions du journal
+     * @throws IllegalArgumentException si le journal n'est pas valide
+     */
+    public static List<String> decode(ByteBuffer log) {
+
+        ByteBuffer body = body(log);
+        int actionCount = getVarint(body);
+
+        List<String> actionStrings = new ArrayList<>(Math.min(actionCount, body.remaining()));
+
+        for (int i = 0; i < actionCount; i++)
+            actionStrings.add(actionString(getVarint(body)));
+
+        Preconditions.checkArgument(!body.hasRemaining());
+
+        return actionStrings;
+    }
+
+    /**
+     * Méthode qui retourne la liste des états de jeu obtenus en appliquant successivement, à partir de l'état de jeu
+     * donné, les actions du journal binaire commençant à la position courante du tampon donné, ou null si le journal
+     * n'est pas valide ; les actions sont appliquées directement à partir de leur valeur, sans passer par leur
+     * représentation en base32
+     * @param gameState l'état de jeu donné
+     * @param log le tampon contenant le journal
+     * @return la liste des états de jeu obtenus après chacune des actions du journal, ou null si le journal n'est pas
+     * valide
+     */
+    public static List<GameState> decodeAndApplyAll(GameState gameState, ByteBuffer log) {
+
+        try {
+            ByteBuffer body = body(log);
+            int actionCount = getVarint(body);
+
+            List<GameState> gameStates = new ArrayList<>(Math.min(actionCount, body.remaining()));
+            GameState currentState = gameState;
+
+            for (int i = 0; i < actionCount; i++) {
+                int entry = getVarint(body);
+                int form = entry & ((1 << FORM_BITS) - 1);
+                int token = entry >>> FORM_BITS;
+                boolean isPlacement = currentState.nextAction() == GameState.Action.PLACE_TILE;
+
+                //SEULE LA FORME CANONIQUE EST ADMISE, COMME POUR LA REPRESENTATION EN BASE32 (VOIR actionString)
+                int canonicalForm = token > ActionEncoder.maxLegacyToken(currentState.nextAction())
+                        ? VARIABLE_LENGTH_FORM
+                        : isPlacement ? LONG_FORM : SHORT_FORM;
+                Preconditions.checkArgument(form == canonicalForm);
+
+                currentState = ActionEncoder.applyToken(currentState, token);
+                Preconditions.checkArgument(currentState != null);
+
+                gameStates.add(currentState);
+            }
+
+            Preconditions.checkArgument(!body.hasRemaining());
+
+            return gameStates;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Méthode qui écrit, à la position courante du canal donné (typiquement un FileChannel), le journal binaire
+     * correspondant à la liste d'actions donnée
+     * @param channel le canal donné
+     * @param actionStrings la liste des chaînes de caractères représentant l'encodage en base32 des actions
+     * @throws IOException en cas d'erreur d'entrée/sortie
+     * @throws IllegalArgumentException si l'une des actions données n'est pas un encodage valide
+     */
+    public static void write(WritableByteChannel channel, List<String> actionStrings) throws IOException {
+
+        ByteBuffer log = encode(actionStrings);
+
+        while (log.hasRemaining())
+            channel.write(log);
+    }
+
+    /**
+     * Méthode qui lit, à la position courante du canal donné (typiquement un FileChannel), un journal binaire et
+     * retourne la liste de ses actions, ou null si le canal est épuisé
+     * @param channel le canal donné
+     * @return la liste des chaînes de caractères représentant l'encodage en base32 des actions du journal, ou null si
+     * le canal est épuisé
+     * @throws IOException en cas d'erreur d'entrée/sortie, ou si le canal se termine au milieu d'un journal
+     * @throws IllegalArgumentException si le journal n'est pas valide
+     */
+    public static List<String> read(ReadableByteChannel channel) throws IOException {
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        if (channel.read(header) == -1)
+            return null;
+
+        readFully(channel, header);
+        int bodySize = header.getInt(Byte.BYTES);
+        Preconditions.checkArgument(bodySize >= 0);
+
+        ByteBuffer log = ByteBuffer.allocate(HEADER_SIZE + bodySize).put(header.flip());
+        readFully(channel, log);
+
+        return decode(log.flip());
+    }
+
+    /**
+     * Méthode qui retourne la liste des actions de chacun des journaux binaires stockés les uns à la suite des autres
+     * dans le fichier donné, à partir de sa position courante ; le fichier est projeté en mémoire plutôt que copié
+     * @param channel le canal du fichier donné
+     * @return la liste des listes d'actions de chacun des journaux du fichier
+     * @throws IOException en cas d'erreur d'entrée/sortie
+     * @throws IllegalArgumentException si l'un des journaux n'est pas valide
+     */
+    public static List<List<String>> readAll(FileChannel channel) throws IOException {
+
+        long position = channel.position();
+        MappedByteBuffer logs = channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+
+        List<List<String>> allActionStrings = new ArrayList<>();
+
+        while (logs.hasRemaining())
+            allActionStrings.add(decode(logs));
+
+        channel.position(channel.size());
+
+        return allActionStrings;
+    }
+
+    /**
+     * Méthode qui retourne l'entrée du journal correspondant à l'action représentée par la chaîne de caractères donnée
+     * @param actionString la chaîne de caractères donnée
+     * @return l'entrée du journal correspondant à l'action, soit, sa valeur suivie de la forme de sa représentation
+     * @throws IllegalArgumentException si la chaîne de caractères donnée n'est pas un encodage valide
+     */
+    private static int entry(String actionString) {
+
+        Preconditions.checkArgument(!actionString.isEmpty() && Base32.isValid(actionString));
+
+        int form = switch (actionString.length()) {
+            case 1 -> SHORT_FORM;
+            case 2 -> LONG_FORM;
+            default -> VARIABLE_LENGTH_FORM;
+        };
+
+        int token = ActionEncoder.token(actionString);
+        Preconditions.checkArgument(token <= (Integer.MAX_VALUE >>> FORM_BITS));
+
+        return (token << FORM_BITS) | form;
+    }
+
+    /**
+     * Méthode qui retourne la chaîne de caractères représentant l'encodage en base32 de l'action correspondant à
+     * l'entrée du journal donnée
+     * @param entry l'entrée du journal donnée
+     * @return la chaîne de caractères représentant l'encodage en base32 de l'action correspondante
+     * @throws IllegalArgumentException si l'entrée donnée n'est pas valide
+     */
+    private static String actionString(int entry) {
+
+        int token = entry >>> FORM_BITS;
+
+        return switch (entry & ((1 << FORM_BITS) - 1)) {
+            case SHORT_FORM -> checkedLength(ActionEncoder.actionString(GameState.Action.OCCUPY_TILE, token), 1);
+            case LONG_FORM -> checkedLength(ActionEncoder.actionString(GameState.Action.PLACE_TILE, token), 2);
+            case VARIABLE_LENGTH_FORM -> {
+                String actionString = ActionEncoder.variableLengthActionString(token);
+                Preconditions.checkArgument(actionString.length() > 2);
+                yield actionString;
+            }
+            default -> throw new IllegalArgumentException("forme d'action inconnue");
+        };
+    }
+
+    /**
+     * Méthode qui retourne la chaîne de caractères donnée, après avoir vérifié qu'elle est de la longueur donnée
+     * @param actionString la chaîne de caractères donnée
+     * @param length la longueur attendue
+     * @return la chaîne de caractères donnée
+     * @throws IllegalArgumentException si la chaîne de caractères donnée n'est pas de la longueur donnée
+     */
+    private static String checkedLength(String actionString, int length) {
+        Preconditions.checkArgument(actionString.length() == length);
+        return actionString;
+    }
+
+    /**
+     * Méthode qui vérifie l'en-tête du journal commençant à la position courante du tampon donné, et retourne son
+     * corps, en avançant la position du tampon jusqu'à la fin du journal
+     * @param log le tampon contenant le journal
+     * @return le corps du journal
+     * @throws IllegalArgumentException si l'en-tête n'est pas valide ou si le journal est tronqué
+     */
+    private static ByteBuffer body(ByteBuffer log) {
+
+        Preconditions.checkArgument(log.remaining() >= HEADER_SIZE);
+        Preconditions.checkArgument(log.get() == VERSION);
+
+        int bodySize = log.getInt();
+        Preconditions.checkArgument(bodySize >= 0 && bodySize <= log.remaining());
+
+        ByteBuffer body = log.slice(log.position(), bodySize);
+        log.position(log.position() + bodySize);
+
+        return body;
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné l'entier de longueur variable correspondant à la valeur donnée
+     * @param buffer le tampon donné
+     * @param value la valeur donnée, positive ou nulle
+     */
+    private static void putVarint(ByteBuffer buffer, int value) {
+
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné un entier de longueur variable
+     * @param buffer le tampon donné
+     * @return la valeur de l'entier lu
+     * @throws IllegalArgumentException si l'entier est incomplet ou ne tient pas dans un int positif
+     */
+    private static int getVarint(ByteBuffer buffer) {
+
+        int value = 0;
+
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            Preconditions.checkArgument(buffer.hasRemaining());
+
+            byte b = buffer.get();
+            Preconditions.checkArgument(shift + 7 < Integer.SIZE || (b & 0x78) == 0);
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IllegalArgumentException("l'entier de longueur variable est trop long");
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'octets de l'entier de longueur variable correspondant à la valeur donnée
+     * @param value la valeur donnée, positive ou nulle
+     * @return le nombre d'octets de l'entier de longueur variable correspondant à la valeur donnée
+     */
+    private static int varintSize(int value) {
+
+        int size = 1;
+        while ((value >>>= 7) != 0)
+            size++;
+
+        return size;
+    }
+
+    /**
+     * Méthode qui lit, dans le canal donné, de quoi remplir entièrement le tampon donné
+     * @param channel le canal donné
+     * @param buffer le tampon donné
+     * @throws IOException en cas d'erreur d'entrée/sortie, ou si le canal se termine avant que le tampon soit plein
+     */
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1)
+                throw new EOFException("le journal est tronqué");
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package ch.epfl.chacun;
 
+import java.util.Arrays;
+
 /**
  * Classe qui permet d'encoder et de décoder des valeurs binaires en base32
  * @author Mohamed KHARRAT (314523)
@@ -19,21 +21,39 @@ public final class Base32 {
      */
     public static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567" ;
 
+    /**
+     * Le bit de continuation d'un chiffre d'un entier de longueur variable, qui indique qu'au moins un autre chiffre
+     * le suit
+     */
+    private static final int VARINT_CONTINUATION = 0b10000;
+
+    /**
+     * Le nombre de bits de la valeur portés par chaque chiffre d'un entier de longueur variable
+     */
+    private static final int VARINT_PAYLOAD_BITS = 4;
+
+    /**
+     * Table associant à chaque caractère ASCII sa valeur en base 32, ou -1 s'il ne fait pas partie de l'alphabet,
+     * évitant une recherche linéaire dans l'alphabet pour chaque caractère décodé
+     */
+    private static final int[] DIGIT_VALUES = digitValues();
+
     /**
      * Méthode qui retourne vrai ssi la chaîne de caractères donnée n'est composée que de caractères de
      * l'alphabet base 32
      * @param str la chaîne de caractères donnée
      * @return vrai ssi la chaîne de caractères donnée n'est composée que de caractères de l'alphabet base 32
+     * @throws IllegalArgumentException si la chaîne de caractères donnée est vide
      */
     public static boolean isValid (String str) {
 
         int length = str.length();
-        Preconditions.checkArgument(length==1 || length==2);
+        Preconditions.checkArgument(length >= 1);
 
         for (int i = 0; i < length; i++) {
             char character = str.charAt(i);
 
-            if (ALPHABET.indexOf(character) == -1)
+            if (digitValue(character) == -1)
                 return false;
         }
 
@@ -77,21 +97,128 @@ public final class Base32 {
      * @param str la chaîne de caractères (représentant un nombre en base32), de longueur 1 ou 2, donnée
      * @return l'entier de type correspondant à la chaîne de caractères (représentant un nombre en base32),
      * de longueur 1 ou 2, donnée
+     * @throws IllegalArgumentException si la chaîne de caractères donnée n'est pas de longueur 1 ou 2
      */
     public static int decode (String str) {
 
+        Preconditions.checkArgument(str.length() == 1 || str.length() == 2);
+
         int value = 0;
         int mask;
 
         if (isValid(str))
             for (int i = str.length()-1, shift = 0 ; i >= 0 ; i--, shift++) {
                 char character = str.charAt(i);
-                mask = ALPHABET.indexOf(character);
+                mask = digitValue(character);
                 value |= (mask << (5*shift));
             }
 
         return value;
     }
 
-}
+    /**
+     * Méthode qui retourne l'encodage en base32, de longueur variable, de la valeur donnée : chaque caractère porte
+     * 4 bits de la valeur, des poids forts aux poids faibles, et tous les caractères sauf le dernier ont leur bit de
+     * continuation (le 5e bit) à 1
+     * @param value la valeur donnée
+     * @return l'encodage en base32, de longueur variable, de la valeur donnée
+     * @throws IllegalArgumentException si la valeur donnée est strictement négative
+     */
+    public static String encodeVarint (int value) {
+
+        Preconditions.checkArgument(value >= 0);
+
+        int payloadMask = (1 << VARINT_PAYLOAD_BITS) - 1;
+
+        int digitCount = 1;
+        for (int remaining = value >>> VARINT_PAYLOAD_BITS; remaining != 0; remaining >>>= VARINT_PAYLOAD_BITS)
+            digitCount++;
+
+        StringBuilder builder = new StringBuilder(digitCount);
+
+        for (int i = digitCount - 1; i >= 0; i--) {
+            int digit = (value >>> (VARINT_PAYLOAD_BITS * i)) & payloadMask;
+            if (i > 0)
+                digit |= VARINT_CONTINUATION;
+
+            builder.append(ALPHABET.charAt(digit));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Méthode qui retourne le nombre de caractères de l'entier de longueur variable commençant à l'index donné de la
+     * chaîne de caractères donnée
+     * @param str la chaîne de caractères donnée
+     * @param from l'index du premier caractère de l'entier
+     * @return le nombre de caractères de l'entier de longueur variable commençant à l'index donné
+     * @throws IllegalArgumentException si l'entier est incomplet, contient un caractère hors de l'alphabet base 32 ou
+     * n'est pas encodé avec le nombre minimal de caractères (premier caractère de continuation sans valeur)
+     */
+    public static int varintLength (String str, int from) {
 
+        Preconditions.checkArgument(from >= 0);
+
+        //UN ENCODAGE MINIMAL NE COMMENCE JAMAIS PAR UN CARACTERE DE CONTINUATION DE VALEUR NULLE
+        Preconditions.checkArgument(from >= str.length() || digitValue(str.charAt(from)) != VARINT_CONTINUATION);
+
+        for (int i = from; i < str.length(); i++) {
+            int digit = digitValue(str.charAt(i));
+            Preconditions.checkArgument(digit != -1);
+
+            if ((digit & VARINT_CONTINUATION) == 0)
+                return i - from + 1;
+        }
+
+        throw new IllegalArgumentException("l'entier de longueur variable est incomplet");
+    }
+
+    /**
+     * Méthode qui retourne la valeur de l'entier de longueur variable commençant à l'index donné de la chaîne de
+     * caractères donnée
+     * @param str la chaîne de caractères donnée
+     * @param from l'index du premier caractère de l'entier
+     * @return la valeur de l'entier de longueur variable commençant à l'index donné
+     * @throws IllegalArgumentException si l'entier est incomplet, contient un caractère hors de l'alphabet base 32,
+     * n'est pas encodé avec le nombre minimal de caractères ou ne tient pas dans un int positif
+     */
+    public static int decodeVarint (String str, int from) {
+
+        int length = varintLength(str, from);
+        int payloadMask = (1 << VARINT_PAYLOAD_BITS) - 1;
+
+        long value = 0;
+        for (int i = from; i < from + length; i++) {
+            value = (value << VARINT_PAYLOAD_BITS) | (digitValue(str.charAt(i)) & payloadMask);
+            Preconditions.checkArgument(value <= Integer.MAX_VALUE);
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Méthode qui retourne la valeur en base 32 du caractère donné, ou -1 s'il ne fait pas partie de l'alphabet
+     * @param character le caractère donné
+     * @return la valeur en base 32 du caractère donné, ou -1 s'il ne fait pas partie de l'alphabet
+     */
+    private static int digitValue (char character) {
+        return character < DIGIT_VALUES.length ? DIGIT_VALUES[character] : -1;
+    }
+
+    /**
+     * Méthode qui construit la table associant à chaque caractère ASCII sa valeur en base 32
+     * @return la table associant à chaque caractère ASCII sa valeur en base 32, ou -1
+     */
+    private static int[] digitValues () {
+
+        int[] digitValues = new int[128];
+        Arrays.fill(digitValues, -1);
+
+        for (int i = 0; i < ALPHABET.length(); i++)
+            digitValues[ALPHABET.charAt(i)] = i;
+
+        return digitValues;
+    }
+
+}
@@ -1,6 +1,9 @@
 package ch.epfl.chacun;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 /**
  * Classe qui représente le plateau de jeu
@@ -13,6 +16,33 @@ public final class Board {
     private final ZonePartitions zonePartitions;
     private final Set<Animal> cancelledAnimals;
 
+    //LES CACHES CI-DESSOUS PEUVENT ETRE CALCULES PAR PLUSIEURS FILS A LA FOIS (FIL DE TRAVAIL, FIL JAVAFX,
+    //ABONNES...) : ILS SONT VOLATILS ET NE CONTIENNENT QUE DES VALEURS QUI NE SONT PLUS MODIFIEES UNE FOIS PUBLIEES,
+    //DE SORTE QUE LE PIRE QUI PUISSE ARRIVER EST QU'UN MEME CACHE SOIT CALCULE DEUX FOIS
+
+    /**
+     * L'ensemble des positions d'insertion du plateau, calculé lors de son premier usage, ou transmis par le
+     * bâtisseur qui l'a tenu à jour pendant la construction du plateau
+     */
+    private volatile Set<Pos> insertionPositions;
+
+    /**
+     * L'ensemble des aires occupées du plateau, indexé par identifiant de zone et sorte d'occupant (voir
+     * occupiedAreaIndex), calculé lors de son premier usage et jamais modifié ensuite
+     */
+    private volatile BitSet occupiedAreas;
+
+    /**
+     * Les occupants potentiels de la dernière tuile posée pour le dernier joueur pour lequel ils ont été calculés,
+     * ou transmis par le bâtisseur qui les a calculés pendant la construction du plateau
+     */
+    private volatile PotentialOccupants lastTilePotentialOccupants;
+
+    /**
+     * La table des placements de la dernière tuile pour laquelle elle a été calculée
+     */
+    private volatile PlacementTable placementTable;
+
     /**
      * La portée du plateau (le nombre de cases qui séparent la case centrale de l'un des bords du plateau)
      */
@@ -43,6 +73,34 @@ public final class Board {
         this.cancelledAnimals = cancelledAnimals;
     }
 
+    /**
+     * Méthode qui retourne le plateau contenant les tuiles données, posées dans l'ordre donné, ainsi que les
+     * partitions et les animaux annulés donnés, sans vérifier leur cohérence
+     * @param tiles les tuiles posées, dans l'ordre dans lequel elles ont été posées
+     * @param zonePartitions les partitions correspondant aux zones des tuiles posées
+     * @param cancelledAnimals l'ensemble des animaux annulés
+     * @return le plateau correspondant
+     * @throws IllegalArgumentException si deux tuiles sont à la même position, ou si l'une d'entre elles est hors du
+     * plateau
+     */
+    static Board of(List<PlacedTile> tiles, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals) {
+
+        PlacedTile[] placedTiles = new PlacedTile[BOARD_SIZE];
+        int[] placedTilesIndex = new int[tiles.size()];
+
+        for (int i = 0; i < placedTilesIndex.length; i++) {
+            PlacedTile tile = tiles.get(i);
+            Preconditions.checkArgument(isWithinBoard(tile.pos()));
+
+            int index = findIndex(tile.pos());
+            Preconditions.checkArgument(placedTiles[index] == null);
+            placedTiles[index] = tile;
+            placedTilesIndex[i] = index;
+        }
+
+        return new Board(placedTiles, placedTilesIndex, zonePartitions, new HashSet<>(cancelledAnimals));
+    }
+
     /**
      * Méthode vérifiant que l'objet recu est égal au plateau, en garantissant une comparaison par structure
      * (s'assure que tous les attributs sont deux à deux égaux)
@@ -99,6 +157,21 @@ public final class Board {
      */
     public PlacedTile tileWithId(int tileId) {
 
+        PlacedTile placedTile = tileWithIdOrNull(tileId);
+
+        if (placedTile == null)
+            throw new IllegalArgumentException("la tuile ne se trouve pas sur le plateau");
+
+        return placedTile;
+    }
+
+    /**
+     * Méthode qui retourne la tuile dont l'identifiant est celui donné, ou null si elle ne se trouve pas sur le plateau
+     * @param tileId l'identifiant donné
+     * @return la tuile dont l'identifiant est celui donné, ou null
+     */
+    private PlacedTile tileWithIdOrNull(int tileId) {
+
         for (int index : placedTilesIndex) {
             PlacedTile placedTile = placedTiles[index];
 
@@ -107,7 +180,15 @@ public final class Board {
             }
         }
 
-        throw new IllegalArgumentException("la tuile ne se trouve pas sur le plateau");
+        return null;
+    }
+
+    /**
+     * Méthode qui retourne les partitions des zones des tuiles posées
+     * @return les partitions des zones des tuiles posées
+     */
+    ZonePartitions zonePartitions() {
+        return zonePartitions;
     }
 
     /**
@@ -200,30 +281,7 @@ public final class Board {
      * @return le pré adjacent à la zone donnée
      */
     public Area<Zone.Meadow> adjacentMeadow(Pos pos, Zone.Meadow meadowZone) {
-
-        Area<Zone.Meadow> completeMeadowArea = meadowArea(meadowZone);
-
-        Set<Zone.Meadow> adjacentMeadowZones = new HashSet<>();
-
-        for (int i = -1; i < 2; i++) {
-
-            for (int j = -1; j < 2; j++) {
-
-                Pos neighborPos = pos.translated(i, j);
-                PlacedTile neighborTile = tileAt(neighborPos);
-
-                if (neighborTile != null) {
-                    neighborTile.meadowZones().stream()
-                            .filter(completeMeadowArea.zones()::contains)
-                            .forEach(adjacentMeadowZones::add);
-                }
-            }
-
-        }
-
-        List<PlayerColor> adjacentMeadowOccupants = new ArrayList<>(completeMeadowArea.occupants());
-
-        return new Area<>(adjacentMeadowZones, adjacentMeadowOccupants, 0);
+        return adjacentMeadow(this, pos, meadowArea(meadowZone));
     }
 
     /**
@@ -252,23 +310,95 @@ public final class Board {
      */
     public Set<Pos> insertionPositions() {
 
-        Set<Pos> insertionPositions = new HashSet<>();
+        Set<Pos> cached = insertionPositions;
 
-        for (int index : placedTilesIndex) {
-            PlacedTile placedTile = placedTiles[index];
-            Pos tilePos = placedTile.pos();
+        if (cached == null) {
+            Set<Pos> positions = new HashSet<>();
 
-            for (Direction direction : Direction.ALL) {
-                Pos neighborPos = tilePos.neighbor(direction);
-                PlacedTile neighborTile = tileAt(neighborPos);
+            for (int index : placedTilesIndex) {
+                Pos tilePos = placedTiles[index].pos();
+
+                for (Direction direction : Direction.ALL) {
+                    Pos neighborPos = tilePos.neighbor(direction);
+                    PlacedTile neighborTile = tileAt(neighborPos);
 
-                if (neighborTile == null && isWithinBoard(neighborPos)) {
-                    insertionPositions.add(neighborPos);
+                    if (neighborTile == null && isWithinBoard(neighborPos)) {
+                        positions.add(neighborPos);
+                    }
                 }
             }
+
+            cached = Collections.unmodifiableSet(positions);
+            insertionPositions = cached;
+        }
+
+        return cached;
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la position donnée est une position d'insertion du plateau, soit, une position
+     * libre du plateau voisine d'au moins une tuile, sans calculer l'ensemble des positions d'insertion
+     * @param pos la position donnée
+     * @return vrai ssi la position donnée est une position d'insertion du plateau
+     */
+    private boolean isInsertionPosition(Pos pos) {
+
+        if (!isWithinBoard(pos) || tileAt(pos) != null)
+            return false;
+
+        for (Direction direction : Direction.ALL) {
+            if (tileAt(pos.neighbor(direction)) != null)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi l'aire que l'occupant donné occuperait est déjà occupée : l'aire forêt, pré ou
+     * rivière contenant sa zone pour un pion, le réseau hydrographique contenant sa zone pour une hutte ; les aires
+     * occupées du plateau sont calculées une seule fois, chaque appel se faisant ensuite en temps constant
+     * @param occupant l'occupant donné
+     * @return vrai ssi l'aire que l'occupant donné occuperait est déjà occupée, faux si sa zone n'est pas sur le
+     * plateau
+     */
+    public boolean isAreaOccupied(Occupant occupant) {
+
+        BitSet cached = occupiedAreas;
+
+        if (cached == null) {
+            BitSet occupied = new BitSet();
+
+            markOccupiedAreas(occupied, zonePartitions.forests(), Occupant.Kind.PAWN);
+            markOccupiedAreas(occupied, zonePartitions.meadows(), Occupant.Kind.PAWN);
+            markOccupiedAreas(occupied, zonePartitions.rivers(), Occupant.Kind.PAWN);
+            markOccupiedAreas(occupied, zonePartitions.riverSystems(), Occupant.Kind.HUT);
+
+            cached = occupied;
+            occupiedAreas = cached;
         }
 
-        return insertionPositions;
+        return cached.get(occupiedAreaIndex(occupant.zoneId(), occupant.kind()));
+    }
+
+    /**
+     * Méthode qui retourne l'ensemble (non modifiable) des occupants que le joueur donné pourrait placer sur la
+     * dernière tuile posée, calculé une seule fois par plateau et par joueur
+     * @param player le joueur donné
+     * @return l'ensemble des occupants que le joueur donné pourrait placer sur la dernière tuile posée
+     * @throws IllegalArgumentException si le plateau est vide
+     */
+    Set<Occupant> lastTilePotentialOccupants(PlayerColor player) {
+
+        PotentialOccupants cached = lastTilePotentialOccupants;
+
+        if (cached == null || cached.player() != player) {
+            cached = new PotentialOccupants(player, potentialOccupants(lastPlacedTile(), this::isAreaOccupied,
+                    kind -> Occupant.occupantsCount(kind) - occupantCount(player, kind)));
+            lastTilePotentialOccupants = cached;
+        }
+
+        return cached.occupants();
     }
 
     /**
@@ -287,24 +417,46 @@ public final class Board {
     }
 
     /**
-     * Méthode qui retourne l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la
-     * dernière tuile, ou un ensemble vide si le plateau est vide
-     * @return l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la dernière tuile
+     * Méthode qui retourne la liste des tuiles posées sur le plateau, dans l'ordre dans lequel elles ont été posées
+     * @return la liste des tuiles posées sur le plateau, dans l'ordre dans lequel elles ont été posées
      */
-    public Set<Area<Zone.Forest>> forestsClosedByLastTile() {
+    List<PlacedTile> placedTiles() {
+
+        List<PlacedTile> tiles = new ArrayList<>(placedTilesIndex.length);
 
-        Set<Area<Zone.Forest>> closedForests = new HashSet<>();
+        for (int index : placedTilesIndex)
+            tiles.add(placedTiles[index]);
 
-        if (lastPlacedTile() != null)
+        return tiles;
+    }
 
-            for (Zone.Forest forest : lastPlacedTile().forestZones()) {
-                Area<Zone.Forest> area = forestArea(forest);
+    /**
+     * Méthode qui retourne le nombre de tuiles posées sur le plateau
+     * @return le nombre de tuiles posées sur le plateau
+     */
+    int placedTileCount() {
+        return placedTilesIndex.length;
+    }
 
-                if (area.isClosed())
-                    closedForests.add(area);
-            }
+    /**
+     * Méthode qui retourne, en temps constant, la tuile posée en la position donnée dans l'ordre de pose
+     * @param i la position de la tuile dans l'ordre de pose
+     * @return la tuile posée en la position donnée
+     * @throws IndexOutOfBoundsException si la position donnée n'est pas celle d'une tuile posée
+     */
+    PlacedTile placedTile(int i) {
+        return placedTiles[placedTilesIndex[i]];
+    }
 
-        return closedForests;
+    /**
+     * Méthode qui retourne l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la
+     * dernière tuile, ou un ensemble vide si le plateau est vide
+     * @return l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la dernière tuile
+     */
+    public Set<Area<Zone.Forest>> forestsClosedByLastTile() {
+        return lastPlacedTile() == null
+                ? new HashSet<>()
+                : closedAreas(lastPlacedTile().forestZones(), this::forestArea);
     }
 
     /**
@@ -313,20 +465,9 @@ public final class Board {
      * @return l'ensemble de toutes les aires rivières qui ont été fermées suite à la pose de la dernière tuile
      */
     public Set<Area<Zone.River>> riversClosedByLastTile() {
-
-        Set<Area<Zone.River>> closedRivers = new HashSet<>();
-
-        if (lastPlacedTile() != null)
-
-            for (Zone.River river : lastPlacedTile().riverZones()) {
-                Area<Zone.River> area = riverArea(river);
-
-                if (area.isClosed()) {
-                    closedRivers.add(area);
-                }
-            }
-
-        return closedRivers;
+        return lastPlacedTile() == null
+                ? new HashSet<>()
+                : closedAreas(lastPlacedTile().riverZones(), this::riverArea);
     }
 
     /**
@@ -336,7 +477,7 @@ public final class Board {
      */
     public boolean canAddTile(PlacedTile tile) {
 
-        if (!insertionPositions().contains(tile.pos()))
+        if (!isInsertionPosition(tile.pos()))
             return false;
 
         for (Direction direction : Direction.ALL) {
@@ -357,24 +498,30 @@ public final class Board {
     }
 
     /**
-     * Méthode qui retourne vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du plateau
+     * Méthode qui retourne la table des placements de la tuile donnée, soit, ses rotations valides sur chacune des
+     * positions d'insertion du plateau, calculée une seule fois par plateau pour une même tuile
      * @param tile la tuile donnée
-     * @return vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du plateau
+     * @return la table des placements de la tuile donnée
      */
-    public boolean couldPlaceTile(Tile tile) {
-
-        for (Pos position : insertionPositions()) {
+    public PlacementTable placementTable(Tile tile) {
 
-            for (Rotation rotation : Rotation.ALL) {
-                PlacedTile placedTile = new PlacedTile(tile, null, rotation, position, null);
+        PlacementTable cached = placementTable;
 
-                if (canAddTile(placedTile))
-                    return true;
-
-            }
+        if (cached == null || cached.tile() != tile) {
+            cached = PlacementTable.of(this, tile);
+            placementTable = cached;
         }
 
-        return false;
+        return cached;
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du plateau
+     * @param tile la tuile donnée
+     * @return vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du plateau
+     */
+    public boolean couldPlaceTile(Tile tile) {
+        return couldPlaceTile(this, insertionPositions(), tile);
     }
 
     /**
@@ -386,34 +533,10 @@ public final class Board {
      */
     public Board withNewTile(PlacedTile tile) {
 
-        Preconditions.checkArgument(this.placedTilesIndex.length == 0 || canAddTile(tile));
-
-        PlacedTile[] newPlacedTiles = this.placedTiles.clone();
-
-        int index = findIndex(tile.pos());
-        newPlacedTiles[index] = tile;
-
-        int[] newPlacedTilesIndex = Arrays.copyOf(this.placedTilesIndex, this.placedTilesIndex.length + 1);
-        newPlacedTilesIndex[newPlacedTilesIndex.length - 1] = index;
-
-        ZonePartitions.Builder partitionBuilder = new ZonePartitions.Builder(this.zonePartitions);
-        partitionBuilder.addTile(tile.tile());
-
-        for (Direction direction : Direction.ALL) {
-            Pos neighborPos = tile.pos().neighbor(direction);
-            PlacedTile neighborTile = tileAt(neighborPos);
-
-            if (neighborTile != null) {
-                TileSide tileSide = tile.side(direction);
-                TileSide neighborTileSide = neighborTile.side(direction.opposite());
-
-                partitionBuilder.connectSides(tileSide, neighborTileSide);
-            }
-        }
-
-        ZonePartitions newZonePartitions = partitionBuilder.build();
+        Builder builder = new Builder(this);
+        builder.addTile(tile);
 
-        return new Board(newPlacedTiles, newPlacedTilesIndex, newZonePartitions, this.cancelledAnimals);
+        return builder.build();
     }
 
     /**
@@ -424,118 +547,208 @@ public final class Board {
      */
     public Board withOccupant(Occupant occupant) {
 
-        PlacedTile[] newPlacedTiles = this.placedTiles.clone();
+        Builder builder = new Builder(this);
+        builder.addOccupant(occupant);
 
-        int zoneId = occupant.zoneId();
-        int tileId = Zone.tileId(zoneId);
-        PlacedTile tile = tileWithId(tileId);
+        return builder.build();
+    }
 
-        PlacedTile newTile = tile.withOccupant(occupant);
+    /**
+     * Méthode qui retourne un plateau identique au récepteur, mais avec l'occupant donné en moins
+     * @param occupant l'occupant donné
+     * @return un plateau identique au récepteur, mais avec l'occupant donné en moins
+     */
+    public Board withoutOccupant(Occupant occupant) {
 
-        int index = findIndex(tile.pos());
-        newPlacedTiles[index] = newTile;
+        Builder builder = new Builder(this);
+        builder.removeOccupant(occupant);
 
-        ZonePartitions.Builder partitionsBuilder = new ZonePartitions.Builder(this.zonePartitions);
-        partitionsBuilder.addInitialOccupant(tile.placer(), occupant.kind(), tile.zoneWithId(zoneId));
+        return builder.build();
+    }
 
-        ZonePartitions newZonePartitions = partitionsBuilder.build();
+    /**
+     * Méthode qui retourne un plateau identique au récepteur, mais sans aucun occupant dans les forêts et
+     * les rivières données
+     * @param forests les forêts données
+     * @param rivers  les rivières données
+     * @return un plateau identique au récepteur, mais sans aucun occupant dans les forêts et les rivières données
+     */
+    public Board withoutGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
+
+        Builder builder = new Builder(this);
+        builder.removeGatherersOrFishersIn(forests, rivers);
 
-        return new Board(newPlacedTiles, this.placedTilesIndex, newZonePartitions, this.cancelledAnimals);
+        return builder.build();
     }
 
     /**
-     * Méthode qui retourne un plateau identique au récepteur, mais avec l'occupant donné en moins
-     * @param occupant l'occupant donné
-     * @return un plateau identique au récepteur, mais avec l'occupant donné en moins
+     * Méthode qui retourne un plateau identique au récepteur, mais avec l'ensemble des animaux donnés ajouté
+     * à l'ensemble des animaux annulés
+     * @param newlyCancelledAnimals l'ensemble des animaux donnés
+     * @return un plateau identique au récepteur, mais avec l'ensemble des animaux donnés ajouté à l'ensemble
+     * des animaux annulés
      */
-    public Board withoutOccupant(Occupant occupant) {
+    public Board withMoreCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
+
+        Builder builder = new Builder(this);
+        builder.addCancelledAnimals(newlyCancelledAnimals);
+
+        return builder.build();
+    }
+
+    /**
+     * Méthode qui retourne le pré adjacent à la position donnée, sous la forme d'une aire qui ne contient que les
+     * zones du pré complet donné se trouvant sur la tuile à cette position ou sur l'une de ses 8 voisines, mais tous
+     * ses occupants
+     * @param tiles le plateau dont les tuiles sont examinées
+     * @param pos la position donnée
+     * @param completeMeadowArea le pré complet donné
+     * @return le pré adjacent à la position donnée
+     */
+    private static Area<Zone.Meadow> adjacentMeadow(Board tiles, Pos pos, Area<Zone.Meadow> completeMeadowArea) {
+
+        Set<Zone.Meadow> adjacentMeadowZones = new HashSet<>();
 
-        PlacedTile[] newPlacedTiles = this.placedTiles.clone();
+        for (int i = -1; i < 2; i++) {
 
-        int zoneId = occupant.zoneId();
-        int tileId = Zone.tileId(zoneId);
-        PlacedTile tile = tileWithId(tileId);
+            for (int j = -1; j < 2; j++) {
 
-        PlacedTile newTile = tile.withNoOccupant();
+                Pos neighborPos = pos.translated(i, j);
+                PlacedTile neighborTile = tiles.tileAt(neighborPos);
 
-        int index = findIndex(tile.pos());
-        newPlacedTiles[index] = newTile;
+                if (neighborTile != null) {
+                    neighborTile.meadowZones().stream()
+                            .filter(completeMeadowArea.zones()::contains)
+                            .forEach(adjacentMeadowZones::add);
+                }
+            }
 
-        ZonePartitions.Builder partitionsBuilder = new ZonePartitions.Builder(this.zonePartitions);
-        partitionsBuilder.removePawn(tile.placer(), tile.zoneWithId(zoneId));
+        }
 
-        ZonePartitions newZonePartitions = partitionsBuilder.build();
+        List<PlayerColor> adjacentMeadowOccupants = new ArrayList<>(completeMeadowArea.occupants());
 
-        return new Board(newPlacedTiles, this.placedTilesIndex, newZonePartitions, this.cancelledAnimals);
+        return new Area<>(adjacentMeadowZones, adjacentMeadowOccupants, 0);
     }
 
     /**
-     * Méthode qui retourne un plateau identique au récepteur, mais sans aucun occupant dans les forêts et
-     * les rivières données
-     * @param forests les forêts données
-     * @param rivers  les rivières données
-     * @return un plateau identique au récepteur, mais sans aucun occupant dans les forêts et les rivières données
+     * Méthode qui retourne vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion données
+     * du plateau donné
+     * @param tiles le plateau dont les tuiles sont examinées
+     * @param insertionPositions les positions d'insertion de ce plateau
+     * @param tile la tuile donnée
+     * @return vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion données
      */
-     public Board withoutGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
+    private static boolean couldPlaceTile(Board tiles, Set<Pos> insertionPositions, Tile tile) {
 
-        PlacedTile[] newPlacedTiles = this.placedTiles.clone();
-        ZonePartitions.Builder partitionsBuilder = new ZonePartitions.Builder(this.zonePartitions);
+        for (Pos position : insertionPositions) {
 
-        for (Area<Zone.Forest> forestArea : forests) {
-            partitionsBuilder.clearGatherers(forestArea);
+            for (Rotation rotation : Rotation.ALL) {
+                PlacedTile placedTile = new PlacedTile(tile, null, rotation, position, null);
 
-            for (int index : this.placedTilesIndex) {
-                PlacedTile placedTile = this.placedTiles[index];
+                if (tiles.canAddTile(placedTile))
+                    return true;
 
-                for (Zone.Forest forestZone : forestArea.zones())
-                    if (placedTile.idOfZoneOccupiedBy(Occupant.Kind.PAWN) == forestZone.id())
-                        newPlacedTiles[index] = placedTile.withNoOccupant();
             }
         }
 
-         for (Area<Zone.River> riverArea : rivers) {
-             partitionsBuilder.clearFishers(riverArea);
+        return false;
+    }
 
-             for (int index : this.placedTilesIndex) {
-                 PlacedTile placedTile = this.placedTiles[index];
+    /**
+     * Méthode qui retourne l'ensemble des aires fermées parmi celles contenant les zones données
+     * @param zones les zones données
+     * @param areaContaining la fonction qui associe à une zone l'aire qui la contient
+     * @return l'ensemble des aires fermées parmi celles contenant les zones données
+     */
+    private static <Z extends Zone> Set<Area<Z>> closedAreas(Set<Z> zones, Function<Z, Area<Z>> areaContaining) {
 
-                 for (Zone.River riverZone : riverArea.zones()) {
-                     if (placedTile.riverZones().contains(riverZone)
-                             && placedTile.occupant() != null
-                             && placedTile.occupant().zoneId() == riverZone.id()
-                             && placedTile.occupant().kind() == Occupant.Kind.PAWN) {
-                         newPlacedTiles[index] = placedTile.withNoOccupant();
-                     }
-                 }
-             }
-         }
+        Set<Area<Z>> closedAreas = new HashSet<>();
 
-        ZonePartitions newZonePartitions = partitionsBuilder.build();
+        for (Z zone : zones) {
+            Area<Z> area = areaContaining.apply(zone);
 
-        return new Board(newPlacedTiles, this.placedTilesIndex, newZonePartitions, this.cancelledAnimals);
+            if (area.isClosed())
+                closedAreas.add(area);
+        }
+
+        return closedAreas;
     }
 
     /**
-     * Méthode qui retourne un plateau identique au récepteur, mais avec l'ensemble des animaux donnés ajouté
-     * à l'ensemble des animaux annulés
-     * @param newlyCancelledAnimals l'ensemble des animaux donnés
-     * @return un plateau identique au récepteur, mais avec l'ensemble des animaux donnés ajouté à l'ensemble
-     * des animaux annulés
+     * Méthode qui retourne l'ensemble (non modifiable) des occupants potentiels de la tuile donnée dont l'aire n'est
+     * pas encore occupée et dont le joueur possède encore au moins un occupant libre de la même sorte ; l'ensemble
+     * est construit directement à partir des occupants potentiels de la tuile, sans copie intermédiaire
+     * @param lastPlacedTile la dernière tuile posée
+     * @param isAreaOccupied le prédicat indiquant si l'aire qu'occuperait un occupant est déjà occupée
+     * @param freeOccupantsCount la fonction donnant le nombre d'occupants libres du joueur d'une sorte donnée
+     * @return l'ensemble des occupants potentiels de la tuile donnée
+     * @throws IllegalArgumentException si la tuile donnée est null
      */
-    public Board withMoreCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
+    private static Set<Occupant> potentialOccupants(PlacedTile lastPlacedTile, Predicate<Occupant> isAreaOccupied,
+                                                    ToIntFunction<Occupant.Kind> freeOccupantsCount) {
+
+        Preconditions.checkArgument(lastPlacedTile != null);
+
+        Set<Occupant> tileOccupants = lastPlacedTile.potentialOccupants();
+        if (tileOccupants.isEmpty())
+            return Set.of();
+
+        boolean[] hasFreeOccupant = new boolean[Occupant.Kind.values().length];
+        for (Occupant.Kind kind : Occupant.Kind.values())
+            hasFreeOccupant[kind.ordinal()] = freeOccupantsCount.applyAsInt(kind) > 0;
+
+        Set<Occupant> potentialOccupants = new HashSet<>();
+
+        for (Occupant occupant : tileOccupants) {
+            if (hasFreeOccupant[occupant.kind().ordinal()] && !isAreaOccupied.test(occupant))
+                potentialOccupants.add(occupant);
+        }
+
+        return Collections.unmodifiableSet(potentialOccupants);
+    }
 
-        Set<Animal> newCancelledAnimals = new HashSet<>(this.cancelledAnimals);
-        newCancelledAnimals.addAll(newlyCancelledAnimals);
+    /**
+     * Méthode qui marque, dans l'ensemble donné, toutes les zones des aires occupées de la partition donnée pour la
+     * sorte d'occupant donnée
+     * @param occupied l'ensemble des aires occupées, indexé par occupiedAreaIndex
+     * @param partition la partition donnée
+     * @param kind la sorte des occupants qui occuperaient les aires de la partition
+     */
+    private static void markOccupiedAreas(BitSet occupied, ZonePartition<?> partition, Occupant.Kind kind) {
+
+        for (Area<?> area : partition.areas()) {
 
-        return new Board(this.placedTiles, this.placedTilesIndex, this.zonePartitions, newCancelledAnimals);
+            if (area.isOccupied()) {
+                for (Zone zone : area.zones())
+                    occupied.set(occupiedAreaIndex(zone.id(), kind));
+            }
+        }
     }
 
+    /**
+     * Méthode qui retourne l'index, dans l'ensemble des aires occupées, de la zone dont l'identifiant est donné
+     * pour la sorte d'occupant donnée
+     * @param zoneId l'identifiant de la zone
+     * @param kind la sorte d'occupant
+     * @return l'index de la zone pour la sorte d'occupant donnée
+     */
+    private static int occupiedAreaIndex(int zoneId, Occupant.Kind kind) {
+        return zoneId * Occupant.Kind.values().length + kind.ordinal();
+    }
+
+    /**
+     * Enregistrement associant un joueur aux occupants qu'il pourrait placer sur la dernière tuile posée
+     * @param player le joueur
+     * @param occupants les occupants qu'il pourrait placer sur la dernière tuile posée
+     */
+    private record PotentialOccupants(PlayerColor player, Set<Occupant> occupants) {}
+
     /**
      * Méthode calculant l'index de la tuile placée sur le plateau donnée
      * @param tilePosition la position de la tuile
      * @return l'index de la tuile
      */
-    private int findIndex(Pos tilePosition) {
+    private static int findIndex(Pos tilePosition) {
         int normalizedX = tilePosition.x() + REACH;
         int normalizedY = tilePosition.y() + REACH;
 
@@ -547,9 +760,423 @@ public final class Board {
      * @param pos la position donnée
      * @return vrai si la position est valide, faux sinon
      */
-    private boolean isWithinBoard(Pos pos) {
+    private static boolean isWithinBoard(Pos pos) {
         return pos.x() >= -REACH && pos.x() <= REACH && pos.y() >= -REACH && pos.y() <= REACH;
     }
 
+
+    /**
+     * Bâtisseur d'un plateau de jeu, qui permet d'appliquer successivement plusieurs modifications à un plateau sans
+     * construire de plateau intermédiaire ; le tableau des tuiles et l'ensemble des animaux annulés ne sont copiés
+     * qu'au moment de leur première modification, et les partitions ne sont reconstruites qu'au moment de la
+     * construction du plateau
+     */
+    static final class Builder {
+        private PlacedTile[] placedTiles;
+        private boolean placedTilesShared;
+        private int[] placedTilesIndex;
+        private ZonePartitions zonePartitions;
+        private ZonePartitions.Builder partitionsBuilder;
+        private Set<Animal> cancelledAnimals;
+        private boolean cancelledAnimalsShared;
+        private Set<Pos> insertionPositions;
+        private PotentialOccupants lastTilePotentialOccupants;
+        private Board tiles;
+
+        /**
+         * Constructeur qui retourne un nouveau bâtisseur dont le plateau est initialement identique au plateau donné
+         * @param initial le plateau donné
+         */
+        Builder(Board initial) {
+            this.placedTiles = initial.placedTiles;
+            this.placedTilesShared = true;
+            this.placedTilesIndex = initial.placedTilesIndex;
+            this.zonePartitions = initial.zonePartitions;
+            this.cancelledAnimals = initial.cancelledAnimals;
+            this.cancelledAnimalsShared = true;
+            this.tiles = initial;
+
+            this.lastTilePotentialOccupants = initial.lastTilePotentialOccupants;
+
+            if (initial.insertionPositions != null)
+                this.insertionPositions = new HashSet<>(initial.insertionPositions);
+        }
+
+        /**
+         * Méthode qui retourne la tuile à la position donnée, ou null s'il n'y en a aucune ou si la position se
+         * trouve hors du plateau
+         * @param pos la position donnée
+         * @return la tuile à la position donnée, ou null
+         */
+        PlacedTile tileAt(Pos pos) {
+            return tiles().tileAt(pos);
+        }
+
+        /**
+         * Méthode qui retourne la tuile dont l'identifiant est celui donné
+         * @param tileId l'identifiant donné
+         * @return la tuile dont l'identifiant est celui donné
+         * @throws IllegalArgumentException si cette tuile ne se trouve pas sur le plateau
+         */
+        PlacedTile tileWithId(int tileId) {
+            return tiles().tileWithId(tileId);
+        }
+
+        /**
+         * Méthode qui retourne la dernière tuile posée, ou null si le plateau est vide
+         * @return la dernière tuile posée, ou null si le plateau est vide
+         */
+        PlacedTile lastPlacedTile() {
+            return tiles().lastPlacedTile();
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble des positions d'insertions du plateau
+         * @return l'ensemble des positions d'insertions du plateau
+         */
+        Set<Pos> insertionPositions() {
+
+            if (insertionPositions == null)
+                insertionPositions = new HashSet<>(tiles().insertionPositions());
+
+            return Collections.unmodifiableSet(insertionPositions);
+        }
+
+        /**
+         * Méthode qui retourne vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du
+         * plateau
+         * @param tile la tuile donnée
+         * @return vrai ssi la tuile donnée pourrait être posée sur l'une des positions d'insertion du plateau
+         */
+        boolean couldPlaceTile(Tile tile) {
+            return Board.couldPlaceTile(tiles(), insertionPositions(), tile);
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble des occupants se trouvant sur les tuiles du plateau
+         * @return l'ensemble des occupants se trouvant sur les tuiles du plateau
+         */
+        Set<Occupant> occupants() {
+            return tiles().occupants();
+        }
+
+        /**
+         * Méthode qui retourne le nombre d'occupants de la sorte donnée appartenant au joueur donné et se trouvant
+         * sur le plateau
+         * @param player le joueur donné
+         * @param occupantKind la sorte d'occupant donnée
+         * @return le nombre d'occupants de la sorte donnée appartenant au joueur donné
+         */
+        int occupantCount(PlayerColor player, Occupant.Kind occupantKind) {
+            return tiles().occupantCount(player, occupantKind);
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble des animaux annulés
+         * @return l'ensemble des animaux annulés
+         */
+        Set<Animal> cancelledAnimals() {
+            return Collections.unmodifiableSet(cancelledAnimals);
+        }
+
+        /**
+         * Méthode qui retourne l'aire forêt contenant la zone donnée
+         * @param forest la zone forêt donnée
+         * @return l'aire forêt contenant la zone donnée
+         * @throws IllegalArgumentException si la zone en question n'appartient pas au plateau
+         */
+        Area<Zone.Forest> forestArea(Zone.Forest forest) {
+            return partitions().forestArea(forest);
+        }
+
+        /**
+         * Méthode qui retourne l'aire pré contenant la zone donnée
+         * @param meadow la zone pré donnée
+         * @return l'aire pré contenant la zone donnée
+         * @throws IllegalArgumentException si la zone en question n'appartient pas au plateau
+         */
+        Area<Zone.Meadow> meadowArea(Zone.Meadow meadow) {
+            return partitions().meadowArea(meadow);
+        }
+
+        /**
+         * Méthode qui retourne l'aire rivière contenant la zone donnée
+         * @param river la zone rivière donnée
+         * @return l'aire rivière contenant la zone donnée
+         * @throws IllegalArgumentException si la zone en question n'appartient pas au plateau
+         */
+        Area<Zone.River> riverArea(Zone.River river) {
+            return partitions().riverArea(river);
+        }
+
+        /**
+         * Méthode qui retourne le réseau hydrographique contenant la zone donnée
+         * @param water la zone donnée
+         * @return le réseau hydrographique contenant la zone donnée
+         * @throws IllegalArgumentException si la zone en question n'appartient pas au plateau
+         */
+        Area<Zone.Water> riverSystemArea(Zone.Water water) {
+            return partitions().riverSystemArea(water);
+        }
+
+        /**
+         * Méthode qui retourne vrai ssi l'aire que l'occupant donné occuperait est déjà occupée
+         * @param occupant l'occupant donné
+         * @return vrai ssi l'aire que l'occupant donné occuperait est déjà occupée
+         */
+        boolean isAreaOccupied(Occupant occupant) {
+            return partitionsBuilder == null
+                    ? tiles().isAreaOccupied(occupant)
+                    : partitionsBuilder.isAreaOccupied(occupant);
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble (non modifiable) des occupants que le joueur donné pourrait placer sur la
+         * dernière tuile posée, calculé une seule fois tant que le plateau en cours de construction n'est pas modifié,
+         * et transmis au plateau construit
+         * @param player le joueur donné
+         * @return l'ensemble des occupants que le joueur donné pourrait placer sur la dernière tuile posée
+         * @throws IllegalArgumentException si le plateau est vide
+         */
+        Set<Occupant> lastTilePotentialOccupants(PlayerColor player) {
+
+            PotentialOccupants cached = lastTilePotentialOccupants;
+
+            if (cached == null || cached.player() != player) {
+                cached = new PotentialOccupants(player, potentialOccupants(lastPlacedTile(), this::isAreaOccupied,
+                        kind -> Occupant.occupantsCount(kind) - occupantCount(player, kind)));
+                lastTilePotentialOccupants = cached;
+            }
+
+            return cached.occupants();
+        }
+
+        /**
+         * Méthode qui retourne le pré adjacent à la zone donnée, sous la forme d'une aire qui ne contient que
+         * les zones de ce pré, mais tous les occupants du pré complet
+         * @param pos la position de la tuile donnée
+         * @param meadowZone la zone donnée
+         * @return le pré adjacent à la zone donnée
+         */
+        Area<Zone.Meadow> adjacentMeadow(Pos pos, Zone.Meadow meadowZone) {
+            return Board.adjacentMeadow(tiles(), pos, meadowArea(meadowZone));
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la
+         * dernière tuile, ou un ensemble vide si le plateau est vide
+         * @return l'ensemble de toutes les aires forêts qui ont été fermées suite à la pose de la dernière tuile
+         */
+        Set<Area<Zone.Forest>> forestsClosedByLastTile() {
+            return lastPlacedTile() == null
+                    ? new HashSet<>()
+                    : closedAreas(lastPlacedTile().forestZones(), this::forestArea);
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble de toutes les aires rivières qui ont été fermées suite à la pose de
+         * la dernière tuile, ou un ensemble vide si le plateau est vide
+         * @return l'ensemble de toutes les aires rivières qui ont été fermées suite à la pose de la dernière tuile
+         */
+        Set<Area<Zone.River>> riversClosedByLastTile() {
+            return lastPlacedTile() == null
+                    ? new HashSet<>()
+                    : closedAreas(lastPlacedTile().riverZones(), this::riverArea);
+        }
+
+        /**
+         * Méthode qui ajoute la tuile donnée au plateau en cours de construction
+         * @param tile la tuile donnée
+         * @throws IllegalArgumentException si le plateau n'est pas vide et la tuile donnée ne peut pas
+         * être ajoutée au plateau
+         */
+        void addTile(PlacedTile tile) {
+
+            Preconditions.checkArgument(placedTilesIndex.length == 0 || tiles().canAddTile(tile));
+            lastTilePotentialOccupants = null;
+
+            ZonePartitions.Builder partitionsBuilder = partitions();
+            partitionsBuilder.addTile(tile.tile());
+
+            for (Direction direction : Direction.ALL) {
+                PlacedTile neighborTile = tileAt(tile.pos().neighbor(direction));
+
+                if (neighborTile != null)
+                    partitionsBuilder.connectSides(tile.side(direction), neighborTile.side(direction.opposite()));
+            }
+
+            int index = findIndex(tile.pos());
+            PlacedTile[] placedTiles = writablePlacedTiles();
+            placedTiles[index] = tile;
+
+            placedTilesIndex = Arrays.copyOf(placedTilesIndex, placedTilesIndex.length + 1);
+            placedTilesIndex[placedTilesIndex.length - 1] = index;
+
+            if (insertionPositions != null) {
+                insertionPositions.remove(tile.pos());
+
+                for (Direction direction : Direction.ALL) {
+                    Pos neighborPos = tile.pos().neighbor(direction);
+
+                    if (isWithinBoard(neighborPos) && placedTiles[findIndex(neighborPos)] == null)
+                        insertionPositions.add(neighborPos);
+                }
+            }
+        }
+
+        /**
+         * Méthode qui ajoute l'occupant donné au plateau en cours de construction
+         * @param occupant l'occupant donné
+         * @throws IllegalArgumentException si la tuile sur laquelle se trouverait l'occupant est deja occupée
+         */
+        void addOccupant(Occupant occupant) {
+
+            int zoneId = occupant.zoneId();
+            PlacedTile tile = tileWithId(Zone.tileId(zoneId));
+
+            PlacedTile newTile = tile.withOccupant(occupant);
+            lastTilePotentialOccupants = null;
+            partitions().addInitialOccupant(tile.placer(), occupant.kind(), tile.zoneWithId(zoneId));
+
+            writablePlacedTiles()[findIndex(tile.pos())] = newTile;
+        }
+
+        /**
+         * Méthode qui supprime l'occupant donné du plateau en cours de construction
+         * @param occupant l'occupant donné
+         */
+        void removeOccupant(Occupant occupant) {
+
+            int zoneId = occupant.zoneId();
+            PlacedTile tile = tileWithId(Zone.tileId(zoneId));
+
+            lastTilePotentialOccupants = null;
+            partitions().removePawn(tile.placer(), tile.zoneWithId(zoneId));
+
+            writablePlacedTiles()[findIndex(tile.pos())] = tile.withNoOccupant();
+        }
+
+        /**
+         * Méthode qui supprime tous les occupants des forêts et des rivières données
+         * @param forests les forêts données
+         * @param rivers les rivières données
+         */
+        void removeGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
+
+            if (forests.isEmpty() && rivers.isEmpty())
+                return;
+
+            lastTilePotentialOccupants = null;
+            ZonePartitions.Builder partitionsBuilder = partitions();
+
+            for (Area<Zone.Forest> forestArea : forests) {
+                partitionsBuilder.clearGatherers(forestArea);
+                removePawnsIn(forestArea);
+            }
+
+            for (Area<Zone.River> riverArea : rivers) {
+                partitionsBuilder.clearFishers(riverArea);
+                removePawnsIn(riverArea);
+            }
+        }
+
+        /**
+         * Méthode qui retire des tuiles du plateau en cours de construction les pions occupant l'une des zones de
+         * l'aire donnée ; seules les tuiles contenant ces zones sont examinées
+         * @param area l'aire donnée
+         */
+        private void removePawnsIn(Area<? extends Zone> area) {
+
+            for (Zone zone : area.zones()) {
+                PlacedTile placedTile = tiles().tileWithIdOrNull(zone.tileId());
+
+                if (placedTile != null && placedTile.idOfZoneOccupiedBy(Occupant.Kind.PAWN) == zone.id())
+                    writablePlacedTiles()[findIndex(placedTile.pos())] = placedTile.withNoOccupant();
+            }
+        }
+
+        /**
+         * Méthode qui ajoute l'ensemble des animaux donnés à l'ensemble des animaux annulés
+         * @param newlyCancelledAnimals l'ensemble des animaux donnés
+         */
+        void addCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
+
+            if (cancelledAnimalsShared) {
+                cancelledAnimals = new HashSet<>(cancelledAnimals);
+                cancelledAnimalsShared = false;
+            }
+
+            cancelledAnimals.addAll(newlyCancelledAnimals);
+        }
+
+        /**
+         * Méthode qui retourne le plateau en cours de construction ; le bâtisseur peut continuer à être utilisé
+         * ensuite sans que cela ne modifie le plateau retourné
+         * @return le plateau en cours de construction
+         */
+        Board build() {
+
+            if (partitionsBuilder != null) {
+                zonePartitions = partitionsBuilder.build();
+                partitionsBuilder = null;
+            }
+
+            placedTilesShared = true;
+            cancelledAnimalsShared = true;
+            tiles = new Board(placedTiles, placedTilesIndex, zonePartitions, cancelledAnimals);
+            tiles.lastTilePotentialOccupants = lastTilePotentialOccupants;
+
+            if (insertionPositions != null)
+                tiles.insertionPositions = Collections.unmodifiableSet(new HashSet<>(insertionPositions));
+
+            return tiles;
+        }
+
+        /**
+         * Méthode qui retourne un plateau partageant les tuiles du bâtisseur, qui ne doit être utilisé que pour les
+         * requêtes portant sur les tuiles et non sur les aires, qui peuvent ne pas être à jour
+         * @return un plateau partageant les tuiles du bâtisseur
+         */
+        private Board tiles() {
+
+            if (tiles == null) {
+                tiles = new Board(placedTiles, placedTilesIndex, zonePartitions, cancelledAnimals);
+                if (insertionPositions != null)
+                    tiles.insertionPositions = Collections.unmodifiableSet(insertionPositions);
+            }
+
+            return tiles;
+        }
+
+        /**
+         * Méthode qui retourne le bâtisseur des partitions du plateau, en le créant si nécessaire
+         * @return le bâtisseur des partitions du plateau
+         */
+        private ZonePartitions.Builder partitions() {
+
+            if (partitionsBuilder == null)
+                partitionsBuilder = new ZonePartitions.Builder(zonePartitions);
+
+            return partitionsBuilder;
+        }
+
+        /**
+         * Méthode qui retourne le tableau des tuiles du bâtisseur, après l'avoir copié s'il est partagé avec un
+         * plateau déjà construit
+         * @return le tableau des tuiles du bâtisseur, modifiable
+         */
+        private PlacedTile[] writablePlacedTiles() {
+
+            if (placedTilesShared) {
+                placedTiles = placedTiles.clone();
+                placedTilesShared = false;
+            }
+
+            tiles = null;
+
+            return placedTiles;
+        }
+    }
+
 }
 
@@ -0,0 +1,190 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Enregistrement qui représente les différences entre deux plateaux de jeu, typiquement deux plateaux successifs
+ * d'une partie, permettant de ne mettre à jour que les parties de l'affichage qui ont changé
+ * @param changedTiles l'ensemble des positions dont la tuile posée (ou son occupant) a changé
+ * @param addedInsertionPositions l'ensemble des positions d'insertion apparues
+ * @param removedInsertionPositions l'ensemble des positions d'insertion disparues
+ * @param addedOccupants l'ensemble des occupants apparus
+ * @param removedOccupants l'ensemble des occupants disparus
+ * @param changedCancelledAnimals l'ensemble des animaux qui ont été annulés, ou qui ne le sont plus
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record BoardDiff(Set<Pos> changedTiles, Set<Pos> addedInsertionPositions, Set<Pos> removedInsertionPositions,
+                        Set<Occupant> addedOccupants, Set<Occupant> removedOccupants,
+                        Set<Animal> changedCancelledAnimals) {
+
+    /**
+     * Constructeur compact garantissant l'immuabilité de l'enregistrement
+     */
+    public BoardDiff {
+        changedTiles = Set.copyOf(changedTiles);
+        addedInsertionPositions = Set.copyOf(addedInsertionPositions);
+        removedInsertionPositions = Set.copyOf(removedInsertionPositions);
+        addedOccupants = Set.copyOf(addedOccupants);
+        removedOccupants = Set.copyOf(removedOccupants);
+        changedCancelledAnimals = Set.copyOf(changedCancelledAnimals);
+    }
+
+    /**
+     * Méthode qui retourne les différences entre les deux plateaux donnés ; lorsque le nouveau plateau s'obtient en
+     * posant des tuiles sur l'ancien, seules ces nouvelles tuiles et leurs voisines sont examinées pour déterminer
+     * les positions d'insertion apparues et disparues
+     * @param oldBoard l'ancien plateau
+     * @param newBoard le nouveau plateau
+     * @return les différences entre les deux plateaux donnés
+     */
+    public static BoardDiff between(Board oldBoard, Board newBoard) {
+
+        List<PlacedTile> oldTiles = oldBoard.placedTiles();
+        List<PlacedTile> newTiles = newBoard.placedTiles();
+
+        Set<Pos> changedTiles = new HashSet<>();
+        Set<Pos> addedInsertionPositions = new HashSet<>();
+        Set<Pos> removedInsertionPositions = new HashSet<>();
+
+        if (extendsTiles(oldTiles, newTiles)) {
+
+            for (int i = 0; i < oldTiles.size(); i++) {
+                if (!sameTile(oldTiles.get(i), newTiles.get(i)))
+                    changedTiles.add(newTiles.get(i).pos());
+            }
+
+            Set<Pos> oldInsertionPositions = oldBoard.insertionPositions();
+            Set<Pos> newInsertionPositions = newBoard.insertionPositions();
+
+            for (PlacedTile tile : newTiles.subList(oldTiles.size(), newTiles.size())) {
+                changedTiles.add(tile.pos());
+
+                if (oldInsertionPositions.contains(tile.pos()))
+                    removedInsertionPositions.add(tile.pos());
+
+                for (Direction direction : Direction.ALL) {
+                    Pos neighborPos = tile.pos().neighbor(direction);
+
+                    if (newInsertionPositions.contains(neighborPos) && !oldInsertionPositions.contains(neighborPos))
+                        addedInsertionPositions.add(neighborPos);
+                }
+            }
+
+        } else {
+
+            for (PlacedTile tile : oldTiles) {
+                if (!sameTile(tile, newBoard.tileAt(tile.pos())))
+                    changedTiles.add(tile.pos());
+            }
+
+            for (PlacedTile tile : newTiles) {
+                if (!sameTile(tile, oldBoard.tileAt(tile.pos())))
+                    changedTiles.add(tile.pos());
+            }
+
+            addedInsertionPositions.addAll(newBoard.insertionPositions());
+            addedInsertionPositions.removeAll(oldBoard.insertionPositions());
+            removedInsertionPositions.addAll(oldBoard.insertionPositions());
+            removedInsertionPositions.removeAll(newBoard.insertionPositions());
+        }
+
+        Set<Occupant> addedOccupants = new HashSet<>();
+        Set<Occupant> removedOccupants = new HashSet<>();
+
+        for (Pos pos : changedTiles) {
+            Occupant oldOccupant = occupantAt(oldBoard, pos);
+            Occupant newOccupant = occupantAt(newBoard, pos);
+
+            if (!Objects.equals(oldOccupant, newOccupant)) {
+                if (oldOccupant != null)
+                    removedOccupants.add(oldOccupant);
+                if (newOccupant != null)
+                    addedOccupants.add(newOccupant);
+            }
+        }
+
+        // un occupant dont la tuile a changé de position n'est ni apparu ni disparu
+        Set<Occupant> movedOccupants = new HashSet<>(addedOccupants);
+        movedOccupants.retainAll(removedOccupants);
+        addedOccupants.removeAll(movedOccupants);
+        removedOccupants.removeAll(movedOccupants);
+
+        Set<Animal> changedCancelledAnimals = new HashSet<>();
+        Set<Animal> oldCancelledAnimals = oldBoard.cancelledAnimals();
+        Set<Animal> newCancelledAnimals = newBoard.cancelledAnimals();
+
+        if (!oldCancelledAnimals.equals(newCancelledAnimals)) {
+            for (Animal animal : newCancelledAnimals) {
+                if (!oldCancelledAnimals.contains(animal))
+                    changedCancelledAnimals.add(animal);
+            }
+            for (Animal animal : oldCancelledAnimals) {
+                if (!newCancelledAnimals.contains(animal))
+                    changedCancelledAnimals.add(animal);
+            }
+        }
+
+        return new BoardDiff(changedTiles, addedInsertionPositions, removedInsertionPositions, addedOccupants,
+                removedOccupants, changedCancelledAnimals);
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi aucune différence n'a été constatée entre les deux plateaux
+     * @return vrai ssi aucune différence n'a été constatée entre les deux plateaux
+     */
+    public boolean isEmpty() {
+        return changedTiles.isEmpty()
+                && addedInsertionPositions.isEmpty()
+                && removedInsertionPositions.isEmpty()
+                && changedCancelledAnimals.isEmpty();
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la liste des nouvelles tuiles commence par des tuiles posées aux mêmes positions
+     * que les anciennes, soit, ssi le nouveau plateau s'obtient en posant des tuiles sur l'ancien (et éventuellement
+     * en modifiant leurs occupants)
+     * @param oldTiles les anciennes tuiles, dans l'ordre de pose
+     * @param newTiles les nouvelles tuiles, dans l'ordre de pose
+     * @return vrai ssi le nouveau plateau s'obtient en posant des tuiles sur l'ancien
+     */
+    private static boolean extendsTiles(List<PlacedTile> oldTiles, List<PlacedTile> newTiles) {
+
+        if (oldTiles.size() > newTiles.size())
+            return false;
+
+        for (int i = 0; i < oldTiles.size(); i++) {
+            PlacedTile oldTile = oldTiles.get(i);
+            PlacedTile newTile = newTiles.get(i);
+
+            if (oldTile.id() != newTile.id() || !oldTile.pos().equals(newTile.pos()))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi les deux tuiles posées données sont identiques, en évitant la comparaison par
+     * structure lorsqu'il s'agit du même objet
+     * @param tile1 la première tuile posée, ou null
+     * @param tile2 la seconde tuile posée, ou null
+     * @return vrai ssi les deux tuiles posées données sont identiques
+     */
+    private static boolean sameTile(PlacedTile tile1, PlacedTile tile2) {
+        return tile1 == tile2 || (tile1 != null && tile1.equals(tile2));
+    }
+
+    /**
+     * Méthode qui retourne l'occupant de la tuile posée à la position donnée du plateau donné, ou null
+     * @param board le plateau donné
+     * @param pos la position donnée
+     * @return l'occupant de la tuile posée à la position donnée, ou null s'il n'y a ni tuile ni occupant
+     */
+    private static Occupant occupantAt(Board board, Pos pos) {
+        PlacedTile tile = board.tileAt(pos);
+        return tile == null ? null : tile.occupant();
+    }
+
+}
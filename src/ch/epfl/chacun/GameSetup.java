@@ -0,0 +1,95 @@
+package ch.epfl.chacun;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+/**
+ * Enregistrement qui représente les paramètres d'une partie, à partir desquels l'hôte et chacun des clients (ou une
+ * partie locale restaurée depuis sa sauvegarde) construisent le même état initial : la graine du mélange des tuiles
+ * et les noms des joueurs
+ * @param seed la graine utilisée pour mélanger les tuiles
+ * @param playerNames les noms des joueurs, dans l'ordre de leurs couleurs
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record GameSetup(long seed, List<String> playerNames) {
+
+    /**
+     * Constructeur compact validant les arguments qui lui sont passés et garantissant l'immuabilité de
+     * l'enregistrement
+     * @throws IllegalArgumentException si le nombre de joueurs n'est pas compris entre 2 et 5, ou si l'un des noms
+     * est vide
+     */
+    public GameSetup {
+        playerNames = List.copyOf(playerNames);
+        Preconditions.checkArgument(playerNames.size() >= 2 && playerNames.size() <= PlayerColor.ALL.size());
+        Preconditions.checkArgument(playerNames.stream().noneMatch(String::isEmpty));
+    }
+
+    /**
+     * Méthode qui construit l'état initial de la partie (avant la pose de la tuile de départ), en mélangeant les
+     * tuiles au moyen du générateur par défaut initialisé avec la graine
+     * @return l'état initial de la partie
+     */
+    public GameState initialState() {
+
+        RandomGenerator randomGenerator = RandomGeneratorFactory.getDefault().create(seed);
+
+        List<Tile> shuffledTiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(shuffledTiles, randomGenerator);
+
+        Map<Tile.Kind, List<Tile>> tilesByKind = shuffledTiles.stream()
+                .collect(Collectors.groupingBy(Tile::kind));
+        TileDecks tileDecks =
+                new TileDecks(tilesByKind.get(Tile.Kind.START),
+                        tilesByKind.get(Tile.Kind.NORMAL),
+                        tilesByKind.getOrDefault(Tile.Kind.MENHIR, List.of()));
+
+        List<PlayerColor> playerColors = PlayerColor.ALL.subList(0, playerNames.size());
+        Map<PlayerColor, String> playersMap = new HashMap<>();
+        for (int i = 0; i < playerNames.size(); i++)
+            playersMap.put(playerColors.get(i), playerNames.get(i));
+
+        return GameState.initial(playerColors, tileDecks, new TextMakerFr(playersMap));
+    }
+
+    /**
+     * Méthode qui retourne la représentation textuelle des paramètres, utilisée par le protocole comme par les
+     * sauvegardes : la graine (non signée) puis les noms des joueurs encodés pour les URL, séparés par des espaces
+     * @return la représentation textuelle des paramètres
+     */
+    public String encode() {
+
+        StringJoiner joiner = new StringJoiner(" ");
+        joiner.add(Long.toUnsignedString(seed));
+        for (String playerName : playerNames)
+            joiner.add(URLEncoder.encode(playerName, StandardCharsets.UTF_8));
+
+        return joiner.toString();
+    }
+
+    /**
+     * Méthode qui retourne les paramètres correspondant à la représentation textuelle donnée
+     * @param text la représentation textuelle donnée, telle que retournée par encode
+     * @return les paramètres correspondant à la représentation textuelle donnée
+     * @throws IllegalArgumentException si la représentation textuelle donnée n'est pas valide
+     */
+    public static GameSetup decode(String text) {
+
+        String[] parts = text.trim().split(" +");
+        Preconditions.checkArgument(parts.length >= 1);
+
+        List<String> playerNames = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++)
+            playerNames.add(URLDecoder.decode(parts[i], StandardCharsets.UTF_8));
+
+        return new GameSetup(Long.parseUnsignedLong(parts[0]), playerNames);
+    }
+
+}
@@ -1,6 +1,7 @@
 package ch.epfl.chacun;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -84,29 +85,32 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * @throws IllegalArgumentException si le plateau est vide
      */
     public Set<Occupant> lastTilePotentialOccupants() {
-        PlacedTile lastPlacedTile = board.lastPlacedTile();
-
-        Preconditions.checkArgument(lastPlacedTile != null);
-
-        Set<Occupant> potentialOccupantsSet = new HashSet<>(lastPlacedTile.potentialOccupants());
-
-        potentialOccupantsSet.removeIf(occupant -> {
-
-            Zone occupantZone = lastPlacedTile.zoneWithId(occupant.zoneId());
-
-                    return switch (occupantZone) {
-                        case Zone.Forest forestZone -> board.forestArea(forestZone).isOccupied();
-                        case Zone.Meadow meadowZone -> board.meadowArea(meadowZone).isOccupied();
-                        case Zone.River riverZone when occupant.kind() == Occupant.Kind.PAWN
-                                -> board.riverArea(riverZone).isOccupied();
-                        case Zone.Water waterZone -> board.riverSystemArea(waterZone).isOccupied();
-                    }
-
-                    || (freeOccupantsCount(currentPlayer(), occupant.kind()) == 0);
+        return board.lastTilePotentialOccupants(currentPlayer());
+    }
 
-        });
+    /**
+     * Méthode qui retourne la table des placements de la tuile à placer, soit, ses rotations valides sur chacune des
+     * positions d'insertion du plateau ; elle n'est calculée qu'une fois par état
+     * @return la table des placements de la tuile à placer, ou null s'il n'y a pas de tuile à placer
+     */
+    public PlacementTable placementTable() {
+        return tileToPlace == null ? null : board.placementTable(tileToPlace);
+    }
 
-        return potentialOccupantsSet;
+    /**
+     * Méthode qui évalue les conséquences qu'aurait la pose de la tuile donnée, puis de l'éventuel occupant donné,
+     * sans construire de nouvel état de jeu : les forêts et rivières qu'elle fermerait, les points que chaque joueur
+     * obtiendrait (y compris ceux de la pirogue ou de la fosse à pieux), les occupants qui retourneraient à leurs
+     * joueurs, et si elle permettrait de reprendre un pion ou de rejouer grâce à un menhir
+     * @param tile la tuile donnée, sans occupant
+     * @param occupant l'occupant à placer sur la tuile, ou null
+     * @return les conséquences qu'aurait la pose de la tuile donnée
+     * @throws IllegalArgumentException si la prochaine action n'est pas PLACE_TILE, si la tuile ne peut être
+     * posée, ou si l'occupant n'est pas l'un des occupants potentiels de la tuile pour le joueur courant
+     */
+    public PlacementOutcome evaluatePlacement(PlacedTile tile, Occupant occupant) {
+        Preconditions.checkArgument(board.canAddTile(tile));
+        return new Builder(this).evaluatePlacement(tile, occupant);
     }
 
     /**
@@ -117,17 +121,10 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      */
     public GameState withStartingTilePlaced() {
 
-        Preconditions.checkArgument(nextAction == Action.START_GAME);
-
-        PlacedTile startPlacedTile = new PlacedTile(tileDecks.topTile(Tile.Kind.START), null, Rotation.NONE,
-                Pos.ORIGIN, null);
-        Board newBoard = board.withNewTile(startPlacedTile);
-
-        Tile newTileToPlace = tileDecks.topTile(Tile.Kind.NORMAL);
-        TileDecks newTileDecks = tileDecks.withTopTileDrawn(Tile.Kind.START);
-        newTileDecks = newTileDecks.withTopTileDrawn(Tile.Kind.NORMAL);
+        Builder builder = new Builder(this);
+        builder.placeStartingTile();
 
-        return new GameState(players, newTileDecks, newTileToPlace, newBoard, Action.PLACE_TILE, messageBoard);
+        return builder.build();
     }
 
     /**
@@ -141,44 +138,10 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
 
     public GameState withPlacedTile(PlacedTile tile) {
 
-        Preconditions.checkArgument(nextAction == Action.PLACE_TILE && tile.occupant() == null);
-
-        MessageBoard newMessageBoard = messageBoard;
-        Board newBoard = board.withNewTile(tile);
-
-        int pawnCount = newBoard.occupantCount(currentPlayer(), Occupant.Kind.PAWN);
-
-        switch (tile.specialPowerZone()) {
-            case Zone.Lake lakeZone
-                    when lakeZone.specialPower() == Zone.SpecialPower.LOGBOAT ->
-                    newMessageBoard = newMessageBoard.withScoredLogboat(currentPlayer(),
-                            newBoard.riverSystemArea(lakeZone));
-
-            case Zone.Meadow meadowZone1
-                    when ((meadowZone1.specialPower() == Zone.SpecialPower.SHAMAN) && (pawnCount > 0)) -> {
-                return new GameState(players, tileDecks, null, newBoard, Action.RETAKE_PAWN, newMessageBoard);
-            }
+        Builder builder = new Builder(this);
+        builder.placeTile(tile);
 
-            case Zone.Meadow meadowZone2
-                    when meadowZone2.specialPower() == Zone.SpecialPower.HUNTING_TRAP -> {
-
-                Area<Zone.Meadow> adjacentMeadow = newBoard.adjacentMeadow(tile.pos(), meadowZone2);
-                Set<Animal> adjacentAnimalsSet = Area.animals(adjacentMeadow, newBoard.cancelledAnimals());
-
-                Set<Animal> cancelledDeers = cancelledDeers(adjacentAnimalsSet);
-                newMessageBoard = newMessageBoard.withScoredHuntingTrap(currentPlayer(), adjacentMeadow, cancelledDeers);
-
-                newBoard = newBoard.withMoreCancelledAnimals(adjacentAnimalsSet);
-            }
-
-            case null, default -> {}
-
-        }
-
-        GameState newGameState = new GameState(players, tileDecks, null, newBoard, Action.OCCUPY_TILE,
-                newMessageBoard);
-
-        return newGameState.withTurnFinishedIfOccupationImpossible();
+        return builder.build();
     }
 
     /**
@@ -190,18 +153,10 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      */
     public GameState withOccupantRemoved(Occupant occupant) {
 
-        Preconditions.checkArgument((nextAction == Action.RETAKE_PAWN) &&
-                ( (occupant == null) || (occupant.kind() == (Occupant.Kind.PAWN)) ) );
-
-        Board newBoard = board;
+        Builder builder = new Builder(this);
+        builder.removeOccupant(occupant);
 
-        if (occupant != null)
-            newBoard = newBoard.withoutOccupant(occupant);
-
-        GameState newGameState = new GameState(players, tileDecks, null, newBoard, Action.OCCUPY_TILE,
-                messageBoard);
-
-        return newGameState.withTurnFinishedIfOccupationImpossible();
+        return builder.build();
     }
 
     /**
@@ -213,202 +168,509 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      */
     public GameState withNewOccupant(Occupant occupant) {
 
-        Preconditions.checkArgument (nextAction == Action.OCCUPY_TILE);
+        Builder builder = new Builder(this);
+        builder.addOccupant(occupant);
 
-        Board newBoard = board;
+        return builder.build();
+    }
 
-        if (occupant != null)
-            newBoard = newBoard.withOccupant(occupant);
+    /**
+     * Méthode qui retourne les cerfs à annuler parmi un ensemble d'animaux donné d'une aire
+     * @param areaAnimalsSet l'ensemble d'animaux donné
+     * @return l'ensemble de cerfs à anunuler
+     */
+    private static Set<Animal> cancelledDeers(Set<Animal> areaAnimalsSet) {
 
-        GameState newGameState = new GameState(players, tileDecks, null, newBoard, nextAction, messageBoard);
+        int tigerCount = (int) areaAnimalsSet.stream()
+                .filter(animal -> animal.kind() == Animal.Kind.TIGER)
+                .count();
+
+        Set<Animal> deersSet = areaAnimalsSet.stream()
+                .filter(animal -> animal.kind() == Animal.Kind.DEER)
+                .collect(Collectors.toSet());
 
-        return newGameState.withTurnFinished();
+        return deersSet.stream()
+                .limit(Math.min(deersSet.size(), tigerCount))
+                .collect(Collectors.toSet());
     }
 
+
     /**
-     * Methode qui se charge de la transition vers le tour suivant
-     * @return un Game State de la même partie, mais avec le tour actuel fini
+     * Méthode qui retourne les aires données, triées selon le plus petit identifiant de leurs zones ; l'ordre de
+     * parcours d'un ensemble d'aires dépendant de la manière dont il a été construit, ce tri garantit que le décompte
+     * final produit les mêmes messages, dans le même ordre, quelle que soit la manière dont la partie a été rejouée
+     * @param areas les aires données
+     * @return la liste des aires données, triées selon le plus petit identifiant de leurs zones
      */
-    private GameState withTurnFinished() {
+    private static <Z extends Zone> List<Area<Z>> sortedAreas(Set<Area<Z>> areas) {
+        return areas.stream()
+                .sorted(Comparator.comparingInt(area -> area.zones().stream().mapToInt(Zone::id).min().orElse(0)))
+                .toList();
+    }
+
+    /**
+     * Bâtisseur d'un état de jeu, qui applique les règles du jeu à un plateau, des tas, une liste de joueurs et une
+     * liste de messages modifiables ; il permet d'enchaîner plusieurs actions sans construire d'état de jeu
+     * intermédiaire, un état n'étant construit qu'à l'appel de la méthode build
+     */
+    static final class Builder {
+        private final List<PlayerColor> players;
+        private TileDecks tileDecks;
+        private Tile tileToPlace;
+        private final Board.Builder board;
+        private Action nextAction;
+        private final MessageBoard noMessages;
+        private MessageBoard messageBoard;
+        private List<MessageBoard.Message> messages;
+
+        /**
+         * Constructeur qui retourne un nouveau bâtisseur dont l'état est initialement identique à l'état de jeu donné
+         * @param initial l'état de jeu donné
+         */
+        Builder(GameState initial) {
+            this.players = new ArrayList<>(initial.players);
+            this.tileDecks = initial.tileDecks;
+            this.tileToPlace = initial.tileToPlace;
+            this.board = new Board.Builder(initial.board);
+            this.nextAction = initial.nextAction;
+            this.noMessages = new MessageBoard(initial.messageBoard.textMaker(), Collections.emptyList());
+            this.messageBoard = initial.messageBoard;
+        }
+
+        /**
+         * Méthode qui retourne la prochaine action à effectuer
+         * @return la prochaine action à effectuer
+         */
+        Action nextAction() {
+            return nextAction;
+        }
+
+        /**
+         * Méthode qui retourne l'éventuelle tuile à placer
+         * @return l'éventuelle tuile à placer, ou null
+         */
+        Tile tileToPlace() {
+            return tileToPlace;
+        }
 
-        List<PlayerColor> newPlayersList = new ArrayList<>(players);
-        MessageBoard newMessageBoard = messageBoard;
-        TileDecks newDecks = tileDecks;
-        Tile nextTileToPlace;
+        /**
+         * Méthode qui retourne le bâtisseur du plateau de jeu
+         * @return le bâtisseur du plateau de jeu
+         */
+        Board.Builder board() {
+            return board;
+        }
+
+        /**
+         * Méthode qui retourne le joueur courant, ou null s'il n'y en a pas
+         * @return le joueur courant, ou null s'il n'y en a pas
+         */
+        PlayerColor currentPlayer() {
+
+            if (nextAction == Action.START_GAME || nextAction == Action.END_GAME)
+                return null;
+
+            return players.getFirst();
+        }
 
-        boolean canPlayAgain = false;
+        /**
+         * Méthode qui retourne le nombre d'occupants libres du type donné et appartenant au joueur donné
+         * @param player le joueur donné
+         * @param kind la sorte d'occupant donnée
+         * @return le nombre d'occupants libres du type donné et appartenant au joueur donné
+         */
+        int freeOccupantsCount(PlayerColor player, Occupant.Kind kind) {
+            return Occupant.occupantsCount(kind) - board.occupantCount(player, kind);
+        }
+
+        /**
+         * Méthode qui retourne l'ensemble des occupants potentiels de la dernière tuile posée
+         * @return l'ensemble des occupants potentiels de la dernière tuile posée
+         * @throws IllegalArgumentException si le plateau est vide
+         */
+        Set<Occupant> lastTilePotentialOccupants() {
+            return board.lastTilePotentialOccupants(currentPlayer());
+        }
 
-        Set<Area<Zone.River>> closedRiversSet = board.riversClosedByLastTile();
+        /**
+         * Méthode qui gère la transition de START_GAME à PLACE_TILE en plaçant la tuile de départ au centre du plateau
+         * et en tirant la première tuile du tas des tuiles normales, qui devient la tuile à jouer
+         * @throws IllegalArgumentException si la prochaine action n'est pas START_GAME
+         */
+        void placeStartingTile() {
 
-        for (Area<Zone.River> closedRiver : closedRiversSet)
-            newMessageBoard = newMessageBoard.withScoredRiver(closedRiver);
+            Preconditions.checkArgument(nextAction == Action.START_GAME);
 
+            board.addTile(new PlacedTile(tileDecks.topTile(Tile.Kind.START), null, Rotation.NONE, Pos.ORIGIN, null));
+
+            tileToPlace = tileDecks.topTile(Tile.Kind.NORMAL);
+            tileDecks = tileDecks.withTopTileDrawn(Tile.Kind.START).withTopTileDrawn(Tile.Kind.NORMAL);
+            nextAction = Action.PLACE_TILE;
+        }
 
-        Set<Area<Zone.Forest>> closedForestsSet = board.forestsClosedByLastTile();
+        /**
+         * Méthode qui gère toutes les transitions à partir de PLACE_TILE en ajoutant la tuile donnée au plateau,
+         * attribuant les éventuels points obtenus suite à la pose de la pirogue ou de la fosse à pieux, et déterminant
+         * l'action suivante, qui peut être RETAKE_PAWN si la tuile posée contient le chaman
+         * @param tile la tuile donnée
+         * @throws IllegalArgumentException si la prochaine action n'est pas PLACE_TILE
+         */
+        void placeTile(PlacedTile tile) {
 
-        for (Area<Zone.Forest> closedForest : closedForestsSet) {
-            newMessageBoard = newMessageBoard.withScoredForest(closedForest);
+            Preconditions.checkArgument(nextAction == Action.PLACE_TILE && tile.occupant() == null);
 
-            if ( Area.hasMenhir(closedForest) &&
-                    (board.lastPlacedTile() != null) &&
-                    board.lastPlacedTile().kind() == Tile.Kind.NORMAL) {
+            board.addTile(tile);
+            tileToPlace = null;
+
+            if (applySpecialPower(tile, this::addMessages)) {
+                nextAction = Action.RETAKE_PAWN;
+                return;
+            }
+
+            nextAction = Action.OCCUPY_TILE;
+            finishTurnIfOccupationImpossible();
+        }
+
+        /**
+         * Méthode qui évalue les conséquences de la pose de la tuile donnée, puis de l'éventuel occupant donné, sans
+         * passer au tour suivant : les points de la pirogue ou de la fosse à pieux, les forêts et rivières fermées,
+         * les points qu'elles rapportent, les occupants qui retournent à leurs joueurs et la possibilité de rejouer
+         * grâce à un menhir, évaluée sans modifier les tas ; le bâtisseur n'est plus utilisable ensuite
+         * @param tile la tuile donnée
+         * @param occupant l'occupant à placer sur la tuile, ou null
+         * @return les conséquences de la pose de la tuile donnée
+         * @throws IllegalArgumentException si la prochaine action n'est pas PLACE_TILE ou si l'occupant n'est pas
+         * l'un des occupants potentiels de la tuile
+         */
+        PlacementOutcome evaluatePlacement(PlacedTile tile, Occupant occupant) {
+
+            Preconditions.checkArgument(nextAction == Action.PLACE_TILE && tile.occupant() == null);
+
+            List<MessageBoard.Message> newMessages = new ArrayList<>();
+            Consumer<MessageBoard> messageSink = messageBoard -> newMessages.addAll(messageBoard.messages());
+
+            board.addTile(tile);
+            boolean canRetakePawn = applySpecialPower(tile, messageSink);
+
+            if (occupant != null) {
+                Preconditions.checkArgument(lastTilePotentialOccupants().contains(occupant));
+                board.addOccupant(occupant);
+            }
+
+            Set<Area<Zone.River>> closedRivers = board.riversClosedByLastTile();
+            Set<Area<Zone.Forest>> closedForests = board.forestsClosedByLastTile();
+            Set<Occupant> returnedOccupants = new HashSet<>();
+            boolean canPlayAgain = false;
+
+            for (Area<Zone.River> closedRiver : sortedAreas(closedRivers)) {
+                messageSink.accept(noMessages.withScoredRiver(closedRiver));
+                addAreaPawns(closedRiver, returnedOccupants);
+            }
 
-                newDecks = newDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, board::couldPlaceTile);
+            for (Area<Zone.Forest> closedForest : sortedAreas(closedForests)) {
+                messageSink.accept(noMessages.withScoredForest(closedForest));
+                addAreaPawns(closedForest, returnedOccupants);
 
-                if ( (newDecks.deckSize(Tile.Kind.MENHIR) > 0) && !canPlayAgain ) {
-                    canPlayAgain = true; // pour afficher le message qu'une fois
-                    newMessageBoard = newMessageBoard.withClosedForestWithMenhir(currentPlayer(), closedForest);
+                //MEME CONDITION QUE DANS finishTurn : IL DOIT RESTER UNE TUILE MENHIR POUVANT ETRE POSEE
+                if (Area.hasMenhir(closedForest) && tile.kind() == Tile.Kind.NORMAL && !canPlayAgain) {
+                    canPlayAgain = tileDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, board::couldPlaceTile)
+                            .deckSize(Tile.Kind.MENHIR) > 0;
                 }
             }
+
+            return new PlacementOutcome(newMessages, closedForests, closedRivers,
+                    new MessageBoard(noMessages.textMaker(), newMessages).points(), returnedOccupants,
+                    canRetakePawn, canPlayAgain);
         }
 
-        Board newBoard = board.withoutGatherersOrFishersIn(closedForestsSet, closedRiversSet);
+        /**
+         * Méthode qui applique le pouvoir spécial de la tuile donnée, qui vient d'être posée : les points de la
+         * pirogue, ou les points et les animaux annulés de la fosse à pieux
+         * @param tile la tuile qui vient d'être posée
+         * @param messageSink le consommateur auquel transmettre les messages obtenus
+         * @return vrai ssi la tuile contient le chaman et le joueur courant a au moins un pion sur le plateau, soit,
+         * ssi il peut reprendre un pion
+         */
+        private boolean applySpecialPower(PlacedTile tile, Consumer<MessageBoard> messageSink) {
+
+            int pawnCount = board.occupantCount(currentPlayer(), Occupant.Kind.PAWN);
+
+            switch (tile.specialPowerZone()) {
+                case Zone.Lake lakeZone
+                        when lakeZone.specialPower() == Zone.SpecialPower.LOGBOAT ->
+                        messageSink.accept(noMessages.withScoredLogboat(currentPlayer(),
+                                board.riverSystemArea(lakeZone)));
+
+                case Zone.Meadow meadowZone1
+                        when ((meadowZone1.specialPower() == Zone.SpecialPower.SHAMAN) && (pawnCount > 0)) -> {
+                    return true;
+                }
 
-        if (canPlayAgain) {
-            // LE JOUEUR COURANT REJOUE
-            nextTileToPlace = newDecks.topTile(Tile.Kind.MENHIR);
-            newDecks = newDecks.withTopTileDrawn(Tile.Kind.MENHIR);
+                case Zone.Meadow meadowZone2
+                        when meadowZone2.specialPower() == Zone.SpecialPower.HUNTING_TRAP -> {
 
-        } else {
-            newDecks = newDecks.withTopTileDrawnUntil(Tile.Kind.NORMAL, newBoard::couldPlaceTile);
+                    Area<Zone.Meadow> adjacentMeadow = board.adjacentMeadow(tile.pos(), meadowZone2);
+                    Set<Animal> adjacentAnimalsSet = Area.animals(adjacentMeadow, board.cancelledAnimals());
 
-            if (newDecks.deckSize(Tile.Kind.NORMAL) > 0) {
-                // ON PASSE AU JOUEUR SUIVANT
-                Collections.rotate(newPlayersList, -1);
-                nextTileToPlace = newDecks.topTile(Tile.Kind.NORMAL);
-                newDecks = newDecks.withTopTileDrawn(Tile.Kind.NORMAL);
+                    Set<Animal> cancelledDeers = cancelledDeers(adjacentAnimalsSet);
+                    messageSink.accept(noMessages.withScoredHuntingTrap(currentPlayer(), adjacentMeadow,
+                            cancelledDeers));
+
+                    board.addCancelledAnimals(adjacentAnimalsSet);
+                }
+
+                case null, default -> {}
 
-            } else {
-                // FIN DU JEU
-                GameState endGameState = new GameState(players, newDecks, null, newBoard, Action.END_GAME,
-                        newMessageBoard);
-                return endGameState.withFinalPointsCounted();
             }
+
+            return false;
         }
 
-        return new GameState(newPlayersList, newDecks, nextTileToPlace, newBoard, Action.PLACE_TILE, newMessageBoard);
-    }
+        /**
+         * Méthode qui ajoute à l'ensemble donné les pions (cueilleurs ou pêcheurs) des zones de l'aire donnée, seuls
+         * occupants retirés du plateau à la fermeture d'une aire
+         * @param area l'aire donnée
+         * @param occupants l'ensemble auquel ajouter les pions
+         */
+        private void addAreaPawns(Area<? extends Zone> area, Set<Occupant> occupants) {
+            for (Zone zone : area.zones()) {
+                Occupant occupant = board.tileWithId(zone.tileId()).occupant();
+                if (occupant != null && occupant.kind() == Occupant.Kind.PAWN && occupant.zoneId() == zone.id())
+                    occupants.add(occupant);
+            }
+        }
 
-    /**
-     * Méthode qui retourne le même Game State si on peut occuper la dernière tuile posée, sinon met fin au tour actuel
-     * @return le même Game State si on peut occuper la dernière tuile posée, sinon met fin au tour actuel
-     */
-    private GameState withTurnFinishedIfOccupationImpossible() {
-        if (!lastTilePotentialOccupants().isEmpty())
-            return this;
+        /**
+         * Méthode qui gère toutes les transitions à partir de RETAKE_PAWN, en supprimant l'occupant donné, sauf s'il
+         * vaut null, ce qui indique que le joueur ne désire pas reprendre de pion
+         * @param occupant l'occupant donné
+         * @throws IllegalArgumentException si la prochaine action n'est pas RETAKE_PAWN
+         */
+        void removeOccupant(Occupant occupant) {
 
-        return this.withTurnFinished();
-    }
+            Preconditions.checkArgument((nextAction == Action.RETAKE_PAWN) &&
+                    ( (occupant == null) || (occupant.kind() == (Occupant.Kind.PAWN)) ) );
 
-    /**
-     * Méthode qui retourne un Game State avec le decompte final des points à la fin d'une partie
-     * @return un Game State avec le decompte final des points à la fin d'une partie
-     */
-    private GameState withFinalPointsCounted() {
+            if (occupant != null)
+                board.removeOccupant(occupant);
 
-        Board newBoard = board;
-        MessageBoard newMessageBoard = messageBoard;
+            nextAction = Action.OCCUPY_TILE;
+            finishTurnIfOccupationImpossible();
+        }
 
-        boolean hasWildFire;
-        boolean hasPitTrap;
-        boolean hasRaft;
+        /**
+         * Méthode qui gère toutes les transitions à partir de OCCUPY_TILE en ajoutant l'occupant donné à la dernière
+         * tuile posée, sauf s'il vaut null, ce qui indique que le joueur ne désire pas placer
+         * @param occupant l'occupant donné
+         * @throws IllegalArgumentException si la prochaine action n'est pas OCCUPY_TILE
+         */
+        void addOccupant(Occupant occupant) {
 
-        for (Area<Zone.Meadow> meadowArea : newBoard.meadowAreas()) {
+            Preconditions.checkArgument (nextAction == Action.OCCUPY_TILE);
 
-            hasWildFire = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
+            if (occupant != null)
+                board.addOccupant(occupant);
 
-            Zone pitTrapZone = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
-            hasPitTrap = pitTrapZone != null;
+            finishTurn();
+        }
 
-            Set<Animal> areaAnimalsSet = Area.animals(meadowArea, newBoard.cancelledAnimals());
+        /**
+         * Méthode qui retourne l'état de jeu en cours de construction ; le bâtisseur peut continuer à être utilisé
+         * ensuite sans que cela ne modifie l'état retourné
+         * @return l'état de jeu en cours de construction
+         */
+        GameState build() {
+            return new GameState(players, tileDecks, tileToPlace, board.build(), nextAction, messageBoard());
+        }
 
-            // WILD_FIRE et PIT_TRAP
-            if (hasWildFire && hasPitTrap) {
-                newMessageBoard = newMessageBoard.withScoredPitTrap(meadowArea, newBoard.cancelledAnimals());
-            }
+        /**
+         * Méthode qui termine le tour actuel si la dernière tuile posée ne peut pas être occupée
+         */
+        private void finishTurnIfOccupationImpossible() {
+            if (lastTilePotentialOccupants().isEmpty())
+                finishTurn();
+        }
+
+        /**
+         * Méthode qui se charge de la transition vers le tour suivant
+         */
+        private void finishTurn() {
+
+            boolean canPlayAgain = false;
 
-            // PIT_TRAP uniquement
-            else if (!hasWildFire && hasPitTrap) {
+            PlacedTile lastPlacedTile = board.lastPlacedTile();
 
-                PlacedTile pitTrapTile = newBoard.tileWithId(pitTrapZone.tileId());
+            Set<Area<Zone.River>> closedRiversSet = board.riversClosedByLastTile();
 
-                Area<Zone.Meadow> adjacentMeadow = newBoard.adjacentMeadow(pitTrapTile.pos(), (Zone.Meadow) pitTrapZone);
-                Set<Animal> adjacentAnimalsSet = Area.animals(adjacentMeadow, newBoard.cancelledAnimals());
+            for (Area<Zone.River> closedRiver : sortedAreas(closedRiversSet))
+                addMessages(noMessages.withScoredRiver(closedRiver));
 
-                Set<Animal> allDeers = areaAnimalsSet.stream()
-                        .filter(animal -> animal.kind() == Animal.Kind.DEER)
-                        .collect(Collectors.toSet());
 
-                Set<Animal> nonAdjacentDeers = allDeers.stream()
-                        .filter(deer -> !adjacentAnimalsSet.contains(deer))
-                        .collect(Collectors.toSet());
+            Set<Area<Zone.Forest>> closedForestsSet = board.forestsClosedByLastTile();
 
-                int tigerCount = (int) areaAnimalsSet.stream()
-                        .filter(animal -> animal.kind() == Animal.Kind.TIGER)
-                        .count();
+            for (Area<Zone.Forest> closedForest : sortedAreas(closedForestsSet)) {
+                addMessages(noMessages.withScoredForest(closedForest));
 
-                Set<Animal> optimizedCancelledDeers = Stream
-                        .concat(nonAdjacentDeers.stream(),allDeers.stream())
-                        .distinct()
-                        .limit(tigerCount)
-                        .collect(Collectors.toSet());
+                if ( Area.hasMenhir(closedForest) &&
+                        (lastPlacedTile != null) &&
+                        lastPlacedTile.kind() == Tile.Kind.NORMAL) {
 
-                newBoard = newBoard.withMoreCancelledAnimals(optimizedCancelledDeers);
-                newMessageBoard = newMessageBoard.withScoredPitTrap(adjacentMeadow, newBoard.cancelledAnimals());
+                    tileDecks = tileDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, board::couldPlaceTile);
+
+                    if ( (tileDecks.deckSize(Tile.Kind.MENHIR) > 0) && !canPlayAgain ) {
+                        canPlayAgain = true; // pour afficher le message qu'une fois
+                        addMessages(noMessages.withClosedForestWithMenhir(currentPlayer(), closedForest));
+                    }
+                }
             }
 
-            // ni WILD_FIRE, ni PIT_TRAP
-            else if (!hasWildFire){
-                Set<Animal> cancelledDeers = cancelledDeers(areaAnimalsSet); // comme pour la HUNTING_TRAP
-                newBoard = newBoard.withMoreCancelledAnimals(cancelledDeers);
+            board.removeGatherersOrFishersIn(closedForestsSet, closedRiversSet);
+
+            if (canPlayAgain) {
+                // LE JOUEUR COURANT REJOUE
+                tileToPlace = tileDecks.topTile(Tile.Kind.MENHIR);
+                tileDecks = tileDecks.withTopTileDrawn(Tile.Kind.MENHIR);
 
+            } else {
+                tileDecks = tileDecks.withTopTileDrawnUntil(Tile.Kind.NORMAL, board::couldPlaceTile);
+
+                if (tileDecks.deckSize(Tile.Kind.NORMAL) > 0) {
+                    // ON PASSE AU JOUEUR SUIVANT
+                    Collections.rotate(players, -1);
+                    tileToPlace = tileDecks.topTile(Tile.Kind.NORMAL);
+                    tileDecks = tileDecks.withTopTileDrawn(Tile.Kind.NORMAL);
+
+                } else {
+                    // FIN DU JEU
+                    nextAction = Action.END_GAME;
+                    countFinalPoints();
+                    return;
+                }
             }
 
-            newMessageBoard = newMessageBoard.withScoredMeadow(meadowArea, newBoard.cancelledAnimals());
+            nextAction = Action.PLACE_TILE;
         }
 
-        for (Area<Zone.Water> riverSystem : newBoard.riverSystemAreas()) {
+        /**
+         * Méthode qui effectue le décompte final des points à la fin d'une partie
+         */
+        private void countFinalPoints() {
 
-            hasRaft = riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null;
-            newMessageBoard = newMessageBoard.withScoredRiverSystem(riverSystem);
+            boolean hasWildFire;
+            boolean hasPitTrap;
+            boolean hasRaft;
 
-            if (hasRaft)
-                newMessageBoard = newMessageBoard.withScoredRaft(riverSystem);
-        }
+            Board finalBoard = board.build();
 
-        Map<PlayerColor, Integer> totalPoints = newMessageBoard.points();
+            for (Area<Zone.Meadow> meadowArea : sortedAreas(finalBoard.meadowAreas())) {
 
-        int maxPoints = totalPoints.isEmpty() ? 0 : Collections.max(totalPoints.values());
-        Set<PlayerColor> winners = totalPoints
-                .entrySet()
-                .stream()
-                .filter(entry -> entry.getValue() == maxPoints)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+                hasWildFire = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
 
-        newMessageBoard = newMessageBoard.withWinners(winners, maxPoints);
+                Zone pitTrapZone = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+                hasPitTrap = pitTrapZone != null;
 
-        return new GameState(players, tileDecks, null, newBoard, nextAction, newMessageBoard);
-    }
+                Set<Animal> areaAnimalsSet = Area.animals(meadowArea, board.cancelledAnimals());
 
-    /**
-     * Méthode qui retourne les cerfs à annuler parmi un ensemble d'animaux donné d'une aire
-     * @param areaAnimalsSet l'ensemble d'animaux donné
-     * @return l'ensemble de cerfs à anunuler
-     */
-    private Set<Animal> cancelledDeers(Set<Animal> areaAnimalsSet) {
+                // WILD_FIRE et PIT_TRAP
+                if (hasWildFire && hasPitTrap) {
+                    addMessages(noMessages.withScoredPitTrap(meadowArea, board.cancelledAnimals()));
+                }
 
-        int tigerCount = (int) areaAnimalsSet.stream()
-                .filter(animal -> animal.kind() == Animal.Kind.TIGER)
-                .count();
+                // PIT_TRAP uniquement
+                else if (!hasWildFire && hasPitTrap) {
 
-        Set<Animal> deersSet = areaAnimalsSet.stream()
-                .filter(animal -> animal.kind() == Animal.Kind.DEER)
-                .collect(Collectors.toSet());
+                    PlacedTile pitTrapTile = board.tileWithId(pitTrapZone.tileId());
 
-        return deersSet.stream()
-                .limit(Math.min(deersSet.size(), tigerCount))
-                .collect(Collectors.toSet());
+                    Area<Zone.Meadow> adjacentMeadow = board.adjacentMeadow(pitTrapTile.pos(),
+                            (Zone.Meadow) pitTrapZone);
+                    Set<Animal> adjacentAnimalsSet = Area.animals(adjacentMeadow, board.cancelledAnimals());
+
+                    Set<Animal> allDeers = areaAnimalsSet.stream()
+                            .filter(animal -> animal.kind() == Animal.Kind.DEER)
+                            .collect(Collectors.toSet());
+
+                    Set<Animal> nonAdjacentDeers = allDeers.stream()
+                            .filter(deer -> !adjacentAnimalsSet.contains(deer))
+                            .collect(Collectors.toSet());
+
+                    int tigerCount = (int) areaAnimalsSet.stream()
+                            .filter(animal -> animal.kind() == Animal.Kind.TIGER)
+                            .count();
+
+                    Set<Animal> optimizedCancelledDeers = Stream
+                            .concat(nonAdjacentDeers.stream(),allDeers.stream())
+                            .distinct()
+                            .limit(tigerCount)
+                            .collect(Collectors.toSet());
+
+                    board.addCancelledAnimals(optimizedCancelledDeers);
+                    addMessages(noMessages.withScoredPitTrap(adjacentMeadow, board.cancelledAnimals()));
+                }
+
+                // ni WILD_FIRE, ni PIT_TRAP
+                else if (!hasWildFire){
+                    Set<Animal> cancelledDeers = cancelledDeers(areaAnimalsSet); // comme pour la HUNTING_TRAP
+                    board.addCancelledAnimals(cancelledDeers);
+
+                }
+
+                addMessages(noMessages.withScoredMeadow(meadowArea, board.cancelledAnimals()));
+            }
+
+            for (Area<Zone.Water> riverSystem : sortedAreas(finalBoard.riverSystemAreas())) {
+
+                hasRaft = riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null;
+                addMessages(noMessages.withScoredRiverSystem(riverSystem));
+
+                if (hasRaft)
+                    addMessages(noMessages.withScoredRaft(riverSystem));
+            }
+
+            Map<PlayerColor, Integer> totalPoints = messageBoard().points();
+
+            int maxPoints = totalPoints.isEmpty() ? 0 : Collections.max(totalPoints.values());
+            Set<PlayerColor> winners = totalPoints
+                    .entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue() == maxPoints)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+
+            addMessages(noMessages.withWinners(winners, maxPoints));
+        }
+
+        /**
+         * Méthode qui retourne le tableau d'affichage contenant les messages du bâtisseur, en le construisant s'il a
+         * été modifié depuis sa dernière construction
+         * @return le tableau d'affichage contenant les messages du bâtisseur
+         */
+        private MessageBoard messageBoard() {
+
+            if (messageBoard == null) {
+                messageBoard = new MessageBoard(noMessages.textMaker(), messages);
+                messages = null;
+            }
+
+            return messageBoard;
+        }
+
+        /**
+         * Méthode qui ajoute à la liste des messages du bâtisseur les messages du tableau d'affichage donné, obtenu en
+         * appliquant l'une des méthodes du tableau d'affichage à un tableau vide
+         * @param newMessages le tableau d'affichage contenant les nouveaux messages
+         */
+        private void addMessages(MessageBoard newMessages) {
+
+            if (newMessages.messages().isEmpty())
+                return;
+
+            if (messages == null) {
+                messages = new ArrayList<>(messageBoard.messages());
+                messageBoard = null;
+            }
+
+            messages.addAll(newMessages.messages());
+        }
     }
 
 }
@@ -0,0 +1,103 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Enregistrement qui représente les changements apportés à l'état du jeu par une transition (ou par plusieurs
+ * transitions successives), permettant aux observateurs de la partie de se mettre à jour en fonction de ces seuls
+ * changements plutôt qu'en recalculant tout ce qu'ils affichent à partir du nouvel état
+ * @param placedTiles les tuiles posées, dans l'ordre de leur pose (chacune avec sa position)
+ * @param addedOccupants l'ensemble des occupants apparus
+ * @param removedOccupants l'ensemble des occupants disparus
+ * @param cancelledAnimals l'ensemble des animaux nouvellement annulés
+ * @param appendedMessages les messages ajoutés au tableau d'affichage, dans l'ordre
+ * @param pointsChanges la table associant à chaque joueur dont les points ont changé le nombre de points gagnés
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record GameStateChange(List<PlacedTile> placedTiles, Set<Occupant> addedOccupants,
+                              Set<Occupant> removedOccupants, Set<Animal> cancelledAnimals,
+                              List<MessageBoard.Message> appendedMessages, Map<PlayerColor, Integer> pointsChanges) {
+
+    /**
+     * Constructeur compact garantissant l'immuabilité de l'enregistrement
+     */
+    public GameStateChange {
+        placedTiles = List.copyOf(placedTiles);
+        addedOccupants = Set.copyOf(addedOccupants);
+        removedOccupants = Set.copyOf(removedOccupants);
+        cancelledAnimals = Set.copyOf(cancelledAnimals);
+        appendedMessages = List.copyOf(appendedMessages);
+        pointsChanges = Map.copyOf(pointsChanges);
+    }
+
+    /**
+     * Méthode qui retourne les changements permettant de passer de l'ancien état de jeu donné au nouveau ; seules
+     * les tuiles posées et les messages ajoutés sont parcourus, le nouvel état n'étant vérifié comme prolongement de
+     * l'ancien que par sa dernière tuile et son dernier message communs, et les animaux annulés ne sont comparés que
+     * si leur nombre a changé. Les occupants, qui peuvent disparaître de tuiles posées bien plus tôt (reprise d'un
+     * pion, fermeture d'une forêt ou d'une rivière), sont en revanche obtenus en comparant ceux des deux plateaux,
+     * ce qui parcourt l'ensemble de leurs tuiles
+     * @param oldState l'ancien état de jeu
+     * @param newState le nouvel état de jeu, obtenu en appliquant une ou plusieurs actions à l'ancien
+     * @return les changements entre les deux états de jeu donnés
+     * @throws IllegalArgumentException si le nouvel état de jeu ne prolonge visiblement pas l'ancien (tuiles posées
+     * ou messages retirés, ou derniers éléments communs différents)
+     */
+    public static GameStateChange between(GameState oldState, GameState newState) {
+
+        Board oldBoard = oldState.board();
+        Board newBoard = newState.board();
+        int oldTileCount = oldBoard.placedTileCount();
+        int newTileCount = newBoard.placedTileCount();
+        //L'OCCUPANT DE LA DERNIERE TUILE COMMUNE A PU CHANGER, PAS SON IDENTITE
+        Preconditions.checkArgument(oldTileCount <= newTileCount && (oldTileCount == 0
+                || oldBoard.placedTile(oldTileCount - 1).id() == newBoard.placedTile(oldTileCount - 1).id()));
+
+        List<PlacedTile> placedTiles = new ArrayList<>(newTileCount - oldTileCount);
+        for (int i = oldTileCount; i < newTileCount; i++)
+            placedTiles.add(newBoard.placedTile(i));
+
+        Set<Occupant> oldOccupants = oldBoard.occupants();
+        Set<Occupant> newOccupants = newBoard.occupants();
+        Set<Occupant> addedOccupants = new HashSet<>(newOccupants);
+        addedOccupants.removeAll(oldOccupants);
+        Set<Occupant> removedOccupants = new HashSet<>(oldOccupants);
+        removedOccupants.removeAll(newOccupants);
+
+        //LES ANIMAUX ANNULES LE RESTENT JUSQU'A LA FIN DE LA PARTIE
+        Set<Animal> cancelledAnimals = new HashSet<>();
+        if (oldBoard.cancelledAnimals().size() != newBoard.cancelledAnimals().size()) {
+            cancelledAnimals.addAll(newBoard.cancelledAnimals());
+            cancelledAnimals.removeAll(oldBoard.cancelledAnimals());
+        }
+
+        List<MessageBoard.Message> oldMessages = oldState.messageBoard().messages();
+        List<MessageBoard.Message> newMessages = newState.messageBoard().messages();
+        Preconditions.checkArgument(oldMessages.size() <= newMessages.size() && (oldMessages.isEmpty()
+                || newMessages.get(oldMessages.size() - 1).equals(oldMessages.getLast())));
+
+        List<MessageBoard.Message> appendedMessages = newMessages.subList(oldMessages.size(), newMessages.size());
+        Map<PlayerColor, Integer> pointsChanges = new HashMap<>();
+        for (MessageBoard.Message message : appendedMessages) {
+            for (PlayerColor scorer : message.scorers())
+                pointsChanges.merge(scorer, message.points(), Integer::sum);
+        }
+        pointsChanges.values().removeIf(points -> points == 0);
+
+        return new GameStateChange(placedTiles, addedOccupants, removedOccupants, cancelledAnimals, appendedMessages,
+                pointsChanges);
+    }
+
+    /**
+     * Méthode qui indique si aucun changement n'a été apporté à l'état du jeu (si ce n'est la prochaine action, la
+     * tuile à placer et les tas)
+     * @return vrai ssi aucune tuile n'a été posée, aucun occupant ni animal n'a changé et aucun message n'a été ajouté
+     */
+    public boolean isEmpty() {
+        return placedTiles.isEmpty() && addedOccupants.isEmpty() && removedOccupants.isEmpty()
+                && cancelledAnimals.isEmpty() && appendedMessages.isEmpty();
+    }
+
+}
@@ -0,0 +1,214 @@
+package ch.epfl.chacun;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classe qui dénombre, à la manière du « perft » des moteurs d'échecs, les séquences d'actions légales d'une longueur
+ * donnée à partir d'un état de jeu, l'ordre des tuiles des tas étant celui de l'état donné ; elle permet de valider
+ * le moteur de règles (les nombres obtenus sont reproductibles) et d'en mesurer la vitesse.
+ * Les actions légales sont les poses de la tuile à placer (positions d'insertion et rotations valides), les
+ * occupations de la dernière tuile posée (occupants potentiels, ou aucun) et les reprises de pion rendues possibles
+ * par le chaman (pions du joueur courant, ou aucun)
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class Perft {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private Perft() {}
+
+    /**
+     * Enregistrement qui représente le résultat d'un dénombrement
+     * @param depth la profondeur du dénombrement, soit, la longueur des séquences d'actions dénombrées
+     * @param nodes le nombre de séquences d'actions légales de cette longueur (les nœuds à cette profondeur)
+     * @param elapsed la durée du dénombrement
+     */
+    public record Result(int depth, long nodes, Duration elapsed) {
+
+        /**
+         * Méthode qui retourne le nombre de nœuds dénombrés par seconde
+         * @return le nombre de nœuds dénombrés par seconde, ou 0 si la durée du dénombrement est nulle
+         */
+        public double nodesPerSecond() {
+            long nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Méthode qui dénombre les séquences d'actions légales de la longueur donnée à partir de l'état donné, et mesure
+     * la durée du dénombrement
+     * @param gameState l'état de jeu donné
+     * @param depth la longueur des séquences d'actions
+     * @param parallel vrai ssi les sous-arbres des actions légales de l'état donné doivent être dénombrés en
+     * parallèle, dans le pool fork-join commun
+     * @return le résultat du dénombrement
+     * @throws IllegalArgumentException si la longueur donnée est négative
+     */
+    public static Result run(GameState gameState, int depth, boolean parallel) {
+
+        Preconditions.checkArgument(depth >= 0);
+
+        long start = System.nanoTime();
+        long nodes = parallel
+                ? ForkJoinPool.commonPool().invoke(new RootTask(gameState, depth))
+                : count(gameState, depth);
+
+        return new Result(depth, nodes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Méthode qui dénombre, séquentiellement, les séquences d'actions légales de la longueur donnée à partir de
+     * l'état donné ; une partie terminée n'en a aucune, sauf de longueur 0
+     * @param gameState l'état de jeu donné
+     * @param depth la longueur des séquences d'actions
+     * @return le nombre de séquences d'actions légales de la longueur donnée
+     * @throws IllegalArgumentException si la longueur donnée est négative
+     */
+    public static long count(GameState gameState, int depth) {
+
+        Preconditions.checkArgument(depth >= 0);
+
+        if (depth == 0)
+            return 1;
+
+        //LES ACTIONS DU DERNIER NIVEAU SONT DENOMBREES SANS ETRE APPLIQUEES
+        if (depth == 1)
+            return actionCount(gameState);
+
+        long nodes = 0;
+        for (GameState successor : successors(gameState))
+            nodes += count(successor, depth - 1);
+
+        return nodes;
+    }
+
+    /**
+     * Méthode qui retourne les états résultant de chacune des actions légales dans l'état donné
+     * @param gameState l'état de jeu donné
+     * @return la liste des états résultant de chacune des actions légales, vide si la partie est terminée
+     * @throws IllegalArgumentException si la partie n'a pas commencé
+     */
+    public static List<GameState> successors(GameState gameState) {
+
+        List<GameState> successors = new ArrayList<>();
+
+        switch (gameState.nextAction()) {
+
+            case PLACE_TILE -> {
+                for (Map.Entry<Pos, Set<Rotation>> entry : gameState.placementTable().validRotations().entrySet()) {
+                    for (Rotation rotation : entry.getValue())
+                        successors.add(gameState.withPlacedTile(new PlacedTile(gameState.tileToPlace(),
+                                gameState.currentPlayer(), rotation, entry.getKey())));
+                }
+            }
+
+            case OCCUPY_TILE -> {
+                for (Occupant occupant : gameState.lastTilePotentialOccupants())
+                    successors.add(gameState.withNewOccupant(occupant));
+                successors.add(gameState.withNewOccupant(null));
+            }
+
+            case RETAKE_PAWN -> {
+                for (Occupant occupant : retakablePawns(gameState))
+                    successors.add(gameState.withOccupantRemoved(occupant));
+                successors.add(gameState.withOccupantRemoved(null));
+            }
+
+            case END_GAME -> {}
+
+            default -> throw new IllegalArgumentException();
+        }
+
+        return successors;
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'actions légales dans l'état donné, sans les appliquer
+     * @param gameState l'état de jeu donné
+     * @return le nombre d'actions légales dans l'état donné, 0 si la partie est terminée
+     * @throws IllegalArgumentException si la partie n'a pas commencé
+     */
+    public static int actionCount(GameState gameState) {
+
+        return switch (gameState.nextAction()) {
+            case PLACE_TILE -> {
+                int count = 0;
+                for (Set<Rotation> rotations : gameState.placementTable().validRotations().values())
+                    count += rotations.size();
+                yield count;
+            }
+            case OCCUPY_TILE -> gameState.lastTilePotentialOccupants().size() + 1;
+            case RETAKE_PAWN -> retakablePawns(gameState).size() + 1;
+            case END_GAME -> 0;
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Méthode qui retourne la liste des pions que le joueur courant peut reprendre grâce au chaman, soit, ses pions
+     * se trouvant sur le plateau
+     * @param gameState l'état de jeu donné
+     * @return la liste des pions du joueur courant se trouvant sur le plateau
+     */
+    private static List<Occupant> retakablePawns(GameState gameState) {
+
+        List<Occupant> pawns = new ArrayList<>();
+        Board board = gameState.board();
+
+        for (Occupant occupant : board.occupants()) {
+            if (occupant.kind() == Occupant.Kind.PAWN
+                    && board.tileWithId(Zone.tileId(occupant.zoneId())).placer() == gameState.currentPlayer())
+                pawns.add(occupant);
+        }
+
+        return pawns;
+    }
+
+    /**
+     * Tâche fork-join dénombrant les séquences d'actions depuis la racine, en créant une sous-tâche séquentielle par
+     * action légale dans l'état racine ; elle n'est jamais sérialisée, bien que RecursiveTask soit sérialisable
+     */
+    private static final class RootTask extends RecursiveTask<Long> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient GameState gameState;
+        private final int depth;
+
+        private RootTask(GameState gameState, int depth) {
+            this.gameState = gameState;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+
+            if (depth <= 1)
+                return count(gameState, depth);
+
+            List<ForkJoinTask<Long>> subtasks = new ArrayList<>();
+            for (GameState successor : successors(gameState))
+                subtasks.add(ForkJoinTask.adapt(() -> count(successor, depth - 1)));
+
+            long nodes = 0;
+            for (ForkJoinTask<Long> subtask : invokeAll(subtasks))
+                nodes += subtask.join();
+
+            return nodes;
+        }
+    }
+
+}
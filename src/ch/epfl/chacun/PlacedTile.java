@@ -1,8 +1,11 @@
 package ch.epfl.chacun;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +21,12 @@ import java.util.stream.Collectors;
 
 public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos pos, Occupant occupant) {
 
+    /**
+     * Table associant à l'identifiant de chaque tuile déjà rencontrée l'ensemble (non modifiable) de ses occupants
+     * potentiels, qui ne dépend que de la tuile et n'est donc calculé qu'une seule fois par tuile
+     */
+    private static final Map<Integer, TileOccupants> POTENTIAL_OCCUPANTS = new ConcurrentHashMap<>();
+
     /**
      * Constructeur compact validant les arguments qui lui sont passés
      * @throws NullPointerException si la tuile, la rotation ou la position est null
@@ -133,14 +142,30 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
     /**
      * Méthode qui retourne l'ensemble de tous les occupants potentiels de la tuile ou un ensemble vide
      * si la tuile est celle de départ
-     * @return l'ensemble de tous les occupants potentiels de la tuile ou un ensemble vide si la tuile
-     * est celle de départ
+     * @return l'ensemble (non modifiable) de tous les occupants potentiels de la tuile ou un ensemble vide si la
+     * tuile est celle de départ
      */
     public Set<Occupant> potentialOccupants() {
 
         if (placer == null)
             return Set.of();
 
+        TileOccupants cached = POTENTIAL_OCCUPANTS.get(tile.id());
+        if (cached == null || cached.tile() != tile) {
+            cached = new TileOccupants(tile, tilePotentialOccupants(tile));
+            POTENTIAL_OCCUPANTS.put(tile.id(), cached);
+        }
+
+        return cached.occupants();
+    }
+
+    /**
+     * Méthode qui calcule l'ensemble (non modifiable) de tous les occupants potentiels de la tuile donnée
+     * @param tile la tuile donnée
+     * @return l'ensemble de tous les occupants potentiels de la tuile donnée
+     */
+    private static Set<Occupant> tilePotentialOccupants(Tile tile) {
+
         Set<Occupant> occupantsSet = new HashSet<>();
 
         for (Zone zone : tile.sideZones()) {
@@ -148,7 +173,10 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
             occupantsSet.add(zonePawn);
         }
 
-        for (Zone.River river : riverZones()) {
+        for (Zone zone : tile.zones()) {
+
+            if (!(zone instanceof Zone.River river))
+                continue;
 
             if (river.hasLake()) {
                 Occupant lakeHut = new Occupant(Occupant.Kind.HUT, river.lake().id());
@@ -161,9 +189,17 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
 
         }
 
-        return occupantsSet;
+        return Collections.unmodifiableSet(occupantsSet);
     }
 
+    /**
+     * Enregistrement associant une tuile à l'ensemble de ses occupants potentiels ; la tuile est conservée afin
+     * qu'une autre tuile de même identifiant ne réutilise pas un ensemble qui ne lui correspond pas
+     * @param tile la tuile
+     * @param occupants l'ensemble de ses occupants potentiels
+     */
+    private record TileOccupants(Tile tile, Set<Occupant> occupants) {}
+
     /**
      * Méthode qui retourne une tuile placée identique au récepteur, mais occupée par l'occupant donné
      * @return une tuile placée identique au récepteur, mais occupée par l'occupant donné
@@ -0,0 +1,48 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enregistrement qui représente les conséquences qu'aurait la pose d'une tuile (et de son éventuel occupant), telles
+ * qu'évaluées par GameState.evaluatePlacement sans construire de nouvel état de jeu
+ * @param messages les messages qui seraient ajoutés au tableau d'affichage lors de la pose
+ * @param closedForests l'ensemble des forêts que la pose fermerait
+ * @param closedRivers l'ensemble des rivières que la pose fermerait
+ * @param points les points que chaque joueur obtiendrait lors de la pose (seuls les joueurs figurant parmi les
+ * gagnants d'au moins un message y figurent)
+ * @param returnedOccupants l'ensemble des pions des forêts et rivières fermées, qui retourneraient à leurs joueurs
+ * @param canRetakePawn vrai ssi la tuile contient le chaman et le joueur courant pourrait reprendre un pion
+ * @param canPlayAgain vrai ssi le joueur courant pourrait rejouer : la tuile, normale, fermerait une forêt contenant
+ * un menhir, et il resterait une tuile menhir pouvant être posée
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record PlacementOutcome(List<MessageBoard.Message> messages, Set<Area<Zone.Forest>> closedForests,
+                               Set<Area<Zone.River>> closedRivers, Map<PlayerColor, Integer> points,
+                               Set<Occupant> returnedOccupants, boolean canRetakePawn,
+                               boolean canPlayAgain) {
+
+    /**
+     * Constructeur compact garantissant l'immuabilité de l'enregistrement
+     */
+    public PlacementOutcome {
+        messages = List.copyOf(messages);
+        closedForests = Set.copyOf(closedForests);
+        closedRivers = Set.copyOf(closedRivers);
+        points = Map.copyOf(points);
+        returnedOccupants = Set.copyOf(returnedOccupants);
+    }
+
+    /**
+     * Méthode qui retourne les points que le joueur donné obtiendrait lors de la pose
+     * @param player le joueur donné
+     * @return les points que le joueur donné obtiendrait lors de la pose
+     */
+    public int pointsOf(PlayerColor player) {
+        return points.getOrDefault(player, 0);
+    }
+
+}
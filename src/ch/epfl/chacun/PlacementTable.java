@@ -0,0 +1,121 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Enregistrement qui représente, pour une tuile à placer, les rotations valides de la tuile sur chacune des positions
+ * d'insertion d'un plateau ; la table est calculée une seule fois, chaque interrogation se faisant ensuite en temps
+ * constant
+ * @param tile la tuile à placer
+ * @param validRotations les rotations avec lesquelles la tuile peut être posée, pour chaque position d'insertion
+ * (les positions sur lesquelles la tuile ne peut être posée sous aucune rotation sont associées à un ensemble vide)
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record PlacementTable(Tile tile, Map<Pos, Set<Rotation>> validRotations) {
+
+    /**
+     * Constructeur compact validant les arguments qui lui sont passés et garantissant l'immuabilité de
+     * l'enregistrement
+     * @throws NullPointerException si la tuile est nulle
+     */
+    public PlacementTable {
+        Objects.requireNonNull(tile);
+
+        Map<Pos, Set<Rotation>> validRotationsCopy = new HashMap<>();
+        for (Map.Entry<Pos, Set<Rotation>> entry : validRotations.entrySet())
+            validRotationsCopy.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue().isEmpty()
+                    ? EnumSet.noneOf(Rotation.class)
+                    : EnumSet.copyOf(entry.getValue())));
+        validRotations = Collections.unmodifiableMap(validRotationsCopy);
+    }
+
+    /**
+     * Méthode qui calcule la table des placements de la tuile donnée sur le plateau donné, en examinant chacune des
+     * rotations de la tuile sur chacune des positions d'insertion du plateau
+     * @param board le plateau donné
+     * @param tile la tuile donnée
+     * @return la table des placements de la tuile donnée sur le plateau donné
+     */
+    public static PlacementTable of(Board board, Tile tile) {
+
+        Map<Pos, Set<Rotation>> validRotations = new HashMap<>();
+
+        for (Pos pos : board.insertionPositions()) {
+            Set<Rotation> rotations = EnumSet.noneOf(Rotation.class);
+
+            for (Rotation rotation : Rotation.ALL) {
+                if (board.canAddTile(new PlacedTile(tile, null, rotation, pos, null)))
+                    rotations.add(rotation);
+            }
+
+            validRotations.put(pos, rotations);
+        }
+
+        return new PlacementTable(tile, validRotations);
+    }
+
+    /**
+     * Méthode qui retourne l'ensemble des rotations avec lesquelles la tuile peut être posée à la position donnée
+     * @param pos la position donnée
+     * @return l'ensemble des rotations valides à la position donnée, vide si ce n'est pas une position d'insertion
+     */
+    public Set<Rotation> validRotations(Pos pos) {
+        return validRotations.getOrDefault(pos, Set.of());
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la tuile peut être posée à la position donnée avec la rotation donnée
+     * @param pos la position donnée
+     * @param rotation la rotation donnée
+     * @return vrai ssi la tuile peut être posée à la position donnée avec la rotation donnée
+     */
+    public boolean isValid(Pos pos, Rotation rotation) {
+        return validRotations(pos).contains(rotation);
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la tuile peut être posée à la position donnée avec au moins une rotation
+     * @param pos la position donnée
+     * @return vrai ssi la tuile peut être posée à la position donnée avec au moins une rotation
+     */
+    public boolean isPlaceable(Pos pos) {
+        return !validRotations(pos).isEmpty();
+    }
+
+    /**
+     * Méthode qui retourne vrai ssi la tuile peut être posée quelque part sur le plateau
+     * @return vrai ssi la tuile peut être posée sur l'une des positions d'insertion du plateau
+     */
+    public boolean isPlaceableAnywhere() {
+        for (Set<Rotation> rotations : validRotations.values()) {
+            if (!rotations.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Méthode qui retourne la prochaine rotation valide à la position donnée, en tournant dans le sens des aiguilles
+     * d'une montre à partir de la rotation donnée (exclue), la rotation donnée elle-même n'étant retournée que si
+     * c'est la seule rotation valide
+     * @param pos la position donnée
+     * @param rotation la rotation donnée
+     * @return la prochaine rotation valide à la position donnée, ou null s'il n'y en a aucune
+     */
+    public Rotation nextValidRotation(Pos pos, Rotation rotation) {
+
+        Set<Rotation> rotations = validRotations(pos);
+        Rotation next = rotation;
+
+        for (int i = 0; i < Rotation.COUNT; i++) {
+            next = next.add(Rotation.RIGHT);
+            if (rotations.contains(next))
+                return next;
+        }
+
+        return null;
+    }
+
+}
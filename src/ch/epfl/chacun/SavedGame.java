@@ -0,0 +1,80 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Enregistrement qui représente une partie locale sauvegardée, restaurée en rejouant ses actions ; sa représentation
+ * textuelle est composée de deux lignes, chacune terminée par un retour à la ligne : les paramètres de la partie
+ * (selon GameSetup.encode), puis ses actions empaquetées (selon ActionEncoder.pack)
+ * @param setup les paramètres de la partie
+ * @param actionStrings la liste des actions de la partie, dans leur représentation en base32
+ * @param gameState l'état de la partie après sa dernière action
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record SavedGame(GameSetup setup, List<String> actionStrings, GameState gameState) {
+
+    /**
+     * Constructeur compact de la partie sauvegardée, qui copie la liste des actions pour garantir l'immuabilité
+     * @param setup les paramètres de la partie
+     * @param actionStrings la liste des actions de la partie
+     * @param gameState l'état de la partie après sa dernière action
+     */
+    public SavedGame {
+        Objects.requireNonNull(setup);
+        Objects.requireNonNull(gameState);
+        actionStrings = List.copyOf(actionStrings);
+    }
+
+    /**
+     * Méthode qui retourne la représentation textuelle de la partie ayant les paramètres et les actions donnés, sans
+     * la rejouer
+     * @param setup les paramètres de la partie
+     * @param actionStrings la liste des actions de la partie, dans leur représentation en base32
+     * @return la représentation textuelle de la partie
+     */
+    public static String encode(GameSetup setup, List<String> actionStrings) {
+        return setup.encode() + "\n" + ActionEncoder.pack(actionStrings) + "\n";
+    }
+
+    /**
+     * Méthode qui retourne la partie sauvegardée dont la représentation textuelle est donnée, obtenue en rejouant ses
+     * actions à partir de son état initial (tuile de départ posée) sans construire d'état de jeu intermédiaire
+     * @param text la représentation textuelle de la partie
+     * @return la partie sauvegardée
+     * @throws IllegalArgumentException si le texte n'est pas composé d'exactement deux lignes complètes, ou si les
+     * paramètres ou les actions de la partie ne sont pas valides
+     */
+    public static SavedGame decode(String text) {
+
+        //UNE SAUVEGARDE TRONQUEE N'A PAS SON DERNIER RETOUR A LA LIGNE
+        int setupEnd = text.indexOf('\n');
+        Preconditions.checkArgument(setupEnd >= 0 && text.indexOf('\n', setupEnd + 1) == text.length() - 1);
+
+        GameSetup setup = GameSetup.decode(text.substring(0, setupEnd));
+        ActionEncoder.UnpackedActions unpacked = ActionEncoder.decodeAndApplyPackedAll(
+                setup.initialState().withStartingTilePlaced(), text.substring(setupEnd + 1, text.length() - 1));
+        Preconditions.checkArgument(unpacked != null);
+
+        return new SavedGame(setup, unpacked.actionStrings(), unpacked.gameState());
+    }
+
+    /**
+     * Méthode qui retourne la représentation textuelle de la partie sauvegardée
+     * @return la représentation textuelle de la partie sauvegardée
+     */
+    public String encode() {
+        return encode(setup, actionStrings);
+    }
+
+    /**
+     * Méthode qui indique si la partie sauvegardée est terminée, et ne peut donc plus être reprise
+     * @return vrai ssi la prochaine action de la partie est END_GAME
+     */
+    public boolean isOver() {
+        return gameState.nextAction() == GameState.Action.END_GAME;
+    }
+
+}
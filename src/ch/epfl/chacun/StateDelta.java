@@ -0,0 +1,446 @@
+package ch.epfl.chacun;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Classe qui permet d'encoder la différence entre deux états de jeu sous une forme binaire compacte (un delta), et
+ * de reconstruire le second état en appliquant ce delta au premier ; elle permet ainsi de stocker ou de transmettre
+ * un long historique sous la forme d'un instantané de base (voir StateSnapshot) suivi de deltas.
+ * Un delta est constitué d'un en-tête (la version sur un octet, puis la taille du corps sur 4 octets) suivi d'un
+ * corps commençant par sa sorte :
+ * <ul>
+ *     <li>un delta incrémental contient les joueurs, la prochaine action et la tuile à placer du second état, le
+ *     nombre de tuiles tirées de chacun des tas, les tuiles posées depuis le premier état, les occupants modifiés des
+ *     tuiles déjà posées, les aires retirées (chacune désignée par l'une de ses zones) et ajoutées de chacune des
+ *     partitions, les animaux nouvellement annulés et les messages ajoutés au tableau d'affichage ;</li>
+ *     <li>un delta complet contient l'instantané du second état, et n'est utilisé que si celui-ci ne prolonge pas
+ *     le premier (tuiles posées, messages ou animaux annulés retirés, tas qui ne sont pas des suites des tas du
+ *     premier état).</li>
+ * </ul>
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class StateDelta {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private StateDelta() {}
+
+    /**
+     * La version du format des deltas et des historiques
+     */
+    public static final byte VERSION = 1;
+
+    private static final byte INCREMENTAL = 0;
+    private static final byte FULL = 1;
+
+    /**
+     * La taille maximale, en octets, d'un occupant modifié (index de la tuile, sorte et zone de l'occupant)
+     */
+    private static final int OCCUPANT_CHANGE_SIZE = 2 * Byte.BYTES + Short.BYTES;
+
+    /**
+     * Enregistrement qui représente la différence entre les aires de deux partitions
+     * @param removed les aires de la première partition absentes de la seconde
+     * @param added les aires de la seconde partition absentes de la première
+     */
+    private record PartitionDiff(List<Area<?>> removed, List<Area<?>> added) {
+
+        /**
+         * Méthode qui retourne la différence entre les deux partitions données
+         * @param from la première partition
+         * @param to la seconde partition
+         * @return la différence entre les deux partitions données
+         */
+        static PartitionDiff of(ZonePartition<?> from, ZonePartition<?> to) {
+            if (from.areas() == to.areas())
+                return new PartitionDiff(List.of(), List.of());
+
+            List<Area<?>> removed = new ArrayList<>();
+            for (Area<?> area : from.areas()) {
+                if (!to.areas().contains(area))
+                    removed.add(area);
+            }
+
+            List<Area<?>> added = new ArrayList<>();
+            for (Area<?> area : to.areas()) {
+                if (!from.areas().contains(area))
+                    added.add(area);
+            }
+
+            return new PartitionDiff(removed, added);
+        }
+
+        /**
+         * Méthode qui retourne un majorant de la taille, en octets, de la différence
+         * @return un majorant de la taille de la différence
+         */
+        int maxSize() {
+            int size = 2 * Short.BYTES + removed.size() * Short.BYTES;
+            for (Area<?> area : added)
+                size += StateSnapshot.areaMaxSize(area);
+            return size;
+        }
+    }
+
+    /**
+     * Méthode qui retourne le delta permettant de passer du premier état de jeu donné au second
+     * @param from le premier état de jeu
+     * @param to le second état de jeu
+     * @return le delta entre les deux états de jeu, prêt à être lu
+     */
+    public static ByteBuffer encode(GameState from, GameState to) {
+
+        ByteBuffer delta;
+        if (isIncremental(from, to)) {
+            Board fromBoard = from.board();
+            Board toBoard = to.board();
+            ZonePartitions fromPartitions = fromBoard.zonePartitions();
+            ZonePartitions toPartitions = toBoard.zonePartitions();
+            List<PartitionDiff> partitionDiffs = List.of(
+                    PartitionDiff.of(fromPartitions.forests(), toPartitions.forests()),
+                    PartitionDiff.of(fromPartitions.meadows(), toPartitions.meadows()),
+                    PartitionDiff.of(fromPartitions.rivers(), toPartitions.rivers()),
+                    PartitionDiff.of(fromPartitions.riverSystems(), toPartitions.riverSystems()));
+
+            List<PlacedTile> fromTiles = fromBoard.placedTiles();
+            List<PlacedTile> toTiles = toBoard.placedTiles();
+            List<MessageBoard.Message> fromMessages = from.messageBoard().messages();
+            List<MessageBoard.Message> toMessages = to.messageBoard().messages();
+
+            int size = StateSnapshot.HEADER_SIZE + 1 + 3 + to.players().size() + 3 + 1
+                    + (toTiles.size() - fromTiles.size()) * StateSnapshot.PLACED_TILE_SIZE
+                    + 1 + fromTiles.size() * OCCUPANT_CHANGE_SIZE
+                    + Short.BYTES + toBoard.cancelledAnimals().size() * StateSnapshot.ANIMAL_SIZE
+                    + Short.BYTES;
+            for (PartitionDiff partitionDiff : partitionDiffs)
+                size += partitionDiff.maxSize();
+            for (MessageBoard.Message message : toMessages.subList(fromMessages.size(), toMessages.size()))
+                size += StateSnapshot.messageMaxSize(message);
+
+            delta = ByteBuffer.allocate(size);
+            delta.put(VERSION).putInt(0).put(INCREMENTAL);
+            putIncremental(delta, from, to, partitionDiffs);
+        } else {
+            delta = ByteBuffer.allocate(StateSnapshot.HEADER_SIZE + 1 + StateSnapshot.maxSize(to));
+            delta.put(VERSION).putInt(0).put(FULL);
+            StateSnapshot.encode(to, delta);
+        }
+
+        delta.putInt(Byte.BYTES, delta.position() - StateSnapshot.HEADER_SIZE);
+        return delta.flip();
+    }
+
+    /**
+     * Méthode qui applique à l'état de jeu donné le delta commençant à la position courante du tampon donné, et
+     * avance cette position jusqu'à la fin du delta
+     * @param from l'état de jeu auquel le delta a été calculé
+     * @param delta le tampon contenant le delta
+     * @return l'état de jeu obtenu en appliquant le delta à l'état de jeu donné, dont le tableau d'affichage a le
+     * même « créateur de texte » que celui de l'état donné
+     * @throws IllegalArgumentException si le delta n'est pas valide, ou ne s'applique pas à l'état de jeu donné
+     */
+    public static GameState apply(GameState from, ByteBuffer delta) {
+
+        ByteBuffer body = StateSnapshot.body(delta, VERSION);
+        TextMaker textMaker = from.messageBoard().textMaker();
+        try {
+            GameState to = switch (body.get()) {
+                case INCREMENTAL -> applyIncremental(from, body);
+                case FULL -> StateSnapshot.decode(body, textMaker);
+                default -> throw new IllegalArgumentException("sorte de delta inconnue");
+            };
+            Preconditions.checkArgument(!body.hasRemaining());
+            return to;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("le delta est tronqué", e);
+        }
+    }
+
+    /**
+     * Méthode qui retourne l'historique compact des états de jeu donnés : leur nombre, l'instantané du premier, puis
+     * le delta entre chaque état et le suivant
+     * @param gameStates les états de jeu donnés, dans l'ordre
+     * @return l'historique des états de jeu donnés, prêt à être lu
+     * @throws IllegalArgumentException si la liste des états de jeu est vide
+     */
+    public static ByteBuffer encodeHistory(List<GameState> gameStates) {
+
+        Preconditions.checkArgument(!gameStates.isEmpty());
+
+        ByteBuffer base = StateSnapshot.encode(gameStates.getFirst());
+        List<ByteBuffer> deltas = new ArrayList<>(gameStates.size() - 1);
+        int size = StateSnapshot.HEADER_SIZE + Integer.BYTES + base.remaining();
+        for (int i = 1; i < gameStates.size(); i++) {
+            ByteBuffer delta = encode(gameStates.get(i - 1), gameStates.get(i));
+            deltas.add(delta);
+            size += delta.remaining();
+        }
+
+        ByteBuffer history = ByteBuffer.allocate(size);
+        history.put(VERSION).putInt(size - StateSnapshot.HEADER_SIZE).putInt(gameStates.size()).put(base);
+        for (ByteBuffer delta : deltas)
+            history.put(delta);
+
+        return history.flip();
+    }
+
+    /**
+     * Méthode qui retourne les états de jeu dont l'historique commence à la position courante du tampon donné, et
+     * avance cette position jusqu'à la fin de l'historique
+     * @param history le tampon contenant l'historique
+     * @param textMaker le « créateur de texte » du tableau d'affichage des états de jeu
+     * @return la liste des états de jeu de l'historique, dans l'ordre
+     * @throws IllegalArgumentException si l'historique n'est pas valide
+     */
+    public static List<GameState> decodeHistory(ByteBuffer history, TextMaker textMaker) {
+
+        ByteBuffer body = StateSnapshot.body(history, VERSION);
+        try {
+            int stateCount = body.getInt();
+            Preconditions.checkArgument(stateCount > 0);
+
+            //CHAQUE DELTA OCCUPE AU MOINS UN EN-TETE
+            Preconditions.checkArgument(stateCount - 1 <= body.remaining() / StateSnapshot.HEADER_SIZE);
+
+            List<GameState> gameStates = new ArrayList<>(stateCount);
+            gameStates.add(StateSnapshot.decode(body, textMaker));
+            for (int i = 1; i < stateCount; i++)
+                gameStates.add(apply(gameStates.getLast(), body));
+
+            Preconditions.checkArgument(!body.hasRemaining());
+            return gameStates;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("l'historique est tronqué", e);
+        }
+    }
+
+    /**
+     * Méthode qui indique si le second état de jeu donné prolonge le premier, et peut donc en être décrit par un
+     * delta incrémental
+     * @param from le premier état de jeu
+     * @param to le second état de jeu
+     * @return vrai ssi le second état de jeu prolonge le premier
+     */
+    private static boolean isIncremental(GameState from, GameState to) {
+
+        TileDecks fromDecks = from.tileDecks();
+        TileDecks toDecks = to.tileDecks();
+        if (!isSuffix(toDecks.startTiles(), fromDecks.startTiles())
+                || !isSuffix(toDecks.normalTiles(), fromDecks.normalTiles())
+                || !isSuffix(toDecks.menhirTiles(), fromDecks.menhirTiles()))
+            return false;
+
+        List<PlacedTile> fromTiles = from.board().placedTiles();
+        List<PlacedTile> toTiles = to.board().placedTiles();
+        if (fromTiles.size() > toTiles.size())
+            return false;
+        for (int i = 0; i < fromTiles.size(); i++) {
+            if (!samePlacement(fromTiles.get(i), toTiles.get(i)))
+                return false;
+        }
+
+        List<MessageBoard.Message> fromMessages = from.messageBoard().messages();
+        List<MessageBoard.Message> toMessages = to.messageBoard().messages();
+        return fromMessages.size() <= toMessages.size()
+                && toMessages.subList(0, fromMessages.size()).equals(fromMessages)
+                && to.board().cancelledAnimals().containsAll(from.board().cancelledAnimals());
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné le corps du delta incrémental entre les deux états de jeu donnés
+     * @param delta le tampon donné
+     * @param from le premier état de jeu
+     * @param to le second état de jeu, qui prolonge le premier
+     * @param partitionDiffs les différences entre les partitions des deux états de jeu, dans l'ordre
+     */
+    private static void putIncremental(ByteBuffer delta, GameState from, GameState to,
+                                       List<PartitionDiff> partitionDiffs) {
+
+        delta.put((byte) to.players().size());
+        for (PlayerColor player : to.players())
+            delta.put((byte) player.ordinal());
+        delta.put((byte) to.nextAction().ordinal());
+        delta.put(StateSnapshot.tileId(to.tileToPlace()));
+
+        TileDecks fromDecks = from.tileDecks();
+        TileDecks toDecks = to.tileDecks();
+        delta.put((byte) (fromDecks.startTiles().size() - toDecks.startTiles().size()))
+                .put((byte) (fromDecks.normalTiles().size() - toDecks.normalTiles().size()))
+                .put((byte) (fromDecks.menhirTiles().size() - toDecks.menhirTiles().size()));
+
+        List<PlacedTile> fromTiles = from.board().placedTiles();
+        List<PlacedTile> toTiles = to.board().placedTiles();
+        delta.put((byte) (toTiles.size() - fromTiles.size()));
+        for (PlacedTile placedTile : toTiles.subList(fromTiles.size(), toTiles.size()))
+            StateSnapshot.putPlacedTile(delta, placedTile);
+
+        int changeCountPosition = delta.position();
+        int changeCount = 0;
+        delta.put((byte) 0);
+        for (int i = 0; i < fromTiles.size(); i++) {
+            Occupant occupant = toTiles.get(i).occupant();
+            if (!Objects.equals(fromTiles.get(i).occupant(), occupant)) {
+                delta.put((byte) i);
+                StateSnapshot.putOccupant(delta, occupant);
+                changeCount += 1;
+            }
+        }
+        delta.put(changeCountPosition, (byte) changeCount);
+
+        for (PartitionDiff partitionDiff : partitionDiffs) {
+            delta.putShort((short) partitionDiff.removed().size());
+            for (Area<?> area : partitionDiff.removed())
+                delta.putShort((short) area.zones().iterator().next().id());
+
+            delta.putShort((short) partitionDiff.added().size());
+            for (Area<?> area : partitionDiff.added())
+                StateSnapshot.putArea(delta, area);
+        }
+
+        Set<Animal> fromAnimals = from.board().cancelledAnimals();
+        Set<Animal> toAnimals = to.board().cancelledAnimals();
+        delta.putShort((short) (toAnimals.size() - fromAnimals.size()));
+        for (Animal animal : toAnimals) {
+            if (!fromAnimals.contains(animal))
+                StateSnapshot.putAnimal(delta, animal);
+        }
+
+        List<MessageBoard.Message> fromMessages = from.messageBoard().messages();
+        List<MessageBoard.Message> toMessages = to.messageBoard().messages();
+        delta.putShort((short) (toMessages.size() - fromMessages.size()));
+        for (MessageBoard.Message message : toMessages.subList(fromMessages.size(), toMessages.size()))
+            StateSnapshot.putMessage(delta, message);
+    }
+
+    /**
+     * Méthode qui retourne l'état de jeu obtenu en appliquant à l'état de jeu donné le corps de delta incrémental
+     * donné
+     * @param from l'état de jeu donné
+     * @param body le corps du delta, positionné après sa sorte
+     * @return l'état de jeu obtenu
+     * @throws IllegalArgumentException si le delta ne s'applique pas à l'état de jeu donné
+     * @throws BufferUnderflowException si le delta est tronqué
+     */
+    private static GameState applyIncremental(GameState from, ByteBuffer body) {
+
+        int playerCount = body.get();
+        List<PlayerColor> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++)
+            players.add(PlayerColor.ALL.get(body.get()));
+        GameState.Action nextAction = GameState.Action.values()[body.get()];
+        Tile tileToPlace = StateSnapshot.tileOrNull(body.get());
+
+        TileDecks fromDecks = from.tileDecks();
+        TileDecks tileDecks = new TileDecks(
+                drawn(fromDecks.startTiles(), body.get()),
+                drawn(fromDecks.normalTiles(), body.get()),
+                drawn(fromDecks.menhirTiles(), body.get()));
+
+        Board fromBoard = from.board();
+        List<PlacedTile> placedTiles = new ArrayList<>(fromBoard.placedTiles());
+        int newTileCount = Byte.toUnsignedInt(body.get());
+        for (int i = 0; i < newTileCount; i++)
+            placedTiles.add(StateSnapshot.getPlacedTile(body));
+
+        int changeCount = Byte.toUnsignedInt(body.get());
+        for (int i = 0; i < changeCount; i++) {
+            int index = Byte.toUnsignedInt(body.get());
+            Preconditions.checkArgument(index < fromBoard.placedTiles().size());
+            Occupant occupant = StateSnapshot.getOccupant(body);
+
+            PlacedTile placedTile = placedTiles.get(index);
+            Preconditions.checkArgument(occupant == null || Zone.tileId(occupant.zoneId()) == placedTile.id());
+            placedTiles.set(index, new PlacedTile(placedTile.tile(), placedTile.placer(), placedTile.rotation(),
+                    placedTile.pos(), occupant));
+        }
+
+        ZonePartitions fromPartitions = fromBoard.zonePartitions();
+        ZonePartitions zonePartitions = new ZonePartitions(
+                applyPartition(fromPartitions.forests(), body, Zone.Forest.class),
+                applyPartition(fromPartitions.meadows(), body, Zone.Meadow.class),
+                applyPartition(fromPartitions.rivers(), body, Zone.River.class),
+                applyPartition(fromPartitions.riverSystems(), body, Zone.Water.class));
+
+        Set<Animal> cancelledAnimals = new HashSet<>(fromBoard.cancelledAnimals());
+        int animalCount = body.getShort();
+        for (int i = 0; i < animalCount; i++)
+            cancelledAnimals.add(StateSnapshot.getAnimal(body));
+
+        List<MessageBoard.Message> messages = new ArrayList<>(from.messageBoard().messages());
+        int messageCount = body.getShort();
+        for (int i = 0; i < messageCount; i++)
+            messages.add(StateSnapshot.getMessage(body));
+
+        return new GameState(players, tileDecks, tileToPlace, Board.of(placedTiles, zonePartitions, cancelledAnimals),
+                nextAction, new MessageBoard(from.messageBoard().textMaker(), messages));
+    }
+
+    /**
+     * Méthode qui retourne la partition obtenue en appliquant à la partition donnée la différence lue dans le tampon
+     * donné
+     * @param partition la partition donnée
+     * @param body le tampon contenant la différence
+     * @param zoneClass la classe des zones de la partition
+     * @return la partition obtenue
+     * @throws IllegalArgumentException si l'une des aires retirées n'existe pas dans la partition donnée
+     */
+    private static <Z extends Zone> ZonePartition<Z> applyPartition(ZonePartition<Z> partition, ByteBuffer body,
+                                                                    Class<Z> zoneClass) {
+
+        int removedCount = body.getShort();
+        int firstRemoved = body.position();
+        body.position(firstRemoved + removedCount * Short.BYTES);
+        int addedCount = body.getShort();
+        if (removedCount == 0 && addedCount == 0)
+            return partition;
+
+        Set<Area<Z>> areas = new HashSet<>(partition.areas());
+        for (int i = 0; i < removedCount; i++) {
+            Z zone = StateSnapshot.zoneWithId(body.getShort(firstRemoved + i * Short.BYTES), zoneClass);
+            Preconditions.checkArgument(areas.remove(partition.areaContaining(zone)));
+        }
+        for (int i = 0; i < addedCount; i++)
+            areas.add(StateSnapshot.getArea(body, zoneClass));
+
+        return new ZonePartition<>(Set.copyOf(areas));
+    }
+
+    /**
+     * Méthode qui retourne le tas obtenu en tirant le nombre donné de tuiles du tas donné
+     * @param tiles le tas donné
+     * @param drawnCount le nombre de tuiles tirées
+     * @return le tas obtenu
+     * @throws IllegalArgumentException si le nombre de tuiles tirées est négatif ou supérieur à la taille du tas
+     */
+    private static List<Tile> drawn(List<Tile> tiles, int drawnCount) {
+        Preconditions.checkArgument(drawnCount >= 0 && drawnCount <= tiles.size());
+        return tiles.subList(drawnCount, tiles.size());
+    }
+
+    /**
+     * Méthode qui indique si la première liste donnée est une suite (une fin) de la seconde
+     * @param suffix la première liste
+     * @param tiles la seconde liste
+     * @return vrai ssi la première liste est une suite de la seconde
+     */
+    private static boolean isSuffix(List<Tile> suffix, List<Tile> tiles) {
+        return suffix.size() <= tiles.size() && tiles.subList(tiles.size() - suffix.size(), tiles.size()).equals(suffix);
+    }
+
+    /**
+     * Méthode qui indique si les deux tuiles posées données ne diffèrent au plus que par leur occupant
+     * @param from la première tuile posée
+     * @param to la seconde tuile posée
+     * @return vrai ssi les deux tuiles posées ne diffèrent au plus que par leur occupant
+     */
+    private static boolean samePlacement(PlacedTile from, PlacedTile to) {
+        return from.tile().equals(to.tile()) && from.pos().equals(to.pos()) && from.rotation() == to.rotation()
+                && from.placer() == to.placer();
+    }
+
+}
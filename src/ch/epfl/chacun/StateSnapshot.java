@@ -0,0 +1,570 @@
+package ch.epfl.chacun;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Classe qui permet d'encoder un état de jeu complet sous une forme binaire compacte (quelques kilo-octets), et de
+ * reconstruire l'état de jeu à partir de cette forme, sans rejouer les actions de la partie.
+ * Un instantané est constitué d'un en-tête (la version sur un octet, puis la taille du corps sur 4 octets) suivi
+ * d'un corps contenant, dans l'ordre :
+ * <ul>
+ *     <li>les joueurs (leur nombre, puis leurs couleurs), la prochaine action et la tuile à placer ;</li>
+ *     <li>les trois tas, chacun sous la forme de sa taille suivie des identifiants de ses tuiles ;</li>
+ *     <li>les tuiles posées, dans l'ordre de leur pose, chacune sous la forme de son identifiant, de sa position, de
+ *     sa rotation, de son placeur et de son éventuel occupant ;</li>
+ *     <li>les quatre partitions des zones, chacune sous la forme de ses aires, décrites par les identifiants de leurs
+ *     zones, leur nombre de connexions ouvertes et leurs occupants ;</li>
+ *     <li>les animaux annulés ;</li>
+ *     <li>les messages du tableau d'affichage, chacun sous la forme de ses points, de ses gagnants, des identifiants
+ *     de ses tuiles et de son texte.</li>
+ * </ul>
+ * Les partitions des zones sont stockées plutôt que reconstruites en reposant les tuiles, ce qui serait bien plus
+ * coûteux ; la cohérence du plateau d'un instantané n'est donc pas revérifiée lors de son décodage
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class StateSnapshot {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private StateSnapshot() {}
+
+    /**
+     * La version du format des instantanés
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * La taille, en octets, de l'en-tête d'un instantané (version et taille du corps)
+     */
+    static final int HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+    /**
+     * La valeur représentant l'absence d'une tuile, d'un joueur ou d'un occupant
+     */
+    static final byte NONE = -1;
+
+    /**
+     * La taille maximale, en octets, d'une tuile posée (identifiant, position, rotation, placeur, sorte et zone de
+     * l'occupant) et d'un animal annulé (identifiant et sorte)
+     */
+    static final int PLACED_TILE_SIZE = 6 * Byte.BYTES + Short.BYTES;
+    static final int ANIMAL_SIZE = Short.BYTES + Byte.BYTES;
+
+    /**
+     * Les zones de toutes les tuiles de Tiles.TILES, indexées par leur identifiant, afin que le décodage des
+     * partitions ne construise pas les ensembles de zones des tuiles
+     */
+    private static final Zone[] ZONES = zonesById();
+
+    /**
+     * Méthode qui retourne l'instantané de l'état de jeu donné
+     * @param gameState l'état de jeu donné
+     * @return l'instantané de l'état de jeu donné, prêt à être lu
+     */
+    public static ByteBuffer encode(GameState gameState) {
+        ByteBuffer snapshot = ByteBuffer.allocate(maxSize(gameState));
+        encode(gameState, snapshot);
+        return snapshot.flip();
+    }
+
+    /**
+     * Méthode qui écrit l'instantané de l'état de jeu donné à la position courante du tampon donné, et avance cette
+     * position jusqu'à la fin de l'instantané ; elle permet de réutiliser un même tampon pour plusieurs instantanés
+     * @param gameState l'état de jeu donné
+     * @param snapshot le tampon donné
+     * @throws BufferOverflowException si le tampon donné est trop petit (voir maxSize)
+     */
+    public static void encode(GameState gameState, ByteBuffer snapshot) {
+
+        int start = snapshot.position();
+        snapshot.put(VERSION).putInt(0);
+
+        snapshot.put((byte) gameState.players().size());
+        for (PlayerColor player : gameState.players())
+            snapshot.put((byte) player.ordinal());
+        snapshot.put((byte) gameState.nextAction().ordinal());
+        snapshot.put(tileId(gameState.tileToPlace()));
+
+        TileDecks tileDecks = gameState.tileDecks();
+        putTiles(snapshot, tileDecks.startTiles());
+        putTiles(snapshot, tileDecks.normalTiles());
+        putTiles(snapshot, tileDecks.menhirTiles());
+
+        Board board = gameState.board();
+        List<PlacedTile> placedTiles = board.placedTiles();
+        snapshot.put((byte) placedTiles.size());
+        for (PlacedTile placedTile : placedTiles)
+            putPlacedTile(snapshot, placedTile);
+
+        ZonePartitions zonePartitions = board.zonePartitions();
+        putPartition(snapshot, zonePartitions.forests());
+        putPartition(snapshot, zonePartitions.meadows());
+        putPartition(snapshot, zonePartitions.rivers());
+        putPartition(snapshot, zonePartitions.riverSystems());
+
+        snapshot.putShort((short) board.cancelledAnimals().size());
+        for (Animal animal : board.cancelledAnimals())
+            putAnimal(snapshot, animal);
+
+        List<MessageBoard.Message> messages = gameState.messageBoard().messages();
+        snapshot.putShort((short) messages.size());
+        for (MessageBoard.Message message : messages)
+            putMessage(snapshot, message);
+
+        snapshot.putInt(start + Byte.BYTES, snapshot.position() - start - HEADER_SIZE);
+    }
+
+    /**
+     * Méthode qui retourne un majorant de la taille, en octets, de l'instantané de l'état de jeu donné
+     * @param gameState l'état de jeu donné
+     * @return un majorant de la taille de l'instantané de l'état de jeu donné
+     */
+    public static int maxSize(GameState gameState) {
+
+        TileDecks tileDecks = gameState.tileDecks();
+        Board board = gameState.board();
+
+        int size = HEADER_SIZE + 3 + gameState.players().size()
+                + 3 + tileDecks.startTiles().size() + tileDecks.normalTiles().size() + tileDecks.menhirTiles().size()
+                + 1 + board.placedTiles().size() * PLACED_TILE_SIZE
+                + partitionMaxSize(board.zonePartitions().forests())
+                + partitionMaxSize(board.zonePartitions().meadows())
+                + partitionMaxSize(board.zonePartitions().rivers())
+                + partitionMaxSize(board.zonePartitions().riverSystems())
+                + Short.BYTES + board.cancelledAnimals().size() * ANIMAL_SIZE
+                + Short.BYTES;
+
+        for (MessageBoard.Message message : gameState.messageBoard().messages())
+            size += messageMaxSize(message);
+
+        return size;
+    }
+
+    /**
+     * Méthode qui retourne l'état de jeu dont l'instantané commence à la position courante du tampon donné, et
+     * avance cette position jusqu'à la fin de l'instantané
+     * @param snapshot le tampon contenant l'instantané
+     * @param textMaker le « créateur de texte » du tableau d'affichage de l'état de jeu
+     * @return l'état de jeu correspondant à l'instantané
+     * @throws IllegalArgumentException si l'instantané n'est pas valide
+     */
+    public static GameState decode(ByteBuffer snapshot, TextMaker textMaker) {
+
+        ByteBuffer body = body(snapshot, VERSION);
+        try {
+            GameState gameState = decodeBody(body, textMaker);
+            Preconditions.checkArgument(!body.hasRemaining());
+            return gameState;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("l'instantané est tronqué", e);
+        }
+    }
+
+    /**
+     * Méthode qui retourne l'état de jeu dont le corps de l'instantané est donné
+     * @param body le corps de l'instantané
+     * @param textMaker le « créateur de texte » du tableau d'affichage de l'état de jeu
+     * @return l'état de jeu correspondant
+     * @throws IllegalArgumentException si le corps n'est pas valide
+     * @throws BufferUnderflowException si le corps est tronqué
+     */
+    private static GameState decodeBody(ByteBuffer body, TextMaker textMaker) {
+
+        int playerCount = body.get();
+        List<PlayerColor> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++)
+            players.add(PlayerColor.ALL.get(body.get()));
+        GameState.Action nextAction = GameState.Action.values()[body.get()];
+        Tile tileToPlace = tileOrNull(body.get());
+
+        TileDecks tileDecks = new TileDecks(getTiles(body), getTiles(body), getTiles(body));
+
+        int tileCount = Byte.toUnsignedInt(body.get());
+        List<PlacedTile> placedTiles = new ArrayList<>(tileCount);
+        for (int i = 0; i < tileCount; i++)
+            placedTiles.add(getPlacedTile(body));
+
+        ZonePartitions zonePartitions = new ZonePartitions(
+                getPartition(body, Zone.Forest.class),
+                getPartition(body, Zone.Meadow.class),
+                getPartition(body, Zone.River.class),
+                getPartition(body, Zone.Water.class));
+
+        int animalCount = body.getShort();
+        Set<Animal> cancelledAnimals = new HashSet<>();
+        for (int i = 0; i < animalCount; i++)
+            cancelledAnimals.add(getAnimal(body));
+
+        int messageCount = body.getShort();
+        List<MessageBoard.Message> messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++)
+            messages.add(getMessage(body));
+
+        return new GameState(players, tileDecks, tileToPlace, Board.of(placedTiles, zonePartitions, cancelledAnimals),
+                nextAction, new MessageBoard(textMaker, messages));
+    }
+
+    /**
+     * Méthode qui vérifie l'en-tête (version et taille du corps) commençant à la position courante du tampon donné,
+     * et retourne le corps qui le suit, en avançant la position du tampon jusqu'à sa fin
+     * @param buffer le tampon donné
+     * @param version la version attendue
+     * @return le corps qui suit l'en-tête
+     * @throws IllegalArgumentException si l'en-tête n'est pas valide ou si le corps est tronqué
+     */
+    static ByteBuffer body(ByteBuffer buffer, byte version) {
+
+        Preconditions.checkArgument(buffer.remaining() >= HEADER_SIZE);
+        Preconditions.checkArgument(buffer.get() == version);
+
+        int bodySize = buffer.getInt();
+        Preconditions.checkArgument(bodySize >= 0 && bodySize <= buffer.remaining());
+
+        ByteBuffer body = buffer.slice(buffer.position(), bodySize);
+        buffer.position(buffer.position() + bodySize);
+
+        return body;
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné la tuile posée donnée : son identifiant, sa position, sa rotation, son
+     * placeur et son éventuel occupant
+     * @param buffer le tampon donné
+     * @param placedTile la tuile posée donnée
+     */
+    static void putPlacedTile(ByteBuffer buffer, PlacedTile placedTile) {
+
+        buffer.put((byte) placedTile.id())
+                .put((byte) placedTile.pos().x())
+                .put((byte) placedTile.pos().y())
+                .put((byte) placedTile.rotation().ordinal())
+                .put(placedTile.placer() == null ? NONE : (byte) placedTile.placer().ordinal());
+        putOccupant(buffer, placedTile.occupant());
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné une tuile posée écrite par putPlacedTile
+     * @param buffer le tampon donné
+     * @return la tuile posée lue
+     * @throws IllegalArgumentException si la tuile n'est pas valide
+     */
+    static PlacedTile getPlacedTile(ByteBuffer buffer) {
+
+        Tile tile = tileOrNull(buffer.get());
+        Preconditions.checkArgument(tile != null);
+        Pos pos = new Pos(buffer.get(), buffer.get());
+        Rotation rotation = Rotation.ALL.get(buffer.get());
+        byte placer = buffer.get();
+
+        Occupant occupant = getOccupant(buffer);
+        Preconditions.checkArgument(occupant == null || Zone.tileId(occupant.zoneId()) == tile.id());
+
+        return new PlacedTile(tile, placer == NONE ? null : PlayerColor.ALL.get(placer), rotation, pos, occupant);
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné l'éventuel occupant donné : sa sorte, puis l'identifiant de sa zone
+     * @param buffer le tampon donné
+     * @param occupant l'occupant donné, ou null
+     */
+    static void putOccupant(ByteBuffer buffer, Occupant occupant) {
+        if (occupant == null)
+            buffer.put(NONE);
+        else
+            buffer.put((byte) occupant.kind().ordinal()).putShort((short) occupant.zoneId());
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné un éventuel occupant écrit par putOccupant
+     * @param buffer le tampon donné
+     * @return l'occupant lu, ou null s'il n'y en a aucun
+     */
+    static Occupant getOccupant(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        return kind == NONE ? null : new Occupant(Occupant.Kind.values()[kind], buffer.getShort());
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné l'animal donné : son identifiant, puis sa sorte
+     * @param buffer le tampon donné
+     * @param animal l'animal donné
+     */
+    static void putAnimal(ByteBuffer buffer, Animal animal) {
+        buffer.putShort((short) animal.id()).put((byte) animal.kind().ordinal());
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné un animal écrit par putAnimal
+     * @param buffer le tampon donné
+     * @return l'animal lu
+     */
+    static Animal getAnimal(ByteBuffer buffer) {
+        return new Animal(buffer.getShort(), Animal.Kind.values()[buffer.get()]);
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné le message donné : ses points, ses gagnants, les identifiants de ses
+     * tuiles et son texte
+     * @param buffer le tampon donné
+     * @param message le message donné
+     */
+    static void putMessage(ByteBuffer buffer, MessageBoard.Message message) {
+
+        buffer.putInt(message.points()).put(playerBits(message.scorers()));
+
+        buffer.put((byte) message.tileIds().size());
+        for (int tileId : message.tileIds())
+            buffer.put((byte) tileId);
+
+        byte[] text = message.text().getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) text.length).put(text);
+    }
+
+    /**
+     * Méthode qui retourne un majorant de la taille, en octets, du message donné écrit par putMessage
+     * @param message le message donné
+     * @return un majorant de la taille du message donné
+     */
+    static int messageMaxSize(MessageBoard.Message message) {
+        //UN CARACTERE UTF-16 OCCUPE AU PLUS 3 OCTETS EN UTF-8
+        return Integer.BYTES + 2 + message.tileIds().size() + Short.BYTES + 3 * message.text().length();
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné un message écrit par putMessage
+     * @param buffer le tampon donné
+     * @return le message lu
+     */
+    static MessageBoard.Message getMessage(ByteBuffer buffer) {
+
+        int points = buffer.getInt();
+        Set<PlayerColor> scorers = players(buffer.get());
+
+        int tileIdCount = buffer.get();
+        Set<Integer> tileIds = new HashSet<>();
+        for (int j = 0; j < tileIdCount; j++)
+            tileIds.add(Byte.toUnsignedInt(buffer.get()));
+
+        byte[] text = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(text);
+
+        return new MessageBoard.Message(new String(text, StandardCharsets.UTF_8), points, scorers, tileIds);
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné la partition donnée : son nombre d'aires, puis pour chacune d'elles le
+     * nombre et les identifiants de ses zones, son nombre de connexions ouvertes, et ses occupants
+     * @param buffer le tampon donné
+     * @param partition la partition donnée
+     */
+    static void putPartition(ByteBuffer buffer, ZonePartition<?> partition) {
+        buffer.putShort((short) partition.areas().size());
+        for (Area<?> area : partition.areas())
+            putArea(buffer, area);
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné l'aire donnée : le nombre et les identifiants de ses zones, son nombre
+     * de connexions ouvertes, et ses occupants
+     * @param buffer le tampon donné
+     * @param area l'aire donnée
+     */
+    static void putArea(ByteBuffer buffer, Area<?> area) {
+
+        buffer.put((byte) area.zones().size());
+        for (Zone zone : area.zones())
+            buffer.putShort((short) zone.id());
+
+        buffer.put((byte) area.openConnections()).put((byte) area.occupants().size());
+        for (PlayerColor occupant : area.occupants())
+            buffer.put((byte) occupant.ordinal());
+    }
+
+    /**
+     * Méthode qui retourne un majorant de la taille, en octets, de l'aire donnée écrite par putArea
+     * @param area l'aire donnée
+     * @return un majorant de la taille de l'aire donnée
+     */
+    static int areaMaxSize(Area<?> area) {
+        return 3 + area.zones().size() * Short.BYTES + area.occupants().size();
+    }
+
+    /**
+     * Méthode qui retourne un majorant de la taille, en octets, de la partition donnée écrite par putPartition
+     * @param partition la partition donnée
+     * @return un majorant de la taille de la partition donnée
+     */
+    static int partitionMaxSize(ZonePartition<?> partition) {
+
+        int size = Short.BYTES;
+        for (Area<?> area : partition.areas())
+            size += areaMaxSize(area);
+
+        return size;
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné une partition écrite par putPartition
+     * @param buffer le tampon donné
+     * @param zoneClass la classe des zones de la partition
+     * @return la partition lue
+     * @throws IllegalArgumentException si l'une des zones n'existe pas, ou n'est pas de la sorte attendue
+     */
+    static <Z extends Zone> ZonePartition<Z> getPartition(ByteBuffer buffer, Class<Z> zoneClass) {
+
+        int areaCount = buffer.getShort();
+        List<Area<Z>> areas = new ArrayList<>(areaCount);
+        for (int i = 0; i < areaCount; i++)
+            areas.add(getArea(buffer, zoneClass));
+
+        return new ZonePartition<>(Set.copyOf(areas));
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné une aire écrite par putArea
+     * @param buffer le tampon donné
+     * @param zoneClass la classe des zones de l'aire
+     * @return l'aire lue
+     * @throws IllegalArgumentException si l'une des zones n'existe pas, ou n'est pas de la sorte attendue
+     */
+    static <Z extends Zone> Area<Z> getArea(ByteBuffer buffer, Class<Z> zoneClass) {
+
+        int zoneCount = buffer.get();
+        List<Z> areaZones = new ArrayList<>(zoneCount);
+        for (int j = 0; j < zoneCount; j++)
+            areaZones.add(zoneWithId(buffer.getShort(), zoneClass));
+
+        int openConnections = buffer.get();
+        int occupantCount = buffer.get();
+        List<PlayerColor> occupants = new ArrayList<>(occupantCount);
+        for (int j = 0; j < occupantCount; j++)
+            occupants.add(PlayerColor.ALL.get(buffer.get()));
+
+        return new Area<>(Set.copyOf(areaZones), occupants, openConnections);
+    }
+
+    /**
+     * Méthode qui retourne la zone dont l'identifiant est donné
+     * @param zoneId l'identifiant donné
+     * @param zoneClass la classe attendue de la zone
+     * @return la zone dont l'identifiant est donné
+     * @throws IllegalArgumentException si aucune zone n'a cet identifiant, ou si elle n'est pas de la sorte attendue
+     */
+    static <Z extends Zone> Z zoneWithId(int zoneId, Class<Z> zoneClass) {
+        Zone zone = zoneId >= 0 && zoneId < ZONES.length ? ZONES[zoneId] : null;
+        Preconditions.checkArgument(zoneClass.isInstance(zone));
+        return zoneClass.cast(zone);
+    }
+
+    /**
+     * Méthode qui retourne le tableau des zones de toutes les tuiles de Tiles.TILES, indexées par leur identifiant
+     * @return le tableau des zones, dont les cases ne correspondant à aucune zone sont nulles
+     */
+    private static Zone[] zonesById() {
+
+        List<Zone> allZones = Tiles.TILES.stream()
+                .flatMap(tile -> tile.zones().stream())
+                .toList();
+
+        Zone[] zones = new Zone[allZones.stream().mapToInt(Zone::id).max().orElse(-1) + 1];
+        for (Zone zone : allZones)
+            zones[zone.id()] = zone;
+
+        return zones;
+    }
+
+    /**
+     * Méthode qui écrit dans le tampon donné la taille de la liste de tuiles donnée, suivie de leurs identifiants
+     * @param buffer le tampon donné
+     * @param tiles la liste de tuiles donnée
+     */
+    static void putTiles(ByteBuffer buffer, List<Tile> tiles) {
+        buffer.put((byte) tiles.size());
+        for (Tile tile : tiles)
+            buffer.put(tileId(tile));
+    }
+
+    /**
+     * Méthode qui lit dans le tampon donné une liste de tuiles écrite par putTiles
+     * @param buffer le tampon donné
+     * @return la liste de tuiles lue
+     * @throws IllegalArgumentException si l'une des tuiles est absente
+     */
+    static List<Tile> getTiles(ByteBuffer buffer) {
+
+        int count = Byte.toUnsignedInt(buffer.get());
+        Tile[] tiles = new Tile[count];
+        for (int i = 0; i < count; i++) {
+            tiles[i] = tileOrNull(buffer.get());
+            Preconditions.checkArgument(tiles[i] != null);
+        }
+
+        return Arrays.asList(tiles);
+    }
+
+    /**
+     * Méthode qui retourne l'identifiant de la tuile donnée, sur un octet
+     * @param tile la tuile donnée, ou null
+     * @return l'identifiant de la tuile donnée, ou NONE si elle est nulle
+     */
+    static byte tileId(Tile tile) {
+        return tile == null ? NONE : (byte) tile.id();
+    }
+
+    /**
+     * Méthode qui retourne la tuile dont l'identifiant est donné
+     * @param tileId l'identifiant donné, sur un octet
+     * @return la tuile dont l'identifiant est donné, ou null si l'identifiant est NONE
+     * @throws IllegalArgumentException si aucune tuile n'a cet identifiant
+     */
+    static Tile tileOrNull(byte tileId) {
+
+        if (tileId == NONE)
+            return null;
+
+        Preconditions.checkArgument(tileId >= 0 && tileId < Tiles.TILES.size());
+        Tile tile = Tiles.TILES.get(tileId);
+        Preconditions.checkArgument(tile.id() == tileId);
+
+        return tile;
+    }
+
+    /**
+     * Méthode qui retourne l'ensemble de joueurs donné sous la forme d'un masque, dont le bit d'index i est à 1 ssi
+     * le joueur de couleur PlayerColor.ALL.get(i) en fait partie
+     * @param players l'ensemble de joueurs donné
+     * @return le masque correspondant
+     */
+    private static byte playerBits(Set<PlayerColor> players) {
+
+        int bits = 0;
+        for (PlayerColor player : players)
+            bits |= 1 << player.ordinal();
+
+        return (byte) bits;
+    }
+
+    /**
+     * Méthode qui retourne l'ensemble de joueurs correspondant au masque donné
+     * @param bits le masque donné
+     * @return l'ensemble de joueurs correspondant
+     */
+    private static Set<PlayerColor> players(byte bits) {
+
+        Set<PlayerColor> players = EnumSet.noneOf(PlayerColor.class);
+        for (PlayerColor player : PlayerColor.ALL) {
+            if ((bits & (1 << player.ordinal())) != 0)
+                players.add(player);
+        }
+
+        return players;
+    }
+
+}
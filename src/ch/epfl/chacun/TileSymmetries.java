@@ -0,0 +1,208 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Classe qui détermine les symétries de rotation des tuiles : deux rotations d'une tuile sont équivalentes si les
+ * côtés de la tuile, une fois tournée, sont de même sorte et bordés de zones identiques (à leur identifiant près),
+ * dans le même ordre ; poser la tuile avec l'une ou l'autre de ces rotations, à la même position, produit alors des
+ * partitions de zones identiques à un renommage des zones près, et donc les mêmes points.
+ * Les classes d'équivalence des tuiles de Tiles.TILES sont calculées une seule fois, ce qui permet de générer
+ * rapidement les poses légales distinctes d'un état de jeu, une par classe et par position
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class TileSymmetries {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private TileSymmetries() {}
+
+    /**
+     * Les représentants des rotations de chacune des tuiles de Tiles.TILES, indexés par l'identifiant de la tuile
+     * puis par la rotation
+     */
+    private static final List<Rotation[]> REPRESENTATIVES = Tiles.TILES.stream()
+            .map(TileSymmetries::computeRepresentatives)
+            .toList();
+
+    /**
+     * Méthode qui retourne le représentant de la classe d'équivalence de la rotation donnée de la tuile donnée,
+     * soit, la première rotation (dans l'ordre de Rotation.ALL) qui lui est équivalente
+     * @param tile la tuile donnée
+     * @param rotation la rotation donnée
+     * @return le représentant de la classe d'équivalence de la rotation donnée
+     */
+    public static Rotation representative(Tile tile, Rotation rotation) {
+        return representatives(tile)[rotation.ordinal()];
+    }
+
+    /**
+     * Méthode qui retourne l'ensemble des rotations de la tuile donnée équivalentes à la rotation donnée (celle-ci
+     * comprise) ; elles permettent de retrouver les rotations concrètes d'un placement représentant
+     * @param tile la tuile donnée
+     * @param rotation la rotation donnée
+     * @return l'ensemble des rotations équivalentes à la rotation donnée
+     */
+    public static Set<Rotation> equivalentRotations(Tile tile, Rotation rotation) {
+
+        Rotation[] representatives = representatives(tile);
+        Set<Rotation> rotations = EnumSet.noneOf(Rotation.class);
+
+        for (Rotation other : Rotation.ALL) {
+            if (representatives[other.ordinal()] == representatives[rotation.ordinal()])
+                rotations.add(other);
+        }
+
+        return Collections.unmodifiableSet(rotations);
+    }
+
+    /**
+     * Méthode qui retourne les classes d'équivalence des rotations de la tuile donnée, dans l'ordre de leurs
+     * représentants
+     * @param tile la tuile donnée
+     * @return la liste des classes d'équivalence des rotations de la tuile donnée
+     */
+    public static List<Set<Rotation>> rotationClasses(Tile tile) {
+
+        List<Set<Rotation>> classes = new ArrayList<>();
+
+        for (Rotation rotation : Rotation.ALL) {
+            if (representative(tile, rotation) == rotation)
+                classes.add(equivalentRotations(tile, rotation));
+        }
+
+        return List.copyOf(classes);
+    }
+
+    /**
+     * Méthode qui retourne les poses légales distinctes de la tuile à placer dans l'état donné : une par position
+     * d'insertion et par classe d'équivalence de rotations valides, la rotation de chaque pose étant le représentant
+     * de sa classe (une rotation concrète, pouvant être encodée par ActionEncoder)
+     * @param gameState l'état de jeu donné
+     * @return la liste des poses légales distinctes de la tuile à placer
+     * @throws IllegalArgumentException si la prochaine action de l'état donné n'est pas PLACE_TILE
+     */
+    public static List<PlacedTile> distinctPlacements(GameState gameState) {
+
+        Preconditions.checkArgument(gameState.nextAction() == GameState.Action.PLACE_TILE);
+
+        Tile tile = gameState.tileToPlace();
+        Rotation[] representatives = representatives(tile);
+        List<PlacedTile> placements = new ArrayList<>();
+
+        for (Map.Entry<Pos, Set<Rotation>> entry : gameState.placementTable().validRotations().entrySet()) {
+            for (Rotation rotation : entry.getValue()) {
+                if (representatives[rotation.ordinal()] == rotation)
+                    placements.add(new PlacedTile(tile, gameState.currentPlayer(), rotation, entry.getKey()));
+            }
+        }
+
+        return placements;
+    }
+
+    /**
+     * Méthode qui retourne les représentants des rotations de la tuile donnée, précalculés si c'est l'une des tuiles
+     * de Tiles.TILES
+     * @param tile la tuile donnée
+     * @return les représentants des rotations de la tuile donnée, indexés par rotation
+     */
+    private static Rotation[] representatives(Tile tile) {
+
+        int id = tile.id();
+        if (id >= 0 && id < REPRESENTATIVES.size() && Tiles.TILES.get(id) == tile)
+            return REPRESENTATIVES.get(id);
+
+        return computeRepresentatives(tile);
+    }
+
+    /**
+     * Méthode qui calcule les représentants des rotations de la tuile donnée, en comparant la signature de la tuile
+     * tournée selon chacune des rotations
+     * @param tile la tuile donnée
+     * @return les représentants des rotations de la tuile donnée, indexés par rotation
+     */
+    private static Rotation[] computeRepresentatives(Tile tile) {
+
+        List<String> signatures = new ArrayList<>();
+        for (Rotation rotation : Rotation.ALL)
+            signatures.add(signature(tile, rotation));
+
+        Rotation[] representatives = new Rotation[Rotation.COUNT];
+        for (Rotation rotation : Rotation.ALL)
+            representatives[rotation.ordinal()] =
+                    Rotation.ALL.get(signatures.indexOf(signatures.get(rotation.ordinal())));
+
+        return representatives;
+    }
+
+    /**
+     * Méthode qui retourne la signature de la tuile donnée tournée selon la rotation donnée : la description de ses
+     * côtés, du nord à l'ouest, dans laquelle chaque zone est désignée par son ordre d'apparition plutôt que par son
+     * identifiant
+     * @param tile la tuile donnée
+     * @param rotation la rotation donnée
+     * @return la signature de la tuile donnée tournée selon la rotation donnée
+     */
+    private static String signature(Tile tile, Rotation rotation) {
+
+        Map<Zone, Integer> labels = new HashMap<>();
+        StringBuilder signature = new StringBuilder();
+
+        for (Direction direction : Direction.ALL) {
+            TileSide side = tile.sides().get(direction.rotated(rotation.negated()).ordinal());
+
+            signature.append(switch (side) {
+                case TileSide.Forest ignored -> 'F';
+                case TileSide.Meadow ignored -> 'M';
+                case TileSide.River ignored -> 'R';
+            });
+
+            for (Zone zone : side.zones())
+                appendZone(signature, zone, labels);
+
+            signature.append('|');
+        }
+
+        return signature.toString();
+    }
+
+    /**
+     * Méthode qui ajoute à la signature donnée la description de la zone donnée, et celle de son lac s'il s'agit
+     * d'une rivière qui en a un
+     * @param signature la signature en cours de construction
+     * @param zone la zone donnée
+     * @param labels les numéros attribués, par ordre d'apparition, aux zones déjà décrites
+     */
+    private static void appendZone(StringBuilder signature, Zone zone, Map<Zone, Integer> labels) {
+
+        Integer label = labels.get(zone);
+        if (label != null) {
+            signature.append('#').append(label);
+            return;
+        }
+
+        labels.put(zone, labels.size());
+        signature.append('(');
+
+        switch (zone) {
+            case Zone.Forest forest -> signature.append(forest.kind());
+            case Zone.Meadow meadow -> {
+                for (Animal animal : meadow.animals())
+                    signature.append(animal.kind()).append(',');
+                signature.append(meadow.specialPower());
+            }
+            case Zone.River river -> {
+                signature.append(river.fishCount());
+                if (river.hasLake())
+                    appendZone(signature, river.lake(), labels);
+            }
+            case Zone.Lake lake -> signature.append(lake.fishCount()).append(',').append(lake.specialPower());
+        }
+
+        signature.append(')');
+    }
+
+}
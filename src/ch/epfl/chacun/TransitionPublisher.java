@@ -0,0 +1,371 @@
+package ch.epfl.chacun;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classe qui publie les transitions d'une partie (l'état avant, l'action, l'état après) auprès d'abonnés qui ne
+ * dépendent pas de JavaFX (journalisation, mesures, sauvegarde, joueurs automatiques...), selon l'interface
+ * java.util.concurrent.Flow : chaque abonné dispose de son propre tampon borné, vidé par son propre fil virtuel au
+ * rythme des demandes de l'abonné, et d'une stratégie choisie pour le cas où son tampon est plein :
+ * <ul>
+ *     <li>DROP : la nouvelle transition est ignorée pour cet abonné ;</li>
+ *     <li>BLOCK : l'éditeur attend que l'abonné ait libéré de la place, ce qui ne convient qu'aux éditeurs qui
+ *     peuvent attendre sans retarder l'interface ;</li>
+ *     <li>COALESCE : la nouvelle transition est fusionnée avec la dernière transition du tampon, l'abonné ne
+ *     recevant alors qu'une transition couvrant plusieurs actions.</li>
+ * </ul>
+ * La stratégie par défaut est COALESCE, qui ne bloque jamais l'éditeur ni ne perd d'action. Les attentes utilisent des
+ * verrous de java.util.concurrent plutôt que des moniteurs, afin de ne pas immobiliser le fil porteur des fils
+ * virtuels qui attendent. Les transitions doivent être publiées par un seul fil à la fois, dans l'ordre de la partie
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class TransitionPublisher implements Flow.Publisher<TransitionPublisher.Transition>, AutoCloseable {
+
+    /**
+     * La capacité par défaut du tampon de chaque abonné
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Enumération qui représente la stratégie appliquée lorsque le tampon d'un abonné est plein
+     */
+    public enum Overflow {
+        DROP,
+        BLOCK,
+        COALESCE
+    }
+
+    /**
+     * Enregistrement qui représente une transition de la partie
+     * @param oldState l'état de jeu avant la transition
+     * @param actionStrings les actions de la transition, dans leur représentation en base32 : une seule, sauf si
+     * plusieurs transitions successives ont été fusionnées
+     * @param newState l'état de jeu après la transition
+     */
+    public record Transition(GameState oldState, List<String> actionStrings, GameState newState) {
+
+        /**
+         * Constructeur compact de la transition, qui copie la liste des actions pour garantir l'immuabilité
+         * @param oldState l'état de jeu avant la transition
+         * @param actionStrings les actions de la transition
+         * @param newState l'état de jeu après la transition
+         * @throws IllegalArgumentException si la liste des actions est vide
+         */
+        public Transition {
+            Objects.requireNonNull(oldState);
+            Objects.requireNonNull(newState);
+            actionStrings = List.copyOf(actionStrings);
+            Preconditions.checkArgument(!actionStrings.isEmpty());
+        }
+
+        /**
+         * Méthode qui retourne les différences entre les plateaux avant et après la transition, calculées à chaque
+         * appel afin que les abonnés qui ne les consultent pas n'en paient pas le coût
+         * @return les différences entre les plateaux avant et après la transition
+         */
+        public BoardDiff boardDiff() {
+            return BoardDiff.between(oldState.board(), newState.board());
+        }
+
+        /**
+         * Méthode qui retourne les changements apportés à l'état du jeu par la transition (tuiles posées, occupants,
+         * animaux annulés, messages et points), calculés à chaque appel
+         * @return les changements apportés à l'état du jeu par la transition
+         */
+        public GameStateChange change() {
+            return GameStateChange.between(oldState, newState);
+        }
+
+        /**
+         * Méthode qui retourne la transition obtenue en faisant suivre le récepteur de la transition donnée
+         * @param next la transition donnée, qui doit partir de l'état d'arrivée du récepteur
+         * @return la transition allant de l'état de départ du récepteur à l'état d'arrivée de la transition donnée
+         */
+        Transition followedBy(Transition next) {
+            List<String> allActionStrings = new ArrayList<>(actionStrings);
+            allActionStrings.addAll(next.actionStrings());
+            return new Transition(oldState, allActionStrings, next.newState());
+        }
+    }
+
+    private final List<SubscriberBuffer> subscriptions = new CopyOnWriteArrayList<>();
+    private final ReentrantLock closeLock = new ReentrantLock();
+    private boolean closed = false;
+
+    /**
+     * Méthode qui abonne l'abonné donné aux transitions publiées ensuite, avec un tampon de capacité par défaut et
+     * la stratégie COALESCE, qui ne bloque jamais l'éditeur
+     * @param subscriber l'abonné donné
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Transition> subscriber) {
+        subscribe(subscriber, DEFAULT_CAPACITY, Overflow.COALESCE);
+    }
+
+    /**
+     * Méthode qui abonne l'abonné donné aux transitions publiées ensuite ; si l'éditeur est fermé, l'abonné est
+     * immédiatement informé de la fin du flot
+     * @param subscriber l'abonné donné
+     * @param capacity la capacité de son tampon
+     * @param overflow la stratégie appliquée lorsque son tampon est plein
+     * @throws IllegalArgumentException si la capacité n'est pas strictement positive
+     */
+    public void subscribe(Flow.Subscriber<? super Transition> subscriber, int capacity, Overflow overflow) {
+
+        Objects.requireNonNull(subscriber);
+        Objects.requireNonNull(overflow);
+        Preconditions.checkArgument(capacity > 0);
+
+        SubscriberBuffer subscription = new SubscriberBuffer(subscriber, capacity, overflow);
+        closeLock.lock();
+        try {
+            if (closed)
+                subscription.complete();
+            else
+                subscriptions.add(subscription);
+        } finally {
+            closeLock.unlock();
+        }
+        Thread.ofVirtual().name("transition-subscriber").start(subscription::deliver);
+    }
+
+    /**
+     * Méthode qui publie la transition donnée auprès de tous les abonnés ; avec la stratégie BLOCK, elle attend que
+     * chacun d'eux ait de la place dans son tampon
+     * @param oldState l'état de jeu avant la transition
+     * @param actionString l'action de la transition, dans sa représentation en base32
+     * @param newState l'état de jeu après la transition
+     * @throws IllegalStateException si l'éditeur est fermé
+     */
+    public void publish(GameState oldState, String actionString, GameState newState) {
+
+        closeLock.lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("l'éditeur des transitions est fermé");
+        } finally {
+            closeLock.unlock();
+        }
+
+        Transition transition = new Transition(oldState, List.of(actionString), newState);
+        for (SubscriberBuffer subscription : subscriptions)
+            subscription.offer(transition);
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'abonnés actuels
+     * @return le nombre d'abonnés actuels
+     */
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Méthode qui ferme l'éditeur : chaque abonné est informé de la fin du flot une fois les transitions de son
+     * tampon reçues, et aucune transition ne peut plus être publiée
+     */
+    @Override
+    public void close() {
+        closeLock.lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.unlock();
+        }
+        for (SubscriberBuffer subscription : subscriptions)
+            subscription.complete();
+    }
+
+    /**
+     * Classe qui représente l'abonnement d'un abonné : son tampon borné, et sa demande en attente
+     */
+    private final class SubscriberBuffer implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Transition> subscriber;
+        private final int capacity;
+        private final Overflow overflow;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        //SIGNALEE LORSQU'UNE PLACE SE LIBERE DANS LE TAMPON (OU QUE L'ABONNEMENT EST ANNULE)
+        private final Condition notFull = lock.newCondition();
+        //SIGNALEE LORSQUE LE FIL DE L'ABONNEMENT PEUT AVOIR QUELQUE CHOSE A FAIRE
+        private final Condition changed = lock.newCondition();
+
+        //ETAT PROTEGE PAR LE VERROU DE L'ABONNEMENT
+        private final ArrayDeque<Transition> buffer = new ArrayDeque<>();
+        private long demand = 0;
+        private boolean completing = false;
+        private boolean cancelled = false;
+        private Throwable error = null;
+
+        /**
+         * Constructeur de l'abonnement
+         * @param subscriber l'abonné
+         * @param capacity la capacité de son tampon
+         * @param overflow la stratégie appliquée lorsque son tampon est plein
+         */
+        SubscriberBuffer(Flow.Subscriber<? super Transition> subscriber, int capacity, Overflow overflow) {
+            this.subscriber = subscriber;
+            this.capacity = capacity;
+            this.overflow = overflow;
+        }
+
+        /**
+         * Méthode qui ajoute la transition donnée au tampon, en appliquant la stratégie de l'abonnement s'il est plein
+         * @param transition la transition donnée
+         */
+        void offer(Transition transition) {
+            lock.lock();
+            try {
+                if (buffer.size() == capacity) {
+                    switch (overflow) {
+                        case DROP -> {
+                            return;
+                        }
+                        case BLOCK -> {
+                            while (buffer.size() == capacity && !cancelled) {
+                                try {
+                                    notFull.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    return;
+                                }
+                            }
+                        }
+                        case COALESCE -> transition = buffer.pollLast().followedBy(transition);
+                    }
+                }
+
+                if (!cancelled) {
+                    buffer.addLast(transition);
+                    changed.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Méthode qui indique à l'abonnement que le flot est terminé
+         */
+        void complete() {
+            lock.lock();
+            try {
+                completing = true;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                //REGLE 3.9 DE LA SPECIFICATION DES FLOTS REACTIFS
+                cancel(new IllegalArgumentException("la demande doit être strictement positive : " + n));
+                return;
+            }
+
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancel(null);
+        }
+
+        /**
+         * Méthode qui annule l'abonnement, qui est immédiatement retiré de l'éditeur et ne reçoit plus aucune
+         * transition
+         * @param failure l'erreur à transmettre à l'abonné, ou null s'il a lui-même annulé son abonnement
+         */
+        private void cancel(Throwable failure) {
+            lock.lock();
+            try {
+                if (!cancelled)
+                    error = failure;
+                cancelled = true;
+                buffer.clear();
+                notFull.signalAll();
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Méthode exécutée par le fil virtuel de l'abonnement, qui transmet à l'abonné les transitions du tampon à
+         * mesure qu'il les demande, jusqu'à la fin du flot ou l'annulation de l'abonnement
+         */
+        void deliver() {
+            try {
+                subscriber.onSubscribe(this);
+
+                for (Transition transition = next(); transition != null; transition = next())
+                    subscriber.onNext(transition);
+
+                Throwable failure;
+                boolean wasCancelled;
+                lock.lock();
+                try {
+                    failure = error;
+                    wasCancelled = cancelled;
+                } finally {
+                    lock.unlock();
+                }
+                if (failure != null)
+                    subscriber.onError(failure);
+                else if (!wasCancelled)
+                    subscriber.onComplete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                //UN ABONNE QUI LEVE UNE EXCEPTION EST DESABONNE
+                cancel();
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        /**
+         * Méthode qui attend que l'abonné ait demandé une transition et que le tampon en contienne une, et la retire
+         * du tampon
+         * @return la prochaine transition à transmettre, ou null si le flot est terminé ou l'abonnement annulé
+         * @throws InterruptedException si le fil est interrompu pendant l'attente
+         */
+        private Transition next() throws InterruptedException {
+            lock.lock();
+            try {
+                while (!cancelled && (demand == 0 || buffer.isEmpty()) && !(completing && buffer.isEmpty()))
+                    changed.await();
+
+                if (cancelled || buffer.isEmpty())
+                    return null;
+
+                demand -= 1;
+                Transition transition = buffer.pollFirst();
+                notFull.signal();
+                return transition;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
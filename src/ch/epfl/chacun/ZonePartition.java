@@ -1,7 +1,9 @@
 package ch.epfl.chacun;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -45,22 +47,6 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
         throw new IllegalArgumentException("la zone n'appartient à aucune aire de la partition");
     }
 
-    /**
-     * Méthode qui retourne l'aire contenant la zone passée en argument (pour pouvoir etre invoquee par Zone.Builder)
-     * @param zone la zone donnée
-     * @throws IllegalArgumentException si la zone n'appartient à aucune aire de la partition
-     * @return l'aire contenant la zone passée en argument
-     */
-    private static <Z extends Zone> Area<Z> areaContaining(Z zone, Set<Area<Z>> areas){
-        for (Area<Z> area : areas){
-            for (Z areaZone : area.zones()){
-                if (areaZone.equals(zone))
-                    return area;
-            }
-        }
-        throw new IllegalArgumentException("la zone n'appartient à aucune aire de la partition");
-    }
-
     /**
      * Batisseur d'une partition de zones (ZonePartition)
      */
@@ -68,6 +54,13 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
 
         private final HashSet<Area<Z>> builderAreas;
 
+        /**
+         * Table associant à l'identifiant de chaque zone l'aire qui la contient, construite lors de la première
+         * recherche et tenue à jour ensuite, afin que les recherches successives d'un même bâtisseur ne parcourent pas
+         * toutes les aires
+         */
+        private Map<Integer, Area<Z>> areasByZoneId;
+
         /**
          * Constructeur qui permet de créer une partition de zones à partir d'une autre déjà existante
          * @param partition une partition de zones existante
@@ -76,6 +69,51 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
             this.builderAreas = new HashSet<>(partition.areas);
         }
 
+        /**
+         * Méthode qui retourne l'aire de la partition en cours de construction contenant la zone donnée
+         * @param zone la zone donnée
+         * @return l'aire contenant la zone donnée
+         * @throws IllegalArgumentException si la zone n'appartient à aucune aire de la partition
+         */
+        Area<Z> areaContaining(Z zone) {
+
+            Area<Z> area = areaContainingZoneWithId(zone.id());
+            Preconditions.checkArgument(area != null);
+
+            return area;
+        }
+
+        /**
+         * Méthode qui retourne vrai ssi la zone dont l'identifiant est donné appartient à une aire occupée de la
+         * partition en cours de construction
+         * @param zoneId l'identifiant de la zone donnée
+         * @return vrai ssi la zone appartient à une aire occupée, faux si elle n'appartient à aucune aire de la
+         * partition ou si son aire est inoccupée
+         */
+        boolean isAreaOccupied(int zoneId) {
+
+            Area<Z> area = areaContainingZoneWithId(zoneId);
+
+            return area != null && area.isOccupied();
+        }
+
+        /**
+         * Méthode qui retourne l'aire de la partition en cours de construction contenant la zone dont l'identifiant
+         * est donné, ou null si aucune aire ne la contient
+         * @param zoneId l'identifiant de la zone donnée
+         * @return l'aire contenant la zone, ou null
+         */
+        private Area<Z> areaContainingZoneWithId(int zoneId) {
+
+            if (areasByZoneId == null) {
+                areasByZoneId = new HashMap<>();
+                for (Area<Z> area : builderAreas)
+                    indexZones(area);
+            }
+
+            return areasByZoneId.get(zoneId);
+        }
+
         /**
          * Méthode qui ajoute à la partition en cours de construction une nouvelle aire inoccupée,
          * constituée uniquement de la zone donnée, et possédant le nombre de connexions ouvertes donné
@@ -85,6 +123,7 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
         public void addSingleton(Z zone, int openConnections){
             Area<Z> areaToAdd = new Area<>(Set.of(zone), Collections.emptyList(), openConnections);
             builderAreas.add(areaToAdd);
+            indexZones(areaToAdd);
         }
 
         /**
@@ -94,9 +133,8 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException si la zone n'appartient pas à une aire de la partition, ou si l'aire est déjà occupée
          */
         public void addInitialOccupant(Z zone, PlayerColor color){
-            Area<Z> areaContainingZone = ZonePartition.areaContaining(zone, builderAreas);
-            builderAreas.remove(areaContainingZone);
-            builderAreas.add(areaContainingZone.withInitialOccupant(color));
+            Area<Z> areaContainingZone = areaContaining(zone);
+            replace(areaContainingZone, areaContainingZone.withInitialOccupant(color));
         }
 
         /**
@@ -107,9 +145,8 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * ou si elle n'est pas occupée par au moins un occupant du joueur de la couleur donnée
          */
         public void removeOccupant(Z zone, PlayerColor color){
-            Area<Z> areaContainingZone = ZonePartition.areaContaining(zone, builderAreas);
-            builderAreas.remove(areaContainingZone);
-            builderAreas.add(areaContainingZone.withoutOccupant(color));
+            Area<Z> areaContainingZone = areaContaining(zone);
+            replace(areaContainingZone, areaContainingZone.withoutOccupant(color));
         }
 
         /**
@@ -121,8 +158,7 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
 
             Preconditions.checkArgument(builderAreas.contains(area));
 
-            builderAreas.remove(area);
-            builderAreas.add(area.withoutOccupants());
+            replace(area, area.withoutOccupants());
         }
 
         /**
@@ -133,8 +169,8 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          */
         public void union(Z zone1, Z zone2) {
 
-            Area<Z> area1 = ZonePartition.areaContaining(zone1, builderAreas);
-            Area<Z> area2 = ZonePartition.areaContaining(zone2, builderAreas);
+            Area<Z> area1 = areaContaining(zone1);
+            Area<Z> area2 = areaContaining(zone2);
 
             Area<Z> bigArea = area1.connectTo(area2);
 
@@ -143,6 +179,31 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
 
             if (area1 != area2)
                 builderAreas.remove(area2);
+
+            indexZones(bigArea);
+        }
+
+        /**
+         * Méthode qui remplace, dans la partition en cours de construction, l'aire donnée par la nouvelle aire donnée,
+         * qui contient les mêmes zones
+         * @param area l'aire à remplacer
+         * @param newArea la nouvelle aire
+         */
+        private void replace(Area<Z> area, Area<Z> newArea) {
+            builderAreas.remove(area);
+            builderAreas.add(newArea);
+            indexZones(newArea);
+        }
+
+        /**
+         * Méthode qui associe, dans la table des aires (si elle a déjà été construite), toutes les zones de l'aire
+         * donnée à cette aire
+         * @param area l'aire donnée
+         */
+        private void indexZones(Area<Z> area) {
+            if (areasByZoneId != null)
+                for (Z zone : area.zones())
+                    areasByZoneId.put(zone.id(), area);
         }
 
         /**
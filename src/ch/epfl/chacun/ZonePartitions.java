@@ -167,6 +167,63 @@ public record ZonePartitions(ZonePartition<Zone.Forest> forests, ZonePartition<Z
             riverBuilder.removeAllOccupantsOf(river);
         }
 
+        /**
+         * Méthode qui retourne l'aire forêt, en cours de construction, contenant la zone donnée
+         * @param forest la zone forêt donnée
+         * @return l'aire forêt contenant la zone donnée
+         * @throws IllegalArgumentException si la zone n'appartient à aucune aire
+         */
+        Area<Zone.Forest> forestArea(Zone.Forest forest) {
+            return forestBuilder.areaContaining(forest);
+        }
+
+        /**
+         * Méthode qui retourne l'aire pré, en cours de construction, contenant la zone donnée
+         * @param meadow la zone pré donnée
+         * @return l'aire pré contenant la zone donnée
+         * @throws IllegalArgumentException si la zone n'appartient à aucune aire
+         */
+        Area<Zone.Meadow> meadowArea(Zone.Meadow meadow) {
+            return meadowBuilder.areaContaining(meadow);
+        }
+
+        /**
+         * Méthode qui retourne l'aire rivière, en cours de construction, contenant la zone donnée
+         * @param river la zone rivière donnée
+         * @return l'aire rivière contenant la zone donnée
+         * @throws IllegalArgumentException si la zone n'appartient à aucune aire
+         */
+        Area<Zone.River> riverArea(Zone.River river) {
+            return riverBuilder.areaContaining(river);
+        }
+
+        /**
+         * Méthode qui retourne le réseau hydrographique, en cours de construction, contenant la zone donnée
+         * @param water la zone donnée
+         * @return le réseau hydrographique contenant la zone donnée
+         * @throws IllegalArgumentException si la zone n'appartient à aucune aire
+         */
+        Area<Zone.Water> riverSystemArea(Zone.Water water) {
+            return riverSystemBuilder.areaContaining(water);
+        }
+
+        /**
+         * Méthode qui retourne vrai ssi l'aire que l'occupant donné occuperait est déjà occupée : l'aire forêt, pré
+         * ou rivière contenant sa zone pour un pion, le réseau hydrographique contenant sa zone pour une hutte
+         * @param occupant l'occupant donné
+         * @return vrai ssi l'aire que l'occupant donné occuperait est déjà occupée
+         */
+        boolean isAreaOccupied(Occupant occupant) {
+            int zoneId = occupant.zoneId();
+
+            return switch (occupant.kind()) {
+                case PAWN -> forestBuilder.isAreaOccupied(zoneId)
+                        || meadowBuilder.isAreaOccupied(zoneId)
+                        || riverBuilder.isAreaOccupied(zoneId);
+                case HUT -> riverSystemBuilder.isAreaOccupied(zoneId);
+            };
+        }
+
         /**
          * Méthode qui retourne le groupe de quatre partitions en cours de construction
          * @return le groupe de quatre partitions en cours de construction
@@ -0,0 +1,191 @@
+package ch.epfl.chacun.gui;
+
+import ch.epfl.chacun.GameSetup;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.SavedGame;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classe qui sauvegarde automatiquement la partie locale en cours, sans jamais bloquer le fil d'exécution JavaFX :
+ * chaque nouvelle liste d'actions lui est transmise (immuable), et un unique fil d'écriture n'écrit, au plus une fois
+ * par délai donné, que la plus récente d'entre elles ; le fichier de sauvegarde (au format de SavedGame) est écrit
+ * dans un fichier temporaire qui le remplace ensuite d'un coup, de sorte qu'un arrêt brutal ne laisse jamais de
+ * sauvegarde partielle ; une partie sauvegardée est restaurée en rejouant ses actions, et la sauvegarde d'une partie
+ * terminée est supprimée, une telle partie ne pouvant être reprise
+ * <p>
+ * Les méthodes d'instance de cette classe doivent être appelées depuis le fil d'exécution JavaFX.
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class AutoSave {
+
+    /**
+     * Le délai par défaut pendant lequel les actions successives sont regroupées en une seule écriture
+     */
+    public static final Duration DEFAULT_DELAY = Duration.ofMillis(500);
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auto-save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path saveFile;
+    private final GameSetup setup;
+    private final long delayNanos;
+    private final AtomicReference<List<String>> pending = new AtomicReference<>();
+    private final ReadOnlyObjectWrapper<Duration> lastLatency = new ReadOnlyObjectWrapper<>(Duration.ZERO);
+    private boolean discarded = false;
+
+    /**
+     * Constructeur de la sauvegarde automatique de la partie donnée
+     * @param saveFile le fichier de sauvegarde
+     * @param setup les paramètres de la partie
+     * @param delay le délai pendant lequel les actions successives sont regroupées en une seule écriture
+     */
+    public AutoSave(Path saveFile, GameSetup setup, Duration delay) {
+        this.saveFile = saveFile;
+        this.setup = setup;
+        this.delayNanos = delay.toNanos();
+    }
+
+    /**
+     * Méthode qui retourne le fichier de sauvegarde par défaut, placé dans le répertoire de l'utilisateur
+     * @return le fichier de sauvegarde par défaut
+     */
+    public static Path defaultSaveFile() {
+        return Path.of(System.getProperty("user.home"), ".chacun", "autosave.txt");
+    }
+
+    /**
+     * Méthode qui lit la partie sauvegardée dans le fichier donné
+     * @param saveFile le fichier donné
+     * @return la partie sauvegardée, ou une valeur vide si le fichier n'existe pas, n'est pas valide ou contient une
+     * partie terminée
+     */
+    public static Optional<SavedGame> load(Path saveFile) {
+        try {
+            SavedGame savedGame = SavedGame.decode(Files.readString(saveFile, StandardCharsets.UTF_8));
+            return savedGame.isOver() ? Optional.empty() : Optional.of(savedGame);
+        } catch (IOException | IllegalArgumentException e) {
+            //LA SAUVEGARDE EST ABSENTE OU ILLISIBLE
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Méthode qui sauvegarde la partie à chaque modification de la liste observable donnée, et supprime sa
+     * sauvegarde lorsqu'elle se termine (l'état du jeu étant mis à jour avant la liste des actions, la liste
+     * contenant la dernière action n'est alors plus sauvegardée)
+     * @param gameStateO l'état observable du jeu
+     * @param allActionsO la liste observable des actions de la partie
+     */
+    public void listen(ObservableValue<GameState> gameStateO, ObservableValue<List<String>> allActionsO) {
+        gameStateO.addListener((o, oldState, newState) -> {
+            if (newState.nextAction() == GameState.Action.END_GAME)
+                discard();
+        });
+        allActionsO.addListener((o, oldActions, newActions) -> save(newActions));
+    }
+
+    /**
+     * Méthode qui demande la sauvegarde de la partie avec les actions données ; l'écriture est effectuée en
+     * arrière-plan, après le délai de regroupement, et seule la plus récente des actions demandées entre-temps est
+     * écrite
+     * @param actionStrings la liste des actions de la partie
+     */
+    public void save(List<String> actionStrings) {
+        if (discarded)
+            return;
+
+        //UNE ECRITURE N'EST PLANIFIEE QUE SI AUCUNE N'EST DEJA EN ATTENTE
+        if (pending.getAndSet(List.copyOf(actionStrings)) == null)
+            WRITER.schedule(this::write, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Méthode qui supprime, en arrière-plan, le fichier de sauvegarde et abandonne la sauvegarde en attente ; elle est
+     * appelée à la fin de la partie, qui ne peut plus être reprise, et les demandes de sauvegarde suivantes sont
+     * ignorées
+     */
+    public void discard() {
+        discarded = true;
+        pending.set(null);
+        //LA SUPPRESSION SUIT LES ECRITURES DEJA COMMENCEES SUR L'UNIQUE FIL D'ECRITURE
+        WRITER.execute(() -> {
+            try {
+                Files.deleteIfExists(saveFile);
+            } catch (IOException e) {
+                //LA SAUVEGARDE, TERMINEE, SERA IGNOREE AU PROCHAIN LANCEMENT
+            }
+        });
+    }
+
+    /**
+     * Méthode qui écrit immédiatement la sauvegarde en attente, s'il y en a une, et attend la fin de son écriture ;
+     * elle est destinée à la fermeture de l'application, le fil d'écriture ne survivant pas à celle-ci
+     */
+    public void flush() {
+        try {
+            WRITER.submit(this::write).get();
+        } catch (ExecutionException e) {
+            //L'ECHEC DE L'ECRITURE EST IGNORE, COMME EN ARRIERE-PLAN
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Méthode qui retourne la propriété, en lecture seule, contenant la latence de la dernière sauvegarde, soit, le
+     * temps pris par le fil d'écriture pour encoder, écrire et mettre en place le fichier de sauvegarde
+     * @return la propriété contenant la latence de la dernière sauvegarde
+     */
+    public ReadOnlyObjectProperty<Duration> lastLatencyProperty() {
+        return lastLatency.getReadOnlyProperty();
+    }
+
+    /**
+     * Méthode exécutée par le fil d'écriture, qui écrit la plus récente liste d'actions en attente dans un fichier
+     * temporaire, puis le met en place en remplaçant atomiquement le fichier de sauvegarde
+     */
+    private void write() {
+
+        List<String> actionStrings = pending.getAndSet(null);
+        if (actionStrings == null)
+            return;
+
+        long start = System.nanoTime();
+
+        try {
+            Files.createDirectories(saveFile.toAbsolutePath().getParent());
+            Path tempFile = saveFile.resolveSibling(saveFile.getFileName() + ".tmp");
+            Files.writeString(tempFile, SavedGame.encode(setup, actionStrings), StandardCharsets.UTF_8);
+            Files.move(tempFile, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //LA SAUVEGARDE PRECEDENTE RESTE EN PLACE
+            return;
+        }
+
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        Platform.runLater(() -> lastLatency.set(latency));
+    }
+
+}
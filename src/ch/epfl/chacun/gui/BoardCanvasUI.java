@@ -0,0 +1,594 @@
+package ch.epfl.chacun.gui;
+
+import ch.epfl.chacun.*;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static javafx.scene.paint.Color.*;
+
+/**
+ * Classe qui contient le code de création d'une variante de l'affichage du plateau de jeu, dessinée sur un unique
+ * canevas plutôt qu'à l'aide d'un nœud (et d'un effet) par case, marqueur et occupant ; le canevas est dessiné par
+ * couches (tuiles, voiles, marqueurs puis occupants), seules les cases modifiées sont redessinées, et les clics sont
+ * attribués aux cases et aux occupants par calcul
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class BoardCanvasUI {
+
+    /**
+     * L'espacement entre deux cases du plateau, identique à celui de la grille de BoardUI
+     */
+    private static final int CELL_GAP = 2;
+
+    /**
+     * La distance entre deux cases successives du plateau
+     */
+    private static final int CELL_STRIDE = ImageLoader.NORMAL_TILE_FIT_SIZE + CELL_GAP;
+
+    /**
+     * Le rayon, autour de son centre, dans lequel un clic sélectionne un occupant
+     */
+    private static final double OCCUPANT_HIT_RADIUS = 12;
+
+    /**
+     * Les positions des occupants et des marqueurs sur une tuile non tournée, lues dans la feuille de style du
+     * plateau, indexées par identifiant de nœud (pawn_…, hut_… ou marker_…)
+     */
+    private static final Map<String, double[]> NODE_OFFSETS = nodeOffsets();
+
+    private static final Color EMPTY_CELL_COLOR = Color.gray(0.98);
+
+    /**
+     * La couleur du voile des cases de la frange sur lesquelles la tuile à placer ne peut être posée, lorsqu'elles
+     * sont mises en évidence (touche H)
+     */
+    private static final Color UNPLACEABLE_COLOR = Color.gray(0.35);
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private BoardCanvasUI() {}
+
+    /**
+     * Méthode qui retourne le nœud JavaFX correspondant au plateau du jeu, dessiné sur un canevas ; les paramètres
+     * sont les mêmes que ceux de BoardUI.create
+     *
+     * @param reach la portée du plateau à créer
+     * @param gameStateO la version observable de l'état du jeu
+     * @param rotationO la version observable de la rotation à appliquer à la tuile à placer
+     * @param visibleOccupantsO la version observable des occupants visibles
+     * @param tileIdsO la version observable des tuiles mises en évidence
+     * @param rotationHandler un gestionnaire d'événement à appeler lorsque le joueur courant désire effectuer
+     * une rotation de la tuile à placer, soit, quand il effectue un clic droit sur une case de la frange
+     * @param positionHandler un gestionnaire d'événement à appeler lorsque le joueur courant désire poser
+     * la tuile à placer, soit, quand il effectue un clic gauche sur une case de la frange
+     * @param occupantHandler un gestionnaire d'événement à appeler lorsque le joueur courant sélectionne un occupant,
+     * soit, quand il clique sur l'un d'entre eux
+     * @return le nœud JavaFX correspondant au plateau du jeu
+     */
+    public static Node create(int reach, ObservableValue<GameState> gameStateO, ObservableValue<Rotation> rotationO,
+                              ObservableValue<Set<Occupant>> visibleOccupantsO,
+                              ObservableValue<Set<Integer>> tileIdsO, Consumer<Rotation> rotationHandler,
+                              Consumer<Pos> positionHandler, Consumer<Occupant> occupantHandler) {
+
+        Preconditions.checkArgument(reach > 0);
+
+        ScrollPane boardScrollPane = new ScrollPane();
+        boardScrollPane.getStylesheets().add("board.css");
+        boardScrollPane.setId("board-scroll-pane");
+
+        int size = (2 * reach + 1) * CELL_STRIDE - CELL_GAP;
+        Canvas canvas = new Canvas(size, size);
+
+        BoardPainter painter = new BoardPainter(reach, canvas.getGraphicsContext2D(), gameStateO, rotationO,
+                visibleOccupantsO, tileIdsO);
+
+        //AUDITEURS : CHAQUE CHANGEMENT NE MARQUE COMME SALES QUE LES CASES CONCERNéES
+        gameStateO.addListener((o, oldState, newState) -> painter.gameStateChanged(oldState, newState));
+        rotationO.addListener((o, oldRotation, newRotation) -> painter.markDirty(painter.hoveredPos));
+        visibleOccupantsO.addListener((o, oldOccupants, newOccupants) ->
+                painter.visibleOccupantsChanged(oldOccupants, newOccupants));
+        tileIdsO.addListener((o, oldTileIds, newTileIds) -> painter.highlightedTilesChanged(oldTileIds, newTileIds));
+
+        //SURVOL ET CLICS, ATTRIBUéS PAR CALCUL
+        canvas.setOnMouseMoved(event -> painter.hover(painter.cellAt(event.getX(), event.getY())));
+        canvas.setOnMouseExited(event -> painter.hover(null));
+        canvas.setOnMouseClicked(event -> {
+            if (event.isStillSincePress())
+                painter.click(event, rotationHandler, positionHandler, occupantHandler);
+        });
+
+        //AFFICHER OU CACHER LES CASES DE LA FRANGE OU LA TUILE NE PEUT ETRE POSéE
+        boardScrollPane.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.H)
+                painter.toggleUnplaceableOverlay();
+        });
+
+        painter.markAllDirty();
+
+        boardScrollPane.setContent(canvas);
+
+        //POUR CENTRER LE BOARD
+        boardScrollPane.setHvalue(0.5);
+        boardScrollPane.setVvalue(0.5);
+
+        return boardScrollPane;
+    }
+
+    /**
+     * Classe qui dessine les cases du plateau sur le canevas, en ne redessinant que les cases marquées comme sales
+     */
+    private static final class BoardPainter {
+        private final int reach;
+        private final GraphicsContext context;
+        private final ObservableValue<GameState> gameStateO;
+        private final ObservableValue<Rotation> rotationO;
+        private final ObservableValue<Set<Occupant>> visibleOccupantsO;
+        private final ObservableValue<Set<Integer>> tileIdsO;
+        private final Image markerImage = new Image("/marker.png");
+
+        private final Set<Pos> dirtyCells = new LinkedHashSet<>();
+        private final Map<Integer, Pos> tilePositions = new HashMap<>();
+        private boolean redrawScheduled;
+        private boolean unplaceableOverlay;
+        private Pos hoveredPos;
+
+        private BoardPainter(int reach, GraphicsContext context, ObservableValue<GameState> gameStateO,
+                             ObservableValue<Rotation> rotationO, ObservableValue<Set<Occupant>> visibleOccupantsO,
+                             ObservableValue<Set<Integer>> tileIdsO) {
+            this.reach = reach;
+            this.context = context;
+            this.gameStateO = gameStateO;
+            this.rotationO = rotationO;
+            this.visibleOccupantsO = visibleOccupantsO;
+            this.tileIdsO = tileIdsO;
+
+            updateTilePositions(BoardDiff.between(Board.EMPTY, gameStateO.getValue().board()),
+                    gameStateO.getValue().board());
+        }
+
+        /**
+         * Méthode qui marque comme sales les cases concernées par le passage de l'ancien au nouvel état du jeu
+         * @param oldState l'ancien état du jeu
+         * @param newState le nouvel état du jeu
+         */
+        private void gameStateChanged(GameState oldState, GameState newState) {
+
+            Board newBoard = newState.board();
+            BoardDiff diff = BoardDiff.between(oldState.board(), newBoard);
+            updateTilePositions(diff, newBoard);
+
+            diff.changedTiles().forEach(this::markDirty);
+            diff.addedInsertionPositions().forEach(this::markDirty);
+            diff.removedInsertionPositions().forEach(this::markDirty);
+
+            for (Animal animal : diff.changedCancelledAnimals())
+                markDirty(tilePositions.get(animal.tileId()));
+
+            //LA COULEUR DE LA FRANGE DEPEND DU JOUEUR COURANT, ET AUSSI DE LA TUILE A PLACER LORSQUE LES POSITIONS
+            //OU ELLE NE PEUT ETRE PLACEE SONT MISES EN EVIDENCE (LE JOUEUR NE CHANGE PAS APRES UN MENHIR)
+            if (oldState.currentPlayer() != newState.currentPlayer()
+                    || (unplaceableOverlay && oldState.tileToPlace() != newState.tileToPlace())) {
+                oldState.board().insertionPositions().forEach(this::markDirty);
+                newBoard.insertionPositions().forEach(this::markDirty);
+            } else if (oldState.tileToPlace() != newState.tileToPlace()) {
+                markDirty(hoveredPos);
+            }
+        }
+
+        /**
+         * Méthode qui marque comme sales les cases des occupants dont la visibilité a changé
+         * @param oldOccupants l'ancien ensemble des occupants visibles
+         * @param newOccupants le nouvel ensemble des occupants visibles
+         */
+        private void visibleOccupantsChanged(Set<Occupant> oldOccupants, Set<Occupant> newOccupants) {
+
+            for (Occupant occupant : oldOccupants) {
+                if (!newOccupants.contains(occupant))
+                    markDirty(tilePositions.get(Zone.tileId(occupant.zoneId())));
+            }
+
+            for (Occupant occupant : newOccupants) {
+                if (!oldOccupants.contains(occupant))
+                    markDirty(tilePositions.get(Zone.tileId(occupant.zoneId())));
+            }
+        }
+
+        /**
+         * Méthode qui marque comme sales les cases des tuiles dont la mise en évidence a changé
+         * @param oldTileIds l'ancien ensemble des tuiles mises en évidence
+         * @param newTileIds le nouvel ensemble des tuiles mises en évidence
+         */
+        private void highlightedTilesChanged(Set<Integer> oldTileIds, Set<Integer> newTileIds) {
+
+            if (oldTileIds.isEmpty() != newTileIds.isEmpty()) {
+                tilePositions.values().forEach(this::markDirty);
+                return;
+            }
+
+            for (int tileId : oldTileIds) {
+                if (!newTileIds.contains(tileId))
+                    markDirty(tilePositions.get(tileId));
+            }
+
+            for (int tileId : newTileIds) {
+                if (!oldTileIds.contains(tileId))
+                    markDirty(tilePositions.get(tileId));
+            }
+        }
+
+        /**
+         * Méthode qui change la case survolée, et marque comme sales l'ancienne et la nouvelle
+         * @param pos la position de la case survolée, ou null
+         */
+        private void hover(Pos pos) {
+            if (Objects.equals(pos, hoveredPos))
+                return;
+
+            markDirty(hoveredPos);
+            hoveredPos = pos;
+            markDirty(hoveredPos);
+        }
+
+        /**
+         * Méthode qui traite un clic sur le canevas : un clic sur un occupant visible le sélectionne, un clic sur une
+         * case de la frange pose la tuile (clic gauche) ou la tourne (clic droit)
+         * @param event l'événement du clic
+         * @param rotationHandler le gestionnaire des rotations
+         * @param positionHandler le gestionnaire des poses de tuile
+         * @param occupantHandler le gestionnaire des sélections d'occupant
+         */
+        private void click(MouseEvent event, Consumer<Rotation> rotationHandler, Consumer<Pos> positionHandler,
+                           Consumer<Occupant> occupantHandler) {
+
+            Pos pos = cellAt(event.getX(), event.getY());
+            if (pos == null)
+                return;
+
+            Board board = gameStateO.getValue().board();
+            PlacedTile tile = board.tileAt(pos);
+
+            if (tile != null) {
+                Occupant occupant = occupantAt(tile, event.getX() - cellX(pos), event.getY() - cellY(pos));
+                if (occupant != null)
+                    occupantHandler.accept(occupant);
+
+            } else if (board.insertionPositions().contains(pos)) {
+                //LEFT CLICK
+                if (event.getButton() == MouseButton.PRIMARY)
+                    positionHandler.accept(pos);
+                    //RIGHT CLICK
+                else if (event.getButton() == MouseButton.SECONDARY) {
+                    if (event.isShiftDown())
+                        snapToNextValidRotation(pos, rotationHandler);
+                    else
+                        rotationHandler.accept(event.isAltDown() ? Rotation.RIGHT : Rotation.LEFT);
+                }
+            }
+        }
+
+        /**
+         * Méthode qui tourne la tuile à placer jusqu'à sa prochaine rotation valide sur la case donnée, en consultant
+         * la table des placements de l'état actuel
+         * @param pos la position de la case donnée
+         * @param rotationHandler le gestionnaire auquel transmettre la rotation à ajouter à la rotation actuelle
+         */
+        private void snapToNextValidRotation(Pos pos, Consumer<Rotation> rotationHandler) {
+
+            PlacementTable placementTable = gameStateO.getValue().placementTable();
+            if (placementTable == null)
+                return;
+
+            Rotation rotation = rotationO.getValue();
+            Rotation nextRotation = placementTable.nextValidRotation(pos, rotation);
+            if (nextRotation != null && nextRotation != rotation)
+                rotationHandler.accept(nextRotation.add(rotation.negated()));
+        }
+
+        /**
+         * Méthode qui affiche ou cache la mise en évidence des cases de la frange sur lesquelles la tuile à placer ne
+         * peut être posée sous aucune rotation
+         */
+        private void toggleUnplaceableOverlay() {
+            unplaceableOverlay = !unplaceableOverlay;
+            gameStateO.getValue().board().insertionPositions().forEach(this::markDirty);
+        }
+
+        /**
+         * Méthode qui retourne l'occupant visible de la tuile donnée le plus proche du point donné, relatif au coin
+         * supérieur gauche de la case, ou null si aucun occupant ne s'y trouve
+         * @param tile la tuile donnée
+         * @param x l'abscisse du point dans la case
+         * @param y l'ordonnée du point dans la case
+         * @return l'occupant visible le plus proche du point donné, ou null
+         */
+        private Occupant occupantAt(PlacedTile tile, double x, double y) {
+
+            Set<Occupant> visibleOccupants = visibleOccupantsO.getValue();
+            double center = ImageLoader.NORMAL_TILE_FIT_SIZE / 2.0;
+            double angle = Math.toRadians(tile.rotation().degreesCW());
+
+            Occupant closest = null;
+            double closestDistance = OCCUPANT_HIT_RADIUS;
+
+            for (Occupant occupant : tile.potentialOccupants()) {
+                double[] offset = NODE_OFFSETS.get(occupantNodeId(occupant));
+                if (offset == null || !visibleOccupants.contains(occupant))
+                    continue;
+
+                //POSITION DE L'OCCUPANT APRèS ROTATION DE LA TUILE AUTOUR DE SON CENTRE
+                double dx = offset[0] - center;
+                double dy = offset[1] - center;
+                double occupantX = center + dx * Math.cos(angle) - dy * Math.sin(angle);
+                double occupantY = center + dx * Math.sin(angle) + dy * Math.cos(angle);
+
+                double distance = Math.hypot(x - occupantX, y - occupantY);
+                if (distance <= closestDistance) {
+                    closest = occupant;
+                    closestDistance = distance;
+                }
+            }
+
+            return closest;
+        }
+
+        /**
+         * Méthode qui marque comme sale la case à la position donnée et programme, si nécessaire, le prochain dessin
+         * @param pos la position de la case, ou null
+         */
+        private void markDirty(Pos pos) {
+
+            if (pos == null || cellAt(pos) == null)
+                return;
+
+            dirtyCells.add(pos);
+
+            //LES MODIFICATIONS D'UN MEME EVENEMENT SONT DESSINéES ENSEMBLE
+            if (!redrawScheduled) {
+                redrawScheduled = true;
+                Platform.runLater(this::redrawDirtyCells);
+            }
+        }
+
+        private void markAllDirty() {
+            for (int x = -reach; x <= reach; x++) {
+                for (int y = -reach; y <= reach; y++)
+                    markDirty(new Pos(x, y));
+            }
+        }
+
+        /**
+         * Méthode qui redessine toutes les cases sales, et uniquement celles-ci
+         */
+        private void redrawDirtyCells() {
+
+            redrawScheduled = false;
+
+            for (Pos pos : dirtyCells)
+                drawCell(pos);
+
+            dirtyCells.clear();
+        }
+
+        /**
+         * Méthode qui redessine la case à la position donnée, par couches : tuile, voile, marqueurs puis occupants
+         * @param pos la position de la case
+         */
+        private void drawCell(Pos pos) {
+
+            GameState gameState = gameStateO.getValue();
+            Board board = gameState.board();
+            PlacedTile tile = board.tileAt(pos);
+
+            double x = cellX(pos);
+            double y = cellY(pos);
+            double size = ImageLoader.NORMAL_TILE_FIT_SIZE;
+
+            context.save();
+            context.beginPath();
+            context.rect(x, y, size, size);
+            context.clip();
+            context.clearRect(x, y, size, size);
+
+            //TUILE
+            TileImage image = null;
+            Rotation rotation = Rotation.NONE;
+            Color veilColor = TRANSPARENT;
+
+            if (tile != null) {
+                image = TileImages.normal(tile.id(), ready -> markDirty(pos));
+                rotation = tile.rotation();
+
+                Set<Integer> tileIds = tileIdsO.getValue();
+                if (!tileIds.isEmpty() && !tileIds.contains(tile.id()))
+                    veilColor = BLACK;
+
+            } else if (board.insertionPositions().contains(pos)
+                    && gameState.currentPlayer() != null && gameState.tileToPlace() != null) {
+                PlacementTable placementTable = gameState.placementTable();
+
+                if (pos.equals(hoveredPos)) {
+                    rotation = rotationO.getValue();
+                    image = TileImages.normal(gameState.tileToPlace().id(), ready -> markDirty(pos));
+
+                    if (!placementTable.isValid(pos, rotation))
+                        veilColor = WHITE;
+                } else if (unplaceableOverlay && !placementTable.isPlaceable(pos)) {
+                    veilColor = UNPLACEABLE_COLOR;
+                } else {
+                    veilColor = ColorMap.fillColor(gameState.currentPlayer());
+                }
+            }
+
+            context.translate(x + size / 2, y + size / 2);
+            context.rotate(rotation.degreesCW());
+            context.translate(-size / 2, -size / 2);
+
+            if (image != null) {
+                image.draw(context, 0, 0, size, size);
+            } else {
+                context.setFill(EMPTY_CELL_COLOR);
+                context.fillRect(0, 0, size, size);
+            }
+
+            //VOILE
+            if (veilColor.getOpacity() > 0) {
+                context.setGlobalAlpha(0.5);
+                context.setFill(veilColor);
+                context.fillRect(0, 0, size, size);
+                context.setGlobalAlpha(1);
+            }
+
+            if (tile != null) {
+                drawMarkers(tile, board.cancelledAnimals());
+                drawOccupants(tile, visibleOccupantsO.getValue());
+            }
+
+            context.restore();
+        }
+
+        /**
+         * Méthode qui dessine, dans le repère de la tuile donnée, les marqueurs de ses animaux annulés
+         * @param tile la tuile donnée
+         * @param cancelledAnimals l'ensemble des animaux annulés
+         */
+        private void drawMarkers(PlacedTile tile, Set<Animal> cancelledAnimals) {
+
+            for (Zone.Meadow meadow : tile.meadowZones()) {
+                for (Animal animal : meadow.animals()) {
+                    double[] offset = NODE_OFFSETS.get(STR."marker_\{animal.id()}");
+
+                    if (offset != null && cancelledAnimals.contains(animal))
+                        context.drawImage(markerImage, offset[0], offset[1],
+                                ImageLoader.MARKER_FIT_SIZE, ImageLoader.MARKER_FIT_SIZE);
+                }
+            }
+        }
+
+        /**
+         * Méthode qui dessine, dans le repère de la tuile donnée, ses occupants visibles, toujours à l'endroit
+         * @param tile la tuile donnée
+         * @param visibleOccupants l'ensemble des occupants visibles
+         */
+        private void drawOccupants(PlacedTile tile, Set<Occupant> visibleOccupants) {
+
+            for (Occupant occupant : tile.potentialOccupants()) {
+                double[] offset = NODE_OFFSETS.get(occupantNodeId(occupant));
+                if (offset == null || !visibleOccupants.contains(occupant))
+                    continue;
+
+                context.save();
+                context.translate(offset[0], offset[1]);
+                context.rotate(tile.rotation().negated().degreesCW());
+
+                context.beginPath();
+                context.appendSVGPath(Icon.svgContent(occupant.kind()));
+                context.setFill(ColorMap.fillColor(tile.placer()));
+                context.setStroke(ColorMap.strokeColor(tile.placer()));
+                context.fill();
+                context.stroke();
+
+                context.restore();
+            }
+        }
+
+        /**
+         * Méthode qui tient à jour la position des tuiles posées, à partir des différences données
+         * @param diff les différences entre l'ancien et le nouveau plateau
+         * @param newBoard le nouveau plateau
+         */
+        private void updateTilePositions(BoardDiff diff, Board newBoard) {
+
+            tilePositions.values().removeIf(diff.changedTiles()::contains);
+
+            for (Pos pos : diff.changedTiles()) {
+                PlacedTile tile = newBoard.tileAt(pos);
+                if (tile != null)
+                    tilePositions.put(tile.id(), pos);
+            }
+        }
+
+        private Pos cellAt(double x, double y) {
+            int column = (int) Math.floor(x / CELL_STRIDE);
+            int row = (int) Math.floor(y / CELL_STRIDE);
+
+            //LES CLICS ENTRE DEUX CASES NE SONT ATTRIBUéS A AUCUNE CASE
+            if (x - column * CELL_STRIDE >= ImageLoader.NORMAL_TILE_FIT_SIZE
+                    || y - row * CELL_STRIDE >= ImageLoader.NORMAL_TILE_FIT_SIZE)
+                return null;
+
+            return cellAt(new Pos(column - reach, row - reach));
+        }
+
+        private Pos cellAt(Pos pos) {
+            return Math.abs(pos.x()) <= reach && Math.abs(pos.y()) <= reach ? pos : null;
+        }
+
+        private double cellX(Pos pos) {
+            return (pos.x() + reach) * CELL_STRIDE;
+        }
+
+        private double cellY(Pos pos) {
+            return (pos.y() + reach) * CELL_STRIDE;
+        }
+    }
+
+    private static String occupantNodeId(Occupant occupant) {
+        return occupant.kind() == Occupant.Kind.PAWN
+                ? STR."pawn_\{occupant.zoneId()}"
+                : STR."hut_\{occupant.zoneId()}";
+    }
+
+    /**
+     * Méthode qui lit, dans la feuille de style du plateau, la position de chaque occupant et marqueur sur une tuile
+     * non tournée, afin que le canevas les dessine aux mêmes endroits que BoardUI
+     * @return la table associant à chaque identifiant de nœud sa position (translation en x et en y)
+     */
+    private static Map<String, double[]> nodeOffsets() {
+
+        Pattern rule = Pattern.compile(
+                "#(\\w+)\\s*\\{\\s*-fx-translate-x:\\s*(-?[\\d.]+);\\s*-fx-translate-y:\\s*(-?[\\d.]+)");
+        Map<String, double[]> offsets = new HashMap<>();
+
+        try (InputStream stream = BoardCanvasUI.class.getResourceAsStream("/board.css")) {
+            if (stream == null)
+                return offsets;
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = rule.matcher(line);
+                if (matcher.find())
+                    offsets.put(matcher.group(1),
+                            new double[] {Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(3))});
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return offsets;
+    }
+
+}
@@ -1,9 +1,6 @@
 package ch.epfl.chacun.gui;
 
 import ch.epfl.chacun.*;
-import javafx.beans.binding.Bindings;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -14,9 +11,14 @@ import javafx.scene.effect.ColorInput;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Scale;
+import javafx.stage.Screen;
 
 import java.util.*;
 import java.util.function.Consumer;
@@ -31,13 +33,42 @@ import static javafx.scene.paint.Color.*;
 
 public final class BoardUI {
 
+    /**
+     * Les facteurs de zoom minimal et maximal du plateau
+     */
+    private static final double MIN_ZOOM = 1.0 / 16;
+    private static final double MAX_ZOOM = 4;
+
+    /**
+     * Le facteur par lequel chaque cran de la molette (avec la touche Ctrl) multiplie ou divise le zoom
+     */
+    private static final double ZOOM_STEP = 1.25;
+
+    /**
+     * La taille à l'écran, en pixels, en dessous de laquelle les cases sont réduites à de simples aplats de couleur
+     */
+    private static final double SWATCH_MAX_SIZE = 16;
+
+    private static final Color EMPTY_CELL_COLOR = Color.gray(0.98);
+
+    /**
+     * La couleur du voile des cases de la frange sur lesquelles la tuile à placer ne peut être posée, lorsqu'elles
+     * sont mises en évidence
+     */
+    private static final Color UNPLACEABLE_COLOR = Color.gray(0.35);
+
     /**
      * Constructeur privé empêchant l'instanciation de la classe
      */
     private BoardUI() {}
 
     /**
-     * Méthode qui retourne le nœud JavaFX correspondant au plateau du jeu
+     * Méthode qui retourne le nœud JavaFX correspondant au plateau du jeu ; les cases ne sont pas liées
+     * individuellement à l'état du jeu, mais mises à jour à chaque changement à partir des différences entre
+     * l'ancien et le nouvel état, de sorte que seules les cases concernées soient redessinées ; le plateau peut être
+     * agrandi ou réduit avec la molette en maintenant la touche Ctrl, la résolution des images des tuiles étant
+     * choisie en fonction du zoom ; la touche H affiche ou cache les cases de la frange sur lesquelles la tuile à
+     * placer ne peut être posée sous aucune rotation
      *
      * @param reach la portée du plateau à créer
      * @param gameStateO la version observable de l'état du jeu
@@ -45,7 +76,8 @@ public final class BoardUI {
      * @param visibleOccupantsO la version observable des occupants visibles
      * @param tileIdsO la version observable des tuiles mises en évidence
      * @param rotationHandler un gestionnaire d'événement à appeler lorsque le joueur courant désire effectuer
-     * une rotation de la tuile à placer, soit, quand il effectue un clic droit sur une case de la frange
+     * une rotation de la tuile à placer, soit, quand il effectue un clic droit sur une case de la frange (avec la touche
+     * Maj, la tuile tourne directement jusqu'à sa prochaine rotation valide sur cette case)
      * @param positionHandler un gestionnaire d'événement à appeler lorsque le joueur courant désire poser
      * la tuile à placer, soit, quand il effectue un clic gauche sur une case de la frange
      * @param occupantHandler un gestionnaire d'événement à appeler lorsque le joueur courant sélectionne un occupant,
@@ -66,190 +98,533 @@ public final class BoardUI {
         GridPane boardGrid = new GridPane();
         boardGrid.setId("board-grid");
 
-        //VALEURS OBSERVABLES DU GAMESTATE
-        ObservableValue<PlayerColor> currentPlayerO = gameStateO.map(GameState::currentPlayer);
-        ObservableValue<Board> boardO = gameStateO.map(GameState::board);
-        ObservableValue<Set<Animal>> cancelledAnimalsO = boardO.map(Board::cancelledAnimals);
-        ObservableValue<Set<Pos>> fringeO = boardO.map(Board::insertionPositions);
-        ObservableValue<Tile> tileToPlaceO = gameStateO.map(GameState::tileToPlace);
+        BoardCells boardCells = new BoardCells(reach, gameStateO, rotationO, visibleOccupantsO, tileIdsO,
+                rotationHandler, positionHandler, occupantHandler);
 
         //INITIALISER TOUTES LES CASES
-        for (int x = -reach; x <= reach; x++) {
-            for (int y = -reach; y <= reach; y++) {
-                Pos tilePos = new Pos(x, y);
-                ObservableValue<PlacedTile> tileAtPosO = boardO.map(b -> b.tileAt(tilePos));
-
-                Group boardGroup = new Group();
-
-                //CADRE
-                ImageView tileView = new ImageView();
-                tileView.setFitWidth(ImageLoader.NORMAL_TILE_FIT_SIZE);
-                tileView.setFitHeight(ImageLoader.NORMAL_TILE_FIT_SIZE);
-
-                boardGroup.getChildren().add(tileView);
-
-                //AJOUTER LE VOILE AUX CASES
-                ObjectProperty<ColorInput> veilInput = new SimpleObjectProperty<>();
-                Blend blend = new Blend(BlendMode.SRC_OVER);
-                blend.setOpacity(0.5);
-                boardGroup.setEffect(blend);
-                blend.topInputProperty().bind(veilInput);
-                veilInput.set(new ColorInput(0, 0, ImageLoader.NORMAL_TILE_FIT_SIZE,
-                        ImageLoader.NORMAL_TILE_FIT_SIZE, null));
-
-                ObjectProperty<Color> veilColor = new SimpleObjectProperty<>(TRANSPARENT);
-                ObjectProperty<Image> tileImage = new SimpleObjectProperty<>(emptyImage());
-
-                //INITIALISATION CELLDATA DE LA CASE
-                ObservableValue<CellData> cellDataO = Bindings
-                    .createObjectBinding(() -> {
-
-                        //SI LA TUILE EST POSéE
-                        if (tileAtPosO.getValue() != null) {
-                            int tileId = tileAtPosO.getValue().id();
-                            tileImage.set(CellData.imageCache.computeIfAbsent(tileId, ImageLoader::normalImageForTile));
-
-                            //SI LA TUILE N'EST PAS MISE EN EVIDENCE
-                            if (!tileIdsO.getValue().contains(tileId) && !tileIdsO.getValue().isEmpty())
-                                veilColor.set(BLACK);
-                            else
-                                veilColor.set(TRANSPARENT);
-                        }
-                        //SI LA TUILE N'EST PAS POSéE
-                        else {
-                            if (!fringeO.getValue().contains(tilePos)) {
-                                boardGroup.setOnMouseClicked(null);
-                            }
-                            //SI LA TUILE FAIT PARTIE DE LA FRINGE
-                            else {
-                                boardGroup.setOnMouseClicked(event -> {
-                                    if (event.isStillSincePress()) {
-                                        //LEFT CLICK
-                                        if (event.getButton() == MouseButton.PRIMARY)
-                                            positionHandler.accept(tilePos);
-                                            //RIGHT CLICK
-                                        else if (event.getButton() == MouseButton.SECONDARY) {
-                                            if (event.isAltDown())
-                                                rotationHandler.accept(Rotation.RIGHT);
-                                            else
-                                                rotationHandler.accept(Rotation.LEFT);
-                                        }
-                                    }
-                                });
-                                if (currentPlayerO.getValue() != null && tileToPlaceO.getValue() != null){
-                                    //SI LA CASE EST SURVOLéE
-                                    if (boardGroup.isHover()){
-
-                                        PlacedTile placedTile = new PlacedTile(tileToPlaceO.getValue(),
-                                                currentPlayerO.getValue(), rotationO.getValue(), tilePos, null);
-
-                                        boolean canAddTile = boardO.getValue().canAddTile(placedTile);
-                                        int tileToPlaceId = tileToPlaceO.getValue().id();
-                                        tileImage.set(CellData.imageCache.computeIfAbsent(tileToPlaceId,
-                                                ImageLoader::normalImageForTile));
-
-                                        if (!canAddTile)
-                                            veilColor.set(WHITE);
-                                        else
-                                            veilColor.set(TRANSPARENT);
-                                    }
-                                    //SI LA CASE NEST PAS SURVOLéE
-                                    else {
-                                        veilColor.set(ColorMap.fillColor(currentPlayerO.getValue()));
-                                        tileImage.set(emptyImage());
-                                    }
-                                }
+        for (Cell cell : boardCells.cells)
+            boardGrid.add(cell.group, cell.pos.x() + reach, cell.pos.y() + reach, 1, 1);
+
+        boardCells.gameStateChanged(null, gameStateO.getValue());
+
+        //AUDITEURS : CHAQUE CHANGEMENT NE MET A JOUR QUE LES CASES CONCERNéES
+        gameStateO.addListener((o, oldState, newState) -> boardCells.gameStateChanged(oldState, newState));
+        rotationO.addListener((o, oldRotation, newRotation) -> boardCells.rotationChanged());
+        visibleOccupantsO.addListener((o, oldOccupants, newOccupants) ->
+                boardCells.visibleOccupantsChanged(oldOccupants, newOccupants));
+        tileIdsO.addListener((o, oldTileIds, newTileIds) -> boardCells.highlightedTilesChanged(oldTileIds, newTileIds));
+
+        //ZOOM (CTRL + MOLETTE)
+        Scale zoom = new Scale(1, 1);
+        boardGrid.getTransforms().add(zoom);
+
+        boardScrollPane.addEventFilter(ScrollEvent.SCROLL, event -> {
+            if (event.isControlDown() && event.getDeltaY() != 0) {
+                double factor = event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP;
+                double newZoom = Math.clamp(zoom.getX() * factor, MIN_ZOOM, MAX_ZOOM);
+
+                zoom.setX(newZoom);
+                zoom.setY(newZoom);
+                boardCells.zoomChanged(newZoom);
+                event.consume();
+            }
+        });
+
+        //AFFICHER OU CACHER LES CASES DE LA FRANGE OU LA TUILE NE PEUT ETRE POSéE
+        boardScrollPane.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.H)
+                boardCells.toggleUnplaceableOverlay();
+        });
+
+        //LE GROUPE TIENT COMPTE DU ZOOM DANS SES LIMITES, CONTRAIREMENT A LA GRILLE
+        boardScrollPane.setContent(new Group(boardGrid));
+
+        //POUR CENTRER LE BOARD
+        boardScrollPane.setHvalue(0.5);
+        boardScrollPane.setVvalue(0.5);
+
+        return boardScrollPane;
+
+    }
+
+    private static Image emptyImage(){
+        WritableImage emptyTileImage = new WritableImage(1, 1);
+        emptyTileImage
+                .getPixelWriter()
+                .setColor(0, 0, EMPTY_CELL_COLOR);
+        return emptyTileImage;
+    }
+
+    /**
+     * Classe regroupant les cases du plateau et les informations nécessaires à leur mise à jour incrémentale
+     */
+    private static final class BoardCells {
+        private final int reach;
+        private final Cell[] cells;
+        private final ObservableValue<Rotation> rotationO;
+        private final ObservableValue<Set<Occupant>> visibleOccupantsO;
+        private final ObservableValue<Set<Integer>> tileIdsO;
+        private final Consumer<Occupant> occupantHandler;
+        private final TileImage emptyImage = new TileImage(emptyImage(), null);
+        private final double outputScale = Screen.getPrimary().getOutputScaleX();
+
+        private final Map<Integer, Cell> cellsByTileId = new HashMap<>();
+        private final Map<Occupant, Node> occupantNodes = new HashMap<>();
+        private final Map<Animal, Node> markerNodes = new HashMap<>();
+
+        private GameState gameState;
+        private Cell hoveredCell;
+        private int pixelSize;
+        private boolean swatches = false;
+        private boolean unplaceableOverlay = false;
+
+        private BoardCells(int reach, ObservableValue<GameState> gameStateO, ObservableValue<Rotation> rotationO,
+                           ObservableValue<Set<Occupant>> visibleOccupantsO, ObservableValue<Set<Integer>> tileIdsO,
+                           Consumer<Rotation> rotationHandler, Consumer<Pos> positionHandler,
+                           Consumer<Occupant> occupantHandler) {
+            this.reach = reach;
+            this.rotationO = rotationO;
+            this.visibleOccupantsO = visibleOccupantsO;
+            this.tileIdsO = tileIdsO;
+            this.occupantHandler = occupantHandler;
+            this.gameState = gameStateO.getValue();
+            this.pixelSize = TileImages.mipLevelFor(ImageLoader.NORMAL_TILE_FIT_SIZE * outputScale);
+
+            int dimension = 2 * reach + 1;
+            this.cells = new Cell[dimension * dimension];
+
+            for (int x = -reach; x <= reach; x++) {
+                for (int y = -reach; y <= reach; y++) {
+                    Cell cell = new Cell(new Pos(x, y), emptyImage);
+                    cells[index(cell.pos)] = cell;
+
+                    //LA CASE SURVOLéE EST LA SEULE A AFFICHER LA TUILE A PLACER
+                    cell.group.hoverProperty().addListener((o, wasHovered, isHovered) -> {
+                        if (isHovered)
+                            hoveredCell = cell;
+                        else if (hoveredCell == cell)
+                            hoveredCell = null;
+
+                        renderFringeCell(cell);
+                    });
+
+                    cell.group.setOnMouseClicked(event -> {
+                        if (cell.fringe && event.isStillSincePress()) {
+                            //LEFT CLICK
+                            if (event.getButton() == MouseButton.PRIMARY)
+                                positionHandler.accept(cell.pos);
+                                //RIGHT CLICK
+                            else if (event.getButton() == MouseButton.SECONDARY) {
+                                if (event.isShiftDown())
+                                    snapToNextValidRotation(cell, rotationHandler);
+                                else if (event.isAltDown())
+                                    rotationHandler.accept(Rotation.RIGHT);
+                                else
+                                    rotationHandler.accept(Rotation.LEFT);
                             }
                         }
+                    });
+                }
+            }
+        }
 
+        /**
+         * Méthode qui met à jour les cases concernées par le passage de l'ancien au nouvel état du jeu : les cases
+         * dont la tuile a changé, celles qui sont entrées dans la frange ou en sont sorties, et toute la frange si le
+         * joueur courant a changé
+         * @param oldState l'ancien état du jeu, ou null lors de l'affichage initial
+         * @param newState le nouvel état du jeu
+         */
+        private void gameStateChanged(GameState oldState, GameState newState) {
 
-                        return new CellData(tileImage.getValue(), rotationO.getValue().degreesCW(), veilColor.getValue());
-                    },
-                            //ON A OPTé POUR PLUS DE PARAMETRES AU LIEU DE METTRE GAMESTATEO POUR PLUS DE LISIBILITé
-                            rotationO, fringeO, boardO, tileToPlaceO, currentPlayerO, tileIdsO
-                            , tileAtPosO, boardGroup.hoverProperty());
+            gameState = newState;
 
-                //BIND LES ATTRIBUTS DE CELLDATA AU GROUPE
-                tileView.imageProperty().bind(cellDataO.map(cd -> cd.tileImage));
-                veilInput.get().paintProperty().bind(cellDataO.map(cd -> cd.veilColor));
+            Board oldBoard = oldState == null ? Board.EMPTY : oldState.board();
+            BoardDiff diff = BoardDiff.between(oldBoard, newState.board());
 
-                //AUDITEUR DE LA TUILE
-                tileAtPosO.addListener((o, oldTile, newTile) -> {
+            for (Pos pos : diff.changedTiles())
+                renderPlacedTile(cellAt(pos), newState.board().tileAt(pos));
 
-                    //INITIALISATION SI LA TUILE VIENT  D'ETRE PLACéE (S'EFFECTUE QU'UNE SEULE FOIS)
-                    if (oldTile == null) {
+            for (Pos pos : diff.removedInsertionPositions())
+                setFringe(cellAt(pos), false);
 
-                        //FIXER LA ROTATION UNE FOIS LA TUILE POSéE
-                        boardGroup.rotateProperty().unbind();
-                        boardGroup.rotateProperty().set(newTile.rotation().degreesCW());
+            for (Pos pos : diff.addedInsertionPositions())
+                setFringe(cellAt(pos), true);
 
-                        //RECUPERER LES ANIMAUX DE LA TUILES
-                        List<Animal> tileAnimals = new ArrayList<>();
-                        newTile.meadowZones().forEach(zone -> tileAnimals.addAll(zone.animals()));
+            for (Animal animal : diff.changedCancelledAnimals()) {
+                Node marker = markerNodes.get(animal);
+                if (marker != null)
+                    marker.setVisible(newState.board().cancelledAnimals().contains(animal));
+            }
 
-                        //AJOUTER LES JETONS D'ANNULATIONS POUR CHAQUE ANIMAL
-                        for (Animal animal : tileAnimals) {
-                            ImageView marker = new ImageView();
-                            marker.setId(STR."marker_\{animal.id()}");
-                            marker.getStyleClass().add("marker");
+            //LA COULEUR DU VOILE DE LA FRANGE DEPEND DU JOUEUR COURANT, ET AUSSI DE LA TUILE A PLACER LORSQUE LES
+            //POSITIONS OU ELLE NE PEUT ETRE PLACEE SONT MISES EN EVIDENCE (LE JOUEUR NE CHANGE PAS APRES UN MENHIR)
+            if (oldState == null || oldState.currentPlayer() != newState.currentPlayer()
+                    || (unplaceableOverlay && oldState.tileToPlace() != newState.tileToPlace())) {
+                for (Pos pos : newState.board().insertionPositions())
+                    renderFringeCell(cellAt(pos));
+            } else if (hoveredCell != null && oldState.tileToPlace() != newState.tileToPlace()) {
+                renderFringeCell(hoveredCell);
+            }
+        }
 
-                            marker.setFitWidth(ImageLoader.MARKER_FIT_SIZE);
-                            marker.setFitHeight(ImageLoader.MARKER_FIT_SIZE);
+        /**
+         * Méthode qui redessine la case survolée, seule case affectée par la rotation de la tuile à placer
+         */
+        private void rotationChanged() {
+            if (hoveredCell != null)
+                renderFringeCell(hoveredCell);
+        }
 
-                            marker.visibleProperty().bind(cancelledAnimalsO.map(set -> set.contains(animal)));
+        /**
+         * Méthode qui n'affiche ou ne cache que les occupants dont la visibilité a changé
+         * @param oldOccupants l'ancien ensemble des occupants visibles
+         * @param newOccupants le nouvel ensemble des occupants visibles
+         */
+        private void visibleOccupantsChanged(Set<Occupant> oldOccupants, Set<Occupant> newOccupants) {
 
-                            boardGroup.getChildren().add(marker);
-                        }
+            for (Occupant occupant : oldOccupants) {
+                if (!newOccupants.contains(occupant))
+                    setVisible(occupantNodes.get(occupant), false);
+            }
 
-                        //INITIALISER LES OCCUPANTS
-                        for (Occupant occupant : newTile.potentialOccupants()) {
-                            Node occupantPath = Icon.newFor(currentPlayerO.getValue(), occupant.kind());
+            for (Occupant occupant : newOccupants) {
+                if (!oldOccupants.contains(occupant))
+                    setVisible(occupantNodes.get(occupant), true);
+            }
+        }
 
-                            if (occupant.kind() == Occupant.Kind.PAWN)
-                                occupantPath.setId(STR."pawn_\{occupant.zoneId()}");
-                            else
-                                occupantPath.setId(STR."hut_\{occupant.zoneId()}");
+        /**
+         * Méthode qui ne met à jour que le voile des tuiles dont la mise en évidence a changé
+         * @param oldTileIds l'ancien ensemble des tuiles mises en évidence
+         * @param newTileIds le nouvel ensemble des tuiles mises en évidence
+         */
+        private void highlightedTilesChanged(Set<Integer> oldTileIds, Set<Integer> newTileIds) {
+
+            //PASSER D'AUCUNE MISE EN EVIDENCE A UNE MISE EN EVIDENCE (OU L'INVERSE) CHANGE TOUTES LES TUILES
+            if (oldTileIds.isEmpty() != newTileIds.isEmpty()) {
+                for (Cell cell : cellsByTileId.values())
+                    cell.setVeilColor(placedTileVeilColor(cell.tile.id()));
+                return;
+            }
 
-                            occupantPath.setOnMouseClicked(event -> {
-                                if (event.isStillSincePress())
-                                    occupantHandler.accept(occupant);
-                            });
-                            occupantPath.rotateProperty().set(newTile.rotation().negated().degreesCW());
+            for (int tileId : oldTileIds) {
+                if (!newTileIds.contains(tileId))
+                    updatePlacedTileVeil(tileId);
+            }
 
-                            occupantPath.visibleProperty().bind(visibleOccupantsO.map(set -> set.contains(occupant)));
+            for (int tileId : newTileIds) {
+                if (!oldTileIds.contains(tileId))
+                    updatePlacedTileVeil(tileId);
+            }
+        }
 
-                            boardGroup.getChildren().add(occupantPath);
-                        }
-                    }
+        /**
+         * Méthode qui tourne la tuile à placer jusqu'à sa prochaine rotation valide sur la case donnée, en consultant
+         * la table des placements de l'état actuel
+         * @param cell la case donnée
+         * @param rotationHandler le gestionnaire auquel transmettre la rotation à ajouter à la rotation actuelle
+         */
+        private void snapToNextValidRotation(Cell cell, Consumer<Rotation> rotationHandler) {
+
+            PlacementTable placementTable = gameState.placementTable();
+            if (placementTable == null)
+                return;
+
+            Rotation rotation = rotationO.getValue();
+            Rotation nextRotation = placementTable.nextValidRotation(cell.pos, rotation);
+            if (nextRotation != null && nextRotation != rotation)
+                rotationHandler.accept(nextRotation.add(rotation.negated()));
+        }
+
+        /**
+         * Méthode qui affiche ou cache la mise en évidence des cases de la frange sur lesquelles la tuile à placer ne
+         * peut être posée sous aucune rotation
+         */
+        private void toggleUnplaceableOverlay() {
+            unplaceableOverlay = !unplaceableOverlay;
+
+            for (Pos pos : gameState.board().insertionPositions())
+                renderFringeCell(cellAt(pos));
+        }
+
+        /**
+         * Méthode qui choisit, selon le nouveau zoom donné, la résolution des images des tuiles ou l'affichage sous
+         * forme d'aplats de couleur, et ne redessine les cases que si ce choix a changé
+         * @param zoom le nouveau zoom
+         */
+        private void zoomChanged(double zoom) {
+
+            double displayedSize = ImageLoader.NORMAL_TILE_FIT_SIZE * zoom * outputScale;
+            int newPixelSize = TileImages.mipLevelFor(displayedSize);
+            boolean newSwatches = displayedSize < SWATCH_MAX_SIZE;
+
+            if (newPixelSize == pixelSize && newSwatches == swatches)
+                return;
+
+            pixelSize = newPixelSize;
+            swatches = newSwatches;
+
+            for (Cell cell : cells) {
+                if (cell.imageTileId >= 0)
+                    showTileImage(cell, cell.imageTileId);
+                else
+                    showEmptyImage(cell);
+            }
+        }
+
+        /**
+         * Méthode qui affiche la tuile posée donnée dans la case donnée, en créant ses marqueurs et ses occupants
+         * @param cell la case donnée
+         * @param tile la tuile posée, ou null si la case est vide
+         */
+        private void renderPlacedTile(Cell cell, PlacedTile tile) {
+
+            if (cell == null)
+                return;
+
+            //SEUL L'OCCUPANT A CHANGé : SA VISIBILITé DEPEND DES OCCUPANTS VISIBLES
+            if (cell.tile != null && tile != null && cell.tile.id() == tile.id()) {
+                cell.tile = tile;
+                return;
+            }
+
+            if (cell.tile != null)
+                clearPlacedTile(cell);
+
+            cell.tile = tile;
+            if (tile == null) {
+                renderFringeCell(cell);
+                return;
+            }
+
+            cellsByTileId.put(tile.id(), cell);
+            cell.fringe = false;
+
+            //FIXER LA ROTATION UNE FOIS LA TUILE POSéE
+            cell.group.setRotate(tile.rotation().degreesCW());
+            showTileImage(cell, tile.id());
+            cell.setVeilColor(placedTileVeilColor(tile.id()));
+
+            //AJOUTER LES JETONS D'ANNULATIONS POUR CHAQUE ANIMAL
+            Set<Animal> cancelledAnimals = gameState.board().cancelledAnimals();
+            for (Zone.Meadow meadow : tile.meadowZones()) {
+                for (Animal animal : meadow.animals()) {
+                    ImageView marker = new ImageView();
+                    marker.setId(STR."marker_\{animal.id()}");
+                    marker.getStyleClass().add("marker");
+
+                    marker.setFitWidth(ImageLoader.MARKER_FIT_SIZE);
+                    marker.setFitHeight(ImageLoader.MARKER_FIT_SIZE);
+                    marker.setVisible(cancelledAnimals.contains(animal));
+
+                    markerNodes.put(animal, marker);
+                    cell.group.getChildren().add(marker);
+                }
+            }
+
+            //INITIALISER LES OCCUPANTS
+            Set<Occupant> visibleOccupants = visibleOccupantsO.getValue();
+            for (Occupant occupant : tile.potentialOccupants()) {
+                Node occupantPath = Icon.newFor(tile.placer(), occupant.kind());
+
+                if (occupant.kind() == Occupant.Kind.PAWN)
+                    occupantPath.setId(STR."pawn_\{occupant.zoneId()}");
+                else
+                    occupantPath.setId(STR."hut_\{occupant.zoneId()}");
+
+                occupantPath.setOnMouseClicked(event -> {
+                    if (event.isStillSincePress())
+                        occupantHandler.accept(occupant);
                 });
+                occupantPath.setRotate(tile.rotation().negated().degreesCW());
+                occupantPath.setVisible(visibleOccupants.contains(occupant));
 
-                boardGroup.rotateProperty().bind(cellDataO.map(cd -> cd.rotation));
-                boardGrid.add(boardGroup, x + reach, y + reach, 1, 1);
+                occupantNodes.put(occupant, occupantPath);
+                cell.group.getChildren().add(occupantPath);
             }
         }
 
-        boardScrollPane.setContent(boardGrid);
+        /**
+         * Méthode qui retire de la case donnée la tuile qui y était affichée, ainsi que ses marqueurs et occupants
+         * @param cell la case donnée
+         */
+        private void clearPlacedTile(Cell cell) {
 
-        //POUR CENTRER LE BOARD
-        boardScrollPane.setHvalue(0.5);
-        boardScrollPane.setVvalue(0.5);
+            cellsByTileId.remove(cell.tile.id());
 
-        return boardScrollPane;
+            for (Zone.Meadow meadow : cell.tile.meadowZones())
+                meadow.animals().forEach(markerNodes::remove);
+            cell.tile.potentialOccupants().forEach(occupantNodes::remove);
 
-    }
+            cell.group.getChildren().retainAll(cell.tileView, cell.swatch);
+            cell.group.setRotate(0);
+            showEmptyImage(cell);
+            cell.setVeilColor(TRANSPARENT);
+        }
 
-    private static Image emptyImage(){
-        WritableImage emptyTileImage = new WritableImage(1, 1);
-        emptyTileImage
-                .getPixelWriter()
-                .setColor(0, 0, Color.gray(0.98));
-        return emptyTileImage;
-    }
+        /**
+         * Méthode qui indique si la case donnée fait partie de la frange, et la redessine en conséquence
+         * @param cell la case donnée
+         * @param fringe vrai ssi la case fait partie de la frange
+         */
+        private void setFringe(Cell cell, boolean fringe) {
+
+            if (cell == null || cell.tile != null)
+                return;
+
+            cell.fringe = fringe;
+            renderFringeCell(cell);
+        }
 
-    private record CellData(Image tileImage, int rotation, Color veilColor){
-        private static final Map<Integer, Image> imageCache = new HashMap<>();
+        /**
+         * Méthode qui redessine la case donnée si elle ne contient aucune tuile : la tuile à placer si elle est
+         * survolée et fait partie de la frange, la couleur du joueur courant si elle fait partie de la frange, et rien
+         * sinon
+         * @param cell la case donnée
+         */
+        private void renderFringeCell(Cell cell) {
+
+            if (cell.tile != null)
+                return;
+
+            PlayerColor currentPlayer = gameState.currentPlayer();
+            Tile tileToPlace = gameState.tileToPlace();
+
+            if (!cell.fringe) {
+                cell.group.setRotate(0);
+                showEmptyImage(cell);
+                cell.setVeilColor(TRANSPARENT);
+            } else if (currentPlayer != null && tileToPlace != null) {
+                //SI LA CASE EST SURVOLéE
+                //(LA VALIDITé DE LA POSE EST LUE DANS LA TABLE DES PLACEMENTS, CALCULéE UNE FOIS PAR TUILE)
+                PlacementTable placementTable = gameState.placementTable();
+
+                if (cell == hoveredCell) {
+                    Rotation rotation = rotationO.getValue();
+
+                    cell.group.setRotate(rotation.degreesCW());
+                    showTileImage(cell, tileToPlace.id());
+                    cell.setVeilColor(placementTable.isValid(cell.pos, rotation) ? TRANSPARENT : WHITE);
+                }
+                //SI LA CASE NEST PAS SURVOLéE
+                else {
+                    cell.group.setRotate(0);
+                    showEmptyImage(cell);
+                    cell.setVeilColor(unplaceableOverlay && !placementTable.isPlaceable(cell.pos)
+                            ? UNPLACEABLE_COLOR
+                            : ColorMap.fillColor(currentPlayer));
+                }
+            }
+        }
+
+        /**
+         * Méthode qui affiche dans la case donnée l'image de la tuile donnée à la résolution adaptée au zoom (ou sa
+         * couleur moyenne si le zoom est très faible), ou l'image de substitution jusqu'à ce que l'image soit
+         * décodée, si la case n'a pas changé d'image ni le zoom de résolution entre-temps
+         * @param cell la case donnée
+         * @param tileId l'identifiant de la tuile donnée
+         */
+        private void showTileImage(Cell cell, int tileId) {
+            cell.imageTileId = tileId;
+
+            if (swatches) {
+                cell.showSwatch(TileImages.swatchColor(tileId, color -> {
+                    if (cell.imageTileId == tileId && swatches)
+                        cell.showSwatch(color);
+                }));
+            } else {
+                int requestedPixelSize = pixelSize;
+                cell.showImage(TileImages.ofSize(tileId, requestedPixelSize, image -> {
+                    if (cell.imageTileId == tileId && !swatches && pixelSize == requestedPixelSize)
+                        cell.showImage(image);
+                }));
+            }
+        }
+
+        private void showEmptyImage(Cell cell) {
+            cell.imageTileId = -1;
+
+            if (swatches)
+                cell.showSwatch(EMPTY_CELL_COLOR);
+            else
+                cell.showImage(emptyImage);
+        }
+
+        private void updatePlacedTileVeil(int tileId) {
+            Cell cell = cellsByTileId.get(tileId);
+            if (cell != null)
+                cell.setVeilColor(placedTileVeilColor(tileId));
+        }
+
+        private Color placedTileVeilColor(int tileId) {
+            Set<Integer> tileIds = tileIdsO.getValue();
+            return !tileIds.isEmpty() && !tileIds.contains(tileId) ? BLACK : TRANSPARENT;
+        }
+
+        private static void setVisible(Node node, boolean visible) {
+            if (node != null)
+                node.setVisible(visible);
+        }
+
+        private Cell cellAt(Pos pos) {
+            return Math.abs(pos.x()) <= reach && Math.abs(pos.y()) <= reach ? cells[index(pos)] : null;
+        }
+
+        private int index(Pos pos) {
+            return (pos.y() + reach) * (2 * reach + 1) + (pos.x() + reach);
+        }
     }
 
-}
+    /**
+     * Classe représentant une case du plateau, avec ses nœuds et l'état actuellement affiché
+     */
+    private static final class Cell {
+        private final Pos pos;
+        private final Group group = new Group();
+        private final ImageView tileView = new ImageView();
+        private final Rectangle swatch = new Rectangle(ImageLoader.NORMAL_TILE_FIT_SIZE,
+                ImageLoader.NORMAL_TILE_FIT_SIZE);
+        private final ColorInput veil;
+        private PlacedTile tile;
+        private boolean fringe;
+        private int imageTileId = -1;
+
+        private Cell(Pos pos, TileImage emptyImage) {
+            this.pos = pos;
+
+            //CADRE
+            tileView.setFitWidth(ImageLoader.NORMAL_TILE_FIT_SIZE);
+            tileView.setFitHeight(ImageLoader.NORMAL_TILE_FIT_SIZE);
+            emptyImage.showIn(tileView);
+            swatch.setVisible(false);
+            group.getChildren().addAll(tileView, swatch);
+
+            //AJOUTER LE VOILE AUX CASES
+            veil = new ColorInput(0, 0, ImageLoader.NORMAL_TILE_FIT_SIZE, ImageLoader.NORMAL_TILE_FIT_SIZE,
+                    TRANSPARENT);
+            Blend blend = new Blend(BlendMode.SRC_OVER);
+            blend.setOpacity(0.5);
+            blend.setTopInput(veil);
+            group.setEffect(blend);
+        }
 
+        private void showImage(TileImage image) {
+            image.showIn(tileView);
+            tileView.setVisible(true);
+            swatch.setVisible(false);
+        }
+
+        private void showSwatch(Color color) {
+            swatch.setFill(color);
+            swatch.setVisible(true);
+            tileView.setVisible(false);
+        }
 
+        private void setVeilColor(Color color) {
+            if (!color.equals(veil.getPaint()))
+                veil.setPaint(color);
+        }
+    }
+
+}
@@ -7,9 +7,7 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.Node;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
@@ -53,9 +51,20 @@ public final class DecksUI {
         stackPaneToPlace.setId("next-tile");
 
         // image de la tuile à placer
+        // (décodée en arrière-plan, l'image de substitution étant affichée en attendant)
         ImageView tiletoPlaceView = new ImageView();
-        ObservableValue<Image> tileToPlaceImageO = tileToPlace0.map(t -> ImageLoader.largeImageForTile(t.id()));
-        tiletoPlaceView.imageProperty().bind(tileToPlaceImageO);
+        Consumer<Tile> showTileToPlace = tile -> {
+            if (tile == null) {
+                tiletoPlaceView.setImage(null);
+            } else {
+                TileImages.large(tile.id(), image -> {
+                    if (tileToPlace0.getValue() == tile)
+                        image.showIn(tiletoPlaceView);
+                }).showIn(tiletoPlaceView);
+            }
+        };
+        showTileToPlace.accept(tileToPlace0.getValue());
+        tileToPlace0.addListener((o, oldTile, newTile) -> showTileToPlace.accept(newTile));
 
         tiletoPlaceView.setFitWidth(ImageLoader.LARGE_TILE_FIT_SIZE);
         tiletoPlaceView.setFitHeight(ImageLoader.LARGE_TILE_FIT_SIZE);
@@ -0,0 +1,221 @@
+package ch.epfl.chacun.gui;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.TransitionPublisher;
+import ch.epfl.chacun.net.GameClient;
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Classe qui calcule les transitions de l'état du jeu en dehors du fil d'exécution JavaFX : chaque transition est
+ * calculée par un unique fil de travail (qui traite les transitions dans leur ordre de soumission), puis le nouvel
+ * état est publié sur le fil d'exécution JavaFX ; les transitions soumises pendant le calcul d'une autre sont mises
+ * en attente et calculées à tour de rôle, chacune à partir de l'état publié par la précédente, et les erreurs levées
+ * par leur calcul sont signalées sur le fil d'exécution JavaFX ; la latence de chaque transition est mesurée ; en
+ * mode réseau, l'action est jouée par le client de la partie, qui publie lui-même l'état qu'il affiche ; chaque
+ * transition valide calculée en mode local est également publiée, par le fil de travail, auprès des abonnés de
+ * l'éditeur des transitions, qui n'ont pas besoin de JavaFX
+ * <p>
+ * Les méthodes de cette classe doivent être appelées depuis le fil d'exécution JavaFX.
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class GameController {
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-state-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ObjectProperty<GameState> gameStateP;
+    private final ObjectProperty<List<String>> allActionsP;
+    private final GameClient gameClient;
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+    private final ReadOnlyObjectWrapper<Duration> lastLatency = new ReadOnlyObjectWrapper<>(Duration.ZERO);
+    private final ArrayDeque<Function<GameState, ActionEncoder.StateAction>> pending = new ArrayDeque<>();
+    private final TransitionPublisher transitions = new TransitionPublisher();
+
+    /**
+     * Constructeur du contrôleur, qui publie les nouveaux états et les actions correspondantes dans les propriétés
+     * données
+     * @param gameStateP la propriété contenant l'état du jeu
+     * @param allActionsP la propriété contenant la représentation en base32 de toutes les actions effectuées
+     */
+    public GameController(ObjectProperty<GameState> gameStateP, ObjectProperty<List<String>> allActionsP) {
+        this(gameStateP, allActionsP, null);
+    }
+
+    /**
+     * Constructeur du contrôleur en mode réseau, qui joue les actions au moyen du client donné ; les propriétés
+     * données doivent être mises à jour par l'observateur du client
+     * @param gameStateP la propriété contenant l'état du jeu
+     * @param allActionsP la propriété contenant la représentation en base32 de toutes les actions effectuées
+     * @param gameClient le client de la partie, ou null pour une partie locale
+     */
+    public GameController(ObjectProperty<GameState> gameStateP, ObjectProperty<List<String>> allActionsP,
+                          GameClient gameClient) {
+        this.gameStateP = gameStateP;
+        this.allActionsP = allActionsP;
+        this.gameClient = gameClient;
+    }
+
+    /**
+     * Méthode qui soumet la transition donnée, calculée en arrière-plan à partir de l'état du jeu au moment de son
+     * calcul ; si une transition est déjà en cours, la transition donnée est mise en attente et ne sera calculée
+     * qu'une fois l'état produit par les précédentes publié, de sorte qu'aucune entrée du joueur n'est perdue ; le
+     * nouvel état n'est publié que si la transition retourne une action valide (non nulle, avec un état et une
+     * représentation en base32)
+     * @param transition la transition donnée, qui retourne l'action à effectuer dans l'état qui lui est passé, ou
+     * null si aucune action ne doit être effectuée
+     */
+    public void submit(Function<GameState, ActionEncoder.StateAction> transition) {
+        pending.addLast(transition);
+        if (!busy.get())
+            runNext();
+    }
+
+    /**
+     * Méthode qui retourne la propriété, en lecture seule, valant vrai ssi une transition est en cours ou en
+     * attente ; les entrées du joueur à la souris peuvent être désactivées tant qu'elle est vraie
+     * @return la propriété valant vrai ssi une transition est en cours ou en attente
+     */
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    /**
+     * Méthode qui retourne la propriété, en lecture seule, contenant la latence de la dernière transition, soit, le
+     * temps écoulé entre le début de son calcul sur le fil de travail et la publication du nouvel état (le temps
+     * passé en attente derrière les transitions précédentes n'en fait pas partie)
+     * @return la propriété contenant la latence de la dernière transition
+     */
+    public ReadOnlyObjectProperty<Duration> lastLatencyProperty() {
+        return lastLatency.getReadOnlyProperty();
+    }
+
+    /**
+     * Méthode qui retourne l'éditeur des transitions publiées par le contrôleur en mode local ; les transitions étant
+     * publiées par le fil de travail, un abonné utilisant la stratégie BLOCK ne peut retarder que le calcul des
+     * transitions suivantes, jamais le fil d'exécution JavaFX
+     * @return l'éditeur des transitions du contrôleur
+     */
+    public TransitionPublisher transitions() {
+        return transitions;
+    }
+
+    /**
+     * Méthode qui lance le calcul, sur le fil de travail, de la première transition en attente, puis, une fois
+     * celle-ci terminée, de la suivante, jusqu'à ce qu'il n'y en ait plus
+     */
+    private void runNext() {
+
+        Function<GameState, ActionEncoder.StateAction> transition = pending.pollFirst();
+        if (transition == null) {
+            busy.set(false);
+            return;
+        }
+
+        busy.set(true);
+        long start = System.nanoTime();
+
+        //EN MODE RESEAU, LA TRANSITION EST APPLIQUEE A L'ETAT AFFICHE PAR LE CLIENT
+        if (gameClient != null) {
+            CompletableFuture.runAsync(() -> gameClient.play(transition), WORKER)
+                    .whenCompleteAsync((ignored, error) -> {
+                        report(error);
+                        lastLatency.set(Duration.ofNanos(System.nanoTime() - start));
+                        runNext();
+                    }, Platform::runLater);
+            return;
+        }
+
+        GameState gameState = gameStateP.get();
+        CompletableFuture.supplyAsync(() -> {
+                    ActionEncoder.StateAction stateAction = prepared(transition.apply(gameState));
+                    if (isValid(stateAction))
+                        transitions.publish(gameState, stateAction.actionString(), stateAction.gameState());
+                    return stateAction;
+                }, WORKER)
+                .whenCompleteAsync((stateAction, error) -> {
+                    if (error == null)
+                        publish(stateAction);
+                    else
+                        report(error);
+                    lastLatency.set(Duration.ofNanos(System.nanoTime() - start));
+                    runNext();
+                }, Platform::runLater);
+    }
+
+    /**
+     * Méthode qui signale l'erreur donnée, levée par le calcul d'une transition, au gestionnaire des exceptions non
+     * capturées du fil d'exécution JavaFX, comme si elle avait été levée par celui-ci ; la transition est abandonnée
+     * mais les suivantes sont calculées normalement
+     * @param error l'erreur donnée, ou null si la transition s'est terminée normalement
+     */
+    private static void report(Throwable error) {
+        if (error == null)
+            return;
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, cause);
+    }
+
+    /**
+     * Méthode qui calcule, sur le fil de travail, les informations que l'interface consultera dans le nouvel état de
+     * l'action donnée, afin que leur calcul ne retarde pas le fil d'exécution JavaFX (la table des placements de la
+     * tuile à placer, consultée lors du survol de la frange)
+     * @param stateAction l'action donnée, ou null
+     * @return l'action donnée
+     */
+    private static ActionEncoder.StateAction prepared(ActionEncoder.StateAction stateAction) {
+        if (stateAction != null && stateAction.gameState() != null)
+            stateAction.gameState().placementTable();
+        return stateAction;
+    }
+
+    /**
+     * Méthode qui indique si l'action donnée est valide, soit, non nulle, avec un état et une représentation en base32
+     * @param stateAction l'action donnée, ou null
+     * @return vrai ssi l'action donnée est valide
+     */
+    private static boolean isValid(ActionEncoder.StateAction stateAction) {
+        return stateAction != null && stateAction.gameState() != null && stateAction.actionString() != null;
+    }
+
+    /**
+     * Méthode qui publie le nouvel état du jeu et ajoute l'action correspondante à la liste des actions effectuées,
+     * si l'action donnée est valide
+     * @param stateAction l'action donnée, ou null
+     */
+    private void publish(ActionEncoder.StateAction stateAction) {
+
+        if (isValid(stateAction)) {
+
+            gameStateP.set(stateAction.gameState());
+
+            //METTRE A JOUR ACTIONSUI
+            List<String> newActions = new ArrayList<>(allActionsP.getValue());
+            newActions.add(stateAction.actionString());
+            allActionsP.set(newActions);
+        }
+    }
+
+}
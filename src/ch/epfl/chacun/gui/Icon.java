@@ -26,12 +26,7 @@ public final class Icon {
     public static Node newFor(PlayerColor playerColor, Occupant.Kind kind) {
 
         SVGPath svgPath = new SVGPath();
-
-        String svgCode = switch (kind) {
-            case PAWN -> "M -10 10 H -4 L 0 2 L 6 10 H 12 L 5 0 L 12 -2 L 12 -4 L 6 -6 L 6 -10 L 0 -10 L -2 -4 L -6 " +
-                    "-2 L -8 -10 L -12 -10 L -8 6 Z";
-            case HUT -> "M -8 10 H 8 V 2 H 12 L 0 -10 L -12 2 H -8 Z";
-        };
+        String svgCode = svgContent(kind);
 
         svgPath.setContent(svgCode);
         svgPath.setFill(ColorMap.fillColor(playerColor));
@@ -40,4 +35,17 @@ public final class Icon {
         return svgPath;
     }
 
+    /**
+     * Retourne le chemin SVG du type d'occupant donné, centré sur l'origine
+     * @param kind type d'occupant donné
+     * @return le chemin SVG du type d'occupant donné
+     */
+    static String svgContent(Occupant.Kind kind) {
+        return switch (kind) {
+            case PAWN -> "M -10 10 H -4 L 0 2 L 6 10 H 12 L 5 0 L 12 -2 L 12 -4 L 6 -6 L 6 -10 L 0 -10 L -2 -4 L -6 " +
+                    "-2 L -8 -10 L -12 -10 L -8 6 Z";
+            case HUT -> "M -8 10 H 8 V 2 H 12 L 0 -10 L -12 2 H -8 Z";
+        };
+    }
+
 }
\ No newline at end of file
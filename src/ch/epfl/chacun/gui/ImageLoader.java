@@ -52,7 +52,7 @@ public final class ImageLoader {
      * @return l'image de 256 pixels de côté de la face de la tuile donnée
      */
     public static Image normalImageForTile(int tileId) {
-        return new Image(String.format("/%d/%02d.jpg", NORMAL_TILE_PIXEL_SIZE, tileId));
+        return new Image(tileImagePath(tileId, NORMAL_TILE_PIXEL_SIZE));
     }
 
     /**
@@ -61,7 +61,17 @@ public final class ImageLoader {
      * @return l'image de 512 pixels de côté de la face de la tuile donnée
      */
     public static Image largeImageForTile(int tileId) {
-        return new Image(String.format("/%d/%02d.jpg", LARGE_TILE_PIXEL_SIZE, tileId));
+        return new Image(tileImagePath(tileId, LARGE_TILE_PIXEL_SIZE));
+    }
+
+    /**
+     * Méthode qui retourne le chemin, dans les ressources, de l'image de la tuile donnée à la résolution donnée
+     * @param tileId identifiant de la tuile donnée
+     * @param pixelSize la résolution de l'image (NORMAL_TILE_PIXEL_SIZE ou LARGE_TILE_PIXEL_SIZE)
+     * @return le chemin de l'image de la tuile donnée
+     */
+    static String tileImagePath(int tileId, int pixelSize) {
+        return String.format("/%d/%02d.jpg", pixelSize, tileId);
     }
 
 }
@@ -1,18 +1,27 @@
 package ch.epfl.chacun.gui;
 
 import ch.epfl.chacun.*;
+import ch.epfl.chacun.net.GameClient;
+import ch.epfl.chacun.net.GameServer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
+import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.random.RandomGenerator;
+import java.util.function.Consumer;
 import java.util.random.RandomGeneratorFactory;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,55 +35,20 @@ import static ch.epfl.chacun.GameState.Action.*;
  */
 
 public final class Main extends Application {
+
+    private static final String RESUME = "--resume";
+
     public static void main(String[] args) {
         launch(args);
     }
 
     @Override
-    public void start(Stage primaryStage) {
-
-        //GET PLAYERS_NAMES
-        List<String> playerNames = getParameters().getUnnamed();
-        int numberOfPlayers = playerNames.size();
-
-        Preconditions.checkArgument((numberOfPlayers >= 2) && (numberOfPlayers <= 5));
+    public void start(Stage primaryStage) throws IOException {
 
         Map<String, String> namedParams = getParameters().getNamed();
 
-        //SETUP PLAYERS LISTE ET MAP
-        List<PlayerColor> playerColors = PlayerColor.ALL.stream()
-                .limit(numberOfPlayers)
-                .toList();
-
-        Map<PlayerColor, String> playersMap = new HashMap<>();
-        for (int i = 0; i < numberOfPlayers; i++)
-            playersMap.put(playerColors.get(i), playerNames.get(i));
-
-        //MELANGER LE DECK
-        RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.getDefault();
-        RandomGenerator randomGenerator;
-
-        if (namedParams.containsKey("seed"))
-            randomGenerator = factory.create(Long.parseUnsignedLong(namedParams.get("seed")));
-        else
-            randomGenerator = factory.create();
-
-        List<Tile> shuffledTiles = new ArrayList<>(Tiles.TILES);
-        Collections.shuffle(shuffledTiles, randomGenerator);
-
-        Map<Tile.Kind, List<Tile>> tilesByKind = shuffledTiles.stream()
-                .collect(Collectors.groupingBy(Tile::kind));
-        TileDecks tileDecks =
-                new TileDecks(tilesByKind.get(Tile.Kind.START),
-                        tilesByKind.get(Tile.Kind.NORMAL),
-                        tilesByKind.getOrDefault(Tile.Kind.MENHIR, List.of()));
-
-        TextMaker textMaker = new TextMakerFr(playersMap);
-
-        GameState initialGameState = GameState.initial(playerColors, tileDecks, textMaker);
-
         SimpleObjectProperty<GameState> gameStateP =
-                new SimpleObjectProperty<>(initialGameState);
+                new SimpleObjectProperty<>();
         SimpleObjectProperty<Rotation> tileToPlaceRotationP =
                 new SimpleObjectProperty<>(Rotation.NONE);
         SimpleObjectProperty<Set<Occupant>> visibleOccupantsP =
@@ -86,6 +60,41 @@ public final class Main extends Application {
         SimpleObjectProperty<List<String>> allActionsP =
                 new SimpleObjectProperty<>(List.<String>of());
 
+        //SE CONNECTER A L'HOTE (AVEC --host=hote:port, ET --game=identifiant POUR REJOINDRE UNE PARTIE)
+        GameClient gameClient = null;
+        if (namedParams.containsKey("host")) {
+            InetSocketAddress host = hostAddress(namedParams.get("host"));
+            GameClient.Listener listener = (gameState, actionStrings) -> {
+                gameState.placementTable();
+                Platform.runLater(() -> {
+                    gameStateP.set(gameState);
+                    allActionsP.set(actionStrings);
+                });
+            };
+
+            GameClient client = namedParams.containsKey("game")
+                    ? GameClient.join(host, Long.parseLong(namedParams.get("game")), listener)
+                    : GameClient.create(host, gameSetup(namedParams), listener);
+            primaryStage.setOnHidden(e -> client.close());
+            gameClient = client;
+        }
+
+        //REPRENDRE LA DERNIERE PARTIE LOCALE SAUVEGARDEE (AVEC --resume, ET --save=fichier POUR UN AUTRE FICHIER)
+        Path saveFile = namedParams.containsKey("save")
+                ? Path.of(namedParams.get("save"))
+                : AutoSave.defaultSaveFile();
+        Optional<SavedGame> savedGame = gameClient == null && getParameters().getUnnamed().contains(RESUME)
+                ? AutoSave.load(saveFile)
+                : Optional.empty();
+
+        //L'ETAT INITIAL EST CONSTRUIT A PARTIR DES PARAMETRES DE LA PARTIE (GRAINE ET NOMS DES JOUEURS)
+        GameSetup gameSetup = gameClient != null
+                ? gameClient.setup()
+                : savedGame.map(SavedGame::setup).orElseGet(() -> gameSetup(namedParams));
+        GameState initialGameState = gameSetup.initialState();
+        TextMaker textMaker = initialGameState.messageBoard().textMaker();
+        gameStateP.set(initialGameState);
+
         ObservableValue<List<MessageBoard.Message>> messagesO = gameStateP.map(g -> g.messageBoard().messages());
         ObservableValue<Tile> tileToPlaceO = gameStateP.map(GameState::tileToPlace);
         ObservableValue<Integer> normalTilesCountO = gameStateP.map(g -> g.tileDecks().normalTiles().size());
@@ -103,6 +112,9 @@ public final class Main extends Application {
             default -> "";
         }));
 
+        //LES TRANSITIONS SONT CALCULéES EN ARRIERE-PLAN, PUIS PUBLIéES SUR LE FIL JAVAFX
+        GameController gameController = new GameController(gameStateP, allActionsP, gameClient);
+
         //PLAYERSUI NODE
         Node playersNode = PlayersUI.create(gameStateP, textMaker);
 
@@ -112,26 +124,30 @@ public final class Main extends Application {
                         normalTilesCountO,
                         menhirTilesCountO,
                         textOnTileToPlaceP,
-                        occupant -> {
-                            ActionEncoder.StateAction stateAction = null ;
+                        occupant -> gameController.submit(gameState -> {
 
                             //DETERMINER L'ACTION A EFFECTUER
-                            if (nextActionO.getValue() == OCCUPY_TILE) {
-                                stateAction = ActionEncoder.withNewOccupant(gameStateP.get(), null);
-                            } else if (nextActionO.getValue() == GameState.Action.RETAKE_PAWN) {
-                                stateAction = ActionEncoder.withOccupantRemoved(gameStateP.get(), null);
-                            }
-
-                            //METTRE A JOUR LE JEU
-                            update(stateAction, gameStateP, allActionsP);
-                        });
+                            if (gameState.nextAction() == OCCUPY_TILE)
+                                return ActionEncoder.withNewOccupant(gameState, null);
+                            else if (gameState.nextAction() == GameState.Action.RETAKE_PAWN)
+                                return ActionEncoder.withOccupantRemoved(gameState, null);
+                            return null;
+                        }));
 
         //MESSAGEBOARD NODE
         Node messageBoardNode = MessageBoardUI
                 .create(messagesO, highlightedTilesP);
 
-        //BOARDUI NODE
-        Node boardNode = BoardUI
+        //UTILISER L'ATLAS DES TUILES (AVEC --images=atlas)
+        if ("atlas".equals(namedParams.get("images")))
+            useTileAtlas();
+
+        //BOARDUI NODE (DESSINé SUR UN CANEVAS AVEC --renderer=canvas)
+        BoardRenderer boardRenderer = "canvas".equals(namedParams.get("renderer"))
+                ? BoardCanvasUI::create
+                : BoardUI::create;
+
+        Node boardNode = boardRenderer
                 .create(12,
                         gameStateP,
                         tileToPlaceRotationP,
@@ -147,54 +163,72 @@ public final class Main extends Application {
                                 PlacedTile newPlacedTile = new PlacedTile(tileToPlaceO.getValue(), currentPlayerO.getValue(),
                                         tileToPlaceRotationP.getValue(), selectedPosition);
 
-                                boolean canAddTile = gameStateP.getValue().board().canAddTile(newPlacedTile);
-                                ActionEncoder.StateAction stateAction = null;
-
-                                if (canAddTile)
-                                    stateAction = ActionEncoder.withPlacedTile(gameStateP.getValue(),
-                                        newPlacedTile);
-
                                 //METTRE A JOUR LE JEU
-                                update(stateAction, gameStateP, allActionsP);
+                                gameController.submit(gameState -> gameState.board().canAddTile(newPlacedTile)
+                                        ? ActionEncoder.withPlacedTile(gameState, newPlacedTile)
+                                        : null);
                             }
                         },
 
-                        selectedOccupant -> {
+                        selectedOccupant -> gameController.submit(gameState -> {
 
-                            ActionEncoder.StateAction stateAction = null;
-                            Set<Occupant> lastTilePotentialOccupants = gameStateP.getValue().lastTilePotentialOccupants();
+                            Set<Occupant> lastTilePotentialOccupants = gameState.lastTilePotentialOccupants();
                             int occupantTileId = Zone.tileId(selectedOccupant.zoneId());
-                            PlacedTile occupantTile = gameStateP.getValue().board().tileWithId(occupantTileId);
+                            PlacedTile occupantTile = gameState.board().tileWithId(occupantTileId);
 
                             //DETERMINER L'ACTION A EFFECTUER
-                            if (nextActionO.getValue() == OCCUPY_TILE
+                            if (gameState.nextAction() == OCCUPY_TILE
                                     && lastTilePotentialOccupants.contains(selectedOccupant)) {
-                                stateAction = ActionEncoder.withNewOccupant(gameStateP.getValue(), selectedOccupant);
+                                return ActionEncoder.withNewOccupant(gameState, selectedOccupant);
 
-                            } else if (nextActionO.getValue() == GameState.Action.RETAKE_PAWN
+                            } else if (gameState.nextAction() == GameState.Action.RETAKE_PAWN
                                     && selectedOccupant.kind() == Occupant.Kind.PAWN
-                                    && occupantTile.placer() == currentPlayerO.getValue()) {
-                                stateAction = ActionEncoder.withOccupantRemoved(gameStateP.getValue(), selectedOccupant);
+                                    && occupantTile.placer() == gameState.currentPlayer()) {
+                                return ActionEncoder.withOccupantRemoved(gameState, selectedOccupant);
                             }
-                            update(stateAction, gameStateP, allActionsP);
-
-                        });
+                            return null;
+                        }));
 
         //ACTIONSUI NODE
         Node actionNode = ActionUI
                 .create(allActionsP,
-                        actionString -> {
-                            ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(gameStateP.getValue(),
-                                    actionString);
-                            update(stateAction, gameStateP, allActionsP);
-                        });
+                        actionString -> gameController.submit(gameState ->
+                                ActionEncoder.decodeAndApply(gameState, actionString)));
+
 
+        //PRECHARGER LES IMAGES DES PROCHAINES TUILES
+        gameStateP.addListener((o, oldState, newState) -> TileImages.prefetch(newState));
 
         //SETUP LE JEU
-        gameStateP.set(gameStateP.getValue().withStartingTilePlaced());
+        if (gameClient != null) {
+            gameStateP.set(gameClient.gameState());
+            allActionsP.set(gameClient.actionStrings());
+        } else if (savedGame.isPresent()) {
+            gameStateP.set(savedGame.get().gameState());
+            allActionsP.set(savedGame.get().actionStrings());
+        } else {
+            gameStateP.set(gameStateP.getValue().withStartingTilePlaced());
+        }
+
+        //AFFICHER LA LATENCE DE LA DERNIERE TRANSITION
+        Text latencyText = new Text();
+        latencyText.textProperty().bind(gameController.lastLatencyProperty()
+                .map(latency -> STR."Dernière action : \{latency.toMillis()} ms"));
+        VBox vBox = new VBox(actionNode, decksNode, latencyText);
+
+        //SAUVEGARDER LA PARTIE LOCALE EN ARRIERE-PLAN APRES CHAQUE ACTION, ET AFFICHER LA LATENCE DE LA SAUVEGARDE
+        if (gameClient == null) {
+            AutoSave autoSave = new AutoSave(saveFile, gameSetup, AutoSave.DEFAULT_DELAY);
+            autoSave.listen(gameStateP, allActionsP);
+            primaryStage.setOnHidden(e -> autoSave.flush());
+
+            Text saveLatencyText = new Text();
+            saveLatencyText.textProperty().bind(autoSave.lastLatencyProperty()
+                    .map(latency -> STR."Dernière sauvegarde : \{latency.toMillis()} ms"));
+            vBox.getChildren().add(saveLatencyText);
+        }
 
         //SETUP LA SCENE DU JEU
-        VBox vBox = new VBox(actionNode, decksNode);
         BorderPane menuNode = new BorderPane();
         menuNode.setTop(playersNode);
         menuNode.setCenter(messageBoardNode);
@@ -204,33 +238,83 @@ public final class Main extends Application {
         rootNode.setCenter(boardNode);
         rootNode.setRight(menuNode);
 
+        //DESACTIVER LA SOURIS PENDANT LE CALCUL D'UNE TRANSITION
+        rootNode.mouseTransparentProperty().bind(gameController.busyProperty());
+
         Scene scene = new Scene(rootNode, 1440, 1080);
+        scene.cursorProperty().bind(gameController.busyProperty().map(busy -> busy ? Cursor.WAIT : Cursor.DEFAULT));
         primaryStage.setScene(scene);
-        primaryStage.setTitle("ChaCuN");
+        primaryStage.setTitle(gameClient == null ? "ChaCuN" : "ChaCuN — partie " + gameClient.gameId());
 
         primaryStage.show();
 
     }
 
     /**
-     * Methode qui met à jour l'état de jeu ainsi que les actions affichées
-     * @param stateAction l'action à effectuer
-     * @param gameStateP l'état de jeu
-     * @param allActions la liste des actions déja affichées
+     * Interface fonctionnelle des méthodes de création du nœud affichant le plateau (BoardUI.create et
+     * BoardCanvasUI.create)
      */
-    private void update(ActionEncoder.StateAction stateAction,SimpleObjectProperty<GameState> gameStateP,
-                        SimpleObjectProperty<List<String>> allActions){
+    @FunctionalInterface
+    private interface BoardRenderer {
+        Node create(int reach, ObservableValue<GameState> gameStateO, ObservableValue<Rotation> rotationO,
+                    ObservableValue<Set<Occupant>> visibleOccupantsO, ObservableValue<Set<Integer>> tileIdsO,
+                    Consumer<Rotation> rotationHandler, Consumer<Pos> positionHandler,
+                    Consumer<Occupant> occupantHandler);
+    }
 
-        if (stateAction != null && stateAction.gameState() != null && stateAction.actionString() != null) {
+    /**
+     * Méthode qui retourne les paramètres d'une nouvelle partie, construits à partir des noms des joueurs passés en
+     * arguments et de la graine (aléatoire si elle n'est pas donnée)
+     * @param namedParams les arguments nommés
+     * @return les paramètres de la nouvelle partie
+     * @throws IllegalArgumentException si le nombre de joueurs n'est pas compris entre 2 et 5
+     */
+    private GameSetup gameSetup(Map<String, String> namedParams) {
 
-            gameStateP.set(stateAction.gameState());
+        //GET PLAYERS_NAMES
+        List<String> playerNames = getParameters().getUnnamed().stream()
+                .filter(name -> !name.equals(RESUME))
+                .toList();
+        Preconditions.checkArgument((playerNames.size() >= 2) && (playerNames.size() <= 5));
 
-            //METTRE A JOUR ACTIONSUI
-            List<String> newActions = new ArrayList<>(allActions.getValue());
-            newActions.add(stateAction.actionString());
-            allActions.set(newActions);
-        }
+        //MELANGER LE DECK
+        long seed = namedParams.containsKey("seed")
+                ? Long.parseUnsignedLong(namedParams.get("seed"))
+                : RandomGeneratorFactory.getDefault().create().nextLong();
+
+        return new GameSetup(seed, playerNames);
+    }
 
+    /**
+     * Méthode qui retourne l'adresse de l'hôte représentée par la chaîne donnée, de la forme hote ou hote:port
+     * @param host la chaîne donnée
+     * @return l'adresse de l'hôte
+     */
+    private static InetSocketAddress hostAddress(String host) {
+        int colon = host.lastIndexOf(':');
+        return colon < 0
+                ? new InetSocketAddress(host, GameServer.DEFAULT_PORT)
+                : new InetSocketAddress(host.substring(0, colon), Integer.parseInt(host.substring(colon + 1)));
+    }
+
+    /**
+     * Méthode qui fait en sorte que les images des tuiles soient extraites de l'atlas projeté en mémoire ; au premier
+     * lancement, l'atlas est construit en arrière-plan et les images sont décodées une à une en attendant
+     */
+    private static void useTileAtlas() {
+
+        Path cacheFile = TileAtlas.defaultCacheFile();
+        Optional<TileAtlas> atlas = TileAtlas.load(cacheFile);
+
+        if (atlas.isPresent()) {
+            TileImages.useAtlas(atlas.get());
+        } else {
+            CompletableFuture.supplyAsync(() -> TileAtlas.build(cacheFile))
+                    .whenCompleteAsync((builtAtlas, error) -> {
+                        if (builtAtlas != null)
+                            TileImages.useAtlas(builtAtlas);
+                    }, Platform::runLater);
+        }
     }
 
 }
@@ -0,0 +1,368 @@
+package ch.epfl.chacun.gui;
+
+import ch.epfl.chacun.Tile;
+import ch.epfl.chacun.Tiles;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Classe qui représente un atlas des faces de toutes les tuiles, aux deux résolutions : les images sont décodées une
+ * seule fois et leurs pixels bruts (au format BGRA prémultiplié) rangés dans quelques grandes pages, elles-mêmes
+ * stockées dans un fichier cache qui est projeté en mémoire lors des lancements suivants, de sorte qu'aucune image
+ * JPEG n'a plus à être décodée
+ * <p>
+ * Le fichier commence par un en-tête (nombre magique, version, empreinte des images sources) suivi des pages de la
+ * petite résolution, puis de celles de la grande ; la disposition des tuiles dans les pages se déduit de leur nombre.
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class TileAtlas {
+
+    /**
+     * Le nombre magique identifiant un fichier d'atlas ("CCNA")
+     */
+    private static final int MAGIC = 0x43434E41;
+
+    /**
+     * La version du format du fichier d'atlas
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * La taille, en octets, de l'en-tête du fichier d'atlas
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * La taille maximale, en pixels, du côté d'une page de l'atlas
+     */
+    private static final int MAX_PAGE_SIZE = 4096;
+
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int TILE_COUNT = Tiles.TILES.size();
+    private static final int[] PIXEL_SIZES = {ImageLoader.NORMAL_TILE_PIXEL_SIZE, ImageLoader.LARGE_TILE_PIXEL_SIZE};
+
+    private final Map<Integer, Integer> indexByTileId;
+    private final Map<Integer, List<Image>> pagesByPixelSize;
+
+    /**
+     * Constructeur privé de l'atlas, dont les pages sont construites à partir du fichier projeté en mémoire donné
+     * @param indexByTileId la position de chaque tuile dans l'atlas, selon son identifiant
+     * @param mapped le contenu du fichier d'atlas, projeté en mémoire
+     */
+    private TileAtlas(Map<Integer, Integer> indexByTileId, ByteBuffer mapped) {
+        this.indexByTileId = indexByTileId;
+
+        Map<Integer, List<Image>> pagesByPixelSize = new HashMap<>();
+        long offset = HEADER_BYTES;
+        for (int pixelSize : PIXEL_SIZES) {
+            List<Image> pages = new ArrayList<>();
+            for (int page = 0; page < pageCount(pixelSize); page++) {
+                int width = pageWidth(pixelSize);
+                int height = pageHeight(pixelSize, page);
+                ByteBuffer pixels = mapped.slice((int) offset, width * height * BYTES_PER_PIXEL);
+
+                pages.add(new WritableImage(new PixelBuffer<>(width, height, pixels,
+                        PixelFormat.getByteBgraPreInstance())));
+                offset += (long) width * height * BYTES_PER_PIXEL;
+            }
+            pagesByPixelSize.put(pixelSize, List.copyOf(pages));
+        }
+        this.pagesByPixelSize = Map.copyOf(pagesByPixelSize);
+    }
+
+    /**
+     * Méthode qui retourne le fichier cache par défaut de l'atlas, situé dans le répertoire personnel de l'utilisateur
+     * @return le fichier cache par défaut de l'atlas
+     */
+    public static Path defaultCacheFile() {
+        return Path.of(System.getProperty("user.home"), ".chacun", "tile-atlas.bin");
+    }
+
+    /**
+     * Méthode qui projette en mémoire le fichier d'atlas donné et retourne l'atlas correspondant, ou une valeur vide
+     * si le fichier n'existe pas, est incomplet ou ne correspond plus aux images des tuiles
+     * @param cacheFile le fichier d'atlas donné
+     * @return l'atlas projeté en mémoire, ou une valeur vide si le fichier n'est pas utilisable
+     */
+    public static Optional<TileAtlas> load(Path cacheFile) {
+
+        Map<Integer, Integer> indexByTileId = indexByTileId();
+        long expectedSize = fileSize();
+
+        if (!Files.isRegularFile(cacheFile))
+            return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() != expectedSize || expectedSize > Integer.MAX_VALUE)
+                return Optional.empty();
+
+            // projection privée : les pages peuvent être modifiées sans que le fichier ne le soit
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.PRIVATE, 0, expectedSize);
+            if (mapped.getInt(0) != MAGIC
+                    || mapped.getInt(4) != VERSION
+                    || mapped.getLong(8) != fingerprint(indexByTileId.keySet()))
+                return Optional.empty();
+
+            return Optional.of(new TileAtlas(indexByTileId, mapped));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Méthode qui décode les images de toutes les tuiles, les range dans un nouveau fichier d'atlas (qui remplace
+     * l'éventuel fichier existant) et retourne l'atlas projeté en mémoire correspondant ; le fichier n'est mis en
+     * place qu'une fois complet, de sorte qu'un lancement interrompu ne laisse jamais d'atlas partiel
+     * @param cacheFile le fichier d'atlas à créer
+     * @return l'atlas créé
+     * @throws UncheckedIOException si le fichier ne peut être écrit
+     * @throws IllegalStateException si l'image d'une tuile ne peut être décodée
+     */
+    public static TileAtlas build(Path cacheFile) {
+
+        Map<Integer, Integer> indexByTileId = indexByTileId();
+        long size = fileSize();
+
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+
+            //LES PIXELS SONT ECRITS PAR LE CANAL, SANS PROJECTION : AUCUNE PROJECTION NE RESTE OUVERTE SUR LE FICHIER
+            //TEMPORAIRE AU MOMENT DE LE DEPLACER, CE QUE CERTAINS SYSTEMES (WINDOWS) REFUSENT
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+                // le dernier octet est écrit d'abord, donnant au fichier sa taille finale
+                writeFully(channel, ByteBuffer.allocate(1), size - 1);
+
+                long sectionOffset = HEADER_BYTES;
+                for (int pixelSize : PIXEL_SIZES) {
+                    for (Map.Entry<Integer, Integer> entry : indexByTileId.entrySet())
+                        writeTile(channel, sectionOffset, pixelSize, entry.getKey(), entry.getValue());
+                    sectionOffset += sectionSize(pixelSize);
+                }
+
+                // l'en-tête est écrit en dernier, ne validant le fichier qu'une fois les pixels tous écrits
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(fingerprint(indexByTileId.keySet()))
+                        .flip();
+                writeFully(channel, header, 0);
+                channel.force(true);
+            }
+
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+
+        return load(cacheFile).orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * Méthode qui retourne la face de la tuile donnée, à la résolution donnée, sous la forme d'un sous-rectangle
+     * d'une page de l'atlas
+     * @param tileId l'identifiant de la tuile donnée
+     * @param pixelSize la résolution donnée
+     * @return la face de la tuile donnée, ou null si l'atlas ne la contient pas
+     */
+    public TileImage face(int tileId, int pixelSize) {
+
+        Integer index = indexByTileId.get(tileId);
+        List<Image> pages = pagesByPixelSize.get(pixelSize);
+        if (index == null || pages == null)
+            return null;
+
+        int slot = index % tilesPerPage(pixelSize);
+        return new TileImage(pages.get(index / tilesPerPage(pixelSize)),
+                new Rectangle2D(column(pixelSize, slot) * pixelSize, row(pixelSize, slot) * pixelSize,
+                        pixelSize, pixelSize));
+    }
+
+    /**
+     * Méthode qui décode l'image de la tuile donnée, à la résolution donnée, et écrit ses pixels à leur place dans
+     * le fichier d'atlas en cours de construction
+     * @param channel le canal du fichier d'atlas en cours de construction
+     * @param sectionOffset la position, dans le fichier, de la première page de la résolution donnée
+     * @param pixelSize la résolution donnée
+     * @param tileId l'identifiant de la tuile
+     * @param index la position de la tuile dans l'atlas
+     */
+    private static void writeTile(FileChannel channel, long sectionOffset, int pixelSize, int tileId, int index)
+            throws IOException {
+
+        byte[] pixels = new byte[pixelSize * pixelSize * BYTES_PER_PIXEL];
+        int rowBytes = pixelSize * BYTES_PER_PIXEL;
+
+        try (InputStream stream = TileAtlas.class.getResourceAsStream(
+                ImageLoader.tileImagePath(tileId, pixelSize))) {
+
+            if (stream == null)
+                throw new IllegalStateException();
+
+            Image image = new Image(stream, pixelSize, pixelSize, false, true);
+            if (image.isError())
+                throw new IllegalStateException(image.getException());
+
+            image.getPixelReader().getPixels(0, 0, pixelSize, pixelSize, PixelFormat.getByteBgraPreInstance(),
+                    pixels, 0, rowBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int page = index / tilesPerPage(pixelSize);
+        int slot = index % tilesPerPage(pixelSize);
+        int pageRowBytes = pageWidth(pixelSize) * BYTES_PER_PIXEL;
+
+        long pageOffset = sectionOffset;
+        for (int p = 0; p < page; p++)
+            pageOffset += (long) pageRowBytes * pageHeight(pixelSize, p);
+
+        long tileOffset = pageOffset
+                + (long) row(pixelSize, slot) * pixelSize * pageRowBytes
+                + (long) column(pixelSize, slot) * rowBytes;
+
+        for (int y = 0; y < pixelSize; y++)
+            writeFully(channel, ByteBuffer.wrap(pixels, y * rowBytes, rowBytes), tileOffset + (long) y * pageRowBytes);
+    }
+
+    /**
+     * Méthode qui écrit tout le contenu du tampon donné dans le canal donné, à partir de la position donnée
+     * @param channel le canal donné
+     * @param bytes le tampon donné
+     * @param position la position, dans le fichier, du premier octet à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining())
+            position += channel.write(bytes, position);
+    }
+
+    /**
+     * Méthode qui supprime le fichier donné s'il existe, en ignorant les éventuelles erreurs
+     * @param file le fichier donné
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            //LE FICHIER TEMPORAIRE SERA REMPLACE PAR LA PROCHAINE CONSTRUCTION
+        }
+    }
+
+    /**
+     * Méthode qui retourne la position de chaque tuile dans l'atlas, selon son identifiant, dans l'ordre des tuiles
+     * du jeu
+     * @return la position de chaque tuile dans l'atlas, selon son identifiant
+     */
+    private static Map<Integer, Integer> indexByTileId() {
+        Map<Integer, Integer> indexByTileId = new LinkedHashMap<>();
+        for (Tile tile : Tiles.TILES)
+            indexByTileId.put(tile.id(), indexByTileId.size());
+        return Collections.unmodifiableMap(indexByTileId);
+    }
+
+    /**
+     * Méthode qui retourne une empreinte des images sources des tuiles données, calculée à partir de leur contenu
+     * (lu mais pas décodé), permettant de détecter qu'un fichier d'atlas est périmé, même si une image a été remplacée
+     * par une autre de même taille
+     * @param tileIds les identifiants des tuiles données
+     * @return l'empreinte des images sources des tuiles données
+     */
+    private static long fingerprint(Collection<Integer> tileIds) {
+
+        long fingerprint = VERSION;
+        byte[] chunk = new byte[8192];
+        CRC32C checksum = new CRC32C();
+        for (int pixelSize : PIXEL_SIZES) {
+            for (int tileId : tileIds) {
+                checksum.reset();
+                long length = 0;
+                try (InputStream stream = TileAtlas.class.getResourceAsStream(
+                        ImageLoader.tileImagePath(tileId, pixelSize))) {
+                    if (stream == null) {
+                        length = -1;
+                    } else {
+                        for (int read = stream.read(chunk); read >= 0; read = stream.read(chunk)) {
+                            checksum.update(chunk, 0, read);
+                            length += read;
+                        }
+                    }
+                } catch (IOException e) {
+                    length = -1;
+                }
+                fingerprint = 31 * fingerprint + Objects.hash(tileId, pixelSize, length, checksum.getValue());
+            }
+        }
+        return fingerprint;
+    }
+
+    private static long fileSize() {
+        long size = HEADER_BYTES;
+        for (int pixelSize : PIXEL_SIZES)
+            size += sectionSize(pixelSize);
+        return size;
+    }
+
+    private static long sectionSize(int pixelSize) {
+        long size = 0;
+        for (int page = 0; page < pageCount(pixelSize); page++)
+            size += (long) pageWidth(pixelSize) * pageHeight(pixelSize, page) * BYTES_PER_PIXEL;
+        return size;
+    }
+
+    private static int tilesPerRow(int pixelSize) {
+        return MAX_PAGE_SIZE / pixelSize;
+    }
+
+    private static int tilesPerPage(int pixelSize) {
+        return tilesPerRow(pixelSize) * tilesPerRow(pixelSize);
+    }
+
+    private static int column(int pixelSize, int slot) {
+        return slot % tilesPerRow(pixelSize);
+    }
+
+    private static int row(int pixelSize, int slot) {
+        return slot / tilesPerRow(pixelSize);
+    }
+
+    private static int pageCount(int pixelSize) {
+        return Math.ceilDiv(TILE_COUNT, tilesPerPage(pixelSize));
+    }
+
+    private static int pageWidth(int pixelSize) {
+        return tilesPerRow(pixelSize) * pixelSize;
+    }
+
+    /**
+     * Méthode qui retourne la hauteur de la page donnée, la dernière page n'ayant que le nombre de rangées de tuiles
+     * nécessaire
+     * @param pixelSize la résolution des tuiles de la page
+     * @param page l'index de la page
+     * @return la hauteur de la page donnée, en pixels
+     */
+    private static int pageHeight(int pixelSize, int page) {
+        int tilesInPage = Math.min(tilesPerPage(pixelSize), TILE_COUNT - page * tilesPerPage(pixelSize));
+        return Math.ceilDiv(tilesInPage, tilesPerRow(pixelSize)) * pixelSize;
+    }
+
+}
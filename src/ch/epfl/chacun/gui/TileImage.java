@@ -0,0 +1,44 @@
+package ch.epfl.chacun.gui;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+/**
+ * Enregistrement qui représente l'image d'une face de tuile, soit une image entière, soit un sous-rectangle d'une
+ * page d'atlas
+ * @param image l'image contenant la face de la tuile
+ * @param viewport le sous-rectangle de l'image occupé par la face de la tuile, ou null s'il s'agit de l'image entière
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public record TileImage(Image image, Rectangle2D viewport) {
+
+    /**
+     * Méthode qui affiche la face de la tuile dans la vue donnée
+     * @param view la vue donnée
+     */
+    public void showIn(ImageView view) {
+        view.setImage(image);
+        view.setViewport(viewport);
+    }
+
+    /**
+     * Méthode qui dessine la face de la tuile dans le rectangle donné du contexte graphique donné
+     * @param context le contexte graphique donné
+     * @param x l'abscisse du coin supérieur gauche du rectangle
+     * @param y l'ordonnée du coin supérieur gauche du rectangle
+     * @param width la largeur du rectangle
+     * @param height la hauteur du rectangle
+     */
+    public void draw(GraphicsContext context, double x, double y, double width, double height) {
+        if (viewport == null)
+            context.drawImage(image, x, y, width, height);
+        else
+            context.drawImage(image, viewport.getMinX(), viewport.getMinY(), viewport.getWidth(),
+                    viewport.getHeight(), x, y, width, height);
+    }
+
+}
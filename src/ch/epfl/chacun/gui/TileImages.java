@@ -0,0 +1,380 @@
+package ch.epfl.chacun.gui;
+
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.Preconditions;
+import ch.epfl.chacun.Tile;
+import javafx.application.Platform;
+import javafx.scene.image.*;
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Classe qui fournit les images des tuiles, aux deux résolutions, sans jamais bloquer le fil d'exécution JavaFX : les
+ * images sont décodées en arrière-plan, conservées dans un cache borné (selon la mémoire qu'elles occupent) dont les
+ * images les moins récemment utilisées sont évincées, et une image de substitution est affichée en attendant ;
+ * lorsqu'un atlas des tuiles est utilisé, les faces des tuiles en sont directement extraites, sans décodage
+ * <p>
+ * Outre les deux résolutions des fichiers, les images sont disponibles aux résolutions plus petites d'une chaîne de
+ * mipmaps, obtenues en divisant successivement par deux l'image de 256 pixels de côté, ainsi que sous la forme d'une
+ * simple couleur (la couleur moyenne de la tuile).
+ * <p>
+ * Toutes les méthodes de cette classe doivent être appelées depuis le fil d'exécution JavaFX.
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class TileImages {
+
+    /**
+     * La mémoire maximale, en octets, occupée par les images du cache
+     */
+    private static final long MAX_CACHE_BYTES = 48L * 1024 * 1024;
+
+    /**
+     * Le nombre de tuiles du tas des tuiles normales dont les images sont préchargées
+     */
+    private static final int PREFETCHED_NORMAL_TILES = 3;
+
+    /**
+     * Les résolutions disponibles des images des tuiles (la chaîne de mipmaps), par ordre décroissant
+     */
+    public static final List<Integer> MIP_LEVELS = List.of(512, 256, 128, 64, 32);
+
+    /**
+     * La couleur de l'image de substitution
+     */
+    private static final Color PLACEHOLDER_COLOR = Color.gray(0.9);
+
+    /**
+     * L'image affichée à la place d'une image de tuile qui n'a pas encore été décodée
+     */
+    public static final TileImage PLACEHOLDER = new TileImage(placeholder(), null);
+
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "tile-image-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final LinkedHashMap<Key, TileImage> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Key, List<Consumer<TileImage>>> pending = new HashMap<>();
+    private static final Map<Integer, Color> swatchColors = new HashMap<>();
+    private static long cachedBytes = 0;
+    private static TileAtlas atlas = null;
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private TileImages() {}
+
+    /**
+     * Méthode qui fait en sorte que les faces des tuiles soient désormais extraites de l'atlas donné, les images
+     * décodées jusqu'alors étant libérées
+     * @param tileAtlas l'atlas donné
+     */
+    public static void useAtlas(TileAtlas tileAtlas) {
+        atlas = tileAtlas;
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Méthode qui retourne l'image de 256 pixels de côté de la tuile donnée si elle a déjà été décodée, ou l'image
+     * de substitution sinon ; dans ce dernier cas, l'image est décodée en arrière-plan et transmise au consommateur
+     * donné, sur le fil d'exécution JavaFX, dès qu'elle est prête
+     * @param tileId l'identifiant de la tuile donnée
+     * @param whenReady le consommateur auquel transmettre l'image si elle n'est pas encore prête
+     * @return l'image de la tuile donnée, ou l'image de substitution
+     */
+    public static TileImage normal(int tileId, Consumer<TileImage> whenReady) {
+        return image(new Key(tileId, ImageLoader.NORMAL_TILE_PIXEL_SIZE), whenReady);
+    }
+
+    /**
+     * Méthode qui retourne l'image de 512 pixels de côté de la tuile donnée si elle a déjà été décodée, ou l'image
+     * de substitution sinon ; dans ce dernier cas, l'image est décodée en arrière-plan et transmise au consommateur
+     * donné, sur le fil d'exécution JavaFX, dès qu'elle est prête
+     * @param tileId l'identifiant de la tuile donnée
+     * @param whenReady le consommateur auquel transmettre l'image si elle n'est pas encore prête
+     * @return l'image de la tuile donnée, ou l'image de substitution
+     */
+    public static TileImage large(int tileId, Consumer<TileImage> whenReady) {
+        return image(new Key(tileId, ImageLoader.LARGE_TILE_PIXEL_SIZE), whenReady);
+    }
+
+    /**
+     * Méthode qui retourne l'image de la tuile donnée à la résolution donnée de la chaîne de mipmaps, de la même
+     * manière que normal et large
+     * @param tileId l'identifiant de la tuile donnée
+     * @param pixelSize la résolution donnée, qui doit faire partie de MIP_LEVELS
+     * @param whenReady le consommateur auquel transmettre l'image si elle n'est pas encore prête
+     * @return l'image de la tuile donnée, ou l'image de substitution
+     * @throws IllegalArgumentException si la résolution donnée ne fait pas partie de la chaîne de mipmaps
+     */
+    public static TileImage ofSize(int tileId, int pixelSize, Consumer<TileImage> whenReady) {
+        Preconditions.checkArgument(MIP_LEVELS.contains(pixelSize));
+        return image(new Key(tileId, pixelSize), whenReady);
+    }
+
+    /**
+     * Méthode qui retourne la plus petite résolution de la chaîne de mipmaps au moins égale à la taille d'affichage
+     * donnée, ou la plus grande résolution si aucune ne l'est, de sorte qu'une image ne soit jamais réduite de plus
+     * de moitié lors de son affichage
+     * @param displayedSize la taille, en pixels à l'écran, à laquelle l'image sera affichée
+     * @return la résolution de la chaîne de mipmaps adaptée à la taille d'affichage donnée
+     */
+    public static int mipLevelFor(double displayedSize) {
+        int level = MIP_LEVELS.getFirst();
+        for (int pixelSize : MIP_LEVELS) {
+            if (pixelSize >= displayedSize)
+                level = pixelSize;
+        }
+        return level;
+    }
+
+    /**
+     * Méthode qui retourne la couleur moyenne de la tuile donnée si elle est déjà connue, ou la couleur de l'image
+     * de substitution sinon ; dans ce dernier cas, elle est calculée à partir de la plus petite image de la chaîne
+     * de mipmaps et transmise au consommateur donné dès qu'elle est prête
+     * @param tileId l'identifiant de la tuile donnée
+     * @param whenReady le consommateur auquel transmettre la couleur si elle n'est pas encore prête
+     * @return la couleur moyenne de la tuile donnée, ou celle de l'image de substitution
+     */
+    public static Color swatchColor(int tileId, Consumer<Color> whenReady) {
+
+        Color color = swatchColors.get(tileId);
+        if (color != null)
+            return color;
+
+        TileImage image = image(new Key(tileId, MIP_LEVELS.getLast()), ready ->
+                whenReady.accept(swatchColors.computeIfAbsent(tileId, id -> averageColor(ready))));
+
+        return image == PLACEHOLDER
+                ? PLACEHOLDER_COLOR
+                : swatchColors.computeIfAbsent(tileId, id -> averageColor(image));
+    }
+
+    /**
+     * Méthode qui commence à décoder en arrière-plan les images des tuiles qui seront bientôt affichées dans l'état
+     * donné : la tuile à placer (aux deux résolutions, la petite étant affichée lors du survol de la frange) et les
+     * prochaines tuiles des tas
+     * @param gameState l'état du jeu donné
+     */
+    public static void prefetch(GameState gameState) {
+
+        Tile tileToPlace = gameState.tileToPlace();
+        if (tileToPlace != null)
+            prefetch(tileToPlace.id());
+
+        List<Tile> normalTiles = gameState.tileDecks().normalTiles();
+        for (Tile tile : normalTiles.subList(0, Math.min(PREFETCHED_NORMAL_TILES, normalTiles.size())))
+            prefetch(tile.id());
+
+        Tile menhirTile = gameState.tileDecks().topTile(Tile.Kind.MENHIR);
+        if (menhirTile != null)
+            prefetch(menhirTile.id());
+    }
+
+    /**
+     * Méthode qui commence à décoder en arrière-plan les images, aux deux résolutions ainsi qu'à celle affichée par
+     * le plateau sans zoom, de la tuile donnée
+     * @param tileId l'identifiant de la tuile donnée
+     */
+    public static void prefetch(int tileId) {
+        image(new Key(tileId, mipLevelFor(ImageLoader.NORMAL_TILE_FIT_SIZE)), null);
+        image(new Key(tileId, ImageLoader.NORMAL_TILE_PIXEL_SIZE), null);
+        image(new Key(tileId, ImageLoader.LARGE_TILE_PIXEL_SIZE), null);
+    }
+
+    private static TileImage image(Key key, Consumer<TileImage> whenReady) {
+
+        if (atlas != null) {
+            TileImage face = atlas.face(key.tileId(), key.pixelSize());
+            if (face != null)
+                return face;
+        }
+
+        TileImage image = cache.get(key);
+        if (image != null)
+            return image;
+
+        List<Consumer<TileImage>> consumers = pending.get(key);
+        if (consumers == null) {
+            consumers = new ArrayList<>();
+            pending.put(key, consumers);
+
+            CompletableFuture.supplyAsync(() -> decode(key), DECODER)
+                    .whenCompleteAsync((decoded, error) -> loaded(key, decoded), Platform::runLater);
+        }
+
+        if (whenReady != null)
+            consumers.add(whenReady);
+
+        return PLACEHOLDER;
+    }
+
+    /**
+     * Méthode appelée sur le fil d'exécution JavaFX lorsque l'image correspondant à la clef donnée a été décodée,
+     * qui l'ajoute au cache et la transmet aux consommateurs qui l'attendaient
+     * @param key la clef de l'image
+     * @param decoded l'image décodée, ou null si son décodage a échoué
+     */
+    private static void loaded(Key key, Image decoded) {
+
+        List<Consumer<TileImage>> consumers = pending.remove(key);
+        if (decoded == null)
+            return;
+
+        TileImage image = new TileImage(decoded, null);
+        cache.put(key, image);
+        cachedBytes += key.bytes();
+        evict();
+
+        if (consumers != null)
+            consumers.forEach(consumer -> consumer.accept(image));
+    }
+
+    /**
+     * Méthode qui évince du cache les images les moins récemment utilisées, jusqu'à ce que la mémoire qu'il occupe
+     * ne dépasse plus la borne
+     */
+    private static void evict() {
+
+        Iterator<Key> keys = cache.keySet().iterator();
+
+        while (cachedBytes > MAX_CACHE_BYTES && keys.hasNext()) {
+            cachedBytes -= keys.next().bytes();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Méthode qui décode l'image correspondant à la clef donnée ; les résolutions inférieures à celle des images
+     * normales s'obtiennent en divisant successivement par deux l'image normale
+     * @param key la clef de l'image
+     * @return l'image décodée, ou null si son décodage a échoué
+     */
+    private static Image decode(Key key) {
+
+        int filePixelSize = Math.max(key.pixelSize(), ImageLoader.NORMAL_TILE_PIXEL_SIZE);
+
+        try (InputStream stream = TileImages.class.getResourceAsStream(
+                ImageLoader.tileImagePath(key.tileId(), filePixelSize))) {
+
+            if (stream == null)
+                return null;
+
+            Image image = new Image(stream);
+            if (image.isError())
+                return null;
+
+            while (image.getWidth() > key.pixelSize())
+                image = halved(image);
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Méthode qui retourne l'image donnée réduite de moitié, chaque pixel étant la moyenne des quatre pixels
+     * correspondants de l'image donnée
+     * @param image l'image donnée
+     * @return l'image donnée réduite de moitié
+     */
+    private static Image halved(Image image) {
+
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+
+        int halfWidth = width / 2;
+        int halfHeight = height / 2;
+        int[] halvedPixels = new int[halfWidth * halfHeight];
+
+        for (int y = 0; y < halfHeight; y++) {
+            for (int x = 0; x < halfWidth; x++) {
+                int i = 2 * y * width + 2 * x;
+                halvedPixels[y * halfWidth + x] = average(pixels[i], pixels[i + 1], pixels[i + width],
+                        pixels[i + width + 1]);
+            }
+        }
+
+        WritableImage halved = new WritableImage(halfWidth, halfHeight);
+        halved.getPixelWriter().setPixels(0, 0, halfWidth, halfHeight, PixelFormat.getIntArgbInstance(),
+                halvedPixels, 0, halfWidth);
+        return halved;
+    }
+
+    private static int average(int p1, int p2, int p3, int p4) {
+        int average = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((p1 >>> shift) & 0xFF) + ((p2 >>> shift) & 0xFF) + ((p3 >>> shift) & 0xFF)
+                    + ((p4 >>> shift) & 0xFF);
+            average |= ((sum + 2) / 4) << shift;
+        }
+        return average;
+    }
+
+    /**
+     * Méthode qui retourne la couleur moyenne de l'image donnée (ou de son sous-rectangle)
+     * @param image l'image donnée
+     * @return la couleur moyenne de l'image donnée
+     */
+    private static Color averageColor(TileImage image) {
+
+        Image source = image.image();
+        int x0 = image.viewport() == null ? 0 : (int) image.viewport().getMinX();
+        int y0 = image.viewport() == null ? 0 : (int) image.viewport().getMinY();
+        int width = (int) (image.viewport() == null ? source.getWidth() : image.viewport().getWidth());
+        int height = (int) (image.viewport() == null ? source.getHeight() : image.viewport().getHeight());
+
+        double red = 0, green = 0, blue = 0;
+        PixelReader reader = source.getPixelReader();
+        for (int y = y0; y < y0 + height; y++) {
+            for (int x = x0; x < x0 + width; x++) {
+                Color color = reader.getColor(x, y);
+                red += color.getRed();
+                green += color.getGreen();
+                blue += color.getBlue();
+            }
+        }
+
+        int count = width * height;
+        return Color.color(red / count, green / count, blue / count);
+    }
+
+    private static Image placeholder() {
+        WritableImage placeholder = new WritableImage(1, 1);
+        placeholder
+                .getPixelWriter()
+                .setColor(0, 0, PLACEHOLDER_COLOR);
+        return placeholder;
+    }
+
+    /**
+     * Enregistrement identifiant une image de tuile
+     * @param tileId l'identifiant de la tuile
+     * @param pixelSize la résolution de l'image
+     */
+    private record Key(int tileId, int pixelSize) {
+
+        /**
+         * Méthode qui retourne la mémoire occupée par l'image décodée, à raison de 4 octets par pixel
+         * @return la mémoire occupée par l'image décodée, en octets
+         */
+        private long bytes() {
+            return 4L * pixelSize * pixelSize;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Classe qui représente le flot des actions d'une partie destiné aux spectateurs : les dernières actions sont
+ * conservées dans un tampon circulaire, dans lequel l'acteur de la partie (unique écrivain) les publie sans jamais
+ * attendre, tandis que chaque spectateur les lit à son rythme, sans verrou ; un spectateur trop en retard, dont les
+ * actions ont été écrasées, doit reprendre le flot à partir d'un instantané de la partie
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+final class ActionFeed {
+
+    /**
+     * La capacité par défaut du tampon circulaire
+     */
+    static final int DEFAULT_CAPACITY = 64;
+
+    private final String[] ring;
+    private final int mask;
+    private volatile int count = 0;
+    private volatile CompletableFuture<Void> nextPublication = new CompletableFuture<>();
+
+    /**
+     * Constructeur du flot
+     * @param capacity la capacité du tampon circulaire ; les (capacité - 1) dernières actions publiées restent
+     * lisibles, la case suivante pouvant être en cours d'écriture
+     * @throws IllegalArgumentException si la capacité n'est pas une puissance de deux strictement positive
+     */
+    ActionFeed(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1);
+        this.ring = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Méthode, appelée uniquement par l'acteur de la partie, qui publie l'action donnée et réveille les spectateurs
+     * qui attendent une nouvelle action
+     * @param actionString la représentation en base32 de l'action donnée
+     */
+    void publish(String actionString) {
+        ring[count & mask] = actionString;
+        count = count + 1;
+
+        CompletableFuture<Void> published = nextPublication;
+        nextPublication = new CompletableFuture<>();
+        published.complete(null);
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'actions publiées
+     * @return le nombre d'actions publiées
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Méthode qui retourne le futur qui sera complété lors de la prochaine publication ; il doit être obtenu avant
+     * de consulter le nombre d'actions publiées, afin qu'aucune publication ne soit manquée
+     * @return le futur complété lors de la prochaine publication
+     */
+    CompletableFuture<Void> nextPublication() {
+        return nextPublication;
+    }
+
+    /**
+     * Méthode qui retourne les actions publiées à partir de l'index donné, au plus au nombre donné
+     * @param from l'index de la première action
+     * @param maxCount le nombre maximal d'actions retournées
+     * @return la liste des actions publiées à partir de l'index donné (vide s'il n'y en a aucune), ou null si
+     * certaines d'entre elles ont déjà été écrasées dans le tampon
+     */
+    List<String> read(int from, int maxCount) {
+
+        int available = Math.min(count - from, maxCount);
+        List<String> actionStrings = new ArrayList<>(Math.max(available, 0));
+        for (int i = from; i < from + available; i++)
+            actionStrings.add(ring[i & mask]);
+
+        //L'ECRIVAIN PEUT ECRASER LA CASE DE L'INDEX count - capacité PENDANT LA LECTURE
+        return from > count - ring.length ? actionStrings : null;
+    }
+
+}
@@ -0,0 +1,309 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.GameSetup;
+import ch.epfl.chacun.Preconditions;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Classe qui représente la connexion d'un client à l'hôte des parties : le fil virtuel de la connexion lit les
+ * requêtes du client et y répond dans l'ordre, sans attendre que les actions soumises aient été traitées par les
+ * acteurs des parties (chaque réponse est envoyée dès qu'elle est connue et que les précédentes l'ont été) ; les
+ * lignes à envoyer (réponses et actions des parties rejointes) passent par une file bornée, vidée par un second fil
+ * virtuel, afin que les acteurs des parties ne soient jamais bloqués par un client lent (qui est déconnecté si la
+ * file est pleine) ; la connexion d'un spectateur lit quant à elle les actions dans le flot de la partie, à son
+ * rythme, et les envoie par lots
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+final class ClientConnection {
+
+    /**
+     * Le nombre maximal de lignes en attente d'envoi
+     */
+    static final int MAX_PENDING_LINES = 1 << 14;
+
+    /**
+     * Le nombre maximal d'actions envoyées à un spectateur dans un même lot
+     */
+    static final int MAX_BATCH_SIZE = 64;
+
+    private static final String END_OF_OUTPUT = new String("");
+    private static final String START_WATCHING = new String("");
+
+    private final GameServer server;
+    private final Socket socket;
+    private final BlockingQueue<String> outgoing = new LinkedBlockingQueue<>(MAX_PENDING_LINES);
+    private final Map<Long, GameActor.Listener> subscriptions = new HashMap<>();
+    private volatile GameActor watchedGame = null;
+    private volatile int watchedFrom = 0;
+    //LA DERNIERE REPONSE, QUI N'ECHOUE JAMAIS ; SEUL LE FIL DE LA CONNEXION Y AJOUTE LES SUIVANTES
+    private CompletableFuture<Void> replies = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructeur de la connexion
+     * @param server l'hôte des parties
+     * @param socket la prise connectée au client
+     */
+    ClientConnection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    /**
+     * Méthode exécutée par le fil virtuel de la connexion, qui traite les requêtes du client jusqu'à ce qu'il se
+     * déconnecte ou envoie QUIT
+     */
+    void run() {
+
+        Thread writer = Thread.ofVirtual().name("client-writer").start(this::writeOutgoing);
+
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] parts = line.trim().split(" +");
+                if (parts[0].equals(Protocol.QUIT))
+                    break;
+                if (watchedGame != null)
+                    continue;
+
+                try {
+                    handle(parts);
+                } catch (IllegalArgumentException | IllegalStateException | CompletionException e) {
+                    reply(Protocol.ERROR + " " + line.trim());
+                }
+            }
+        } catch (IOException e) {
+            //LE CLIENT S'EST DECONNECTE
+        } finally {
+            subscriptions.forEach((gameId, listener) -> {
+                GameActor game = server.game(gameId);
+                if (game != null)
+                    game.unsubscribe(listener);
+            });
+            //LE FIL D'ECRITURE D'UN SPECTATEUR PEUT ATTENDRE LA PROCHAINE ACTION DE LA PARTIE
+            if (watchedGame != null) {
+                writer.interrupt();
+            } else {
+                //LES REPONSES ENCORE ATTENDUES SONT ENVOYEES AVANT LA FIN DU FLOT
+                replies.thenRun(() -> {
+                    if (!outgoing.offer(END_OF_OUTPUT))
+                        close();
+                });
+            }
+            joinQuietly(writer);
+            close();
+            server.connectionClosed(this);
+        }
+    }
+
+    /**
+     * Méthode qui ferme la connexion, ce qui termine ses fils
+     */
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //LA PRISE EST DEJA FERMEE
+        }
+    }
+
+    /**
+     * Méthode qui traite la requête donnée, en envoyant sa réponse au client
+     * @param parts les éléments de la requête
+     * @throws IllegalArgumentException si la requête est invalide
+     */
+    private void handle(String[] parts) {
+
+        switch (parts[0]) {
+
+            case Protocol.NEW -> {
+                GameSetup setup = GameSetup.decode(String.join(" ", Arrays.copyOfRange(parts, 1, parts.length)));
+                reply(Protocol.GAME + " " + server.createGame(setup).id());
+            }
+
+            case Protocol.JOIN -> {
+                Preconditions.checkArgument(parts.length == 3);
+                GameActor game = existingGame(parts[1]);
+                int from = Integer.parseInt(parts[2]);
+                Preconditions.checkArgument(!subscriptions.containsKey(game.id()));
+
+                //LA REPONSE PRECEDE LES ACTIONS TRANSMISES PAR L'ACTEUR, ET SUIT LES REPONSES PRECEDENTES
+                replies.join();
+                send(Protocol.JOINED + " " + game.id() + " " + game.setup().encode());
+                GameActor.Listener listener = (index, actionString) ->
+                        send(Protocol.ACTION + " " + game.id() + " " + index + " " + actionString);
+                subscriptions.put(game.id(), listener);
+                game.subscribe(from, listener).join();
+            }
+
+            case Protocol.WATCH -> {
+                Preconditions.checkArgument(parts.length == 3);
+                GameActor game = existingGame(parts[1]);
+                int from = Integer.parseInt(parts[2]);
+                Preconditions.checkArgument(from >= 0 && subscriptions.isEmpty());
+
+                //LE FIL D'ECRITURE NE TRANSMET PLUS DE REPONSES UNE FOIS LES ACTIONS DE LA PARTIE COMMENCEES
+                replies.join();
+                send(Protocol.WATCHING + " " + game.id() + " " + game.setup().encode());
+                watchedFrom = from;
+                watchedGame = game;
+                send(START_WATCHING);
+            }
+
+            case Protocol.PLAY -> {
+                Preconditions.checkArgument(parts.length == 4);
+                GameActor game = existingGame(parts[1]);
+                int index = Integer.parseInt(parts[2]);
+
+                String request = String.join(" ", parts);
+                reply(game.play(index, parts[3]).handle((outcome, e) -> {
+                    if (e != null)
+                        return Protocol.ERROR + " " + request;
+                    return outcome == GameActor.Outcome.ACCEPTED
+                            ? Protocol.OK + " " + game.id() + " " + index
+                            : Protocol.REJECTED + " " + game.id() + " " + index + " " + outcome;
+                }));
+            }
+
+            default -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Méthode qui retourne l'acteur de la partie dont l'identifiant est donné
+     * @param gameId la représentation textuelle de l'identifiant de la partie
+     * @return l'acteur de la partie
+     * @throws IllegalArgumentException si aucune partie n'a cet identifiant
+     */
+    private GameActor existingGame(String gameId) {
+        GameActor game = server.game(Long.parseLong(gameId));
+        Preconditions.checkArgument(game != null);
+        return game;
+    }
+
+    /**
+     * Méthode qui envoie la réponse donnée dès que les réponses précédentes ont été envoyées
+     * @param line la réponse donnée
+     */
+    private void reply(String line) {
+        reply(CompletableFuture.completedFuture(line));
+    }
+
+    /**
+     * Méthode qui envoie la future réponse donnée dès qu'elle est connue et que les réponses précédentes ont été
+     * envoyées, sans bloquer le fil de la connexion
+     * @param line la future réponse donnée, qui ne doit pas échouer
+     */
+    private void reply(CompletableFuture<String> line) {
+        replies = replies.thenCombine(line, (previous, next) -> next).thenAccept(this::send);
+    }
+
+    /**
+     * Méthode qui ajoute la ligne donnée à la file d'envoi, sans jamais bloquer ; si la file est pleine, le client
+     * est trop lent et la connexion est fermée
+     * @param line la ligne donnée
+     */
+    private void send(String line) {
+        if (!outgoing.offer(line))
+            close();
+    }
+
+    /**
+     * Méthode exécutée par le fil d'écriture, qui envoie les lignes de la file d'envoi au client, en ne vidant le
+     * tampon d'écriture que lorsque la file est vide, afin de regrouper les lignes envoyées en rafale
+     */
+    private void writeOutgoing() {
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            for (String line = outgoing.take(); line != END_OF_OUTPUT; line = outgoing.take()) {
+                if (line == START_WATCHING) {
+                    out.flush();
+                    writeWatchedActions(out);
+                    return;
+                }
+                out.write(line);
+                out.write('\n');
+                if (outgoing.isEmpty())
+                    out.flush();
+            }
+            out.flush();
+        } catch (IOException | InterruptedException | CompletionException e) {
+            close();
+        }
+    }
+
+    /**
+     * Méthode exécutée par le fil d'écriture d'un spectateur, qui lui envoie les actions de la partie regardée jusqu'à
+     * ce que la connexion soit fermée ; chaque lot contient toutes les actions publiées depuis le lot précédent (au
+     * plus MAX_BATCH_SIZE), et un spectateur trop en retard reprend à partir d'un instantané de la partie
+     * @param out le flot d'écriture vers le client
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws InterruptedException si le fil est interrompu lors de la fermeture de la connexion
+     * @throws CompletionException si la partie regardée est fermée
+     */
+    private void writeWatchedActions(Writer out) throws IOException, InterruptedException {
+
+        GameActor game = watchedGame;
+        ActionFeed feed = game.feed();
+        int next = watchedFrom;
+
+        while (true) {
+            CompletableFuture<Void> publication = feed.nextPublication();
+            if (next >= feed.count()) {
+                try {
+                    publication.get();
+                } catch (ExecutionException e) {
+                    throw new AssertionError(e);
+                }
+                continue;
+            }
+
+            List<String> batch = feed.read(next, MAX_BATCH_SIZE);
+            if (batch != null) {
+                out.write(Protocol.ACTIONS + " " + game.id() + " " + next + " " + String.join(" ", batch) + "\n");
+                next += batch.size();
+            } else {
+                GameActor.Snapshot snapshot = game.snapshot().join();
+                out.write(Protocol.SNAPSHOT + " " + game.id() + " " + snapshot.count() + " "
+                        + snapshot.packedActions() + "\n");
+                next = snapshot.count();
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Méthode qui attend la fin du fil donné
+     * @param thread le fil donné
+     */
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
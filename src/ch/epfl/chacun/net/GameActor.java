@@ -0,0 +1,254 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.GameSetup;
+import ch.epfl.chacun.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Classe qui représente l'acteur possédant une partie hébergée : l'état (immuable) de la partie et la liste de ses
+ * actions ne sont lus et modifiés que par le fil virtuel de l'acteur, qui traite un à un les messages de sa boîte
+ * aux lettres ; les autres fils communiquent avec lui au moyen de ces messages, dont ils obtiennent le résultat sous
+ * la forme d'un futur
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+final class GameActor {
+
+    /**
+     * Enumération qui représente le résultat de la soumission d'une action
+     */
+    enum Outcome {
+        ACCEPTED,
+        STALE,
+        ILLEGAL
+    }
+
+    /**
+     * Interface fonctionnelle des abonnés aux actions acceptées d'une partie ; ils sont appelés par le fil de
+     * l'acteur, et ne doivent donc jamais bloquer
+     */
+    @FunctionalInterface
+    interface Listener {
+
+        /**
+         * Méthode appelée pour chaque action de la partie, dans l'ordre
+         * @param index l'index de l'action dans la partie
+         * @param actionString la représentation en base32 de l'action
+         */
+        void actionAccepted(int index, String actionString);
+    }
+
+    /**
+     * Enregistrement qui représente un instantané de la partie, à partir duquel un spectateur trop en retard reprend
+     * le flot des actions
+     * @param count le nombre d'actions de la partie au moment de l'instantané
+     * @param packedActions l'encodage empaqueté de ces actions (selon ActionEncoder.pack)
+     */
+    record Snapshot(int count, String packedActions) {}
+
+    private static final Runnable STOP = () -> {};
+
+    private final long id;
+    private final GameSetup setup;
+    private final GameJournal journal;
+    private final BlockingQueue<Runnable> mailbox = new LinkedBlockingQueue<>();
+    private final ActionFeed feed = new ActionFeed(ActionFeed.DEFAULT_CAPACITY);
+    private boolean stopped = false;
+
+    //ETAT POSSEDE PAR LE FIL DE L'ACTEUR
+    private GameState gameState;
+    private final List<String> actionStrings = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Constructeur de l'acteur, qui construit l'état de la partie (tuile de départ posée) en lui appliquant les
+     * actions données, et démarre le fil virtuel de l'acteur
+     * @param id l'identifiant de la partie
+     * @param setup les paramètres de la partie
+     * @param actionStrings les actions déjà jouées dans la partie, dans leur représentation en base32
+     * @param journal le journal dans lequel les actions acceptées sont ajoutées, ou null s'il n'y en a aucun
+     * @throws IllegalArgumentException si l'une des actions données n'est pas légale
+     */
+    GameActor(long id, GameSetup setup, List<String> actionStrings, GameJournal journal) {
+        this.id = id;
+        this.setup = setup;
+        this.journal = journal;
+        this.gameState = setup.initialState().withStartingTilePlaced();
+        for (String actionString : actionStrings) {
+            ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(gameState, actionString);
+            Preconditions.checkArgument(stateAction != null);
+            gameState = stateAction.gameState();
+            this.actionStrings.add(actionString);
+            feed.publish(actionString);
+        }
+        Thread.ofVirtual().name("game-" + id).start(this::run);
+    }
+
+    /**
+     * Méthode qui retourne l'identifiant de la partie
+     * @return l'identifiant de la partie
+     */
+    long id() {
+        return id;
+    }
+
+    /**
+     * Méthode qui retourne les paramètres de la partie
+     * @return les paramètres de la partie
+     */
+    GameSetup setup() {
+        return setup;
+    }
+
+    /**
+     * Méthode qui retourne le flot des actions de la partie destiné aux spectateurs
+     * @return le flot des actions de la partie
+     */
+    ActionFeed feed() {
+        return feed;
+    }
+
+    /**
+     * Méthode qui soumet l'action donnée, qui n'est acceptée que si elle est légale (selon
+     * ActionEncoder.decodeAndApply) et si son index est celui de la prochaine action de la partie ; une action
+     * acceptée est transmise à tous les abonnés, publiée dans le flot des spectateurs et ajoutée au journal
+     * @param index l'index que l'action donnée doit avoir dans la partie
+     * @param actionString la représentation en base32 de l'action donnée
+     * @return le futur résultat de la soumission, qui n'est complété pour une action acceptée qu'une fois celle-ci
+     * synchronisée avec le disque (s'il y a un journal)
+     */
+    CompletableFuture<Outcome> play(int index, String actionString) {
+        return ask(() -> {
+            if (index != actionStrings.size())
+                return CompletableFuture.completedFuture(Outcome.STALE);
+
+            ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(gameState, actionString);
+            if (stateAction == null)
+                return CompletableFuture.completedFuture(Outcome.ILLEGAL);
+
+            gameState = stateAction.gameState();
+            actionStrings.add(actionString);
+            for (Listener listener : List.copyOf(listeners))
+                notify(listener, index, actionString);
+            feed.publish(actionString);
+
+            return journal == null
+                    ? CompletableFuture.completedFuture(Outcome.ACCEPTED)
+                    : journal.actionAccepted(id, index, actionString).thenApply(durable -> Outcome.ACCEPTED);
+        }).thenCompose(outcome -> outcome);
+    }
+
+    /**
+     * Méthode qui abonne l'abonné donné aux actions de la partie ; il reçoit d'abord les actions déjà acceptées à
+     * partir de l'index donné, puis chaque nouvelle action acceptée
+     * @param from l'index de la première action à transmettre
+     * @param listener l'abonné donné
+     * @return le futur nombre d'actions de la partie au moment de l'abonnement
+     */
+    CompletableFuture<Integer> subscribe(int from, Listener listener) {
+        return ask(() -> {
+            listeners.add(listener);
+            for (int i = Math.max(from, 0); i < actionStrings.size(); i++)
+                notify(listener, i, actionStrings.get(i));
+            return actionStrings.size();
+        });
+    }
+
+    /**
+     * Méthode qui désabonne l'abonné donné des actions de la partie
+     * @param listener l'abonné donné
+     */
+    void unsubscribe(Listener listener) {
+        ask(() -> listeners.remove(listener));
+    }
+
+    /**
+     * Méthode qui retourne le futur instantané de la partie
+     * @return le futur instantané de la partie, contenant toutes ses actions
+     */
+    CompletableFuture<Snapshot> snapshot() {
+        return ask(() -> new Snapshot(actionStrings.size(), ActionEncoder.pack(actionStrings)));
+    }
+
+    /**
+     * Méthode qui retourne le futur état actuel de la partie
+     * @return le futur état actuel de la partie
+     */
+    CompletableFuture<GameState> gameState() {
+        return ask(() -> gameState);
+    }
+
+    /**
+     * Méthode qui arrête l'acteur, après qu'il a traité les messages déjà reçus ; les messages envoyés ensuite sont
+     * refusés
+     */
+    void stop() {
+        synchronized (mailbox) {
+            if (!stopped) {
+                stopped = true;
+                mailbox.add(STOP);
+            }
+        }
+    }
+
+    /**
+     * Méthode qui envoie à l'acteur un message calculant une valeur sur son fil
+     * @param computation le calcul à effectuer sur le fil de l'acteur
+     * @return le futur résultat du calcul, qui échoue avec une IllegalStateException si l'acteur est arrêté
+     */
+    private <T> CompletableFuture<T> ask(Supplier<T> computation) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        synchronized (mailbox) {
+            if (stopped)
+                return CompletableFuture.failedFuture(new IllegalStateException("la partie " + id + " est fermée"));
+
+            mailbox.add(() -> {
+                try {
+                    future.complete(computation.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+
+        return future;
+    }
+
+    /**
+     * Méthode qui transmet l'action donnée à l'abonné donné, et le désabonne s'il lève une exception
+     * @param listener l'abonné donné
+     * @param index l'index de l'action
+     * @param actionString la représentation en base32 de l'action
+     */
+    private void notify(Listener listener, int index, String actionString) {
+        try {
+            listener.actionAccepted(index, actionString);
+        } catch (RuntimeException e) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Méthode exécutée par le fil de l'acteur, qui traite les messages de la boîte aux lettres jusqu'à son arrêt
+     */
+    private void run() {
+        try {
+            for (Runnable message = mailbox.take(); message != STOP; message = mailbox.take())
+                message.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,498 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.GameSetup;
+import ch.epfl.chacun.PlayerColor;
+import ch.epfl.chacun.Preconditions;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Classe qui représente une archive de parties terminées, stockée dans un fichier projeté en mémoire (au moyen de
+ * MappedByteBuffer) et composée de quatre sections :
+ * <ul>
+ *     <li>un en-tête, contenant un nombre magique, le nombre de parties, le nombre de noms de joueurs, la taille de
+ *     la section des noms et celle de la section de données ;</li>
+ *     <li>un index d'entrées de taille fixe, triées par identifiant de partie, contenant chacune l'identifiant, la
+ *     position et la longueur des données de la partie, le nombre de joueurs, les points finaux de chacun d'eux et
+ *     la position de leur nom dans la section des noms ;</li>
+ *     <li>une section des noms, le dictionnaire trié des noms distincts des joueurs de toutes les parties, chacun
+ *     précédé de sa longueur en octets (en UTF-8) ;</li>
+ *     <li>une section de données, contenant pour chaque partie ses paramètres (selon GameSetup.encode) et ses
+ *     actions empaquetées (selon ActionEncoder.pack), en UTF-8, séparés par un retour à la ligne.</li>
+ * </ul>
+ * Une partie est trouvée par recherche dichotomique dans l'index, et les parties peuvent être filtrées selon leurs
+ * points ou leurs joueurs sans lire la section de données
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class GameArchive {
+
+    /**
+     * Le nombre magique identifiant un fichier d'archive ("CCGA"), distinct de celui de l'atlas des tuiles
+     */
+    private static final int MAGIC = 0x4343_4741;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES;
+
+    private static final int ID_OFFSET = 0;
+    private static final int DATA_OFFSET_OFFSET = ID_OFFSET + Long.BYTES;
+    private static final int DATA_LENGTH_OFFSET = DATA_OFFSET_OFFSET + Integer.BYTES;
+    private static final int PLAYER_COUNT_OFFSET = DATA_LENGTH_OFFSET + Integer.BYTES;
+    private static final int POINTS_OFFSET = PLAYER_COUNT_OFFSET + Integer.BYTES;
+    private static final int NAMES_OFFSET = POINTS_OFFSET + PlayerColor.ALL.size() * Integer.BYTES;
+    private static final int ENTRY_BYTES = NAMES_OFFSET + PlayerColor.ALL.size() * Integer.BYTES;
+
+    /**
+     * Enregistrement qui représente le résumé d'une partie archivée, tel que stocké dans l'index
+     * @param id l'identifiant de la partie
+     * @param points les points finaux de chacun des joueurs de la partie
+     */
+    public record Summary(long id, Map<PlayerColor, Integer> points) {
+
+        /**
+         * Constructeur compact du résumé, qui copie la table des points pour garantir l'immuabilité
+         * @param id l'identifiant de la partie
+         * @param points les points finaux de chacun des joueurs de la partie
+         */
+        public Summary {
+            points = Map.copyOf(points);
+        }
+
+        /**
+         * Méthode qui retourne le plus grand nombre de points obtenu par un joueur de la partie
+         * @return le plus grand nombre de points obtenu par un joueur de la partie
+         */
+        public int maxPoints() {
+            return points.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+    }
+
+    /**
+     * Enregistrement qui représente une partie archivée
+     * @param id l'identifiant de la partie
+     * @param setup les paramètres de la partie
+     * @param packedActions les actions de la partie, empaquetées selon ActionEncoder.pack
+     * @param points les points finaux de chacun des joueurs de la partie
+     */
+    public record ArchivedGame(long id, GameSetup setup, String packedActions, Map<PlayerColor, Integer> points) {
+
+        /**
+         * Constructeur compact de la partie, qui copie la table des points pour garantir l'immuabilité
+         * @param id l'identifiant de la partie
+         * @param setup les paramètres de la partie
+         * @param packedActions les actions de la partie, empaquetées
+         * @param points les points finaux de chacun des joueurs de la partie
+         * @throws IllegalArgumentException si les points ne sont pas ceux des joueurs de la partie
+         */
+        public ArchivedGame {
+            Objects.requireNonNull(setup);
+            Objects.requireNonNull(packedActions);
+            Preconditions.checkArgument(points.keySet()
+                    .equals(Set.copyOf(PlayerColor.ALL.subList(0, setup.playerNames().size()))));
+            points = Map.copyOf(points);
+        }
+
+        /**
+         * Méthode qui construit la partie archivée correspondant à la partie donnée, dont les points finaux sont
+         * obtenus en rejouant ses actions
+         * @param id l'identifiant de la partie
+         * @param setup les paramètres de la partie
+         * @param actionStrings les actions de la partie, dans leur représentation en base32
+         * @return la partie archivée
+         * @throws IllegalArgumentException si l'une des actions n'est pas légale
+         */
+        public static ArchivedGame of(long id, GameSetup setup, List<String> actionStrings) {
+
+            GameState finalState = ActionEncoder.decodeAndApplyAll(
+                    setup.initialState().withStartingTilePlaced(), actionStrings);
+            Map<PlayerColor, Integer> finalPoints = finalState.messageBoard().points();
+
+            Map<PlayerColor, Integer> points = new EnumMap<>(PlayerColor.class);
+            for (PlayerColor playerColor : finalState.players())
+                points.put(playerColor, finalPoints.getOrDefault(playerColor, 0));
+
+            return new ArchivedGame(id, setup, ActionEncoder.pack(actionStrings), points);
+        }
+
+        /**
+         * Méthode qui rejoue la partie à partir de son état initial (tuile de départ posée)
+         * @return la liste des paires de type StateAction obtenues en appliquant successivement les actions de la
+         * partie
+         * @throws IllegalArgumentException si les actions empaquetées ne sont pas valides
+         */
+        public List<ActionEncoder.StateAction> replay() {
+            List<ActionEncoder.StateAction> stateActions = ActionEncoder.decodeAndApplyPacked(
+                    setup.initialState().withStartingTilePlaced(), packedActions);
+            Preconditions.checkArgument(stateActions != null);
+            return stateActions;
+        }
+
+        /**
+         * Méthode qui retourne l'état final de la partie, obtenu en la rejouant
+         * @return l'état final de la partie
+         */
+        public GameState finalState() {
+            List<ActionEncoder.StateAction> stateActions = replay();
+            return stateActions.isEmpty()
+                    ? setup.initialState().withStartingTilePlaced()
+                    : stateActions.getLast().gameState();
+        }
+
+        /**
+         * Méthode qui retourne le résumé de la partie
+         * @return le résumé de la partie
+         */
+        public Summary summary() {
+            return new Summary(id, points);
+        }
+    }
+
+    private final int gameCount;
+    private final ByteBuffer index;
+    private final List<String> playerNames;
+    private final ByteBuffer data;
+
+    /**
+     * Constructeur privé de l'archive
+     * @param gameCount le nombre de parties archivées
+     * @param index la section d'index, projetée en mémoire
+     * @param playerNames le dictionnaire trié des noms des joueurs
+     * @param data la section de données, projetée en mémoire
+     */
+    private GameArchive(int gameCount, ByteBuffer index, List<String> playerNames, ByteBuffer data) {
+        this.gameCount = gameCount;
+        this.index = index;
+        this.playerNames = playerNames;
+        this.data = data;
+    }
+
+    /**
+     * Méthode qui écrit dans le fichier donné l'archive des parties données
+     * @param path le chemin du fichier donné, qui est remplacé s'il existe
+     * @param games les parties données
+     * @throws IllegalArgumentException si deux parties ont le même identifiant, ou si l'une des sections dépasse
+     * la taille maximale d'une projection en mémoire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void write(Path path, Collection<ArchivedGame> games) throws IOException {
+
+        List<ArchivedGame> sortedGames = games.stream()
+                .sorted(Comparator.comparingLong(ArchivedGame::id))
+                .toList();
+
+        List<String> playerNames = sortedGames.stream()
+                .flatMap(game -> game.setup().playerNames().stream())
+                .distinct()
+                .sorted()
+                .toList();
+        List<byte[]> nameBytes = playerNames.stream().map(name -> name.getBytes(StandardCharsets.UTF_8)).toList();
+        long namesLength = 0;
+        for (byte[] bytes : nameBytes)
+            namesLength += Integer.BYTES + bytes.length;
+
+        List<byte[]> gameData = new ArrayList<>(sortedGames.size());
+        long dataLength = 0;
+        for (int i = 0; i < sortedGames.size(); i++) {
+            ArchivedGame game = sortedGames.get(i);
+            Preconditions.checkArgument(i == 0 || sortedGames.get(i - 1).id() != game.id());
+            byte[] bytes = (game.setup().encode() + "\n" + game.packedActions()).getBytes(StandardCharsets.UTF_8);
+            gameData.add(bytes);
+            dataLength += bytes.length;
+        }
+        Preconditions.checkArgument(dataLength <= Integer.MAX_VALUE && namesLength <= Integer.MAX_VALUE
+                && (long) sortedGames.size() * ENTRY_BYTES <= Integer.MAX_VALUE);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(sortedGames.size());
+            out.writeInt(playerNames.size());
+            out.writeInt((int) namesLength);
+            out.writeLong(dataLength);
+
+            int dataOffset = 0;
+            for (int i = 0; i < sortedGames.size(); i++) {
+                ArchivedGame game = sortedGames.get(i);
+                out.writeLong(game.id());
+                out.writeInt(dataOffset);
+                out.writeInt(gameData.get(i).length);
+                out.writeInt(game.points().size());
+                for (PlayerColor playerColor : PlayerColor.ALL)
+                    out.writeInt(game.points().getOrDefault(playerColor, 0));
+                List<String> gamePlayerNames = game.setup().playerNames();
+                for (int p = 0; p < PlayerColor.ALL.size(); p++)
+                    out.writeInt(p < gamePlayerNames.size()
+                            ? Collections.binarySearch(playerNames, gamePlayerNames.get(p))
+                            : -1);
+                dataOffset += gameData.get(i).length;
+            }
+
+            for (byte[] bytes : nameBytes) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            for (byte[] bytes : gameData)
+                out.write(bytes);
+        }
+    }
+
+    /**
+     * Méthode qui ouvre l'archive contenue dans le fichier donné, en projetant ses sections en mémoire
+     * @param path le chemin du fichier donné
+     * @return l'archive ouverte
+     * @throws IllegalArgumentException si le fichier ne contient pas une archive valide
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static GameArchive open(Path path) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path)) {
+            Preconditions.checkArgument(channel.size() >= HEADER_BYTES);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            Preconditions.checkArgument(header.getInt() == MAGIC);
+            int gameCount = header.getInt();
+            int nameCount = header.getInt();
+            int namesLength = header.getInt();
+            long dataLength = header.getLong();
+
+            long indexLength = (long) gameCount * ENTRY_BYTES;
+            //CHAQUE NOM EST PRECEDE DE SA LONGUEUR : LEUR NOMBRE EST BORNE PAR LA TAILLE DE LEUR SECTION
+            Preconditions.checkArgument(gameCount >= 0 && nameCount >= 0 && namesLength >= 0 && dataLength >= 0
+                    && nameCount <= namesLength / Integer.BYTES
+                    && channel.size() == HEADER_BYTES + indexLength + namesLength + dataLength);
+
+            //LES PROJECTIONS RESTENT VALIDES APRES LA FERMETURE DU CANAL
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, indexLength);
+            checkIndex(index, gameCount, nameCount, dataLength);
+            return new GameArchive(gameCount,
+                    index,
+                    playerNames(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + indexLength, namesLength),
+                            nameCount),
+                    channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + indexLength + namesLength,
+                            dataLength));
+        }
+    }
+
+    /**
+     * Méthode qui vérifie chacune des entrées de la section d'index donnée, afin qu'une entrée invalide soit détectée
+     * à l'ouverture de l'archive plutôt que lors de sa lecture
+     * @param index la section d'index, projetée en mémoire
+     * @param gameCount le nombre d'entrées qu'elle contient
+     * @param nameCount le nombre de noms du dictionnaire des noms
+     * @param dataLength la taille de la section de données
+     * @throws IllegalArgumentException si les entrées ne sont pas triées par identifiant strictement croissant, ou
+     * si l'une d'elles a un nombre de joueurs invalide, des données hors de la section de données ou un nom hors du
+     * dictionnaire des noms
+     */
+    private static void checkIndex(ByteBuffer index, int gameCount, int nameCount, long dataLength) {
+
+        for (int i = 0; i < gameCount; i++) {
+            int entry = i * ENTRY_BYTES;
+            Preconditions.checkArgument(i == 0
+                    || index.getLong(entry - ENTRY_BYTES + ID_OFFSET) < index.getLong(entry + ID_OFFSET));
+
+            int playerCount = index.getInt(entry + PLAYER_COUNT_OFFSET);
+            Preconditions.checkArgument(playerCount >= 2 && playerCount <= PlayerColor.ALL.size());
+
+            long gameDataOffset = index.getInt(entry + DATA_OFFSET_OFFSET);
+            long gameDataLength = index.getInt(entry + DATA_LENGTH_OFFSET);
+            Preconditions.checkArgument(gameDataOffset >= 0 && gameDataLength >= 0
+                    && gameDataOffset + gameDataLength <= dataLength);
+
+            //LES JOUEURS ABSENTS N'ONT PAS DE NOM
+            for (int p = 0; p < PlayerColor.ALL.size(); p++) {
+                int nameIndex = index.getInt(entry + NAMES_OFFSET + p * Integer.BYTES);
+                Preconditions.checkArgument(p < playerCount
+                        ? nameIndex >= 0 && nameIndex < nameCount
+                        : nameIndex == -1);
+            }
+        }
+    }
+
+    /**
+     * Méthode qui décode la section des noms donnée
+     * @param names la section des noms, projetée en mémoire
+     * @param nameCount le nombre de noms qu'elle contient
+     * @return le dictionnaire trié des noms des joueurs
+     * @throws IllegalArgumentException si la section ne contient pas exactement le nombre de noms donné, triés
+     */
+    private static List<String> playerNames(ByteBuffer names, int nameCount) {
+
+        List<String> playerNames = new ArrayList<>(nameCount);
+        try {
+            for (int i = 0; i < nameCount; i++) {
+                int length = names.getInt();
+                Preconditions.checkArgument(length >= 0 && length <= names.remaining());
+                byte[] bytes = new byte[length];
+                names.get(bytes);
+                playerNames.add(new String(bytes, StandardCharsets.UTF_8));
+                Preconditions.checkArgument(i == 0 || playerNames.get(i - 1).compareTo(playerNames.get(i)) < 0);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(e);
+        }
+        Preconditions.checkArgument(!names.hasRemaining());
+
+        return List.copyOf(playerNames);
+    }
+
+    /**
+     * Méthode qui retourne le nombre de parties archivées
+     * @return le nombre de parties archivées
+     */
+    public int size() {
+        return gameCount;
+    }
+
+    /**
+     * Méthode qui retourne la partie archivée dont l'identifiant est donné, trouvée par recherche dichotomique dans
+     * l'index
+     * @param gameId l'identifiant donné
+     * @return la partie archivée, ou null si aucune partie n'a cet identifiant
+     */
+    public ArchivedGame game(long gameId) {
+
+        int low = 0;
+        int high = gameCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = index.getLong(middle * ENTRY_BYTES + ID_OFFSET);
+            if (middleId < gameId)
+                low = middle + 1;
+            else if (middleId > gameId)
+                high = middle - 1;
+            else
+                return game(middle);
+        }
+
+        return null;
+    }
+
+    /**
+     * Méthode qui retourne le flot des résumés des parties archivées, triés par identifiant, lus dans l'index
+     * uniquement
+     * @return le flot des résumés des parties archivées
+     */
+    public Stream<Summary> summaries() {
+        return IntStream.range(0, gameCount).mapToObj(this::summary);
+    }
+
+    /**
+     * Méthode qui retourne le flot des parties archivées dont le résumé satisfait le filtre donné ; seules les
+     * données de ces parties sont lues
+     * @param filter le filtre donné
+     * @return le flot des parties archivées dont le résumé satisfait le filtre
+     */
+    public Stream<ArchivedGame> games(Predicate<Summary> filter) {
+        return IntStream.range(0, gameCount)
+                .filter(i -> filter.test(summary(i)))
+                .mapToObj(this::game);
+    }
+
+    /**
+     * Méthode qui retourne le flot des parties archivées auxquelles a participé le joueur dont le nom est donné ; le
+     * nom est cherché par recherche dichotomique dans le dictionnaire des noms, et seules les entrées de l'index sont
+     * parcourues, les données des seules parties trouvées étant lues
+     * @param playerName le nom du joueur
+     * @return le flot des parties archivées auxquelles a participé le joueur
+     */
+    public Stream<ArchivedGame> gamesWithPlayer(String playerName) {
+
+        int nameIndex = Collections.binarySearch(playerNames, playerName);
+        if (nameIndex < 0)
+            return Stream.empty();
+
+        return IntStream.range(0, gameCount)
+                .filter(i -> hasPlayer(i * ENTRY_BYTES, nameIndex))
+                .mapToObj(this::game);
+    }
+
+    /**
+     * Méthode qui retourne le flot des états finaux des parties archivées dont le résumé satisfait le filtre donné,
+     * obtenus en rejouant ces parties
+     * @param filter le filtre donné
+     * @return le flot des états finaux des parties archivées dont le résumé satisfait le filtre
+     */
+    public Stream<GameState> replays(Predicate<Summary> filter) {
+        return games(filter).map(ArchivedGame::finalState);
+    }
+
+    /**
+     * Méthode qui retourne le résumé de la partie d'index donné dans l'index
+     * @param i l'index de la partie
+     * @return le résumé de la partie
+     */
+    private Summary summary(int i) {
+        int entry = i * ENTRY_BYTES;
+        return new Summary(index.getLong(entry + ID_OFFSET), points(entry));
+    }
+
+    /**
+     * Méthode qui retourne la partie d'index donné dans l'index
+     * @param i l'index de la partie
+     * @return la partie
+     */
+    private ArchivedGame game(int i) {
+
+        int entry = i * ENTRY_BYTES;
+        byte[] bytes = new byte[index.getInt(entry + DATA_LENGTH_OFFSET)];
+        data.get(index.getInt(entry + DATA_OFFSET_OFFSET), bytes);
+
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        int separator = text.indexOf('\n');
+        Preconditions.checkArgument(separator >= 0);
+
+        return new ArchivedGame(index.getLong(entry + ID_OFFSET),
+                GameSetup.decode(text.substring(0, separator)),
+                text.substring(separator + 1),
+                points(entry));
+    }
+
+    /**
+     * Méthode qui indique si l'un des joueurs de l'entrée donnée de l'index a le nom d'index donné dans le
+     * dictionnaire des noms
+     * @param entry la position de l'entrée dans l'index
+     * @param nameIndex l'index du nom dans le dictionnaire des noms
+     * @return vrai ssi l'un des joueurs de l'entrée a le nom d'index donné
+     */
+    private boolean hasPlayer(int entry, int nameIndex) {
+
+        int playerCount = index.getInt(entry + PLAYER_COUNT_OFFSET);
+        for (int p = 0; p < playerCount; p++) {
+            if (index.getInt(entry + NAMES_OFFSET + p * Integer.BYTES) == nameIndex)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Méthode qui retourne les points finaux des joueurs de l'entrée donnée de l'index
+     * @param entry la position de l'entrée dans l'index
+     * @return la table associant ses points finaux à chacun des joueurs
+     */
+    private Map<PlayerColor, Integer> points(int entry) {
+
+        int playerCount = index.getInt(entry + PLAYER_COUNT_OFFSET);
+        Map<PlayerColor, Integer> points = new EnumMap<>(PlayerColor.class);
+        for (int p = 0; p < playerCount; p++)
+            points.put(PlayerColor.ALL.get(p), index.getInt(entry + POINTS_OFFSET + p * Integer.BYTES));
+
+        return points;
+    }
+
+}
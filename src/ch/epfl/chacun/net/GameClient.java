@@ -0,0 +1,475 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.GameSetup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Classe qui représente un client d'une partie hébergée par un hôte (GameServer) : les actions locales sont
+ * appliquées immédiatement à l'état affiché (de manière optimiste) puis envoyées à l'hôte sans attendre sa réponse,
+ * tandis que le flot des actions acceptées par l'hôte, qui fait autorité, est appliqué au fur et à mesure de son
+ * arrivée par le fil virtuel du client.
+ * Si l'hôte rejette une action locale, ou accepte une autre action à sa place, les actions locales en attente sont
+ * abandonnées et l'état affiché redevient celui de l'hôte ; si la connexion est perdue, le client se reconnecte et
+ * reprend le flot à partir de l'index de la première action qu'il n'a pas reçue, puis renvoie ses actions en attente ;
+ * une ligne invalide de l'hôte est traitée comme une erreur de protocole, qui provoque elle aussi une reconnexion
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class GameClient implements AutoCloseable {
+
+    /**
+     * Interface fonctionnelle des observateurs de l'état affiché par le client ; ils sont appelés par le fil qui
+     * modifie cet état (celui du client ou celui qui joue une action locale)
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Méthode appelée à chaque modification de l'état affiché
+         * @param gameState le nouvel état affiché
+         * @param actionStrings la représentation en base32 de toutes les actions menant à cet état
+         */
+        void gameChanged(GameState gameState, List<String> actionStrings);
+    }
+
+    /**
+     * Les délais d'attente, en millisecondes, avant chacune des tentatives de reconnexion successives (le dernier
+     * étant répété)
+     */
+    private static final List<Integer> RECONNECT_DELAYS = List.of(0, 50, 200, 1000);
+
+    private final InetSocketAddress host;
+    private final long gameId;
+    private final GameSetup setup;
+    private final Listener listener;
+
+    //ETAT PROTEGE PAR LE VERROU DU CLIENT
+    private final List<String> confirmedActions = new ArrayList<>();
+    private GameState confirmedState;
+    private final List<String> pendingActions = new ArrayList<>();
+    private final List<GameState> pendingStates = new ArrayList<>();
+    private Socket socket;
+    private PrintWriter out;
+    private boolean closed = false;
+
+    /**
+     * Constructeur privé du client, qui démarre le fil de lecture du flot des actions
+     * @param host l'adresse de l'hôte
+     * @param connection la connexion établie avec l'hôte, qui a déjà rejoint la partie
+     * @param listener l'observateur de l'état affiché
+     */
+    private GameClient(InetSocketAddress host, Connection connection, Listener listener) {
+        this.host = host;
+        this.gameId = connection.gameId();
+        this.setup = connection.setup();
+        this.listener = listener;
+        this.confirmedState = setup.initialState().withStartingTilePlaced();
+        this.socket = connection.socket();
+        this.out = connection.out();
+        Thread.ofVirtual().name("game-client-" + gameId).start(() -> readActions(connection.in()));
+    }
+
+    /**
+     * Méthode qui crée une partie ayant les paramètres donnés sur l'hôte donné, et retourne un client de cette partie
+     * @param host l'adresse de l'hôte
+     * @param setup les paramètres de la partie
+     * @param listener l'observateur de l'état affiché
+     * @return le client de la nouvelle partie
+     * @throws IOException en cas d'erreur de connexion, ou si l'hôte refuse de créer la partie
+     */
+    public static GameClient create(InetSocketAddress host, GameSetup setup, Listener listener) throws IOException {
+        return new GameClient(host, Connection.open(host, setup, -1, 0), listener);
+    }
+
+    /**
+     * Méthode qui retourne un client de la partie existante dont l'identifiant est donné, sur l'hôte donné
+     * @param host l'adresse de l'hôte
+     * @param gameId l'identifiant de la partie
+     * @param listener l'observateur de l'état affiché
+     * @return le client de la partie
+     * @throws IOException en cas d'erreur de connexion, ou si la partie n'existe pas
+     */
+    public static GameClient join(InetSocketAddress host, long gameId, Listener listener) throws IOException {
+        return new GameClient(host, Connection.open(host, null, gameId, 0), listener);
+    }
+
+    /**
+     * Méthode qui retourne l'identifiant de la partie
+     * @return l'identifiant de la partie
+     */
+    public long gameId() {
+        return gameId;
+    }
+
+    /**
+     * Méthode qui retourne les paramètres de la partie
+     * @return les paramètres de la partie
+     */
+    public GameSetup setup() {
+        return setup;
+    }
+
+    /**
+     * Méthode qui retourne l'état affiché, soit, l'état de l'hôte auquel sont appliquées les actions locales en
+     * attente
+     * @return l'état affiché
+     */
+    public synchronized GameState gameState() {
+        return pendingStates.isEmpty() ? confirmedState : pendingStates.getLast();
+    }
+
+    /**
+     * Méthode qui retourne la représentation en base32 de toutes les actions menant à l'état affiché
+     * @return la liste des actions menant à l'état affiché
+     */
+    public synchronized List<String> actionStrings() {
+        List<String> actionStrings = new ArrayList<>(confirmedActions);
+        actionStrings.addAll(pendingActions);
+        return List.copyOf(actionStrings);
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'actions acceptées par l'hôte et reçues par le client
+     * @return le nombre d'actions confirmées
+     */
+    public synchronized int confirmedCount() {
+        return confirmedActions.size();
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'actions locales envoyées à l'hôte mais pas encore confirmées
+     * @return le nombre d'actions locales en attente
+     */
+    public synchronized int pendingCount() {
+        return pendingActions.size();
+    }
+
+    /**
+     * Méthode qui joue l'action locale donnée : si elle est légale dans l'état affiché, elle lui est appliquée
+     * immédiatement, puis envoyée à l'hôte sans attendre sa réponse
+     * @param actionString la représentation en base32 de l'action donnée
+     * @return vrai ssi l'action est légale dans l'état affiché
+     */
+    public boolean play(String actionString) {
+        return play(gameState -> ActionEncoder.decodeAndApply(gameState, actionString));
+    }
+
+    /**
+     * Méthode qui joue l'action locale retournée par la transition donnée, appliquée à l'état affiché : l'action
+     * est appliquée immédiatement, puis envoyée à l'hôte sans attendre sa réponse
+     * @param transition la transition donnée, qui retourne l'action à effectuer dans l'état qui lui est passé, ou
+     * null si aucune action ne doit être effectuée
+     * @return vrai ssi la transition a retourné une action valide (non nulle, avec un état et une représentation en
+     * base32)
+     */
+    public synchronized boolean play(Function<GameState, ActionEncoder.StateAction> transition) {
+
+        if (closed)
+            return false;
+
+        ActionEncoder.StateAction stateAction = transition.apply(gameState());
+        if (stateAction == null || stateAction.gameState() == null || stateAction.actionString() == null)
+            return false;
+
+        int index = confirmedActions.size() + pendingActions.size();
+        pendingActions.add(stateAction.actionString());
+        pendingStates.add(stateAction.gameState());
+        send(Protocol.PLAY + " " + gameId + " " + index + " " + stateAction.actionString());
+
+        notifyListener();
+        return true;
+    }
+
+    /**
+     * Méthode qui ferme le client
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            send(Protocol.QUIT);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Méthode qui ferme la connexion courante sans fermer le client, ce qui provoque une reconnexion ; elle permet de
+     * simuler la perte de la connexion
+     */
+    synchronized void dropConnection() {
+        closeQuietly(socket);
+    }
+
+    /**
+     * Méthode exécutée par le fil du client, qui applique le flot des lignes envoyées par l'hôte, et se reconnecte
+     * lorsque la connexion est perdue, jusqu'à la fermeture du client
+     * @param in le flot des lignes de la connexion initiale
+     */
+    private void readActions(BufferedReader in) {
+
+        while (true) {
+            try {
+                for (String line = in.readLine(); line != null; line = in.readLine())
+                    handle(line.split(" "));
+            } catch (IOException e) {
+                //LA CONNEXION A ETE PERDUE, OU L'HOTE A ENVOYE UNE LIGNE INVALIDE
+                dropConnection();
+            }
+
+            in = reconnect();
+            if (in == null)
+                return;
+        }
+    }
+
+    /**
+     * Méthode qui traite la ligne donnée, envoyée par l'hôte
+     * @param parts les éléments de la ligne
+     * @throws IOException si la ligne n'est pas valide (erreur de protocole)
+     */
+    private synchronized void handle(String[] parts) throws IOException {
+
+        switch (parts[0]) {
+
+            case Protocol.ACTION -> {
+                checkLength(parts, 4);
+                int index = intPart(parts, 2);
+                if (index != confirmedActions.size())
+                    return;
+
+                ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(confirmedState, parts[3]);
+                if (stateAction == null)
+                    return;
+
+                confirmedActions.add(parts[3]);
+                confirmedState = stateAction.gameState();
+
+                //L'HOTE A ACCEPTE LA PREMIERE ACTION LOCALE EN ATTENTE, OU UNE AUTRE ACTION A SA PLACE
+                if (!pendingActions.isEmpty() && pendingActions.getFirst().equals(parts[3])) {
+                    pendingActions.removeFirst();
+                    pendingStates.removeFirst();
+                } else {
+                    pendingActions.clear();
+                    pendingStates.clear();
+                    notifyListener();
+                }
+            }
+
+            case Protocol.REJECTED -> abandonPendingActions(intPart(parts, 2));
+
+            //L'HOTE N'A PAS PU TRAITER L'ACTION LOCALE, QUI EST DONC REJETEE
+            case Protocol.ERROR -> {
+                if (parts.length > 1 && parts[1].equals(Protocol.PLAY)) {
+                    checkLength(parts, 5);
+                    abandonPendingActions(intPart(parts, 3));
+                }
+            }
+
+            default -> {}
+        }
+    }
+
+    /**
+     * Méthode qui abandonne l'action locale en attente d'index donné dans la partie, ainsi que toutes celles qui la
+     * suivent, et revient à l'état correspondant ; rien n'est fait si aucune action en attente n'a cet index
+     * @param index l'index de l'action rejetée dans la partie
+     */
+    private void abandonPendingActions(int index) {
+
+        int pendingIndex = index - confirmedActions.size();
+        if (pendingIndex < 0 || pendingIndex >= pendingActions.size())
+            return;
+
+        //LES ACTIONS SUIVANTES ONT ETE JOUEES DANS UN ETAT QUI N'EXISTERA PAS
+        pendingActions.subList(pendingIndex, pendingActions.size()).clear();
+        pendingStates.subList(pendingIndex, pendingStates.size()).clear();
+        notifyListener();
+    }
+
+    /**
+     * Méthode qui vérifie que la ligne donnée, envoyée par l'hôte, a le nombre d'éléments donné
+     * @param parts les éléments de la ligne
+     * @param length le nombre d'éléments attendu
+     * @throws IOException si la ligne n'a pas le nombre d'éléments attendu (erreur de protocole)
+     */
+    private static void checkLength(String[] parts, int length) throws IOException {
+        if (parts.length != length)
+            throw new IOException("ligne invalide de l'hôte : " + String.join(" ", parts));
+    }
+
+    /**
+     * Méthode qui retourne l'entier représenté par l'élément d'index donné de la ligne donnée, envoyée par l'hôte
+     * @param parts les éléments de la ligne
+     * @param i l'index de l'élément
+     * @return l'entier représenté par l'élément
+     * @throws IOException si la ligne n'a pas cet élément, ou s'il ne représente pas un entier (erreur de protocole)
+     */
+    private static int intPart(String[] parts, int i) throws IOException {
+        try {
+            return Integer.parseInt(parts[i]);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("ligne invalide de l'hôte : " + String.join(" ", parts), e);
+        }
+    }
+
+    /**
+     * Méthode qui rétablit la connexion avec l'hôte, en reprenant le flot à partir de la première action non reçue
+     * et en renvoyant les actions locales en attente
+     * @return le flot des lignes de la nouvelle connexion, ou null si le client a été fermé
+     */
+    private BufferedReader reconnect() {
+
+        for (int attempt = 0; ; attempt++) {
+            int from;
+            synchronized (this) {
+                if (closed)
+                    return null;
+                from = confirmedActions.size();
+            }
+
+            sleep(RECONNECT_DELAYS.get(Math.min(attempt, RECONNECT_DELAYS.size() - 1)));
+
+            try {
+                Connection connection = Connection.open(host, null, gameId, from);
+
+                synchronized (this) {
+                    if (closed) {
+                        closeQuietly(connection.socket());
+                        return null;
+                    }
+                    socket = connection.socket();
+                    out = connection.out();
+                    for (int i = 0; i < pendingActions.size(); i++)
+                        send(Protocol.PLAY + " " + gameId + " " + (from + i) + " " + pendingActions.get(i));
+                }
+
+                return connection.in();
+            } catch (IOException e) {
+                //L'HOTE N'EST PAS ENCORE JOIGNABLE
+            }
+        }
+    }
+
+    /**
+     * Méthode qui envoie la ligne donnée à l'hôte ; une erreur d'envoi est ignorée, la perte de la connexion étant
+     * détectée par le fil du client
+     * @param line la ligne donnée
+     */
+    private void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+
+    /**
+     * Méthode qui informe l'observateur de l'état affiché
+     */
+    private void notifyListener() {
+        listener.gameChanged(gameState(), actionStrings());
+    }
+
+    /**
+     * Méthode qui ferme la prise donnée, en ignorant les erreurs
+     * @param socket la prise donnée
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //LA PRISE EST DEJA FERMEE
+        }
+    }
+
+    /**
+     * Méthode qui attend le nombre de millisecondes donné
+     * @param millis le nombre de millisecondes donné
+     */
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enregistrement qui représente une connexion établie avec l'hôte, ayant rejoint une partie
+     * @param socket la prise connectée à l'hôte
+     * @param in le flot des lignes envoyées par l'hôte
+     * @param out le flot des lignes envoyées à l'hôte
+     * @param gameId l'identifiant de la partie rejointe
+     * @param setup les paramètres de la partie rejointe
+     */
+    private record Connection(Socket socket, BufferedReader in, PrintWriter out, long gameId, GameSetup setup) {
+
+        /**
+         * Méthode qui établit une connexion avec l'hôte donné, crée la partie si des paramètres sont donnés, puis
+         * rejoint la partie à partir de l'index donné
+         * @param host l'adresse de l'hôte
+         * @param setup les paramètres de la partie à créer, ou null pour rejoindre une partie existante
+         * @param gameId l'identifiant de la partie existante (ignoré si des paramètres sont donnés)
+         * @param from l'index de la première action à recevoir
+         * @return la connexion établie
+         * @throws IOException en cas d'erreur de connexion, ou si l'hôte refuse l'une des requêtes
+         */
+        static Connection open(InetSocketAddress host, GameSetup setup, long gameId, int from) throws IOException {
+
+            Socket socket = new Socket(host.getAddress(), host.getPort());
+            try {
+                socket.setTcpNoDelay(true);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+                if (setup != null) {
+                    out.println(Protocol.NEW + " " + setup.encode());
+                    out.flush();
+                    String game = expect(in.readLine(), Protocol.GAME);
+                    try {
+                        gameId = Long.parseLong(game);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("identifiant de partie invalide : " + game, e);
+                    }
+                }
+
+                out.println(Protocol.JOIN + " " + gameId + " " + from);
+                out.flush();
+                String joined = expect(in.readLine(), Protocol.JOINED);
+                GameSetup joinedSetup = GameSetup.decode(joined.substring(joined.indexOf(' ') + 1));
+
+                return new Connection(socket, in, out, gameId, joinedSetup);
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(socket);
+                throw e instanceof IOException ioException ? ioException : new IOException(e);
+            }
+        }
+
+        /**
+         * Méthode qui vérifie que la ligne donnée commence par le mot-clé donné, et retourne la suite de la ligne
+         * @param line la ligne donnée
+         * @param keyword le mot-clé attendu
+         * @return la suite de la ligne
+         * @throws IOException si la ligne est nulle ou ne commence pas par le mot-clé attendu
+         */
+        private static String expect(String line, String keyword) throws IOException {
+            if (line == null || !line.startsWith(keyword + " "))
+                throw new IOException("réponse inattendue de l'hôte : " + line);
+            return line.substring(keyword.length() + 1);
+        }
+    }
+
+}
@@ -0,0 +1,338 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.GameSetup;
+import ch.epfl.chacun.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe qui représente le journal des parties hébergées, un fichier dans lequel les parties ne sont jamais écrites
+ * que par ajout : chaque partie y est décrite par une ligne d'en-tête, GAME identifiant graine nom..., suivie d'une
+ * ligne ACTION identifiant index action pour chacune de ses actions, dans leur représentation en base32 ; les parties
+ * sont reconstruites au démarrage en rejouant le journal.
+ * Les lignes sont écrites par un unique fil, qui regroupe toutes celles reçues depuis la dernière synchronisation du
+ * fichier avec le disque (quelle que soit leur partie) en une seule écriture suivie d'une seule synchronisation, et
+ * qui n'effectue au plus qu'une synchronisation par intervalle donné
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class GameJournal implements AutoCloseable {
+
+    /**
+     * L'intervalle par défaut entre deux synchronisations du journal avec le disque
+     */
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(2);
+
+    private static final String GAME = "GAME";
+    private static final String ACTION = "ACTION";
+
+    /**
+     * Enregistrement qui représente une partie telle que reconstruite à partir du journal
+     * @param id l'identifiant de la partie
+     * @param setup les paramètres de la partie
+     * @param actionStrings la liste des actions de la partie, dans leur représentation en base32
+     */
+    public record JournaledGame(long id, GameSetup setup, List<String> actionStrings) {
+
+        /**
+         * Constructeur compact de la partie, qui copie la liste des actions pour garantir l'immuabilité
+         * @param id l'identifiant de la partie
+         * @param setup les paramètres de la partie
+         * @param actionStrings la liste des actions de la partie
+         */
+        public JournaledGame {
+            Objects.requireNonNull(setup);
+            actionStrings = List.copyOf(actionStrings);
+        }
+    }
+
+    /**
+     * Enregistrement qui représente une ligne en attente d'écriture
+     * @param line la ligne, sans son retour à la ligne
+     * @param durable le futur complété lorsque la ligne est synchronisée avec le disque
+     */
+    private record Entry(String line, CompletableFuture<Void> durable) {}
+
+    private static final Entry CLOSE = new Entry("", new CompletableFuture<>());
+
+    private final FileChannel channel;
+    private final long syncIntervalNanos;
+    private final Map<Long, JournaledGame> games;
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile long syncCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructeur privé du journal, qui démarre son fil d'écriture
+     * @param channel le canal ouvert sur le fichier du journal, positionné à sa fin
+     * @param syncInterval l'intervalle minimal entre deux synchronisations
+     * @param games les parties reconstruites à partir du journal
+     */
+    private GameJournal(FileChannel channel, Duration syncInterval, Map<Long, JournaledGame> games) {
+        this.channel = channel;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.games = Collections.unmodifiableMap(games);
+        this.writer = Thread.ofPlatform().name("game-journal").daemon().start(this::writeEntries);
+    }
+
+    /**
+     * Méthode qui ouvre le journal contenu dans le fichier donné (qui est créé s'il n'existe pas) et rejoue les
+     * parties qu'il contient ; une éventuelle dernière ligne incomplète (sans retour à la ligne), laissée par un
+     * arrêt brutal pendant une écriture, est ignorée et supprimée du fichier ; en revanche, une ligne complète mais
+     * invalide ne peut provenir d'une écriture interrompue : le journal est alors refusé et le fichier laissé intact,
+     * afin de ne jamais détruire les lignes valides qui la suivent
+     * @param path le chemin du fichier donné
+     * @param syncInterval l'intervalle minimal entre deux synchronisations du journal avec le disque
+     * @return le journal ouvert
+     * @throws IllegalArgumentException si l'intervalle est négatif
+     * @throws IOException en cas d'erreur de lecture ou d'ouverture du fichier, ou si l'une de ses lignes complètes
+     * est invalide
+     */
+    public static GameJournal open(Path path, Duration syncInterval) throws IOException {
+
+        Preconditions.checkArgument(!syncInterval.isNegative());
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            byte[] content = Files.readAllBytes(path);
+            Map<Long, JournaledGame> games = new TreeMap<>();
+            int validLength = replay(content, games);
+
+            channel.truncate(validLength);
+            channel.position(validLength);
+            return new GameJournal(channel, syncInterval, games);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Méthode qui retourne les parties reconstruites à l'ouverture du journal, triées par identifiant
+     * @return la table associant leur identifiant aux parties reconstruites à l'ouverture du journal
+     */
+    public Map<Long, JournaledGame> games() {
+        return games;
+    }
+
+    /**
+     * Méthode qui ajoute au journal l'en-tête de la partie donnée
+     * @param gameId l'identifiant de la partie
+     * @param setup les paramètres de la partie
+     * @return le futur complété lorsque l'en-tête est synchronisé avec le disque
+     */
+    public CompletableFuture<Void> gameCreated(long gameId, GameSetup setup) {
+        return append(GAME + " " + gameId + " " + setup.encode());
+    }
+
+    /**
+     * Méthode qui ajoute au journal l'action donnée de la partie donnée
+     * @param gameId l'identifiant de la partie
+     * @param index l'index de l'action dans la partie
+     * @param actionString la représentation en base32 de l'action
+     * @return le futur complété lorsque l'action est synchronisée avec le disque
+     */
+    public CompletableFuture<Void> actionAccepted(long gameId, int index, String actionString) {
+        return append(ACTION + " " + gameId + " " + index + " " + actionString);
+    }
+
+    /**
+     * Méthode qui retourne le nombre de synchronisations du journal avec le disque effectuées depuis son ouverture
+     * @return le nombre de synchronisations effectuées
+     */
+    long syncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Méthode qui ferme le journal, après avoir écrit et synchronisé les lignes déjà reçues ; les lignes ajoutées
+     * ensuite sont refusées
+     * @throws IOException en cas d'erreur lors de la fermeture du fichier
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (pending) {
+            if (!closed) {
+                closed = true;
+                pending.add(CLOSE);
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Méthode qui ajoute la ligne donnée à la file d'écriture
+     * @param line la ligne donnée
+     * @return le futur complété lorsque la ligne est synchronisée avec le disque, qui échoue avec une
+     * IllegalStateException si le journal est fermé
+     */
+    private CompletableFuture<Void> append(String line) {
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        synchronized (pending) {
+            if (closed)
+                return CompletableFuture.failedFuture(new IllegalStateException("le journal est fermé"));
+            pending.add(new Entry(line, durable));
+        }
+
+        return durable;
+    }
+
+    /**
+     * Méthode exécutée par le fil d'écriture : elle attend une ligne, puis regroupe avec elle toutes celles reçues
+     * jusqu'à ce que l'intervalle de synchronisation soit écoulé depuis la synchronisation précédente, les écrit en
+     * une fois et synchronise le fichier, jusqu'à la fermeture du journal
+     */
+    private void writeEntries() {
+
+        List<Entry> group = new ArrayList<>();
+        long lastSync = System.nanoTime() - syncIntervalNanos;
+
+        try {
+            boolean closing = false;
+            while (!closing) {
+                group.add(pending.take());
+                long remaining;
+                while ((remaining = lastSync + syncIntervalNanos - System.nanoTime()) > 0
+                        && !group.contains(CLOSE)) {
+                    Entry entry = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (entry != null)
+                        group.add(entry);
+                }
+                pending.drainTo(group);
+
+                closing = group.remove(CLOSE);
+                commit(group);
+                lastSync = System.nanoTime();
+                group.clear();
+            }
+        } catch (IOException e) {
+            fail(group, new UncheckedIOException(e));
+        } catch (InterruptedException e) {
+            fail(group, new IllegalStateException(e));
+        }
+    }
+
+    /**
+     * Méthode qui écrit les lignes données en une fois, synchronise le fichier avec le disque et complète les futurs
+     * des lignes
+     * @param group les lignes données
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private void commit(List<Entry> group) throws IOException {
+
+        if (group.isEmpty())
+            return;
+
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : group)
+            lines.append(entry.line()).append('\n');
+
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        channel.force(false);
+        syncCount = syncCount + 1;
+
+        for (Entry entry : group)
+            entry.durable().complete(null);
+    }
+
+    /**
+     * Méthode appelée lorsque le fil d'écriture échoue, qui ferme le journal et fait échouer les futurs des lignes
+     * du groupe donné et de toutes celles en attente
+     * @param group le groupe de lignes en cours d'écriture
+     * @param cause la cause de l'échec
+     */
+    private void fail(List<Entry> group, RuntimeException cause) {
+        synchronized (pending) {
+            closed = true;
+            pending.drainTo(group);
+        }
+        for (Entry entry : group)
+            entry.durable().completeExceptionally(cause);
+    }
+
+    /**
+     * Méthode qui rejoue le contenu donné d'un journal, en ajoutant les parties qu'il décrit à la table donnée
+     * @param content le contenu du journal
+     * @param games la table associant leur identifiant aux parties reconstruites
+     * @return la longueur, en octets, des lignes complètes du contenu, soit, sans son éventuelle dernière ligne
+     * incomplète
+     * @throws IOException si l'une des lignes complètes du contenu est invalide
+     */
+    private static int replay(byte[] content, Map<Long, JournaledGame> games) throws IOException {
+
+        Map<Long, List<String>> actions = new HashMap<>();
+        Map<Long, GameSetup> setups = new HashMap<>();
+        int validLength = 0;
+        int lineNumber = 1;
+
+        for (int end = indexOf(content, validLength); end >= 0; end = indexOf(content, validLength)) {
+            String line = new String(content, validLength, end - validLength, StandardCharsets.UTF_8);
+            try {
+                String[] parts = line.split(" ");
+                long gameId = Long.parseLong(parts[1]);
+                switch (parts[0]) {
+                    case GAME -> {
+                        Preconditions.checkArgument(!setups.containsKey(gameId));
+                        setups.put(gameId, GameSetup.decode(line.substring(line.indexOf(' ', GAME.length() + 1) + 1)));
+                        actions.put(gameId, new ArrayList<>());
+                    }
+                    case ACTION -> {
+                        List<String> gameActions = actions.get(gameId);
+                        Preconditions.checkArgument(parts.length == 4 && gameActions != null
+                                && Integer.parseInt(parts[2]) == gameActions.size());
+                        gameActions.add(parts[3]);
+                    }
+                    default -> throw new IllegalArgumentException();
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                //UNE LIGNE COMPLETE INVALIDE N'EST PAS UNE ECRITURE INTERROMPUE : LE JOURNAL EST CORROMPU
+                throw new IOException("ligne " + lineNumber + " du journal invalide : " + line, e);
+            }
+            validLength = end + 1;
+            lineNumber += 1;
+        }
+
+        setups.forEach((gameId, setup) -> games.put(gameId, new JournaledGame(gameId, setup, actions.get(gameId))));
+        return validLength;
+    }
+
+    /**
+     * Méthode qui retourne l'index du premier retour à la ligne du contenu donné à partir de l'index donné
+     * @param content le contenu donné
+     * @param from l'index donné
+     * @return l'index du premier retour à la ligne, ou -1 s'il n'y en a aucun
+     */
+    private static int indexOf(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\n')
+                return i;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,208 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.GameSetup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe qui représente un hôte de parties en réseau, capable d'héberger de nombreuses parties simultanées dans une
+ * même machine virtuelle : chaque partie appartient à un acteur (GameActor) qui en est l'unique écrivain, et chaque
+ * client est servi par son propre fil virtuel ; les clients soumettent les actions sous leur représentation en
+ * base32, selon le protocole décrit par Protocol, et leur légalité est vérifiée par ActionEncoder.decodeAndApply ;
+ * si l'hôte dispose d'un journal (GameJournal), les parties y sont enregistrées et en sont restaurées au démarrage
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+public final class GameServer implements AutoCloseable {
+
+    /**
+     * Le port utilisé par défaut par l'hôte
+     */
+    public static final int DEFAULT_PORT = 7419;
+
+    /**
+     * La taille de la file des connexions en attente d'acceptation
+     */
+    private static final int BACKLOG = 1024;
+
+    private final ServerSocket serverSocket;
+    private final Map<Long, GameActor> games = new ConcurrentHashMap<>();
+    private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextGameId = new AtomicLong();
+    private final GameJournal journal;
+    private final Thread acceptor;
+
+    /**
+     * Constructeur privé de l'hôte, qui restaure les parties du journal donné et commence à accepter les connexions
+     * sur la prise donnée
+     * @param serverSocket la prise d'écoute de l'hôte
+     * @param journal le journal des parties, ou null s'il n'y en a aucun
+     */
+    private GameServer(ServerSocket serverSocket, GameJournal journal) {
+        this.serverSocket = serverSocket;
+        this.journal = journal;
+        if (journal != null) {
+            for (GameJournal.JournaledGame game : journal.games().values()) {
+                games.put(game.id(), new GameActor(game.id(), game.setup(), game.actionStrings(), journal));
+                nextGameId.accumulateAndGet(game.id() + 1, Math::max);
+            }
+        }
+        this.acceptor = Thread.ofVirtual().name("game-server-acceptor").start(this::acceptConnections);
+    }
+
+    /**
+     * Méthode qui démarre un hôte écoutant à l'adresse donnée
+     * @param address l'adresse donnée (un port nul désignant un port libre quelconque)
+     * @return l'hôte démarré
+     * @throws IOException en cas d'erreur lors de l'ouverture de la prise d'écoute
+     */
+    public static GameServer start(InetSocketAddress address) throws IOException {
+        return start(address, null);
+    }
+
+    /**
+     * Méthode qui démarre un hôte écoutant à l'adresse donnée, qui restaure les parties du journal donné et y
+     * enregistre les nouvelles parties et leurs actions ; le journal n'est pas fermé avec l'hôte
+     * @param address l'adresse donnée (un port nul désignant un port libre quelconque)
+     * @param journal le journal des parties, ou null s'il n'y en a aucun
+     * @return l'hôte démarré
+     * @throws IOException en cas d'erreur lors de l'ouverture de la prise d'écoute
+     */
+    public static GameServer start(InetSocketAddress address, GameJournal journal) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.bind(address, BACKLOG);
+        return new GameServer(serverSocket, journal);
+    }
+
+    /**
+     * Méthode qui démarre un hôte écoutant sur l'interface de bouclage locale, au port donné
+     * @param port le port donné (0 désignant un port libre quelconque)
+     * @return l'hôte démarré
+     * @throws IOException en cas d'erreur lors de l'ouverture de la prise d'écoute
+     */
+    public static GameServer startLocal(int port) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Méthode qui retourne l'adresse à laquelle l'hôte écoute
+     * @return l'adresse à laquelle l'hôte écoute
+     */
+    public InetSocketAddress address() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * Méthode qui retourne le nombre de parties hébergées
+     * @return le nombre de parties hébergées
+     */
+    public int gameCount() {
+        return games.size();
+    }
+
+    /**
+     * Méthode qui retourne le nombre de clients connectés
+     * @return le nombre de clients connectés
+     */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Méthode qui ferme l'hôte : la prise d'écoute et toutes les connexions sont fermées, et les acteurs des parties
+     * sont arrêtés
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            //LA PRISE EST DEJA FERMEE
+        }
+        connections.forEach(ClientConnection::close);
+        games.values().forEach(GameActor::stop);
+    }
+
+    /**
+     * Méthode qui crée une partie ayant les paramètres donnés, et attend que son en-tête soit synchronisé avec le
+     * disque s'il y a un journal
+     * @param setup les paramètres donnés
+     * @return l'acteur de la nouvelle partie
+     * @throws java.util.concurrent.CompletionException si l'en-tête n'a pas pu être ajouté au journal
+     */
+    GameActor createGame(GameSetup setup) {
+        long gameId = nextGameId.getAndIncrement();
+        if (journal != null)
+            journal.gameCreated(gameId, setup).join();
+
+        GameActor game = new GameActor(gameId, setup, List.of(), journal);
+        games.put(game.id(), game);
+        return game;
+    }
+
+    /**
+     * Méthode qui retourne l'acteur de la partie dont l'identifiant est donné
+     * @param gameId l'identifiant donné
+     * @return l'acteur de la partie, ou null si aucune partie n'a cet identifiant
+     */
+    GameActor game(long gameId) {
+        return games.get(gameId);
+    }
+
+    /**
+     * Méthode appelée par une connexion lorsqu'elle est fermée
+     * @param connection la connexion fermée
+     */
+    void connectionClosed(ClientConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Méthode exécutée par le fil d'écoute, qui démarre un fil virtuel pour chaque client qui se connecte, jusqu'à
+     * la fermeture de l'hôte
+     */
+    private void acceptConnections() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                ClientConnection connection = new ClientConnection(this, socket);
+                connections.add(connection);
+                Thread.ofVirtual().name("client").start(connection::run);
+            }
+        } catch (IOException e) {
+            //L'HOTE A ETE FERME
+        }
+    }
+
+    /**
+     * Méthode principale, qui démarre un hôte sur l'interface de bouclage locale, au port donné en premier argument
+     * ou au port par défaut, en utilisant le journal dont le chemin est donné en second argument s'il y en a un
+     * @param args les arguments, contenant éventuellement le port et le chemin du journal
+     * @throws IOException en cas d'erreur lors de l'ouverture de la prise d'écoute ou du journal
+     * @throws InterruptedException si le fil principal est interrompu
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameJournal journal = args.length > 1
+                ? GameJournal.open(Path.of(args[1]), GameJournal.DEFAULT_SYNC_INTERVAL)
+                : null;
+        GameServer server = start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), journal);
+        System.out.println("ChaCuN : hôte à l'écoute sur " + server.address()
+                + (journal != null ? ", " + server.gameCount() + " partie(s) restaurée(s)" : ""));
+
+        //LE FIL D'ECOUTE EST VIRTUEL, IL FAUT DONC ATTENDRE SA FIN
+        server.acceptor.join();
+    }
+
+}
@@ -0,0 +1,50 @@
+package ch.epfl.chacun.net;
+
+/**
+ * Classe qui contient les mots-clés du protocole textuel échangé entre l'hôte des parties et ses clients.
+ * Chaque message occupe une ligne, dont les éléments sont séparés par des espaces et dont le premier est un mot-clé :
+ * <ul>
+ *     <li>NEW graine nom... crée une partie, l'hôte répond GAME identifiant ;</li>
+ *     <li>JOIN identifiant index rejoint une partie, l'hôte répond JOINED identifiant graine nom..., puis
+ *     envoie ACTION identifiant index action pour chacune des actions à partir de l'index donné, et pour chaque
+ *     action acceptée ensuite ;</li>
+ *     <li>PLAY identifiant index action soumet une action, qui doit être celle d'index donné dans la partie ;
+ *     l'hôte répond OK identifiant index si elle est acceptée, et REJECTED identifiant index raison sinon (STALE si
+ *     l'index n'est pas celui de la prochaine action, ILLEGAL si l'action n'est pas légale) ;</li>
+ *     <li>WATCH identifiant index fait de la connexion celle d'un spectateur de la partie, qui n'envoie plus ensuite
+ *     que QUIT ; l'hôte répond WATCHING identifiant graine nom..., puis envoie les actions à partir de l'index donné
+ *     par lots, ACTIONS identifiant index action... contenant les actions consécutives à partir de l'index donné ;
+ *     si le spectateur est trop en retard, l'hôte lui envoie à la place SNAPSHOT identifiant nombre actions,
+ *     contenant toutes les actions de la partie empaquetées (selon ActionEncoder.pack) ;</li>
+ *     <li>QUIT termine la connexion ;</li>
+ *     <li>ERROR requête est la réponse à toute requête invalide.</li>
+ * </ul>
+ * L'hôte répond aux requêtes d'une connexion dans l'ordre où il les reçoit, ce qui permet aux clients de les
+ * envoyer sans attendre les réponses
+ * @author Mohamed KHARRAT (314523)
+ * @author Maha EL QABLI (372471)
+ */
+
+final class Protocol {
+
+    /**
+     * Constructeur privé empêchant l'instanciation de la classe
+     */
+    private Protocol() {}
+
+    static final String NEW = "NEW";
+    static final String GAME = "GAME";
+    static final String JOIN = "JOIN";
+    static final String JOINED = "JOINED";
+    static final String PLAY = "PLAY";
+    static final String OK = "OK";
+    static final String REJECTED = "REJECTED";
+    static final String ACTION = "ACTION";
+    static final String WATCH = "WATCH";
+    static final String WATCHING = "WATCHING";
+    static final String ACTIONS = "ACTIONS";
+    static final String SNAPSHOT = "SNAPSHOT";
+    static final String QUIT = "QUIT";
+    static final String ERROR = "ERROR";
+
+}
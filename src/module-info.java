@@ -4,4 +4,5 @@ module ChaCuN {
 
     exports ch.epfl.chacun;
     exports ch.epfl.chacun.gui;
+    exports ch.epfl.chacun.net;
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionEncoderTest {
+    @Test
+    void actionEncoderProducesLegacyActionsForRealGames() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            for (var stateAction : TestGames.randomStateActions(seed)) {
+                var length = stateAction.actionString().length();
+                assertTrue(length == 1 || length == 2);
+            }
+        }
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyReplaysRandomGames() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var stateActions = TestGames.randomStateActions(seed);
+            var state = TestGames.startedState(seed);
+            for (var stateAction : stateActions) {
+                var decoded = ActionEncoder.decodeAndApply(state, stateAction.actionString());
+                assertNotNull(decoded);
+                assertEquals(stateAction.gameState(), decoded.gameState());
+                state = decoded.gameState();
+            }
+            assertEquals(GameState.Action.END_GAME, state.nextAction());
+        }
+    }
+
+    @Test
+    void actionEncoderRejectsNonCanonicalActionStrings() {
+        var state = TestGames.startedState(1);
+        var legacy = TestGames.randomStateActions(1).getFirst();
+        var token = Base32.decode(legacy.actionString());
+        assertNotNull(ActionEncoder.decodeAndApply(state, legacy.actionString()));
+
+        var versioned = ActionEncoder.variableLengthActionString(token);
+        if (versioned.length() >= 3)
+            assertNull(ActionEncoder.decodeAndApply(state, versioned));
+
+        var padded = "BQ" + versioned.substring(1);
+        assertNull(ActionEncoder.decodeAndApply(state, padded));
+
+        var large = ActionEncoder.variableLengthActionString(5000);
+        assertEquals(5000, ActionEncoder.token(large));
+        assertThrows(IllegalArgumentException.class,
+                () -> ActionEncoder.token("BQ" + large.substring(1)));
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyRejectsInvalidVariableLengthActions() {
+        var state = TestGames.startedState(1);
+        assertNull(ActionEncoder.decodeAndApply(state, "CAA"));
+        assertNull(ActionEncoder.decodeAndApply(state, "BRR"));
+        assertNull(ActionEncoder.decodeAndApply(state, "B7777P"));
+        assertNull(ActionEncoder.decodeAndApply(state, ""));
+    }
+
+    @Test
+    void actionEncoderPackedGamesRoundTrip() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var stateActions = TestGames.randomStateActions(seed);
+            var actionStrings = stateActions.stream().map(ActionEncoder.StateAction::actionString).toList();
+
+            var packed = ActionEncoder.pack(actionStrings);
+            assertEquals('B', packed.charAt(0));
+
+            var unpacked = ActionEncoder.decodeAndApplyPacked(TestGames.startedState(seed), packed);
+            assertNotNull(unpacked);
+            assertEquals(stateActions, unpacked);
+
+            var unpackedAll = ActionEncoder.decodeAndApplyPackedAll(TestGames.startedState(seed), packed);
+            assertNotNull(unpackedAll);
+            assertEquals(actionStrings, unpackedAll.actionStrings());
+            assertEquals(stateActions.getLast().gameState(), unpackedAll.gameState());
+        }
+    }
+
+    @Test
+    void actionEncoderPackedGamesAreNotLongerThanConcatenatedActions() {
+        var actionStrings = TestGames.randomStateActions(3).stream().map(ActionEncoder.StateAction::actionString).toList();
+        var packed = ActionEncoder.pack(actionStrings);
+        var concatenatedLength = actionStrings.stream().mapToInt(String::length).sum();
+        assertTrue(packed.length() <= concatenatedLength + 4);
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyPackedRejectsInvalidPackedGames() {
+        var actionStrings = TestGames.randomStateActions(2).stream().map(ActionEncoder.StateAction::actionString).toList();
+        var packed = ActionEncoder.pack(actionStrings);
+
+        assertNull(ActionEncoder.decodeAndApplyPacked(TestGames.startedState(2), "A" + packed.substring(1)));
+        assertNull(ActionEncoder.decodeAndApplyPacked(TestGames.startedState(2), packed + "A"));
+        assertNull(ActionEncoder.decodeAndApplyPacked(TestGames.startedState(2), packed.substring(0, packed.length() - 1)));
+        assertThrows(IllegalArgumentException.class, () -> ActionEncoder.pack(List.of("A", "a")));
+
+        // An action count larger than the remaining characters must not drive the allocation.
+        var header = packed.substring(0, 1);
+        assertNull(ActionEncoder.decodeAndApplyPacked(TestGames.startedState(2),
+                header + Base32.encodeVarint(Integer.MAX_VALUE)));
+        assertNull(ActionEncoder.decodeAndApplyPacked(TestGames.startedState(2),
+                header + Base32.encodeVarint(3) + "AB"));
+        assertNull(ActionEncoder.decodeAndApplyPackedAll(TestGames.startedState(2),
+                header + Base32.encodeVarint(Integer.MAX_VALUE)));
+        assertNull(ActionEncoder.decodeAndApplyPackedAll(TestGames.startedState(2), packed + "A"));
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyAllReachesSameFinalState() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var stateActions = TestGames.randomStateActions(seed);
+            var actionStrings = stateActions.stream().map(ActionEncoder.StateAction::actionString).toList();
+
+            var finalState = ActionEncoder.decodeAndApplyAll(TestGames.startedState(seed), actionStrings);
+            assertEquals(stateActions.getLast().gameState(), finalState);
+        }
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyAllReturnsCheckpoints() {
+        var stateActions = TestGames.randomStateActions(4);
+        var actionStrings = stateActions.stream().map(ActionEncoder.StateAction::actionString).toList();
+
+        var everyState = ActionEncoder.decodeAndApplyAll(TestGames.startedState(4), actionStrings, 1);
+        assertEquals(stateActions.stream().map(ActionEncoder.StateAction::gameState).toList(), everyState);
+
+        var checkpoints = ActionEncoder.decodeAndApplyAll(TestGames.startedState(4), actionStrings, 10);
+        assertNotNull(checkpoints);
+        assertEquals((actionStrings.size() + 9) / 10, checkpoints.size());
+        for (int i = 0; i < checkpoints.size() - 1; i += 1)
+            assertEquals(stateActions.get(10 * i + 9).gameState(), checkpoints.get(i));
+        assertEquals(stateActions.getLast().gameState(), checkpoints.getLast());
+    }
+
+    @Test
+    void actionEncoderDecodeAndApplyAllHandlesEmptyAndInvalidActions() {
+        var state = TestGames.startedState(2);
+        assertEquals(state, ActionEncoder.decodeAndApplyAll(state, List.of()));
+        assertEquals(List.of(), ActionEncoder.decodeAndApplyAll(state, List.of(), 3));
+        assertThrows(IllegalArgumentException.class, () -> ActionEncoder.decodeAndApplyAll(state, List.of(), 0));
+
+        var actionStrings = new ArrayList<>(TestGames.randomStateActions(2).stream()
+                .map(ActionEncoder.StateAction::actionString)
+                .toList());
+        actionStrings.set(actionStrings.size() / 2, "77");
+        assertNull(ActionEncoder.decodeAndApplyAll(state, actionStrings));
+        assertNull(ActionEncoder.decodeAndApplyAll(state, List.of("A")));
+    }
+
+    @Test
+    void actionEncoderReplayedBoardsHaveConsistentInsertionPositions() {
+        var actionStrings = TestGames.randomStateActions(5).stream().map(ActionEncoder.StateAction::actionString).toList();
+        var states = ActionEncoder.decodeAndApplyAll(TestGames.startedState(5), actionStrings, 1);
+        assertNotNull(states);
+
+        for (var state : states) {
+            var board = state.board();
+            var expected = new HashSet<Pos>();
+            for (int x = -Board.REACH; x <= Board.REACH; x += 1) {
+                for (int y = -Board.REACH; y <= Board.REACH; y += 1) {
+                    var pos = new Pos(x, y);
+                    if (board.tileAt(pos) == null
+                            && Direction.ALL.stream().anyMatch(d -> board.tileAt(pos.neighbor(d)) != null))
+                        expected.add(pos);
+                }
+            }
+            assertEquals(expected, board.insertionPositions());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionLogTest {
+    @Test
+    void actionLogEncodeDecodeRoundTrips() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var actionStrings = actionStrings(TestGames.randomStateActions(seed));
+            assertEquals(actionStrings, ActionLog.decode(ActionLog.encode(actionStrings)));
+        }
+    }
+
+    @Test
+    void actionLogPreservesVariableLengthActions() {
+        var actionStrings = List.of("A", "AB", "B" + Base32.encodeVarint(1024), "BRQA", "7", "77");
+        assertEquals(actionStrings, ActionLog.decode(ActionLog.encode(actionStrings)));
+    }
+
+    @Test
+    void actionLogEncodesEmptyLog() {
+        var log = ActionLog.encode(List.of());
+        assertEquals(List.of(), ActionLog.decode(log));
+        assertFalse(log.hasRemaining());
+    }
+
+    @Test
+    void actionLogEncodeRejectsInvalidActions() {
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.encode(List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.encode(List.of("")));
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.encode(List.of("CAA")));
+    }
+
+    @Test
+    void actionLogDecodeAndApplyAllReplaysRandomGames() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var stateActions = TestGames.randomStateActions(seed);
+            var log = ActionLog.encode(actionStrings(stateActions));
+
+            var gameStates = ActionLog.decodeAndApplyAll(TestGames.startedState(seed), log);
+            assertNotNull(gameStates);
+            assertEquals(stateActions.stream().map(ActionEncoder.StateAction::gameState).toList(), gameStates);
+        }
+    }
+
+    @Test
+    void actionLogDecodeAndApplyAllRejectsMismatchedForms() {
+        var actionStrings = new ArrayList<>(actionStrings(TestGames.randomStateActions(1)));
+        var placement = actionStrings.getFirst();
+        actionStrings.set(0, placement.substring(1));
+
+        assertNull(ActionLog.decodeAndApplyAll(TestGames.startedState(1), ActionLog.encode(actionStrings)));
+
+        // A placement that fits the legacy form must not be accepted in the variable-length form.
+        actionStrings.set(0, "B" + Base32.encodeVarint(ActionEncoder.token(placement)));
+        assertNull(ActionLog.decodeAndApplyAll(TestGames.startedState(1), ActionLog.encode(actionStrings)));
+    }
+
+    @Test
+    void actionLogDecodeRejectsCorruptLogs() {
+        var bytes = ActionLog.encode(actionStrings(TestGames.randomStateActions(2))).array();
+
+        var badVersion = bytes.clone();
+        badVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.decode(ByteBuffer.wrap(badVersion)));
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.decode(ByteBuffer.wrap(truncated)));
+        assertNull(ActionLog.decodeAndApplyAll(TestGames.startedState(2), ByteBuffer.wrap(truncated)));
+
+        var badForm = ActionLog.encode(List.of("A")).array();
+        badForm[badForm.length - 1] = 3;
+        assertThrows(IllegalArgumentException.class, () -> ActionLog.decode(ByteBuffer.wrap(badForm)));
+    }
+
+    @Test
+    void actionLogWriteReadRoundTripsThroughFiles() throws IOException {
+        var path = Files.createTempFile("actions", ".log");
+        try {
+            var games = new ArrayList<List<String>>();
+            for (long seed = 0; seed < 3; seed += 1)
+                games.add(actionStrings(TestGames.randomStateActions(seed)));
+
+            try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                for (var game : games)
+                    ActionLog.write(channel, game);
+            }
+
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                for (var game : games)
+                    assertEquals(game, ActionLog.read(channel));
+                assertNull(ActionLog.read(channel));
+            }
+
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                assertEquals(games, ActionLog.readAll(channel));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void actionLogReadRejectsTruncatedFiles() throws IOException {
+        var path = Files.createTempFile("actions", ".log");
+        try {
+            var bytes = ActionLog.encode(actionStrings(TestGames.randomStateActions(0))).array();
+            Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                assertThrows(IOException.class, () -> ActionLog.read(channel));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static List<String> actionStrings(List<ActionEncoder.StateAction> stateActions) {
+        return stateActions.stream().map(ActionEncoder.StateAction::actionString).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base32Test {
+    @Test
+    void base32IsValidAcceptsStringsOfAnyLength() {
+        assertTrue(Base32.isValid("A"));
+        assertTrue(Base32.isValid("7Z"));
+        assertTrue(Base32.isValid("BQAB"));
+        assertFalse(Base32.isValid("BQ1B"));
+        assertFalse(Base32.isValid("a"));
+        assertThrows(IllegalArgumentException.class, () -> Base32.isValid(""));
+    }
+
+    @Test
+    void base32DecodeStillWorksForLegacyStrings() {
+        for (int value = 0; value < (1 << 10); value += 1) {
+            assertEquals(value, Base32.decode(Base32.encodeBits10(value)));
+            assertEquals(value & 0b11111, Base32.decode(Base32.encodeBits5(value)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("AAA"));
+    }
+
+    @Test
+    void base32EncodeVarintUsesFourBitsPerCharacter() {
+        assertEquals("A", Base32.encodeVarint(0));
+        assertEquals("P", Base32.encodeVarint(15));
+        assertEquals("RA", Base32.encodeVarint(16));
+        assertEquals("7P", Base32.encodeVarint(255));
+        assertEquals("RQA", Base32.encodeVarint(256));
+        assertThrows(IllegalArgumentException.class, () -> Base32.encodeVarint(-1));
+    }
+
+    @Test
+    void base32VarintRoundTripsForRandomValues() {
+        var random = new java.util.Random(2024);
+        for (int i = 0; i < 10_000; i += 1) {
+            var value = random.nextInt(Integer.MAX_VALUE);
+            var encoded = Base32.encodeVarint(value);
+            assertEquals(encoded.length(), Base32.varintLength(encoded, 0));
+            assertEquals(value, Base32.decodeVarint(encoded, 0));
+        }
+        var max = Base32.encodeVarint(Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, Base32.decodeVarint("XX" + max, 2));
+    }
+
+    @Test
+    void base32DecodeVarintThrowsOnIncompleteOrOverflowingVarint() {
+        assertThrows(IllegalArgumentException.class, () -> Base32.decodeVarint("RR", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decodeVarint("R1", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decodeVarint("7777777777A", 0));
+    }
+
+    @Test
+    void base32VarintRejectsNonMinimalEncodings() {
+        assertEquals(0, Base32.decodeVarint("A", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decodeVarint("QA", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.varintLength("QP", 0));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decodeVarint("QQRA", 0));
+        assertEquals(16, Base32.decodeVarint("RA", 0));
+    }
+}
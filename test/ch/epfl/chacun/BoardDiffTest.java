@@ -0,0 +1,79 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDiffTest {
+    @Test
+    void boardDiffBetweenSuccessiveBoardsMatchesFullComparison() {
+        for (var seed = 0; seed < 5; seed += 1) {
+            var board = TestGames.startedState(seed).board();
+            for (var stateAction : TestGames.randomStateActions(seed)) {
+                var newBoard = stateAction.gameState().board();
+                assertEquals(fullDiff(board, newBoard), BoardDiff.between(board, newBoard));
+                board = newBoard;
+            }
+        }
+    }
+
+    @Test
+    void boardDiffBetweenUnrelatedBoardsMatchesFullComparison() {
+        var board1 = TestGames.randomStateActions(1).getLast().gameState().board();
+        var board2 = TestGames.randomStateActions(2).getLast().gameState().board();
+
+        assertEquals(fullDiff(board1, board2), BoardDiff.between(board1, board2));
+        assertEquals(fullDiff(board2, Board.EMPTY), BoardDiff.between(board2, Board.EMPTY));
+    }
+
+    @Test
+    void boardDiffIsEmptyForIdenticalBoards() {
+        var board = TestGames.randomStateActions(3).getLast().gameState().board();
+        var diff = BoardDiff.between(board, board);
+
+        assertTrue(diff.isEmpty());
+        assertEquals(Set.of(), diff.addedOccupants());
+        assertEquals(Set.of(), diff.removedOccupants());
+    }
+
+    @Test
+    void boardDiffContainsOnlyTheNewTileAndItsNeighborsForAPlacement() {
+        var state = TestGames.startedState(4);
+        var placement = TestGames.randomStateActions(4).getFirst().gameState();
+        var diff = BoardDiff.between(state.board(), placement.board());
+        var newTile = placement.board().lastPlacedTile();
+
+        assertEquals(Set.of(newTile.pos()), diff.changedTiles());
+        assertEquals(Set.of(newTile.pos()), diff.removedInsertionPositions());
+        for (var pos : diff.addedInsertionPositions())
+            assertEquals(1, Math.abs(pos.x() - newTile.pos().x()) + Math.abs(pos.y() - newTile.pos().y()));
+    }
+
+    private static BoardDiff fullDiff(Board oldBoard, Board newBoard) {
+        var changedTiles = new HashSet<Pos>();
+        for (var x = -Board.REACH; x <= Board.REACH; x += 1) {
+            for (var y = -Board.REACH; y <= Board.REACH; y += 1) {
+                var pos = new Pos(x, y);
+                if (!Objects.equals(oldBoard.tileAt(pos), newBoard.tileAt(pos)))
+                    changedTiles.add(pos);
+            }
+        }
+        var addedOccupants = new HashSet<>(newBoard.occupants());
+        addedOccupants.removeAll(oldBoard.occupants());
+        var removedOccupants = new HashSet<>(oldBoard.occupants());
+        removedOccupants.removeAll(newBoard.occupants());
+        var addedFringe = new HashSet<>(newBoard.insertionPositions());
+        addedFringe.removeAll(oldBoard.insertionPositions());
+        var removedFringe = new HashSet<>(oldBoard.insertionPositions());
+        removedFringe.removeAll(newBoard.insertionPositions());
+        var changedAnimals = new HashSet<>(newBoard.cancelledAnimals());
+        changedAnimals.removeAll(oldBoard.cancelledAnimals());
+        var uncancelledAnimals = new HashSet<>(oldBoard.cancelledAnimals());
+        uncancelledAnimals.removeAll(newBoard.cancelledAnimals());
+        changedAnimals.addAll(uncancelledAnimals);
+        return new BoardDiff(changedTiles, addedFringe, removedFringe, addedOccupants, removedOccupants,
+                changedAnimals);
+    }
+}
@@ -816,6 +816,41 @@ class BoardTest {
         assertEquals(occupant27, board.tileWithId(27).occupant());
     }
 
+    @Test
+    void boardIsAreaOccupiedDistinguishesRiversFromRiverSystems() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.BLUE, Rotation.NONE, new Pos(-1, 0));
+        var t27 = new PlacedTile(allTiles.get(27), PlayerColor.GREEN, Rotation.NONE, new Pos(-2, 0));
+
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t17)
+                .withOccupant(new Occupant(Occupant.Kind.PAWN, 17_3))
+                .withNewTile(t27)
+                .withOccupant(new Occupant(Occupant.Kind.HUT, 27_1))
+                .withoutOccupant(new Occupant(Occupant.Kind.PAWN, 17_3));
+
+        assertFalse(board.isAreaOccupied(new Occupant(Occupant.Kind.PAWN, 17_3)));
+        assertTrue(board.isAreaOccupied(new Occupant(Occupant.Kind.HUT, 17_3)));
+        assertFalse(board.isAreaOccupied(new Occupant(Occupant.Kind.PAWN, 27_1)));
+        assertFalse(board.isAreaOccupied(new Occupant(Occupant.Kind.PAWN, 99_0)));
+
+        for (var zone : t17.tile().zones()) {
+            for (var kind : Occupant.Kind.values()) {
+                var occupant = new Occupant(kind, zone.id());
+                var expected = switch (zone) {
+                    case Zone.Forest f when kind == Occupant.Kind.PAWN -> board.forestArea(f).isOccupied();
+                    case Zone.Meadow m when kind == Occupant.Kind.PAWN -> board.meadowArea(m).isOccupied();
+                    case Zone.River r when kind == Occupant.Kind.PAWN -> board.riverArea(r).isOccupied();
+                    case Zone.Water w when kind == Occupant.Kind.HUT -> board.riverSystemArea(w).isOccupied();
+                    default -> false;
+                };
+                assertEquals(expected, board.isAreaOccupied(occupant));
+            }
+        }
+    }
+
     @Test
     void boardWithoutGatherersOrFishersInWorksWithForest() {
         var allTiles = allTiles();
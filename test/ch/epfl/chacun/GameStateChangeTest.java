@@ -0,0 +1,98 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateChangeTest {
+    @Test
+    void gameStateChangeDescribesEveryTransitionOfRandomGames() {
+        for (long seed = 0; seed < 4; seed += 1) {
+            var states = TestGames.randomGame(seed);
+            for (int i = 1; i < states.size(); i++)
+                assertChangeLeadsFromTo(states.get(i - 1), states.get(i));
+        }
+    }
+
+    @Test
+    void gameStateChangeSpansSeveralTransitions() {
+        var states = TestGames.randomGame(5);
+        for (int i = 0; i + 10 < states.size(); i += 7)
+            assertChangeLeadsFromTo(states.get(i), states.get(i + 10));
+        assertChangeLeadsFromTo(states.getFirst(), states.getLast());
+    }
+
+    @Test
+    void gameStateChangeOfActionsMatchesTheirKind() {
+        var state = TestGames.initialState(3).withStartingTilePlaced();
+        var placement = TileSymmetries.distinctPlacements(state).getFirst();
+
+        var placed = ActionEncoder.withPlacedTile(state, placement);
+        var placedChange = placed.changeFrom(state);
+        assertEquals(List.of(placement), placedChange.placedTiles());
+        assertTrue(placedChange.addedOccupants().isEmpty());
+        assertFalse(placedChange.isEmpty());
+
+        var afterPlacement = placed.gameState();
+        if (afterPlacement.nextAction() == GameState.Action.OCCUPY_TILE) {
+            var occupant = afterPlacement.lastTilePotentialOccupants().iterator().next();
+            var occupied = ActionEncoder.withNewOccupant(afterPlacement, occupant).changeFrom(afterPlacement);
+            assertEquals(Set.of(occupant), occupied.addedOccupants());
+            assertTrue(occupied.placedTiles().isEmpty());
+
+            var skipped = ActionEncoder.withNewOccupant(afterPlacement, null).changeFrom(afterPlacement);
+            assertTrue(skipped.isEmpty());
+        }
+
+        assertTrue(GameStateChange.between(state, state).isEmpty());
+    }
+
+    @Test
+    void gameStateChangeRejectsStatesThatDoNotExtendEachOther() {
+        var states = TestGames.randomGame(6);
+        assertThrows(IllegalArgumentException.class,
+                () -> GameStateChange.between(states.getLast(), states.get(10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameStateChange.between(states.get(30), TestGames.randomGame(7).get(30)));
+    }
+
+    @Test
+    void transitionChangeMatchesGameStateChange() {
+        var states = TestGames.randomGame(8);
+        var transition = new TransitionPublisher.Transition(states.get(20), List.of("A"), states.get(21));
+        var merged = transition.followedBy(new TransitionPublisher.Transition(states.get(21), List.of("B"),
+                states.get(22)));
+        assertEquals(GameStateChange.between(states.get(20), states.get(21)), transition.change());
+        assertEquals(GameStateChange.between(states.get(20), states.get(22)), merged.change());
+    }
+
+    private static void assertChangeLeadsFromTo(GameState oldState, GameState newState) {
+        var change = GameStateChange.between(oldState, newState);
+
+        var tiles = new ArrayList<>(oldState.board().placedTiles().stream().map(PlacedTile::pos).toList());
+        change.placedTiles().forEach(t -> tiles.add(t.pos()));
+        assertEquals(newState.board().placedTiles().stream().map(PlacedTile::pos).toList(), tiles);
+
+        var occupants = new HashSet<>(oldState.board().occupants());
+        occupants.removeAll(change.removedOccupants());
+        occupants.addAll(change.addedOccupants());
+        assertEquals(newState.board().occupants(), occupants);
+
+        var animals = new HashSet<>(oldState.board().cancelledAnimals());
+        animals.addAll(change.cancelledAnimals());
+        assertEquals(newState.board().cancelledAnimals(), animals);
+
+        var messages = new ArrayList<>(oldState.messageBoard().messages());
+        messages.addAll(change.appendedMessages());
+        assertEquals(newState.messageBoard().messages(), messages);
+
+        var points = new HashMap<>(oldState.messageBoard().points());
+        change.pointsChanges().forEach((player, gained) -> points.merge(player, gained, Integer::sum));
+        points.values().removeIf(p -> p == 0);
+        var newPoints = new HashMap<>(newState.messageBoard().points());
+        newPoints.values().removeIf(p -> p == 0);
+        assertEquals(newPoints, points);
+    }
+}
@@ -0,0 +1,90 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+    @Test
+    void perftCountsOneNodeAtDepthZero() {
+        assertEquals(1, Perft.count(TestGames.startedState(0), 0));
+    }
+
+    @Test
+    void perftCountsPlacementsAtDepthOne() {
+        var state = TestGames.startedState(1);
+        var placements = 0;
+        for (var pos : state.board().insertionPositions()) {
+            for (var rotation : Rotation.ALL) {
+                if (state.board().canAddTile(new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos)))
+                    placements += 1;
+            }
+        }
+
+        assertEquals(placements, Perft.count(state, 1));
+        assertEquals(placements, Perft.successors(state).size());
+    }
+
+    @Test
+    void perftCountsOccupationsIncludingPass() {
+        var state = TestGames.startedState(2);
+        var placed = Perft.successors(state).stream()
+                .filter(s -> s.nextAction() == GameState.Action.OCCUPY_TILE)
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(placed.lastTilePotentialOccupants().size() + 1, Perft.count(placed, 1));
+    }
+
+    @Test
+    void perftCountIsTheSumOfTheCountsOfTheSuccessors() {
+        for (var state : TestGames.randomStates(3)) {
+            var sum = 0L;
+            for (var successor : Perft.successors(state))
+                sum += Perft.count(successor, 1);
+            assertEquals(sum, Perft.count(state, 2));
+        }
+    }
+
+    @Test
+    void perftParallelCountEqualsSequentialCount() {
+        var state = TestGames.startedState(4);
+        for (var depth = 0; depth <= 4; depth += 1) {
+            var sequential = Perft.run(state, depth, false);
+            var parallel = Perft.run(state, depth, true);
+            assertEquals(sequential.nodes(), parallel.nodes());
+            assertEquals(depth, parallel.depth());
+        }
+    }
+
+    @Test
+    void perftCountIsReproducible() {
+        assertEquals(Perft.count(TestGames.startedState(5), 3), Perft.count(TestGames.startedState(5), 3));
+    }
+
+    @Test
+    void perftCountsNothingAfterTheEndOfTheGame() {
+        var end = TestGames.randomStates(6).getLast();
+
+        assertEquals(GameState.Action.END_GAME, end.nextAction());
+        assertEquals(List.of(), Perft.successors(end));
+        assertEquals(0, Perft.count(end, 2));
+        assertEquals(1, Perft.count(end, 0));
+    }
+
+    @Test
+    void perftRejectsNegativeDepth() {
+        var state = TestGames.startedState(7);
+        assertThrows(IllegalArgumentException.class, () -> Perft.count(state, -1));
+        assertThrows(IllegalArgumentException.class, () -> Perft.run(state, -1, true));
+    }
+
+    @Test
+    void perftResultNodesPerSecondWorks() {
+        assertEquals(2000, new Perft.Result(3, 1000, Duration.ofMillis(500)).nodesPerSecond(), 1e-9);
+        assertEquals(0, new Perft.Result(3, 1000, Duration.ZERO).nodesPerSecond());
+    }
+}
@@ -345,6 +345,29 @@ class PlacedTileTest {
         assertEquals(expectedPotentialOccupants, placedTile.potentialOccupants());
     }
 
+    @Test
+    void placedTilePotentialOccupantsIsImmutableAndDependsOnlyOnTile() {
+        var zoneMeadow = new Zone.Meadow(10, List.of(), null);
+        var zoneRiver = new Zone.River(11, 0, null);
+        var sideN = new TileSide.River(zoneMeadow, zoneRiver, zoneMeadow);
+        var sideE = new TileSide.Meadow(zoneMeadow);
+        var tile = new Tile(1, Tile.Kind.NORMAL, sideN, sideE, sideN, sideE);
+
+        var placedTile = new PlacedTile(tile, PlayerColor.RED, Rotation.NONE, new Pos(0, 0));
+        var rotatedTile = new PlacedTile(tile, PlayerColor.BLUE, Rotation.LEFT, new Pos(1, 0));
+        var potentialOccupants = placedTile.potentialOccupants();
+
+        assertEquals(potentialOccupants, rotatedTile.potentialOccupants());
+        assertThrows(UnsupportedOperationException.class,
+                () -> potentialOccupants.add(new Occupant(Occupant.Kind.PAWN, 12)));
+
+        var otherZoneMeadow = new Zone.Meadow(12, List.of(), null);
+        var otherSide = new TileSide.Meadow(otherZoneMeadow);
+        var otherTile = new Tile(1, Tile.Kind.NORMAL, otherSide, otherSide, otherSide, otherSide);
+        var otherPlacedTile = new PlacedTile(otherTile, PlayerColor.RED, Rotation.NONE, new Pos(0, 0));
+        assertEquals(Set.of(new Occupant(Occupant.Kind.PAWN, 12)), otherPlacedTile.potentialOccupants());
+    }
+
     @Test
     void placedTileWithOccupantThrowsIfTileIsAlreadyOccupied() {
         var zoneMeadow1 = new Zone.Meadow(10, List.of(), null);
@@ -0,0 +1,121 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementOutcomeTest {
+    @Test
+    void evaluatePlacementMatchesPlayingThePlacement() {
+        var evaluated = 0;
+        for (var seed = 0; seed < 4; seed += 1) {
+            var random = new Random(seed);
+            var state = TestGames.startedState(seed);
+
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var placements = legalPlacements(state);
+                var placement = placements.get(random.nextInt(placements.size()));
+
+                var placed = state.withPlacedTile(placement);
+                var occupiable = placedWithoutRetake(placed);
+                var occupants = occupiable.nextAction() == GameState.Action.OCCUPY_TILE
+                        ? sortedOccupants(occupiable.lastTilePotentialOccupants())
+                        : List.<Occupant>of();
+                var i = random.nextInt(occupants.size() + 1);
+                var occupant = i == occupants.size() ? null : occupants.get(i);
+
+                var outcome = state.evaluatePlacement(placement, occupant);
+                var next = play(placed, occupant);
+
+                if (next.nextAction() != GameState.Action.END_GAME) {
+                    var oldMessages = state.messageBoard().messages();
+                    var newMessages = next.messageBoard().messages().subList(oldMessages.size(),
+                            next.messageBoard().messages().size());
+                    var newScoredMessages = newMessages.stream().filter(m -> !m.scorers().isEmpty()).toList();
+
+                    assertEquals(newScoredMessages, outcome.messages());
+                    assertEquals(new MessageBoard(state.messageBoard().textMaker(), newMessages).points(),
+                            outcome.points());
+
+                    var removed = new HashSet<>(state.board().occupants());
+                    if (occupant != null)
+                        removed.add(occupant);
+                    removed.removeAll(next.board().occupants());
+                    assertEquals(removed, outcome.returnedOccupants());
+                    assertEquals(next.tileToPlace().kind() == Tile.Kind.MENHIR, outcome.canPlayAgain());
+                    evaluated += 1;
+                }
+                state = next;
+            }
+        }
+        assertTrue(evaluated > 100);
+    }
+
+    @Test
+    void evaluatePlacementDoesNotModifyTheState() {
+        var state = TestGames.startedState(5);
+        var board = state.board();
+        var messages = state.messageBoard().messages();
+
+        for (var placement : legalPlacements(state))
+            state.evaluatePlacement(placement, null);
+
+        assertSame(board, state.board());
+        assertEquals(messages, state.messageBoard().messages());
+        assertEquals(Set.of(), board.occupants());
+    }
+
+    @Test
+    void evaluatePlacementRejectsInvalidPlacementsAndOccupants() {
+        var state = TestGames.startedState(6);
+        var placement = legalPlacements(state).getFirst();
+        var wrongPos = new PlacedTile(state.tileToPlace(), state.currentPlayer(), Rotation.NONE, new Pos(5, 5));
+
+        assertThrows(IllegalArgumentException.class, () -> state.evaluatePlacement(wrongPos, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> state.evaluatePlacement(placement, new Occupant(Occupant.Kind.PAWN, 560)));
+        assertThrows(IllegalArgumentException.class,
+                () -> state.withPlacedTile(placement).evaluatePlacement(placement, null));
+    }
+
+    @Test
+    void placementOutcomePointsOfReturnsZeroForNonScorers() {
+        var outcome = new PlacementOutcome(List.of(), Set.of(), Set.of(), Map.of(PlayerColor.RED, 4), Set.of(),
+                false, false);
+
+        assertEquals(4, outcome.pointsOf(PlayerColor.RED));
+        assertEquals(0, outcome.pointsOf(PlayerColor.BLUE));
+    }
+
+    private static GameState placedWithoutRetake(GameState placed) {
+        return placed.nextAction() == GameState.Action.RETAKE_PAWN ? placed.withOccupantRemoved(null) : placed;
+    }
+
+    private static GameState play(GameState placed, Occupant occupant) {
+        var state = placedWithoutRetake(placed);
+        return state.nextAction() == GameState.Action.OCCUPY_TILE ? state.withNewOccupant(occupant) : state;
+    }
+
+    private static List<Occupant> sortedOccupants(Set<Occupant> occupants) {
+        return occupants.stream()
+                .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                .toList();
+    }
+
+    private static List<PlacedTile> legalPlacements(GameState state) {
+        var placements = new ArrayList<PlacedTile>();
+        var fringe = state.board().insertionPositions().stream()
+                .sorted(Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y))
+                .toList();
+        for (var pos : fringe) {
+            for (var rotation : Rotation.ALL) {
+                var placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                if (state.board().canAddTile(placedTile))
+                    placements.add(placedTile);
+            }
+        }
+        return placements;
+    }
+}
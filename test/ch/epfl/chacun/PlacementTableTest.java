@@ -0,0 +1,90 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementTableTest {
+    @Test
+    void placementTableAgreesWithCanAddTileThroughoutAGame() {
+        for (var seed = 0; seed < 3; seed += 1) {
+            for (var state : TestGames.randomStates(seed)) {
+                if (state.nextAction() != GameState.Action.PLACE_TILE)
+                    continue;
+
+                var table = state.placementTable();
+                assertEquals(state.board().insertionPositions(), table.validRotations().keySet());
+                for (var pos : state.board().insertionPositions()) {
+                    for (var rotation : Rotation.ALL) {
+                        var placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                        assertEquals(state.board().canAddTile(placedTile), table.isValid(pos, rotation));
+                    }
+                }
+                assertEquals(state.board().couldPlaceTile(state.tileToPlace()), table.isPlaceableAnywhere());
+            }
+        }
+    }
+
+    @Test
+    void placementTableIsComputedOncePerBoardAndTile() {
+        var state = TestGames.startedState(0);
+
+        assertSame(state.placementTable(), state.placementTable());
+        assertSame(state.tileToPlace(), state.placementTable().tile());
+
+        var next = state.withPlacedTile(anyPlacement(state));
+        assertEquals(next.tileToPlace() == null, next.placementTable() == null);
+    }
+
+    @Test
+    void placementTableIsEmptyOutsideTheFringe() {
+        var table = TestGames.startedState(1).placementTable();
+
+        assertEquals(Set.of(), table.validRotations(new Pos(0, 0)));
+        assertFalse(table.isPlaceable(new Pos(0, 0)));
+        assertFalse(table.isValid(new Pos(5, 5), Rotation.NONE));
+        assertNull(table.nextValidRotation(new Pos(5, 5), Rotation.NONE));
+    }
+
+    @Test
+    void placementTableNextValidRotationCyclesClockwiseThroughValidRotations() {
+        var validRotations = EnumSet.of(Rotation.RIGHT, Rotation.LEFT);
+        var pos = new Pos(1, 0);
+        var table = new PlacementTable(Tiles.TILES.get(10), Map.of(pos, validRotations));
+
+        assertEquals(Rotation.RIGHT, table.nextValidRotation(pos, Rotation.NONE));
+        assertEquals(Rotation.LEFT, table.nextValidRotation(pos, Rotation.RIGHT));
+        assertEquals(Rotation.RIGHT, table.nextValidRotation(pos, Rotation.LEFT));
+
+        var single = new PlacementTable(Tiles.TILES.get(10), Map.of(pos, EnumSet.of(Rotation.HALF_TURN)));
+        assertEquals(Rotation.HALF_TURN, single.nextValidRotation(pos, Rotation.HALF_TURN));
+    }
+
+    @Test
+    void placementTableIsImmutable() {
+        var rotations = EnumSet.of(Rotation.NONE);
+        var validRotations = new HashMap<Pos, Set<Rotation>>();
+        var pos = new Pos(0, 1);
+        validRotations.put(pos, rotations);
+        var table = new PlacementTable(Tiles.TILES.get(0), validRotations);
+
+        rotations.add(Rotation.LEFT);
+        validRotations.put(new Pos(0, -1), rotations);
+
+        assertEquals(Set.of(Rotation.NONE), table.validRotations(pos));
+        assertEquals(Set.of(pos), table.validRotations().keySet());
+        assertThrows(UnsupportedOperationException.class, () -> table.validRotations(pos).add(Rotation.LEFT));
+    }
+
+    private static PlacedTile anyPlacement(GameState state) {
+        var table = state.placementTable();
+        var pos = table.validRotations().keySet().stream()
+                .filter(table::isPlaceable)
+                .min(Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y))
+                .orElseThrow();
+        return new PlacedTile(state.tileToPlace(), state.currentPlayer(),
+                table.nextValidRotation(pos, Rotation.LEFT), pos);
+    }
+}
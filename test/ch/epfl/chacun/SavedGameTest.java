@@ -0,0 +1,69 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SavedGameTest {
+    private static final GameSetup SETUP = new GameSetup(13, List.of("Dalia", "Claude", "Bachir"));
+
+    @Test
+    void savedGameRoundTripsEveryPrefixOfARandomGame() {
+        var stateActions = TestGames.randomStateActions(SETUP.initialState().withStartingTilePlaced(), 13);
+        var actionStrings = stateActions.stream().map(ActionEncoder.StateAction::actionString).toList();
+
+        for (var count = 0; count <= actionStrings.size(); count += 7) {
+            var prefix = actionStrings.subList(0, count);
+            var savedGame = SavedGame.decode(SavedGame.encode(SETUP, prefix));
+
+            assertEquals(SETUP, savedGame.setup());
+            assertEquals(prefix, savedGame.actionStrings());
+            var expected = count == 0
+                    ? SETUP.initialState().withStartingTilePlaced()
+                    : stateActions.get(count - 1).gameState();
+            assertEquals(expected, savedGame.gameState());
+            assertFalse(savedGame.isOver());
+            assertEquals(SavedGame.encode(SETUP, prefix), savedGame.encode());
+        }
+
+        var finished = SavedGame.decode(SavedGame.encode(SETUP, actionStrings));
+        assertEquals(stateActions.getLast().gameState(), finished.gameState());
+        assertTrue(finished.isOver());
+    }
+
+    @Test
+    void savedGameRejectsTruncatedText() {
+        var actionStrings = TestGames.randomStateActions(SETUP.initialState().withStartingTilePlaced(), 5)
+                .stream()
+                .limit(40)
+                .map(ActionEncoder.StateAction::actionString)
+                .toList();
+        var text = SavedGame.encode(SETUP, actionStrings);
+
+        for (var length = 0; length < text.length(); length += 1) {
+            var truncated = text.substring(0, length);
+            assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(truncated), truncated);
+        }
+    }
+
+    @Test
+    void savedGameRejectsCorruptText() {
+        var text = SavedGame.encode(SETUP, List.of());
+        var lines = text.split("\n");
+
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode("\n\n"));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(text + text));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(lines[0] + "\n"));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode("13 Dalia\n" + lines[1] + "\n"));
+        assertThrows(IllegalArgumentException.class, () -> SavedGame.decode(lines[0] + "\n" + "!!!\n"));
+
+        // An action that is not legal in its state.
+        var start = SETUP.initialState().withStartingTilePlaced();
+        var illegal = TestGames.randomStateActions(start, 1).get(1).actionString();
+        assertThrows(IllegalArgumentException.class,
+                () -> SavedGame.decode(SavedGame.encode(SETUP, List.of(illegal))));
+    }
+}
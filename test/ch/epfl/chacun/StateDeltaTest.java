@@ -0,0 +1,94 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateDeltaTest {
+    @Test
+    void stateDeltaRoundTripsEveryConsecutivePairOfRandomGames() {
+        for (long seed = 0; seed < 4; seed += 1) {
+            var states = TestGames.randomGame(seed);
+            for (int i = 1; i < states.size(); i++) {
+                var delta = StateDelta.encode(states.get(i - 1), states.get(i));
+                assertEquals(states.get(i), StateDelta.apply(states.get(i - 1), delta));
+                assertFalse(delta.hasRemaining());
+            }
+        }
+    }
+
+    @Test
+    void stateDeltaOfConsecutiveStatesIsMuchSmallerThanSnapshot() {
+        var states = TestGames.randomGame(3);
+        var deltaSize = 0;
+        for (int i = 1; i < states.size(); i++)
+            deltaSize += StateDelta.encode(states.get(i - 1), states.get(i)).remaining();
+
+        var averageDeltaSize = deltaSize / (states.size() - 1);
+        var finalSnapshotSize = StateSnapshot.encode(states.getLast()).remaining();
+        assertTrue(averageDeltaSize * 10 < finalSnapshotSize,
+                "delta: " + averageDeltaSize + ", snapshot: " + finalSnapshotSize);
+    }
+
+    @Test
+    void stateDeltaHistoryRoundTripsWholeGame() {
+        var states = TestGames.randomGame(5);
+        var textMaker = states.getFirst().messageBoard().textMaker();
+
+        var history = StateDelta.encodeHistory(states);
+        var snapshotsSize = 0;
+        for (var state : states)
+            snapshotsSize += StateSnapshot.encode(state).remaining();
+        assertTrue(history.remaining() * 10 < snapshotsSize);
+
+        assertEquals(states, StateDelta.decodeHistory(history, textMaker));
+        assertFalse(history.hasRemaining());
+
+        var single = StateDelta.encodeHistory(List.of(states.get(4)));
+        assertEquals(List.of(states.get(4)), StateDelta.decodeHistory(single, textMaker));
+        assertThrows(IllegalArgumentException.class, () -> StateDelta.encodeHistory(List.of()));
+    }
+
+    @Test
+    void stateDeltaWorksBetweenUnrelatedStates() {
+        var states = TestGames.randomGame(6);
+        var otherStates = TestGames.randomGame(8);
+
+        var backwards = StateDelta.encode(states.getLast(), states.get(10));
+        assertEquals(states.get(10), StateDelta.apply(states.getLast(), backwards));
+
+        var forwards = StateDelta.encode(states.get(10), states.get(40));
+        assertEquals(states.get(40), StateDelta.apply(states.get(10), forwards));
+
+        var unrelated = StateDelta.encode(states.get(20), otherStates.get(20));
+        assertEquals(otherStates.get(20), StateDelta.apply(states.get(20), unrelated));
+    }
+
+    @Test
+    void stateDeltaApplyRejectsCorruptOrMismatchedDeltas() {
+        var states = TestGames.randomGame(2);
+        var delta = StateDelta.encode(states.get(10), states.get(11));
+        var bytes = new byte[delta.remaining()];
+        delta.get(bytes);
+
+        var badVersion = bytes.clone();
+        badVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> StateDelta.apply(states.get(10), ByteBuffer.wrap(badVersion)));
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> StateDelta.apply(states.get(10), ByteBuffer.wrap(truncated)));
+
+        var badKind = bytes.clone();
+        badKind[StateSnapshot.HEADER_SIZE] = 7;
+        assertThrows(IllegalArgumentException.class,
+                () -> StateDelta.apply(states.get(10), ByteBuffer.wrap(badKind)));
+
+        var late = StateDelta.encode(states.get(30), states.get(31));
+        assertThrows(IllegalArgumentException.class, () -> StateDelta.apply(states.get(10), late));
+    }
+}
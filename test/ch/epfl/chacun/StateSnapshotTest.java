@@ -0,0 +1,89 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSnapshotTest {
+    @Test
+    void stateSnapshotRoundTripsEveryStateOfRandomGames() {
+        for (long seed = 0; seed < 4; seed += 1) {
+            for (var state : TestGames.randomGame(seed)) {
+                var snapshot = StateSnapshot.encode(state);
+                var decoded = StateSnapshot.decode(snapshot, state.messageBoard().textMaker());
+                assertEquals(state, decoded);
+                assertFalse(snapshot.hasRemaining());
+            }
+        }
+    }
+
+    @Test
+    void stateSnapshotPreservesDerivedBoardQueries() {
+        var states = TestGames.randomGame(7);
+        var state = states.get(states.size() / 2);
+        var decoded = StateSnapshot.decode(StateSnapshot.encode(state), state.messageBoard().textMaker());
+
+        assertEquals(state.board().insertionPositions(), decoded.board().insertionPositions());
+        assertEquals(state.board().meadowAreas(), decoded.board().meadowAreas());
+        assertEquals(state.board().riverSystemAreas(), decoded.board().riverSystemAreas());
+        assertEquals(state.board().lastPlacedTile(), decoded.board().lastPlacedTile());
+        if (state.nextAction() == GameState.Action.OCCUPY_TILE)
+            assertEquals(state.lastTilePotentialOccupants(), decoded.lastTilePotentialOccupants());
+    }
+
+    @Test
+    void stateSnapshotOfFinishedGameFitsInAFewKilobytes() {
+        var states = TestGames.randomGame(3);
+        var finalState = states.getLast();
+        assertEquals(GameState.Action.END_GAME, finalState.nextAction());
+
+        var size = StateSnapshot.encode(finalState).remaining();
+        assertTrue(size <= StateSnapshot.maxSize(finalState));
+        assertTrue(size < 8 * 1024, "size: " + size);
+    }
+
+    @Test
+    void stateSnapshotCanReuseBuffer() {
+        var states = TestGames.randomGame(5);
+        var buffer = ByteBuffer.allocate(16 * 1024);
+        for (var state : List.of(states.get(3), states.get(20), states.getLast()))
+            StateSnapshot.encode(state, buffer);
+
+        buffer.flip();
+        var textMaker = states.getFirst().messageBoard().textMaker();
+        assertEquals(states.get(3), StateSnapshot.decode(buffer, textMaker));
+        assertEquals(states.get(20), StateSnapshot.decode(buffer, textMaker));
+        assertEquals(states.getLast(), StateSnapshot.decode(buffer, textMaker));
+        assertFalse(buffer.hasRemaining());
+
+        assertThrows(BufferOverflowException.class,
+                () -> StateSnapshot.encode(states.getLast(), ByteBuffer.allocate(16)));
+    }
+
+    @Test
+    void stateSnapshotDecodeRejectsCorruptSnapshots() {
+        var state = TestGames.randomGame(2).get(10);
+        var textMaker = state.messageBoard().textMaker();
+        var snapshot = StateSnapshot.encode(state);
+        var bytes = new byte[snapshot.remaining()];
+        snapshot.get(bytes);
+
+        var badVersion = bytes.clone();
+        badVersion[0] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> StateSnapshot.decode(ByteBuffer.wrap(badVersion), textMaker));
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> StateSnapshot.decode(ByteBuffer.wrap(truncated), textMaker));
+
+        var badBodySize = bytes.clone();
+        badBodySize[4] -= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> StateSnapshot.decode(ByteBuffer.wrap(badBodySize), textMaker));
+    }
+}
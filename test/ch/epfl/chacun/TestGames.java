@@ -0,0 +1,97 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+final class TestGames {
+    private TestGames() {}
+
+    static GameState initialState(long seed) {
+        var tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, new Random(seed));
+        var decks = new TileDecks(
+                tiles.stream().filter(t -> t.kind() == Tile.Kind.START).toList(),
+                tiles.stream().filter(t -> t.kind() == Tile.Kind.NORMAL).toList(),
+                tiles.stream().filter(t -> t.kind() == Tile.Kind.MENHIR).toList());
+        var players = List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.GREEN);
+        var names = Map.of(PlayerColor.RED, "Rouge", PlayerColor.BLUE, "Bleu", PlayerColor.GREEN, "Vert");
+        return GameState.initial(players, decks, new TextMakerFr(names));
+    }
+
+    static GameState startedState(long seed) {
+        return initialState(seed).withStartingTilePlaced();
+    }
+
+    // The states of a random game, from the starting tile placed to END_GAME included.
+    static List<GameState> randomStates(long seed) {
+        var random = new Random(seed);
+        var state = startedState(seed);
+        var states = new ArrayList<GameState>();
+
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            states.add(state);
+            var successors = Perft.successors(state);
+            state = successors.get(random.nextInt(successors.size()));
+        }
+        states.add(state);
+        return states;
+    }
+
+    // The states of a random game, from START_GAME to END_GAME included.
+    static List<GameState> randomGame(long seed) {
+        var states = new ArrayList<GameState>(List.of(initialState(seed)));
+        states.addAll(randomStates(seed));
+        return states;
+    }
+
+    // The actions of a random game played from the starting tile placed, with their resulting states.
+    static List<ActionEncoder.StateAction> randomStateActions(long seed) {
+        return randomStateActions(startedState(seed), seed);
+    }
+
+    // The actions of a random game played from the given state, with their resulting states.
+    static List<ActionEncoder.StateAction> randomStateActions(GameState state, long seed) {
+        var random = new Random(seed);
+        var stateActions = new ArrayList<ActionEncoder.StateAction>();
+
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var stateAction = switch (state.nextAction()) {
+                case PLACE_TILE -> {
+                    var placements = new ArrayList<PlacedTile>();
+                    var fringe = state.board().insertionPositions().stream()
+                            .sorted(Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y))
+                            .toList();
+                    for (var pos : fringe) {
+                        for (var rotation : Rotation.ALL) {
+                            var placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                            if (state.board().canAddTile(placedTile))
+                                placements.add(placedTile);
+                        }
+                    }
+                    yield ActionEncoder.withPlacedTile(state, placements.get(random.nextInt(placements.size())));
+                }
+                case OCCUPY_TILE -> {
+                    var occupants = state.lastTilePotentialOccupants().stream()
+                            .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                            .toList();
+                    var i = random.nextInt(occupants.size() + 1);
+                    yield ActionEncoder.withNewOccupant(state, i == occupants.size() ? null : occupants.get(i));
+                }
+                case RETAKE_PAWN -> {
+                    var player = state.currentPlayer();
+                    var board = state.board();
+                    var pawns = board.occupants().stream()
+                            .filter(o -> o.kind() == Occupant.Kind.PAWN)
+                            .filter(o -> board.tileWithId(Zone.tileId(o.zoneId())).placer() == player)
+                            .sorted(Comparator.comparingInt(Occupant::zoneId))
+                            .toList();
+                    var i = random.nextInt(pawns.size() + 1);
+                    yield ActionEncoder.withOccupantRemoved(state, i == pawns.size() ? null : pawns.get(i));
+                }
+                default -> throw new Error();
+            };
+            stateActions.add(stateAction);
+            state = stateAction.gameState();
+        }
+        return stateActions;
+    }
+}
@@ -0,0 +1,129 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileSymmetriesTest {
+    @Test
+    void tileSymmetriesRotationClassesPartitionAllRotations() {
+        for (var tile : Tiles.TILES) {
+            var classes = TileSymmetries.rotationClasses(tile);
+            var all = EnumSet.noneOf(Rotation.class);
+            for (var rotationClass : classes) {
+                assertFalse(rotationClass.isEmpty());
+                for (var rotation : rotationClass) {
+                    assertTrue(all.add(rotation));
+                    assertEquals(rotationClass, TileSymmetries.equivalentRotations(tile, rotation));
+                    assertEquals(Collections.min(rotationClass), TileSymmetries.representative(tile, rotation));
+                }
+            }
+            assertEquals(EnumSet.allOf(Rotation.class), all);
+        }
+    }
+
+    @Test
+    void tileSymmetriesFindsSymmetricTiles() {
+        assertEquals(List.of(Set.of(Rotation.NONE, Rotation.HALF_TURN), Set.of(Rotation.RIGHT, Rotation.LEFT)),
+                TileSymmetries.rotationClasses(Tiles.TILES.get(39)));
+        assertEquals(List.of(EnumSet.allOf(Rotation.class)), TileSymmetries.rotationClasses(Tiles.TILES.get(61)));
+        assertEquals(4, TileSymmetries.rotationClasses(Tiles.TILES.get(0)).size());
+    }
+
+    @Test
+    void tileSymmetriesWorksWithTilesOutsideTheTileList() {
+        var meadow = new Zone.Meadow(560, List.of(), null);
+        var side = new TileSide.Meadow(meadow);
+        var tile = new Tile(56, Tile.Kind.NORMAL, side, side, side, side);
+
+        assertEquals(List.of(EnumSet.allOf(Rotation.class)), TileSymmetries.rotationClasses(tile));
+
+        var forest = new Zone.Forest(561, Zone.Forest.Kind.WITH_MENHIR);
+        var asymmetric = new Tile(56, Tile.Kind.NORMAL, new TileSide.Forest(forest), side, side, side);
+        assertEquals(4, TileSymmetries.rotationClasses(asymmetric).size());
+    }
+
+    @Test
+    void tileSymmetriesDistinguishesZoneAttributes() {
+        var meadow1 = new Zone.Meadow(560, List.of(new Animal(5600, Animal.Kind.DEER)), null);
+        var meadow2 = new Zone.Meadow(561, List.of(), null);
+        var tile = new Tile(56, Tile.Kind.NORMAL, new TileSide.Meadow(meadow1), new TileSide.Meadow(meadow2),
+                new TileSide.Meadow(meadow1), new TileSide.Meadow(meadow2));
+
+        assertEquals(List.of(Set.of(Rotation.NONE, Rotation.HALF_TURN), Set.of(Rotation.RIGHT, Rotation.LEFT)),
+                TileSymmetries.rotationClasses(tile));
+    }
+
+    @Test
+    void tileSymmetriesEquivalentPlacementsHaveTheSameOutcome() {
+        var compared = 0;
+        for (var seed = 0; seed < 3; seed += 1) {
+            for (var state : TestGames.randomStates(seed)) {
+                if (state.nextAction() != GameState.Action.PLACE_TILE)
+                    continue;
+
+                var tile = state.tileToPlace();
+                var table = state.placementTable();
+                for (var pos : table.validRotations().keySet()) {
+                    for (var rotation : table.validRotations(pos)) {
+                        var representative = TileSymmetries.representative(tile, rotation);
+                        if (representative == rotation)
+                            continue;
+
+                        assertTrue(table.isValid(pos, representative));
+                        var placed = new PlacedTile(tile, state.currentPlayer(), rotation, pos);
+                        var placedRepresentative = new PlacedTile(tile, state.currentPlayer(), representative, pos);
+
+                        assertEquals(state.evaluatePlacement(placed, null).points(),
+                                state.evaluatePlacement(placedRepresentative, null).points());
+                        assertEquals(occupantKinds(state.withPlacedTile(placed)),
+                                occupantKinds(state.withPlacedTile(placedRepresentative)));
+                        compared += 1;
+                    }
+                }
+            }
+        }
+        assertTrue(compared > 0);
+    }
+
+    @Test
+    void tileSymmetriesDistinctPlacementsContainOneRepresentativePerClass() {
+        for (var state : TestGames.randomStates(4)) {
+            if (state.nextAction() != GameState.Action.PLACE_TILE)
+                continue;
+
+            var tile = state.tileToPlace();
+            var table = state.placementTable();
+            var expected = new HashSet<PlacedTile>();
+            for (var pos : table.validRotations().keySet()) {
+                for (var rotation : table.validRotations(pos))
+                    expected.add(new PlacedTile(tile, state.currentPlayer(),
+                            TileSymmetries.representative(tile, rotation), pos));
+            }
+
+            var distinct = TileSymmetries.distinctPlacements(state);
+            assertEquals(expected.size(), distinct.size());
+            assertEquals(expected, new HashSet<>(distinct));
+            for (var placement : distinct)
+                assertDoesNotThrow(() -> ActionEncoder.withPlacedTile(state, placement));
+        }
+    }
+
+    @Test
+    void tileSymmetriesDistinctPlacementsRejectsOtherActions() {
+        var state = TestGames.startedState(5);
+        var placement = TileSymmetries.distinctPlacements(state).getFirst();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TileSymmetries.distinctPlacements(state.withPlacedTile(placement)));
+    }
+
+    private static List<Occupant.Kind> occupantKinds(GameState state) {
+        var state1 = state.nextAction() == GameState.Action.RETAKE_PAWN ? state.withOccupantRemoved(null) : state;
+        if (state1.nextAction() != GameState.Action.OCCUPY_TILE)
+            return List.of();
+        return state1.lastTilePotentialOccupants().stream().map(Occupant::kind).sorted().toList();
+    }
+}
@@ -0,0 +1,239 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransitionPublisherTest {
+    @Test
+    void transitionPublisherDeliversTransitionsInOrderAccordingToDemand() throws Exception {
+        var states = states(6);
+        try (var publisher = new TransitionPublisher()) {
+            var subscriber = new TestSubscriber();
+            publisher.subscribe(subscriber);
+            subscriber.awaitSubscription();
+
+            publishAll(publisher, states);
+
+            subscriber.request(2);
+            var first = subscriber.received.poll(5, TimeUnit.SECONDS);
+            var second = subscriber.received.poll(5, TimeUnit.SECONDS);
+            assertEquals(new TransitionPublisher.Transition(states.get(0), List.of("A0"), states.get(1)), first);
+            assertEquals(List.of("A1"), second.actionStrings());
+
+            subscriber.request(Long.MAX_VALUE);
+            for (int i = 2; i < states.size() - 1; i++)
+                assertEquals(List.of("A" + i), subscriber.received.poll(5, TimeUnit.SECONDS).actionStrings());
+            assertFalse(subscriber.receivedWithoutDemand);
+        }
+    }
+
+    @Test
+    void transitionPublisherDropsTransitionsForFullSubscribers() throws Exception {
+        var states = states(10);
+        var publisher = new TransitionPublisher();
+        var subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber, 3, TransitionPublisher.Overflow.DROP);
+        subscriber.awaitSubscription();
+
+        publishAll(publisher, states);
+        publisher.close();
+        subscriber.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        var actions = subscriber.received.stream().flatMap(t -> t.actionStrings().stream()).toList();
+        assertEquals(List.of("A0", "A1", "A2"), actions);
+    }
+
+    @Test
+    void transitionPublisherBlocksUntilSubscriberCatchesUp() throws Exception {
+        var states = states(6);
+        var publisher = new TransitionPublisher();
+        var subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber, 2, TransitionPublisher.Overflow.BLOCK);
+        subscriber.awaitSubscription();
+
+        var publishedCount = new AtomicInteger();
+        var publishing = Thread.ofPlatform().start(() -> {
+            for (int i = 1; i < states.size(); i++) {
+                publisher.publish(states.get(i - 1), "A" + (i - 1), states.get(i));
+                publishedCount.incrementAndGet();
+            }
+        });
+
+        // Without demand, the third transition cannot fit in the buffer: the publisher parks until it can.
+        var deadline = System.nanoTime() + 5_000_000_000L;
+        while (publishedCount.get() != 2 || publishing.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.onSpinWait();
+        }
+        assertTrue(publishing.isAlive());
+
+        subscriber.request(Long.MAX_VALUE);
+        publishing.join(5_000);
+        assertFalse(publishing.isAlive());
+        publisher.close();
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(states.size() - 1, subscriber.received.size());
+    }
+
+    @Test
+    void transitionPublisherCoalescesTransitionsForFullSubscribers() throws Exception {
+        var states = states(7);
+        var publisher = new TransitionPublisher();
+        var subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber, 2, TransitionPublisher.Overflow.COALESCE);
+        subscriber.awaitSubscription();
+
+        publishAll(publisher, states);
+        publisher.close();
+        subscriber.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        var transitions = List.copyOf(subscriber.received);
+        assertEquals(2, transitions.size());
+        assertEquals(List.of("A0"), transitions.get(0).actionStrings());
+        assertEquals(states.get(1), transitions.get(1).oldState());
+        assertEquals(List.of("A1", "A2", "A3", "A4", "A5"), transitions.get(1).actionStrings());
+        assertEquals(states.getLast(), transitions.get(1).newState());
+        assertEquals(BoardDiff.between(states.get(1).board(), states.getLast().board()),
+                transitions.get(1).boardDiff());
+    }
+
+    @Test
+    void transitionPublisherLetsSlowSubscribersLagWithoutDelayingOthers() throws Exception {
+        var states = states(40);
+        var publisher = new TransitionPublisher();
+        var fast = new TestSubscriber();
+        var stalled = new TestSubscriber();
+        publisher.subscribe(fast, 4, TransitionPublisher.Overflow.BLOCK);
+        publisher.subscribe(stalled, 4, TransitionPublisher.Overflow.COALESCE);
+        fast.awaitSubscription();
+        stalled.awaitSubscription();
+        fast.request(Long.MAX_VALUE);
+
+        publishAll(publisher, states);
+        publisher.close();
+        assertTrue(fast.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(states.size() - 1, fast.received.size());
+
+        stalled.request(Long.MAX_VALUE);
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(4, stalled.received.size());
+        assertEquals(states.getLast(), List.copyOf(stalled.received).getLast().newState());
+    }
+
+    @Test
+    void transitionPublisherHandlesCancellationInvalidDemandAndClosing() throws Exception {
+        var states = states(4);
+        var publisher = new TransitionPublisher();
+
+        var cancelled = new TestSubscriber();
+        publisher.subscribe(cancelled);
+        cancelled.awaitSubscription();
+        cancelled.subscription.cancel();
+        assertEquals(0, publisher.subscriberCount());
+
+        var invalid = new TestSubscriber();
+        publisher.subscribe(invalid);
+        invalid.awaitSubscription();
+        invalid.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, invalid.error.get(5, TimeUnit.SECONDS));
+
+        assertEquals(0, publisher.subscriberCount());
+        publishAll(publisher, states);
+        cancelled.subscription.request(Long.MAX_VALUE);
+        assertTrue(cancelled.received.isEmpty());
+
+        publisher.close();
+        assertThrows(IllegalStateException.class,
+                () -> publisher.publish(states.get(0), "A0", states.get(1)));
+
+        var late = new TestSubscriber();
+        publisher.subscribe(late);
+        assertTrue(late.completed.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class,
+                () -> publisher.subscribe(new TestSubscriber(), 0, TransitionPublisher.Overflow.DROP));
+    }
+
+    @Test
+    void transitionPublisherNeverBlocksForDefaultSubscribers() throws Exception {
+        var states = states(4);
+        var publisher = new TransitionPublisher();
+        var subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.awaitSubscription();
+
+        // Far more transitions than the default capacity, with no demand: BLOCK would never return.
+        var published = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 4 * TransitionPublisher.DEFAULT_CAPACITY; i++)
+                publisher.publish(states.get(i % 3), "A" + i, states.get(i % 3 + 1));
+        });
+        published.get(5, TimeUnit.SECONDS);
+        publisher.close();
+
+        subscriber.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(TransitionPublisher.DEFAULT_CAPACITY, subscriber.received.size());
+        var actionCount = subscriber.received.stream().mapToInt(t -> t.actionStrings().size()).sum();
+        assertEquals(4 * TransitionPublisher.DEFAULT_CAPACITY, actionCount);
+    }
+
+    private static void publishAll(TransitionPublisher publisher, List<GameState> states) {
+        for (int i = 1; i < states.size(); i++)
+            publisher.publish(states.get(i - 1), "A" + (i - 1), states.get(i));
+    }
+
+    private static List<GameState> states(int count) {
+        return TestGames.randomStates(count).subList(0, count);
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<TransitionPublisher.Transition> {
+        final BlockingQueue<TransitionPublisher.Transition> received = new LinkedBlockingQueue<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        final AtomicLong outstanding = new AtomicLong();
+        volatile Flow.Subscription subscription;
+        volatile boolean receivedWithoutDemand = false;
+
+        void awaitSubscription() throws InterruptedException {
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+        }
+
+        // Requests n more transitions, keeping track of the demand to detect transitions delivered without it.
+        void request(long n) {
+            outstanding.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(TransitionPublisher.Transition item) {
+            if (outstanding.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1) <= 0)
+                receivedWithoutDemand = true;
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.complete(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
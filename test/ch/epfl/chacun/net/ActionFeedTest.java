@@ -0,0 +1,49 @@
+package ch.epfl.chacun.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionFeedTest {
+    @Test
+    void actionFeedConstructorThrowsOnInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ActionFeed(0));
+        assertThrows(IllegalArgumentException.class, () -> new ActionFeed(6));
+    }
+
+    @Test
+    void actionFeedReadsBatchesOfPublishedActions() {
+        var feed = new ActionFeed(8);
+        for (var action : List.of("A", "B", "C", "D", "E"))
+            feed.publish(action);
+
+        assertEquals(5, feed.count());
+        assertEquals(List.of("A", "B", "C", "D", "E"), feed.read(0, 64));
+        assertEquals(List.of("B", "C"), feed.read(1, 2));
+        assertEquals(List.of(), feed.read(5, 64));
+    }
+
+    @Test
+    void actionFeedReturnsNullOnceActionsAreOverwritten() {
+        var feed = new ActionFeed(4);
+        for (var i = 0; i < 10; i += 1)
+            feed.publish("A" + i);
+
+        assertNull(feed.read(5, 64));
+        assertNull(feed.read(6, 64));
+        assertEquals(List.of("A7", "A8", "A9"), feed.read(7, 64));
+    }
+
+    @Test
+    void actionFeedCompletesNextPublicationOnPublish() {
+        var feed = new ActionFeed(4);
+        var publication = feed.nextPublication();
+        assertFalse(publication.isDone());
+
+        feed.publish("A");
+        assertTrue(publication.isDone());
+        assertFalse(feed.nextPublication().isDone());
+    }
+}
@@ -0,0 +1,164 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+    @Test
+    void gameArchiveRoundTripsCompletedGames(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.archive");
+        var games = new ArrayList<GameArchive.ArchivedGame>();
+        var finalStates = new HashMap<Long, GameState>();
+        for (var seed = 0; seed < 3; seed += 1) {
+            var setup = new GameSetup(seed, List.of("Dalia", "Claude", "Été").subList(0, 2 + seed % 2));
+            var actions = new ArrayList<String>();
+            var state = setup.initialState().withStartingTilePlaced();
+            var random = new Random(seed);
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var stateAction = randomAction(state, random);
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+            games.add(GameArchive.ArchivedGame.of(100 - seed, setup, actions));
+            finalStates.put(100L - seed, state);
+        }
+        GameArchive.write(path, games);
+
+        var archive = GameArchive.open(path);
+        assertEquals(3, archive.size());
+        assertEquals(List.of(98L, 99L, 100L), archive.summaries().map(GameArchive.Summary::id).toList());
+        for (var game : games) {
+            assertEquals(game, archive.game(game.id()));
+            var finalState = archive.game(game.id()).finalState();
+            assertEquals(finalStates.get(game.id()).messageBoard().points(), finalState.messageBoard().points());
+            assertEquals(finalStates.get(game.id()).board().occupants(), finalState.board().occupants());
+        }
+        assertNull(archive.game(101));
+    }
+
+    @Test
+    void gameArchiveFindsGamesAmongMany(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.archive");
+        var games = new ArrayList<GameArchive.ArchivedGame>();
+        for (var i = 0; i < 100_000; i += 1)
+            games.add(game(3L * i, i % 7 == 0 ? "Dalia" : "Claude", i % 1000));
+        Collections.shuffle(games, new Random(1));
+        GameArchive.write(path, games);
+
+        var archive = GameArchive.open(path);
+        assertEquals(100_000, archive.size());
+        assertEquals(game(3L * 12345, "Claude", 345), archive.game(3L * 12345));
+        assertEquals(game(0, "Dalia", 0), archive.game(0));
+        assertEquals(game(3L * 99_999, "Claude", 999), archive.game(3L * 99_999));
+        assertNull(archive.game(3L * 12345 + 1));
+        assertNull(archive.game(-1));
+
+        assertEquals(100, archive.games(s -> s.maxPoints() == 999).count());
+        assertEquals(14286, archive.gamesWithPlayer("Dalia").count());
+        assertTrue(archive.gamesWithPlayer("Dalia").allMatch(g -> g.setup().playerNames().contains("Dalia")));
+        assertEquals(100_000, archive.gamesWithPlayer("Bachir").count());
+        assertEquals(0, archive.gamesWithPlayer("Edgar").count());
+    }
+
+    @Test
+    void gameArchiveReplaysMatchingGames(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.archive");
+        var setup = new GameSetup(5, List.of("Dalia", "Claude"));
+        var state = setup.initialState().withStartingTilePlaced();
+        var random = new Random(5);
+        var actions = new ArrayList<String>();
+        for (var i = 0; i < 10; i += 1) {
+            var stateAction = randomAction(state, random);
+            actions.add(stateAction.actionString());
+            state = stateAction.gameState();
+        }
+        GameArchive.write(path, List.of(
+                GameArchive.ArchivedGame.of(1, setup, actions),
+                GameArchive.ArchivedGame.of(2, setup, List.of())));
+
+        var archive = GameArchive.open(path);
+        var replays = archive.replays(s -> s.id() == 1).toList();
+        assertEquals(1, replays.size());
+        assertEquals(state.board().occupants(), replays.getFirst().board().occupants());
+        assertEquals(actions, archive.game(1).replay().stream().map(ActionEncoder.StateAction::actionString).toList());
+        assertEquals(List.of(), archive.game(2).replay());
+    }
+
+    @Test
+    void gameArchiveRejectsInvalidContent(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.archive");
+        assertThrows(IllegalArgumentException.class,
+                () -> GameArchive.write(path, List.of(game(1, "Dalia", 0), game(1, "Claude", 0))));
+
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IllegalArgumentException.class, () -> GameArchive.open(path));
+
+        GameArchive.write(path, List.of(game(1, "Dalia", 0)));
+        Files.write(path, new byte[]{0}, StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> GameArchive.open(path));
+    }
+
+    @Test
+    void gameArchiveRejectsInvalidIndexEntriesAndNames(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.archive");
+        GameArchive.write(path, List.of(game(1, "Dalia", 0), game(2, "Claude", 0)));
+        var bytes = Files.readAllBytes(path);
+        assertDoesNotThrow(() -> GameArchive.open(path));
+
+        // Header: magic, game count, name count, names length, data length; then two entries of 60 bytes.
+        var header = 4 * Integer.BYTES + Long.BYTES;
+        var secondEntry = header + 60;
+        var corruptions = List.<Map.Entry<Integer, Integer>>of(
+                Map.entry(2 * Integer.BYTES, Integer.MAX_VALUE),  // name count
+                Map.entry(header + 16, 0),                        // player count
+                Map.entry(header + 16, 6),                        // player count
+                Map.entry(header + 8, -1),                        // data offset
+                Map.entry(secondEntry + 12, 1000),                // data length
+                Map.entry(header + 40, 3),                        // first player name
+                Map.entry(header + 48, 0),                        // absent player name
+                Map.entry(secondEntry + 4, 0),                    // second id, below the first
+                Map.entry(header + 120, 1000));                   // first name length
+        for (var corruption : corruptions) {
+            var corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).putInt(corruption.getKey(), corruption.getValue());
+            Files.write(path, corrupted);
+            assertThrows(IllegalArgumentException.class, () -> GameArchive.open(path), corruption.toString());
+        }
+    }
+
+    private static GameArchive.ArchivedGame game(long id, String playerName, int points) {
+        return new GameArchive.ArchivedGame(id, new GameSetup(id, List.of(playerName, "Bachir")),
+                ActionEncoder.pack(List.of()), Map.of(PlayerColor.RED, points, PlayerColor.BLUE, 0));
+    }
+
+    private static ActionEncoder.StateAction randomAction(GameState state, Random random) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                var placements = TileSymmetries.distinctPlacements(state).stream()
+                        .sorted(Comparator.comparingInt((PlacedTile p) -> p.pos().x())
+                                .thenComparingInt(p -> p.pos().y())
+                                .thenComparing(PlacedTile::rotation))
+                        .toList();
+                yield ActionEncoder.withPlacedTile(state, placements.get(random.nextInt(placements.size())));
+            }
+            case OCCUPY_TILE -> {
+                var occupants = state.lastTilePotentialOccupants().stream()
+                        .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                        .toList();
+                var i = random.nextInt(occupants.size() + 1);
+                yield ActionEncoder.withNewOccupant(state, i == occupants.size() ? null : occupants.get(i));
+            }
+            case RETAKE_PAWN -> ActionEncoder.withOccupantRemoved(state, null);
+            default -> throw new Error();
+        };
+    }
+}
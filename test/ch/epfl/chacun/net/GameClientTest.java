@@ -0,0 +1,291 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameClientTest {
+    private static final GameSetup SETUP = new GameSetup(7, List.of("Dalia", "Claude"));
+
+    @Test
+    void gameClientAppliesLocalActionsOptimisticallyAndPipelinesThem() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var client = GameClient.create(server.address(), SETUP, (s, a) -> {})) {
+            var random = new Random(1);
+            var state = SETUP.initialState().withStartingTilePlaced();
+            var actions = new ArrayList<String>();
+
+            for (var i = 0; i < 20; i += 1) {
+                var stateAction = randomAction(state, random);
+                assertTrue(client.play(stateAction.actionString()));
+                assertEquals(stateAction.gameState().board().lastPlacedTile(),
+                        client.gameState().board().lastPlacedTile());
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+            assertEquals(actions, client.actionStrings());
+
+            await(() -> client.confirmedCount() == 20);
+            assertEquals(0, client.pendingCount());
+            assertEquals(actions, client.actionStrings());
+
+            var hosted = server.game(client.gameId()).gameState().join();
+            assertEquals(hosted.board().occupants(), client.gameState().board().occupants());
+        }
+    }
+
+    @Test
+    void gameClientRefusesIllegalLocalActions() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var client = GameClient.create(server.address(), SETUP, (s, a) -> {})) {
+            assertFalse(client.play("A"));
+            assertFalse(client.play(gameState -> null));
+            assertEquals(List.of(), client.actionStrings());
+        }
+    }
+
+    @Test
+    void gameClientReceivesRemoteActions() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var player1 = GameClient.create(server.address(), SETUP, (s, a) -> {})) {
+            var notified = new CopyOnWriteArrayList<List<String>>();
+            try (var player2 = GameClient.join(server.address(), player1.gameId(), (s, a) -> notified.add(a))) {
+                assertEquals(SETUP, player2.setup());
+
+                var random = new Random(2);
+                var state = SETUP.initialState().withStartingTilePlaced();
+                var stateAction = randomAction(state, random);
+                player1.play(stateAction.actionString());
+
+                await(() -> player2.confirmedCount() == 1);
+                assertEquals(List.of(stateAction.actionString()), player2.actionStrings());
+                assertEquals(List.of(stateAction.actionString()), notified.getLast());
+
+                var next = randomAction(stateAction.gameState(), random);
+                assertTrue(player2.play(next.actionString()));
+                await(() -> player1.confirmedCount() == 2);
+                assertEquals(player2.actionStrings(), player1.actionStrings());
+            }
+        }
+    }
+
+    @Test
+    void gameClientReconcilesRejectedActions() throws Exception {
+        try (var host = new StandInHost()) {
+            var notified = new CopyOnWriteArrayList<List<String>>();
+            var client = GameClient.join(host.address(), 3, (s, a) -> notified.add(a));
+            assertEquals("JOIN 3 0", host.receive());
+
+            var random = new Random(3);
+            var state = SETUP.initialState().withStartingTilePlaced();
+            var first = randomAction(state, random);
+            var second = randomAction(first.gameState(), random);
+            assertTrue(client.play(first.actionString()));
+            assertTrue(client.play(second.actionString()));
+            assertEquals("PLAY 3 0 " + first.actionString(), host.receive());
+            assertEquals("PLAY 3 1 " + second.actionString(), host.receive());
+            assertEquals(2, client.pendingCount());
+
+            host.send("REJECTED 3 0 ILLEGAL");
+            await(() -> client.pendingCount() == 0);
+            assertEquals(List.of(), client.actionStrings());
+            assertEquals(List.of(), notified.getLast());
+            assertEquals(state.tileToPlace(), client.gameState().tileToPlace());
+
+            host.send("REJECTED 3 1 STALE");
+            host.send("ACTION 3 1 " + second.actionString());
+            host.send("ACTION 3 0 " + first.actionString());
+            await(() -> client.confirmedCount() == 1);
+            assertEquals(List.of(first.actionString()), client.actionStrings());
+            client.close();
+        }
+    }
+
+    @Test
+    void gameClientReconcilesActionsTheHostCouldNotProcess() throws Exception {
+        try (var host = new StandInHost()) {
+            var client = GameClient.join(host.address(), 3, (s, a) -> {});
+            host.receive();
+
+            var state = SETUP.initialState().withStartingTilePlaced();
+            var local = distinctPlacements(state).getFirst();
+            assertTrue(client.play(local.actionString()));
+            assertEquals("PLAY 3 0 " + local.actionString(), host.receive());
+
+            host.send("ERROR PLAY 3 0 " + local.actionString());
+            await(() -> client.pendingCount() == 0);
+            assertEquals(List.of(), client.actionStrings());
+            client.close();
+        }
+    }
+
+    @Test
+    void gameClientReconnectsAfterAnInvalidHostLine() throws Exception {
+        try (var host = new StandInHost()) {
+            var client = GameClient.join(host.address(), 5, (s, a) -> {});
+            assertEquals("JOIN 5 0", host.receive());
+
+            var state = SETUP.initialState().withStartingTilePlaced();
+            var local = distinctPlacements(state).getFirst();
+            assertTrue(client.play(local.actionString()));
+            assertEquals("PLAY 5 0 " + local.actionString(), host.receive());
+
+            host.send("ACTION 5 zero " + local.actionString());
+            assertEquals("JOIN 5 0", host.receive());
+            assertEquals("PLAY 5 0 " + local.actionString(), host.receive());
+            assertEquals(1, client.pendingCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void gameClientDropsPendingActionsWhenAnotherActionWins() throws Exception {
+        try (var host = new StandInHost()) {
+            var client = GameClient.join(host.address(), 4, (s, a) -> {});
+            host.receive();
+
+            var state = SETUP.initialState().withStartingTilePlaced();
+            var placements = distinctPlacements(state);
+            var local = placements.get(0);
+            var remote = placements.get(1);
+
+            assertTrue(client.play(local.actionString()));
+            host.receive();
+            host.send("ACTION 4 0 " + remote.actionString());
+
+            await(() -> client.confirmedCount() == 1);
+            assertEquals(0, client.pendingCount());
+            assertEquals(List.of(remote.actionString()), client.actionStrings());
+            assertEquals(remote.gameState().board().lastPlacedTile(), client.gameState().board().lastPlacedTile());
+            client.close();
+        }
+    }
+
+    @Test
+    void gameClientResynchronisesAfterReconnecting() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var client = GameClient.create(server.address(), SETUP, (s, a) -> {});
+             var other = GameClient.join(server.address(), client.gameId(), (s, a) -> {})) {
+            var random = new Random(5);
+            var state = SETUP.initialState().withStartingTilePlaced();
+            for (var i = 0; i < 3; i += 1) {
+                var stateAction = randomAction(state, random);
+                client.play(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+            await(() -> client.confirmedCount() == 3 && other.confirmedCount() == 3);
+
+            client.dropConnection();
+            var remote = randomAction(state, random);
+            assertTrue(other.play(remote.actionString()));
+            await(() -> client.confirmedCount() == 4);
+            assertEquals(other.actionStrings(), client.actionStrings());
+
+            client.dropConnection();
+            var local = randomAction(remote.gameState(), random);
+            assertTrue(client.play(local.actionString()));
+            await(() -> other.confirmedCount() == 5 && client.confirmedCount() == 5);
+            assertEquals(0, client.pendingCount());
+            assertEquals(other.actionStrings(), client.actionStrings());
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<ActionEncoder.StateAction> distinctPlacements(GameState state) {
+        return TileSymmetries.distinctPlacements(state).stream()
+                .sorted(Comparator.comparingInt((PlacedTile p) -> p.pos().x())
+                        .thenComparingInt(p -> p.pos().y())
+                        .thenComparing(PlacedTile::rotation))
+                .map(p -> ActionEncoder.withPlacedTile(state, p))
+                .toList();
+    }
+
+    private static ActionEncoder.StateAction randomAction(GameState state, Random random) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                var placements = distinctPlacements(state);
+                yield placements.get(random.nextInt(placements.size()));
+            }
+            case OCCUPY_TILE -> {
+                var occupants = state.lastTilePotentialOccupants().stream()
+                        .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                        .toList();
+                var i = random.nextInt(occupants.size() + 1);
+                yield ActionEncoder.withNewOccupant(state, i == occupants.size() ? null : occupants.get(i));
+            }
+            case RETAKE_PAWN -> ActionEncoder.withOccupantRemoved(state, null);
+            default -> throw new Error();
+        };
+    }
+
+    private static final class StandInHost implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        private volatile Socket socket;
+        private volatile PrintWriter out;
+
+        StandInHost() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofVirtual().start(this::serve);
+        }
+
+        InetSocketAddress address() {
+            return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+        }
+
+        String receive() throws InterruptedException {
+            return received.poll(10, TimeUnit.SECONDS);
+        }
+
+        void send(String line) {
+            out.println(line);
+        }
+
+        private void serve() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    socket = serverSocket.accept();
+                    var in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    out = new PrintWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+                    for (var line = in.readLine(); line != null; line = in.readLine()) {
+                        if (line.startsWith("JOIN "))
+                            send("JOINED " + line.split(" ")[1] + " " + SETUP.encode());
+                        received.add(line);
+                    }
+                } catch (IOException e) {
+                    // the client or the test closed the connection; a reconnecting client is accepted again
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (socket != null)
+                socket.close();
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+    private static final GameSetup SETUP = new GameSetup(11, List.of("Dalia", "Claude"));
+
+    @Test
+    void gameJournalReplaysGamesAfterReopening(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.journal");
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            assertEquals(Map.of(), journal.games());
+            journal.gameCreated(3, SETUP).join();
+            journal.gameCreated(5, new GameSetup(-1, List.of("Été", "Bachir Ben", "Claude")));
+            journal.actionAccepted(3, 0, "A").join();
+            journal.actionAccepted(3, 1, "BC").join();
+        }
+
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            assertEquals(List.of(3L, 5L), List.copyOf(journal.games().keySet()));
+            assertEquals(new GameJournal.JournaledGame(3, SETUP, List.of("A", "BC")), journal.games().get(3L));
+            assertEquals(List.of("Été", "Bachir Ben", "Claude"), journal.games().get(5L).setup().playerNames());
+            assertEquals(List.of(), journal.games().get(5L).actionStrings());
+        }
+    }
+
+    @Test
+    void gameJournalIgnoresAndRemovesIncompleteTail(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.journal");
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            journal.gameCreated(0, SETUP);
+            journal.actionAccepted(0, 0, "A");
+        }
+        var length = Files.size(path);
+        Files.writeString(path, "ACTION 0 1 B", StandardOpenOption.APPEND);
+
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            assertEquals(List.of("A"), journal.games().get(0L).actionStrings());
+            assertEquals(length, Files.size(path));
+            journal.actionAccepted(0, 1, "C").join();
+        }
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            assertEquals(List.of("A", "C"), journal.games().get(0L).actionStrings());
+        }
+    }
+
+    @Test
+    void gameJournalRefusesInvalidCompleteLinesAndLeavesTheFileIntact(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.journal");
+        var content = "GAME 0 " + SETUP.encode() + "\nACTION 0 0 A\nACTION 0 2 B\nACTION 0 1 C\nACTION 0 2 D";
+        Files.writeString(path, content);
+
+        assertThrows(IOException.class, () -> GameJournal.open(path, Duration.ZERO));
+        assertEquals(content, Files.readString(path));
+    }
+
+    @Test
+    void gameJournalGroupsConcurrentAppendsIntoFewSyncs(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.journal");
+        var gameCount = 100;
+        var actionCount = 20;
+        try (var journal = GameJournal.open(path, Duration.ofMillis(20))) {
+            var threads = new ArrayList<Thread>();
+            for (var g = 0; g < gameCount; g += 1) {
+                var gameId = g;
+                threads.add(Thread.ofVirtual().start(() -> {
+                    journal.gameCreated(gameId, SETUP).join();
+                    var futures = new ArrayList<CompletableFuture<Void>>();
+                    for (var i = 0; i < actionCount; i += 1)
+                        futures.add(journal.actionAccepted(gameId, i, "A" + i));
+                    futures.forEach(CompletableFuture::join);
+                }));
+            }
+            for (var thread : threads)
+                thread.join();
+
+            assertTrue(journal.syncCount() < gameCount * (actionCount + 1) / 10, "syncs: " + journal.syncCount());
+        }
+
+        try (var journal = GameJournal.open(path, Duration.ZERO)) {
+            assertEquals(gameCount, journal.games().size());
+            for (var game : journal.games().values())
+                assertEquals(actionCount, game.actionStrings().size());
+        }
+    }
+
+    @Test
+    void gameJournalRefusesAppendsOnceClosed(@TempDir Path directory) throws Exception {
+        var journal = GameJournal.open(directory.resolve("games.journal"), Duration.ZERO);
+        journal.close();
+        var future = journal.actionAccepted(0, 0, "A");
+        assertTrue(future.isCompletedExceptionally());
+        assertThrows(IllegalArgumentException.class,
+                () -> GameJournal.open(directory.resolve("other.journal"), Duration.ofMillis(-1)));
+    }
+
+    @Test
+    void gameServerRestoresJournaledGames(@TempDir Path directory) throws Exception {
+        var path = directory.resolve("games.journal");
+        var random = new Random(12);
+        var state = SETUP.initialState().withStartingTilePlaced();
+        long gameId;
+
+        try (var journal = GameJournal.open(path, GameJournal.DEFAULT_SYNC_INTERVAL);
+             var server = GameServer.start(localAddress(), journal);
+             var client = new TestClient(server)) {
+            gameId = client.newGame(SETUP);
+            for (var i = 0; i < 5; i += 1) {
+                var stateAction = randomAction(state, random);
+                assertEquals("OK " + gameId + " " + i,
+                        client.request("PLAY " + gameId + " " + i + " " + stateAction.actionString()));
+                state = stateAction.gameState();
+            }
+        }
+
+        try (var journal = GameJournal.open(path, GameJournal.DEFAULT_SYNC_INTERVAL);
+             var server = GameServer.start(localAddress(), journal);
+             var client = new TestClient(server)) {
+            assertEquals(1, server.gameCount());
+            var hosted = server.game(gameId).gameState().join();
+            assertEquals(state.board().occupants(), hosted.board().occupants());
+            assertEquals(state.tileToPlace(), hosted.tileToPlace());
+
+            var next = randomAction(state, random);
+            assertEquals("OK " + gameId + " 5", client.request("PLAY " + gameId + " 5 " + next.actionString()));
+            assertNotEquals(gameId, client.newGame(SETUP));
+        }
+    }
+
+    private static InetSocketAddress localAddress() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    private static ActionEncoder.StateAction randomAction(GameState state, Random random) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                var placements = TileSymmetries.distinctPlacements(state).stream()
+                        .sorted(Comparator.comparingInt((PlacedTile p) -> p.pos().x())
+                                .thenComparingInt(p -> p.pos().y())
+                                .thenComparing(PlacedTile::rotation))
+                        .toList();
+                yield ActionEncoder.withPlacedTile(state, placements.get(random.nextInt(placements.size())));
+            }
+            case OCCUPY_TILE -> {
+                var occupants = state.lastTilePotentialOccupants().stream()
+                        .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                        .toList();
+                var i = random.nextInt(occupants.size() + 1);
+                yield ActionEncoder.withNewOccupant(state, i == occupants.size() ? null : occupants.get(i));
+            }
+            case RETAKE_PAWN -> ActionEncoder.withOccupantRemoved(state, null);
+            default -> throw new Error();
+        };
+    }
+
+    private static final class TestClient implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        TestClient(GameServer server) throws IOException {
+            socket = new Socket(server.address().getAddress(), server.address().getPort());
+            socket.setSoTimeout(10_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        long newGame(GameSetup setup) throws IOException {
+            var reply = request("NEW " + setup.encode());
+            assertTrue(reply.startsWith("GAME "), reply);
+            return Long.parseLong(reply.substring(5));
+        }
+
+        String request(String line) throws IOException {
+            out.println(line);
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.println("QUIT");
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    @Test
+    void gameSetupEncodingRoundTrips() {
+        var setup = new GameSetup(-3, List.of("Dalia", "Claude Michel", "Été"));
+        var encoded = setup.encode();
+
+        assertEquals(4, encoded.split(" ").length);
+        assertEquals(setup, GameSetup.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> new GameSetup(1, List.of("Dalia")));
+        assertThrows(IllegalArgumentException.class, () -> GameSetup.decode("x Dalia Claude"));
+    }
+
+    @Test
+    void gameSetupInitialStateIsReproducible() {
+        var setup = new GameSetup(2024, List.of("Dalia", "Claude"));
+        var state1 = setup.initialState().withStartingTilePlaced();
+        var state2 = setup.initialState().withStartingTilePlaced();
+
+        assertEquals(state1.tileDecks(), state2.tileDecks());
+        assertEquals(state1.tileToPlace(), state2.tileToPlace());
+        assertEquals(List.of(PlayerColor.RED, PlayerColor.BLUE), state1.players());
+    }
+
+    @Test
+    void gameServerPlaysAWholeGame() throws Exception {
+        try (var server = GameServer.startLocal(0); var client = new TestClient(server)) {
+            var setup = new GameSetup(1, List.of("Dalia", "Claude", "Bachir"));
+            var gameId = client.newGame(setup);
+            assertEquals("JOINED " + gameId + " " + setup.encode(), client.request("JOIN " + gameId + " 0"));
+
+            var random = new Random(1);
+            var state = setup.initialState().withStartingTilePlaced();
+            var index = 0;
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var stateAction = randomAction(state, random);
+                client.send("PLAY " + gameId + " " + index + " " + stateAction.actionString());
+                assertEquals("ACTION " + gameId + " " + index + " " + stateAction.actionString(), client.receive());
+                assertEquals("OK " + gameId + " " + index, client.receive());
+                state = stateAction.gameState();
+                index += 1;
+            }
+
+            var hosted = server.game(gameId).gameState().join();
+            assertEquals(state.messageBoard().points(), hosted.messageBoard().points());
+            assertEquals(state.board().occupants(), hosted.board().occupants());
+        }
+    }
+
+    @Test
+    void gameServerRejectsStaleAndIllegalActions() throws Exception {
+        try (var server = GameServer.startLocal(0); var client = new TestClient(server)) {
+            var setup = new GameSetup(2, List.of("Dalia", "Claude"));
+            var gameId = client.newGame(setup);
+            var state = setup.initialState().withStartingTilePlaced();
+            var action = randomAction(state, new Random(2)).actionString();
+
+            assertEquals("REJECTED " + gameId + " 1 STALE", client.request("PLAY " + gameId + " 1 " + action));
+            assertEquals("REJECTED " + gameId + " 0 ILLEGAL", client.request("PLAY " + gameId + " 0 A"));
+            assertEquals("OK " + gameId + " 0", client.request("PLAY " + gameId + " 0 " + action));
+            assertEquals("REJECTED " + gameId + " 0 STALE", client.request("PLAY " + gameId + " 0 " + action));
+        }
+    }
+
+    @Test
+    void gameServerAnswersPipelinedRequestsInOrder(@TempDir Path directory) throws Exception {
+        try (var journal = GameJournal.open(directory.resolve("games.journal"), Duration.ofMillis(50));
+             var server = GameServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), journal);
+             var client = new TestClient(server)) {
+            var setup = new GameSetup(4, List.of("Dalia", "Claude"));
+            var gameId = client.newGame(setup);
+            var action = randomAction(setup.initialState().withStartingTilePlaced(), new Random(4)).actionString();
+
+            // The accepted action is only answered once it is durable, after the requests that follow it were read.
+            client.send("PLAY " + gameId + " 0 " + action);
+            client.send("HELLO");
+            client.send("PLAY " + gameId + " 0 " + action);
+            assertEquals("OK " + gameId + " 0", client.receive());
+            assertEquals("ERROR HELLO", client.receive());
+            assertEquals("REJECTED " + gameId + " 0 STALE", client.receive());
+
+            server.game(gameId).stop();
+            assertEquals("ERROR PLAY " + gameId + " 1 " + action, client.request("PLAY " + gameId + " 1 " + action));
+        }
+    }
+
+    @Test
+    void gameServerAnswersErrorToInvalidRequests() throws Exception {
+        try (var server = GameServer.startLocal(0); var client = new TestClient(server)) {
+            assertEquals("ERROR HELLO", client.request("HELLO"));
+            assertEquals("ERROR JOIN 42 0", client.request("JOIN 42 0"));
+            assertEquals("ERROR NEW 1 Dalia", client.request("NEW 1 Dalia"));
+            assertEquals("ERROR PLAY x 0 A", client.request("PLAY x 0 A"));
+
+            var gameId = client.newGame(new GameSetup(3, List.of("Dalia", "Claude")));
+            client.request("JOIN " + gameId + " 0");
+            assertEquals("ERROR JOIN " + gameId + " 0", client.request("JOIN " + gameId + " 0"));
+        }
+    }
+
+    @Test
+    void gameServerLateJoinerCatchesUp() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var player = new TestClient(server);
+             var spectator = new TestClient(server)) {
+            var setup = new GameSetup(4, List.of("Dalia", "Claude"));
+            var gameId = player.newGame(setup);
+
+            var random = new Random(4);
+            var state = setup.initialState().withStartingTilePlaced();
+            var actions = new ArrayList<String>();
+            for (var i = 0; i < 6; i += 1) {
+                var stateAction = randomAction(state, random);
+                assertEquals("OK " + gameId + " " + i,
+                        player.request("PLAY " + gameId + " " + i + " " + stateAction.actionString()));
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+
+            assertEquals("JOINED " + gameId + " " + setup.encode(), spectator.request("JOIN " + gameId + " 2"));
+            for (var i = 2; i < 6; i += 1)
+                assertEquals("ACTION " + gameId + " " + i + " " + actions.get(i), spectator.receive());
+
+            var next = randomAction(state, random).actionString();
+            player.request("PLAY " + gameId + " 6 " + next);
+            assertEquals("ACTION " + gameId + " 6 " + next, spectator.receive());
+        }
+    }
+
+    @Test
+    void gameServerSendsBatchesOfActionsToSpectators() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var player = new TestClient(server);
+             var spectator = new TestClient(server)) {
+            var setup = new GameSetup(6, List.of("Dalia", "Claude"));
+            var gameId = player.newGame(setup);
+
+            var random = new Random(6);
+            var state = setup.initialState().withStartingTilePlaced();
+            var actions = new ArrayList<String>();
+            for (var i = 0; i < 6; i += 1) {
+                var stateAction = randomAction(state, random);
+                player.request("PLAY " + gameId + " " + i + " " + stateAction.actionString());
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+
+            assertEquals("WATCHING " + gameId + " " + setup.encode(), spectator.request("WATCH " + gameId + " 0"));
+            assertEquals("ACTIONS " + gameId + " 0 " + String.join(" ", actions), spectator.receive());
+
+            var next = randomAction(state, random).actionString();
+            player.request("PLAY " + gameId + " 6 " + next);
+            assertEquals("ACTIONS " + gameId + " 6 " + next, spectator.receive());
+        }
+    }
+
+    @Test
+    void gameServerSendsSnapshotToLateSpectators() throws Exception {
+        try (var server = GameServer.startLocal(0);
+             var player = new TestClient(server);
+             var spectator = new TestClient(server)) {
+            var setup = new GameSetup(7, List.of("Dalia", "Claude"));
+            var gameId = player.newGame(setup);
+
+            var random = new Random(7);
+            var initial = setup.initialState().withStartingTilePlaced();
+            var state = initial;
+            var actions = new ArrayList<String>();
+            while (actions.size() <= ActionFeed.DEFAULT_CAPACITY) {
+                var stateAction = randomAction(state, random);
+                player.request("PLAY " + gameId + " " + actions.size() + " " + stateAction.actionString());
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+
+            spectator.request("WATCH " + gameId + " 0");
+            var snapshot = spectator.receive().split(" ");
+            assertEquals("SNAPSHOT", snapshot[0]);
+            assertEquals(actions.size(), Integer.parseInt(snapshot[2]));
+            var replayed = ActionEncoder.decodeAndApplyPacked(initial, snapshot[3]);
+            assertEquals(actions, replayed.stream().map(ActionEncoder.StateAction::actionString).toList());
+        }
+    }
+
+    @Test
+    void gameServerIsNotSlowedDownBySpectatorsThatDoNotRead() throws Exception {
+        try (var server = GameServer.startLocal(0); var player = new TestClient(server)) {
+            var setup = new GameSetup(8, List.of("Dalia", "Claude", "Bachir"));
+            var gameId = player.newGame(setup);
+            var spectators = new ArrayList<TestClient>();
+            for (var i = 0; i < 20; i += 1) {
+                var spectator = new TestClient(server);
+                spectator.send("WATCH " + gameId + " 0");
+                spectators.add(spectator);
+            }
+
+            var random = new Random(8);
+            var state = setup.initialState().withStartingTilePlaced();
+            var actions = new ArrayList<String>();
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                var stateAction = randomAction(state, random);
+                assertEquals("OK " + gameId + " " + actions.size(),
+                        player.request("PLAY " + gameId + " " + actions.size() + " " + stateAction.actionString()));
+                actions.add(stateAction.actionString());
+                state = stateAction.gameState();
+            }
+
+            for (var spectator : spectators) {
+                assertEquals("WATCHING " + gameId + " " + setup.encode(), spectator.receive());
+                var received = new ArrayList<String>();
+                while (received.size() < actions.size()) {
+                    var frame = spectator.receive().split(" ");
+                    assertEquals("ACTIONS", frame[0]);
+                    assertEquals(received.size(), Integer.parseInt(frame[2]));
+                    received.addAll(Arrays.asList(frame).subList(3, frame.length));
+                }
+                assertEquals(actions, received);
+                spectator.close();
+            }
+        }
+    }
+
+    @Test
+    void gameServerHostsManyConcurrentGames() throws Exception {
+        var gameCount = 1000;
+        var actionCount = 5;
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+
+        try (var server = GameServer.startLocal(0)) {
+            var threads = new ArrayList<Thread>();
+            for (var g = 0; g < gameCount; g += 1) {
+                var seed = g;
+                threads.add(Thread.ofVirtual().start(() -> {
+                    try (var client = new TestClient(server)) {
+                        var setup = new GameSetup(seed, List.of("Dalia", "Claude"));
+                        var gameId = client.newGame(setup);
+                        var random = new Random(seed);
+                        var state = setup.initialState().withStartingTilePlaced();
+                        for (var i = 0; i < actionCount; i += 1) {
+                            var stateAction = randomAction(state, random);
+                            var reply = client.request("PLAY " + gameId + " " + i + " " + stateAction.actionString());
+                            if (!reply.equals("OK " + gameId + " " + i))
+                                throw new AssertionError(reply);
+                            state = stateAction.gameState();
+                        }
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }));
+            }
+            for (var thread : threads)
+                thread.join();
+
+            assertEquals(List.of(), List.copyOf(failures));
+            assertEquals(gameCount, server.gameCount());
+        }
+    }
+
+    @Test
+    void gameServerForgetsClosedConnections() throws Exception {
+        try (var server = GameServer.startLocal(0)) {
+            try (var client = new TestClient(server)) {
+                client.newGame(new GameSetup(5, List.of("Dalia", "Claude")));
+                assertEquals(1, server.connectionCount());
+            }
+            // The connection thread forgets the connection shortly after the socket is closed.
+            var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (server.connectionCount() != 0 && System.nanoTime() < deadline)
+                Thread.yield();
+            assertEquals(0, server.connectionCount());
+        }
+    }
+
+    private static ActionEncoder.StateAction randomAction(GameState state, Random random) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                var placements = new ArrayList<PlacedTile>();
+                var fringe = state.board().insertionPositions().stream()
+                        .sorted(Comparator.comparingInt(Pos::x).thenComparingInt(Pos::y))
+                        .toList();
+                for (var pos : fringe) {
+                    for (var rotation : Rotation.ALL) {
+                        var placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                        if (state.board().canAddTile(placedTile))
+                            placements.add(placedTile);
+                    }
+                }
+                yield ActionEncoder.withPlacedTile(state, placements.get(random.nextInt(placements.size())));
+            }
+            case OCCUPY_TILE -> {
+                var occupants = state.lastTilePotentialOccupants().stream()
+                        .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                        .toList();
+                var i = random.nextInt(occupants.size() + 1);
+                yield ActionEncoder.withNewOccupant(state, i == occupants.size() ? null : occupants.get(i));
+            }
+            case RETAKE_PAWN -> ActionEncoder.withOccupantRemoved(state, null);
+            default -> throw new Error();
+        };
+    }
+
+    private static final class TestClient implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        TestClient(GameServer server) throws IOException {
+            socket = new Socket(server.address().getAddress(), server.address().getPort());
+            socket.setSoTimeout(10_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        }
+
+        long newGame(GameSetup setup) throws IOException {
+            var reply = request("NEW " + setup.encode());
+            assertTrue(reply.startsWith("GAME "), reply);
+            return Long.parseLong(reply.substring(5));
+        }
+
+        void send(String line) {
+            out.println(line);
+        }
+
+        String receive() throws IOException {
+            return in.readLine();
+        }
+
+        String request(String line) throws IOException {
+            send(line);
+            return receive();
+        }
+
+        @Override
+        public void close() throws IOException {
+            send("QUIT");
+            socket.close();
+        }
+    }
+}